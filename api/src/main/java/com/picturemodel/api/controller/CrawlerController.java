@@ -2,20 +2,23 @@
  * App: Picture Model
  * Package: com.picturemodel.api.controller
  * File: CrawlerController.java
- * Version: 0.1.3
- * Turns: 5,17,24
+ * Version: 0.1.8
+ * Turns: 5,17,24,29,36,37,38,43
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-02T02:17:16Z
+ * Date: 2026-10-16T17:40:00Z
  * Exports: CrawlerController
- * Description: class CrawlerController for CrawlerController responsibilities. Methods: getAllJobs - get all jobs; getDriveJobs - get drive jobs; getJob - get job; startCrawl - start crawl; cancelJob - cancel job; clearDriveJobs - clear drive jobs.
+ * Description: class CrawlerController for CrawlerController responsibilities. Methods: getAllJobs - get all jobs; getDriveJobs - get drive jobs; getJob - get job; getJobStages - get pipeline stage stats; getJobNodes - get cluster nodes of a job; getQueue - queued crawls in dispatch order; startCrawl - queue crawl or estimate a dry run; cancelJob - cancel job; resumeJob - resume job from its checkpoint; clearDriveJobs - clear drive jobs.
  */
 
 package com.picturemodel.api.controller;
 
 import com.picturemodel.api.dto.request.StartCrawlRequest;
+import com.picturemodel.api.dto.response.CrawlEstimateDto;
 import com.picturemodel.domain.entity.CrawlJob;
 import com.picturemodel.domain.repository.CrawlJobRepository;
+import com.picturemodel.domain.repository.CrawlWorkRepository;
 import com.picturemodel.service.CrawlerService;
+import com.picturemodel.service.crawler.StageStats;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +30,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -104,12 +108,51 @@ public class CrawlerController {
     }
 
     /**
-     * Start a new crawl job.
+     * Get per-stage pipeline stats for a running crawl job.
+     * GET /api/crawler/jobs/{id}/stages
+     */
+    @GetMapping("/jobs/{id}/stages")
+    public ResponseEntity<List<StageStats.Snapshot>> getJobStages(@PathVariable UUID id) {
+        log.debug("Getting stage stats for crawl job: {}", id);
+
+        return ResponseEntity.ok(crawlerService.getStageStats(id));
+    }
+
+    /**
+     * Get the nodes that worked on a cluster crawl job and their share of its counters.
+     * GET /api/crawler/jobs/{id}/nodes
+     */
+    @GetMapping("/jobs/{id}/nodes")
+    public ResponseEntity<List<CrawlWorkRepository.NodeRow>> getJobNodes(@PathVariable UUID id) {
+        log.debug("Getting cluster nodes for crawl job: {}", id);
+
+        return ResponseEntity.ok(crawlerService.getJobNodes(id));
+    }
+
+    /**
+     * Get queued crawl jobs in the order they will be dispatched.
+     * GET /api/crawler/queue
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<List<CrawlJob>> getQueue() {
+        log.debug("Getting crawl queue");
+
+        return ResponseEntity.ok(crawlerService.getQueue());
+    }
+
+    /**
+     * Queue a new crawl job, or estimate one if the request is a dry run.
      * POST /api/crawler/start
      */
     @PostMapping("/start")
-    public ResponseEntity<CrawlJob> startCrawl(@Valid @RequestBody StartCrawlRequest request) {
-        log.info("Starting crawl job with request: {}", request);
+    public ResponseEntity<?> startCrawl(@Valid @RequestBody StartCrawlRequest request) {
+        if (Boolean.TRUE.equals(request.getDryRun())) {
+            log.info("Estimating crawl with request: {}", request);
+            CrawlEstimateDto estimate = crawlerService.estimateCrawl(request);
+            return ResponseEntity.ok(estimate);
+        }
+
+        log.info("Queuing crawl job with request: {}", request);
 
         CrawlJob job = crawlerService.startCrawl(request);
         return ResponseEntity.accepted().body(job);
@@ -127,6 +170,18 @@ public class CrawlerController {
         return ResponseEntity.ok(job);
     }
 
+    /**
+     * Resume a crawl job from its last checkpoint.
+     * POST /api/crawler/jobs/{id}/resume
+     */
+    @PostMapping("/jobs/{id}/resume")
+    public ResponseEntity<CrawlJob> resumeJob(@PathVariable UUID id) {
+        log.info("Resuming crawl job: {}", id);
+
+        CrawlJob job = crawlerService.resumeJob(id);
+        return ResponseEntity.accepted().body(job);
+    }
+
     /**
      * Clear crawl job history for a drive.
      * DELETE /api/crawler/drives/{driveId}/jobs
@@ -2,12 +2,12 @@
  * App: Picture Model
  * Package: com.picturemodel.api.controller
  * File: DriveController.java
- * Version: 0.1.3
- * Turns: 5,15
+ * Version: 0.1.6
+ * Turns: 5,15,38,40,41
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-02T19:01:20Z
+ * Date: 2026-10-16T16:40:00Z
  * Exports: DriveController
- * Description: class DriveController for DriveController responsibilities. Methods: createDrive - create drive; getAllDrives - get all drives; getDrive - get drive; deleteDrive - delete drive; connect - connect; disconnect - disconnect; getStatus - get status; testConnection - test connection; parseCredentials - parse credentials; resolveSort - resolve sort param.
+ * Description: class DriveController for DriveController responsibilities. Methods: createDrive - create drive; getAllDrives - get all drives; getDrive - get drive; deleteDrive - delete drive; connect - connect; disconnect - disconnect; getStatus - get status; getWatchStatus - change watch state; testConnection - test connection; parseCredentials - parse credentials; resolveSort - resolve sort param.
  */
 
 package com.picturemodel.api.controller;
@@ -24,6 +24,7 @@ import com.picturemodel.domain.repository.ImageRepository;
 import com.picturemodel.infrastructure.filesystem.ConnectionTestResult;
 import com.picturemodel.infrastructure.filesystem.DirectoryTreeNode;
 import com.picturemodel.service.DriveService;
+import com.picturemodel.service.DriveWatchService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -51,6 +52,7 @@ import java.util.stream.Collectors;
 public class DriveController {
 
     private final DriveService driveService;
+    private final DriveWatchService driveWatchService;
     private final ImageRepository imageRepository;
     private final DtoMapper dtoMapper;
     private final ObjectMapper objectMapper;
@@ -113,6 +115,11 @@ public class DriveController {
                 .rootPath(request.getRootPath())
                 .autoConnect(request.getAutoConnect())
                 .autoCrawl(request.getAutoCrawl())
+                .crawlCron(request.getCrawlCron())
+                .crawlIntervalMinutes(request.getCrawlIntervalMinutes())
+                .scheduledCrawlIncremental(request.getScheduledCrawlIncremental())
+                .watchChanges(request.getWatchChanges())
+                .watchPaths(request.getWatchPaths())
                 .build();
 
         Map<String, String> credentials = parseCredentials(request.getCredentials());
@@ -169,6 +176,15 @@ public class DriveController {
         return ResponseEntity.ok(dtoMapper.toDto(drive));
     }
 
+    /**
+     * Get the change watch state of a drive.
+     * GET /api/drives/{id}/watch
+     */
+    @GetMapping("/{id}/watch")
+    public ResponseEntity<DriveWatchService.WatchStatus> getWatchStatus(@PathVariable UUID id) {
+        return ResponseEntity.ok(driveWatchService.getStatus(id));
+    }
+
     /**
      * Test connection to a drive.
      * POST /api/drives/{id}/test
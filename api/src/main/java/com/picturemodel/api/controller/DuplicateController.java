@@ -0,0 +1,83 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.api.controller
+ * File: DuplicateController.java
+ * Version: 0.1.0
+ * Turns: 45
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T18:40:00Z
+ * Exports: DuplicateController
+ * Description: class DuplicateController for duplicate image endpoints. Methods: getGroups - page duplicate groups with reclaimable bytes; getGroup - one group with its images; getStatus - duplicate totals and refresh state; rebuild - recount all groups.
+ */
+
+package com.picturemodel.api.controller;
+
+import com.picturemodel.service.DuplicateService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST controller for images with identical content across drives.
+ * Base path: /api/duplicates
+ */
+@RestController
+@RequestMapping("/api/duplicates")
+@RequiredArgsConstructor
+@Slf4j
+public class DuplicateController {
+
+    private final DuplicateService duplicateService;
+
+    /**
+     * Get duplicate groups, most reclaimable bytes first, with totals.
+     * GET /api/duplicates
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getGroups(
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(1000) int size) {
+        log.debug("Getting duplicate groups - page: {}, size: {}", page, size);
+
+        return ResponseEntity.ok(duplicateService.getGroups(page, size));
+    }
+
+    /**
+     * Get duplicate totals and the state of the summary refresh.
+     * GET /api/duplicates/status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(duplicateService.getStatus());
+    }
+
+    /**
+     * Get one duplicate group with its images.
+     * GET /api/duplicates/{hashAlgorithm}/{fileHash}
+     */
+    @GetMapping("/{hashAlgorithm}/{fileHash}")
+    public ResponseEntity<Map<String, Object>> getGroup(
+            @PathVariable String hashAlgorithm,
+            @PathVariable String fileHash) {
+        log.debug("Getting duplicate group {}:{}", hashAlgorithm, fileHash);
+
+        return ResponseEntity.ok(duplicateService.getGroup(hashAlgorithm, fileHash));
+    }
+
+    /**
+     * Recount every duplicate group on the next refresh.
+     * POST /api/duplicates/rebuild
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        log.info("Duplicate summary rebuild requested");
+
+        duplicateService.requestRebuild();
+        return ResponseEntity.accepted().build();
+    }
+}
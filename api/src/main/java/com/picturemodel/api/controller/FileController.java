@@ -2,23 +2,30 @@
  * App: Picture Model
  * Package: com.picturemodel.api.controller
  * File: FileController.java
- * Version: 0.1.0
- * Turns: 9
+ * Version: 0.1.2
+ * Turns: 9,47,50
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-31T03:30:00Z
+ * Date: 2026-10-16T21:10:00Z
  * Exports: FileController
- * Description: REST controller for streaming image files and on-the-fly thumbnails from connected drives.
+ * Description: REST controller for streaming image files, byte ranges of them, and on-the-fly thumbnails from connected drives.
  */
 
 package com.picturemodel.api.controller;
 
 import com.picturemodel.domain.entity.Image;
 import com.picturemodel.domain.repository.ImageRepository;
+import com.picturemodel.infrastructure.filesystem.FileInfo;
 import com.picturemodel.infrastructure.filesystem.FileSystemProvider;
+import com.picturemodel.infrastructure.metrics.DriveMetrics;
 import com.picturemodel.service.ConnectionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,13 +33,15 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 /**
  * Serves image files and thumbnails by reading from the connected drive
  * via the cached FileSystemProvider.  Thumbnails are generated on the fly
- * using Thumbnailator; no disk cache is used at this stage.
+ * using Thumbnailator; no disk cache is used at this stage.  Generation time
+ * is recorded per drive and size ({@link DriveMetrics#THUMBNAIL_GENERATION}).
  */
 @RestController
 @RequestMapping("/api/files")
@@ -42,6 +51,7 @@ public class FileController {
 
     private final ImageRepository imageRepository;
     private final ConnectionManager connectionManager;
+    private final MeterRegistry meterRegistry;
 
     private static final Map<String, Integer> THUMBNAIL_SIZES = Map.of(
             "small",  150,
@@ -50,20 +60,34 @@ public class FileController {
     );
 
     /**
-     * Stream the full-resolution image.
+     * Stream the full-resolution image, or one byte range of it when the request
+     * carries a single-range {@code Range} header; only that range is read from
+     * the drive, checked against the file's size as the drive reports it now
+     * rather than the size indexed by the last crawl. Multi-range and malformed
+     * headers get the whole file.
      * GET /api/files/{imageId}
      */
     @GetMapping("/{imageId}")
     @Transactional(readOnly = true)
-    public ResponseEntity<byte[]> getImage(@PathVariable UUID imageId) {
+    public ResponseEntity<byte[]> getImage(
+            @PathVariable UUID imageId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader) {
         Image image = loadImage(imageId);
 
         try {
             FileSystemProvider provider = connectionManager.getProvider(image.getDrive().getId());
+            HttpRange range = singleRange(rangeHeader);
+            if (range != null) {
+                FileInfo current = provider.getFileMetadata(image.getFilePath());
+                if (current != null && current.getSize() != null) {
+                    return getImageRange(provider, image, range, current.getSize());
+                }
+            }
             try (InputStream in = provider.readFile(image.getFilePath())) {
                 byte[] bytes = in.readAllBytes();
                 return ResponseEntity.ok()
                         .contentType(MediaType.parseMediaType(image.getMimeType()))
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                         .contentLength(bytes.length)
                         .body(bytes);
             }
@@ -92,6 +116,8 @@ public class FileController {
         String outputFormat  = outputFormat(image.getMimeType());
         String contentType   = outputContentType(image.getMimeType());
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             FileSystemProvider provider = connectionManager.getProvider(image.getDrive().getId());
             try (InputStream in = provider.readFile(image.getFilePath())) {
@@ -103,6 +129,7 @@ public class FileController {
                         .toOutputStream(out);
 
                 byte[] bytes = out.toByteArray();
+                outcome = "success";
                 return ResponseEntity.ok()
                         .contentType(MediaType.parseMediaType(contentType))
                         .contentLength(bytes.length)
@@ -113,11 +140,65 @@ public class FileController {
         } catch (Exception e) {
             log.error("Failed to generate thumbnail for image {}", imageId, e);
             throw new RuntimeException("Failed to generate thumbnail: " + e.getMessage(), e);
+        } finally {
+            sample.stop(Timer.builder(DriveMetrics.THUMBNAIL_GENERATION)
+                    .description("Time to read an image and generate its thumbnail")
+                    .tags(DriveMetrics.tags(image.getDrive()))
+                    .tag("size", THUMBNAIL_SIZES.containsKey(size) ? size : "medium")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 
     // ── helpers ───────────────────────────────────────────────────────────
 
+    private ResponseEntity<byte[]> getImageRange(FileSystemProvider provider, Image image, HttpRange range, long size)
+            throws Exception {
+        long start;
+        long end;
+        try {
+            start = range.getRangeStart(size);
+            end = range.getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            return rangeNotSatisfiable(size);
+        }
+        try (InputStream in = provider.readRange(image.getFilePath(), start, end - start + 1)) {
+            byte[] bytes = in.readAllBytes();
+            if (bytes.length == 0) {
+                // The file shrank between the size check and the read
+                return rangeNotSatisfiable(size);
+            }
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .contentType(MediaType.parseMediaType(image.getMimeType()))
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_RANGE,
+                            "bytes " + start + "-" + (start + bytes.length - 1) + "/" + size)
+                    .contentLength(bytes.length)
+                    .body(bytes);
+        }
+    }
+
+    private static ResponseEntity<byte[]> rangeNotSatisfiable(long size) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                .build();
+    }
+
+    /**
+     * The one range of a {@code Range} header, or null to serve the whole file.
+     */
+    private static HttpRange singleRange(String rangeHeader) {
+        if (rangeHeader == null || rangeHeader.isBlank()) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private Image loadImage(UUID imageId) {
         Image image = imageRepository.findById(imageId)
                 .orElseThrow(() -> new IllegalArgumentException("Image not found: " + imageId));
@@ -2,19 +2,21 @@
  * App: Picture Model
  * Package: com.picturemodel.api.controller
  * File: ImageController.java
- * Version: 0.1.1
- * Turns: 5
+ * Version: 0.1.2
+ * Turns: 5,46
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T23:08:17Z
+ * Date: 2026-10-16T19:10:00Z
  * Exports: ImageController
  * Description: REST controller for image search and listing.
- * ImageController - provides search endpoints with optional filters.
+ * ImageController - provides search endpoints with optional filters and similar-image search by perceptual hash.
  */
 
 package com.picturemodel.api.controller;
 
 import com.picturemodel.domain.entity.Image;
 import com.picturemodel.domain.repository.ImageRepository;
+import com.picturemodel.service.SimilarImageService;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +51,7 @@ import java.util.UUID;
 public class ImageController {
 
     private final ImageRepository imageRepository;
+    private final SimilarImageService similarImageService;
 
     /**
      * Search/list images with optional filters.
@@ -92,6 +95,20 @@ public class ImageController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Get images that look like an image (resized, recompressed or edited copies), closest first.
+     * GET /api/images/{id}/similar
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<Map<String, Object>> getSimilarImages(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @Min(0) @Max(64) Integer maxDistance,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit) {
+        log.debug("Finding images similar to {} - maxDistance: {}, limit: {}", id, maxDistance, limit);
+
+        return ResponseEntity.ok(similarImageService.findSimilar(id, maxDistance, limit));
+    }
+
     private Specification<Image> buildSpecification(
             String query,
             UUID driveId,
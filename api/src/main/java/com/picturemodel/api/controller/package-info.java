@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.api.controller
  * File: package-info.java
- * Version: 0.1.0
- * Turns: 10
+ * Version: 0.1.1
+ * Turns: 10,45
  * Author: Codex
- * Date: 2026-02-02T22:36:43Z
+ * Date: 2026-10-16T18:40:00Z
  * Exports: package-info
  * Description: Package-level documentation for com.picturemodel.api.controller.
  */
@@ -17,6 +17,7 @@
  * <ul>
  *   <li>CrawlerController</li>
  *   <li>DriveController</li>
+ *   <li>DuplicateController</li>
  *   <li>FileController</li>
  *   <li>ImageController</li>
  *   <li>SystemController</li>
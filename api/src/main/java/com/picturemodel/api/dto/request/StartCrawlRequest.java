@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.api.dto.request
  * File: StartCrawlRequest.java
- * Version: 0.1.0
- * Turns: 5
+ * Version: 0.1.5
+ * Turns: 5,28,32,33,37,38
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T22:31:58Z
+ * Date: 2026-10-16T15:10:00Z
  * Exports: StartCrawlRequest
  * Description: Request DTO for starting a crawl job.
  * StartCrawlRequest - holds crawl options and target drive ID.
@@ -13,6 +13,8 @@
 
 package com.picturemodel.api.dto.request;
 
+import com.picturemodel.domain.enums.HashAlgorithm;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -52,4 +54,35 @@ public class StartCrawlRequest {
      * Placeholder for thumbnail generation toggle.
      */
     private Boolean generateThumbnails;
+
+    /**
+     * Number of directories to list and process concurrently.
+     * Defaults to, and is capped at, the configured limit for the drive type.
+     */
+    @Min(value = 1, message = "Parallelism must be at least 1")
+    private Integer parallelism;
+
+    /**
+     * If true (default), hash and extract EXIF from a single read of each file.
+     * Set false to read twice, e.g. to compare the job's bytesRead.
+     */
+    private Boolean singlePassRead;
+
+    /**
+     * Hash algorithm for new and changed files. Defaults to
+     * picture-model.crawler.hashing.algorithm.
+     */
+    private HashAlgorithm hashAlgorithm;
+
+    /**
+     * Queue priority; higher runs first. Defaults to
+     * picture-model.crawler.scheduler.incremental-priority or full-priority.
+     */
+    private Integer priority;
+
+    /**
+     * If true, only estimate the crawl: pre-scan the tree and return the expected
+     * file count, size and duration without creating a job.
+     */
+    private Boolean dryRun;
 }
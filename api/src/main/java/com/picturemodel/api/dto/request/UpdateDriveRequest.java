@@ -2,21 +2,25 @@
  * App: Picture Model
  * Package: com.picturemodel.api.dto.request
  * File: UpdateDriveRequest.java
- * Version: 0.1.0
- * Turns: 5
+ * Version: 0.1.3
+ * Turns: 5,38,40,41
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T02:03:52Z
+ * Date: 2026-10-16T16:40:00Z
  * Exports: UpdateDriveRequest
- * Description: class UpdateDriveRequest for UpdateDriveRequest responsibilities. Methods: none declared.
+ * Description: class UpdateDriveRequest for UpdateDriveRequest responsibilities. Methods: isCrawlCronValid - validate the auto-crawl cron expression.
  */
 
 package com.picturemodel.api.dto.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.scheduling.support.CronExpression;
 
 /**
  * Request DTO for updating an existing RemoteFileDrive.
@@ -46,4 +50,42 @@ public class UpdateDriveRequest {
     private Boolean autoConnect;
 
     private Boolean autoCrawl;
+
+    /**
+     * Spring cron expression (six fields, e.g. "0 0 3 * * *") for auto-crawls.
+     * Takes precedence over crawlIntervalMinutes. An empty string
+     * clears it.
+     */
+    @Size(max = 100, message = "Crawl cron must not exceed 100 characters")
+    private String crawlCron;
+
+    /**
+     * Minutes between auto-crawls, counted from the last crawl. 0 clears it.
+     */
+    @Min(value = 0, message = "Crawl interval must not be negative")
+    private Integer crawlIntervalMinutes;
+
+    /**
+     * If true (default), scheduled crawls after the first one are incremental.
+     */
+    private Boolean scheduledCrawlIncremental;
+
+    /**
+     * If true, index changes as the drive reports them instead of waiting for a
+     * crawl. LOCAL and SMB drives can report changes; other types ignore it.
+     */
+    private Boolean watchChanges;
+
+    /**
+     * Directories to watch, relative to the drive root, one per line. Empty
+     * watches the whole drive. Blank clears it.
+     */
+    @Size(max = 2000, message = "Watch paths must not exceed 2000 characters")
+    private String watchPaths;
+
+    @JsonIgnore
+    @AssertTrue(message = "Crawl cron must be a valid cron expression")
+    public boolean isCrawlCronValid() {
+        return crawlCron == null || crawlCron.isBlank() || CronExpression.isValidExpression(crawlCron);
+    }
 }
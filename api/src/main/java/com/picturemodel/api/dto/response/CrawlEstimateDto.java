@@ -0,0 +1,74 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.api.dto.response
+ * File: CrawlEstimateDto.java
+ * Version: 0.1.0
+ * Turns: 37
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T14:40:00Z
+ * Exports: CrawlEstimateDto
+ * Description: class CrawlEstimateDto for the result of a dry-run crawl request. Methods: none declared.
+ */
+
+package com.picturemodel.api.dto.response;
+
+import com.picturemodel.domain.enums.CrawlEstimateSource;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Response DTO for a dry-run crawl: the expected size and duration of a crawl,
+ * computed without creating a job or writing images.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrawlEstimateDto {
+
+    private UUID driveId;
+
+    private String rootPath;
+
+    private Long estimatedTotalFiles;
+
+    private Long estimatedTotalBytes;
+
+    private CrawlEstimateSource estimateSource;
+
+    /**
+     * Pre-scan figures; the pre-scan always runs for a dry run.
+     */
+    private Long preScanFiles;
+
+    private Long preScanBytes;
+
+    private Integer preScanDirectories;
+
+    private Boolean preScanExact;
+
+    private Long preScanMillis;
+
+    /**
+     * Last completed crawl of the same drive and root, if any.
+     */
+    private UUID previousJobId;
+
+    private Long previousFiles;
+
+    /**
+     * Rates of the previous crawl, used for the duration estimate.
+     */
+    private Double filesPerSecond;
+
+    private Double bytesPerSecond;
+
+    /**
+     * Expected crawl duration at the previous crawl's rate, or null without one.
+     */
+    private Long estimatedDurationSeconds;
+}
@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.api.dto.response
  * File: RemoteFileDriveDto.java
- * Version: 0.1.0
- * Turns: 5
+ * Version: 0.1.3
+ * Turns: 5,38,40,41
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T02:03:52Z
+ * Date: 2026-10-16T16:40:00Z
  * Exports: RemoteFileDriveDto
  * Description: class RemoteFileDriveDto for RemoteFileDriveDto responsibilities. Methods: none declared.
  */
@@ -48,6 +48,18 @@ public class RemoteFileDriveDto {
 
     private Boolean autoCrawl;
 
+    private String crawlCron;
+
+    private Integer crawlIntervalMinutes;
+
+    private Boolean scheduledCrawlIncremental;
+
+    private LocalDateTime nextScheduledCrawl;
+
+    private Boolean watchChanges;
+
+    private String watchPaths;
+
     private Integer imageCount;
 
     private LocalDateTime lastConnected;
@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.api.dto.response
  * File: package-info.java
- * Version: 0.1.0
- * Turns: 10
+ * Version: 0.1.1
+ * Turns: 10,37
  * Author: Codex
- * Date: 2026-02-02T22:36:43Z
+ * Date: 2026-10-16T14:40:00Z
  * Exports: package-info
  * Description: Package-level documentation for com.picturemodel.api.dto.response.
  */
@@ -15,6 +15,7 @@
  *
  * <p>Key types:</p>
  * <ul>
+ *   <li>CrawlEstimateDto</li>
  *   <li>ErrorDto</li>
  *   <li>RemoteFileDriveDto</li>
  * </ul>
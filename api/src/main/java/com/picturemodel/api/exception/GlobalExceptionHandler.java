@@ -2,12 +2,12 @@
  * App: Picture Model
  * Package: com.picturemodel.api.exception
  * File: GlobalExceptionHandler.java
- * Version: 0.1.1
- * Turns: 5
+ * Version: 0.1.2
+ * Turns: 5,36
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-31T02:19:37Z
+ * Date: 2026-10-16T14:10:00Z
  * Exports: GlobalExceptionHandler
- * Description: class GlobalExceptionHandler for GlobalExceptionHandler responsibilities. Methods: handleValidationException - handle validation exception; handleIllegalArgumentException - handle illegal argument exception; handleRuntimeException - handle runtime exception; handleGenericException - handle generic exception; formatFieldError - format field error.
+ * Description: class GlobalExceptionHandler for GlobalExceptionHandler responsibilities. Methods: handleValidationException - handle validation exception; handleIllegalArgumentException - handle illegal argument exception; handleIllegalStateException - handle illegal state exception; handleRuntimeException - handle runtime exception; handleGenericException - handle generic exception; formatFieldError - format field error.
  */
 
 package com.picturemodel.api.exception;
@@ -58,6 +58,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    /**
+     * Handle illegal state exceptions (e.g., an operation not allowed in the entity's current status).
+     */
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ErrorDto> handleIllegalStateException(IllegalStateException ex) {
+        log.warn("Illegal state: {}", ex.getMessage());
+
+        ErrorDto error = ErrorDto.of("conflict", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     /**
      * Handle runtime exceptions (e.g., connection errors).
      */
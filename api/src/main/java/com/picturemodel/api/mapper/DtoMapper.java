@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.api.mapper
  * File: DtoMapper.java
- * Version: 0.1.0
- * Turns: 5
+ * Version: 0.1.3
+ * Turns: 5,38,40,41
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T02:03:52Z
+ * Date: 2026-10-16T16:40:00Z
  * Exports: DtoMapper
  * Description: class DtoMapper for DtoMapper responsibilities. Methods: toDto - to dto; toEntity - to entity; updateEntity - update entity.
  */
@@ -44,6 +44,12 @@ public class DtoMapper {
                 .rootPath(drive.getRootPath())
                 .autoConnect(drive.getAutoConnect())
                 .autoCrawl(drive.getAutoCrawl())
+                .crawlCron(drive.getCrawlCron())
+                .crawlIntervalMinutes(drive.getCrawlIntervalMinutes())
+                .scheduledCrawlIncremental(drive.getScheduledCrawlIncremental())
+                .nextScheduledCrawl(drive.getNextScheduledCrawl())
+                .watchChanges(drive.getWatchChanges())
+                .watchPaths(drive.getWatchPaths())
                 .imageCount(drive.getImageCount())
                 .lastConnected(drive.getLastConnected())
                 .lastCrawled(drive.getLastCrawled())
@@ -69,6 +75,17 @@ public class DtoMapper {
                 .rootPath(request.getRootPath() != null ? request.getRootPath() : "/")
                 .autoConnect(request.getAutoConnect() != null ? request.getAutoConnect() : false)
                 .autoCrawl(request.getAutoCrawl() != null ? request.getAutoCrawl() : false)
+                .crawlCron(request.getCrawlCron() != null && !request.getCrawlCron().isBlank()
+                        ? request.getCrawlCron().trim()
+                        : null)
+                .crawlIntervalMinutes(request.getCrawlIntervalMinutes() != null && request.getCrawlIntervalMinutes() > 0
+                        ? request.getCrawlIntervalMinutes()
+                        : null)
+                .scheduledCrawlIncremental(!Boolean.FALSE.equals(request.getScheduledCrawlIncremental()))
+                .watchChanges(Boolean.TRUE.equals(request.getWatchChanges()))
+                .watchPaths(request.getWatchPaths() != null && !request.getWatchPaths().isBlank()
+                        ? request.getWatchPaths().trim()
+                        : null)
                 .status(ConnectionStatus.DISCONNECTED)
                 .imageCount(0)
                 .createdDate(now)
@@ -99,6 +116,21 @@ public class DtoMapper {
         if (request.getAutoCrawl() != null) {
             drive.setAutoCrawl(request.getAutoCrawl());
         }
+        if (request.getCrawlCron() != null) {
+            drive.setCrawlCron(request.getCrawlCron().isBlank() ? null : request.getCrawlCron().trim());
+        }
+        if (request.getCrawlIntervalMinutes() != null) {
+            drive.setCrawlIntervalMinutes(request.getCrawlIntervalMinutes() > 0 ? request.getCrawlIntervalMinutes() : null);
+        }
+        if (request.getScheduledCrawlIncremental() != null) {
+            drive.setScheduledCrawlIncremental(request.getScheduledCrawlIncremental());
+        }
+        if (request.getWatchChanges() != null) {
+            drive.setWatchChanges(request.getWatchChanges());
+        }
+        if (request.getWatchPaths() != null) {
+            drive.setWatchPaths(request.getWatchPaths().isBlank() ? null : request.getWatchPaths().trim());
+        }
 
         drive.setModifiedDate(LocalDateTime.now());
     }
@@ -2,12 +2,12 @@
  * App: Picture Model
  * Package: com.picturemodel.config
  * File: AsyncConfig.java
- * Version: 0.1.0
- * Turns: 5
+ * Version: 0.1.1
+ * Turns: 5,38
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T02:03:52Z
+ * Date: 2026-10-16T15:10:00Z
  * Exports: AsyncConfig
- * Description: class AsyncConfig for AsyncConfig responsibilities. Methods: taskExecutor - task executor.
+ * Description: class AsyncConfig for AsyncConfig responsibilities. Methods: taskExecutor - task executor; crawlExecutor - threads for dispatched crawl jobs.
  */
 
 package com.picturemodel.config;
@@ -36,4 +36,21 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Threads for crawl jobs, one per crawl the scheduler may run at once. Jobs
+     * wait in the database until {@code CrawlScheduler} dispatches them, so this
+     * pool needs almost no queue of its own.
+     */
+    @Bean(name = "crawlExecutor")
+    public Executor crawlExecutor(CrawlerProperties crawlerProperties) {
+        int crawls = Math.max(1, crawlerProperties.getScheduler().getMaxConcurrentCrawls());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(crawls);
+        executor.setMaxPoolSize(crawls);
+        executor.setQueueCapacity(crawls);
+        executor.setThreadNamePrefix("crawl-job-");
+        executor.initialize();
+        return executor;
+    }
 }
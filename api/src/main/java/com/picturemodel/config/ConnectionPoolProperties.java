@@ -0,0 +1,51 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.config
+ * File: ConnectionPoolProperties.java
+ * Version: 0.1.0
+ * Turns: 51
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T21:40:00Z
+ * Exports: ConnectionPoolProperties
+ * Description: class ConnectionPoolProperties for SFTP channel and FTP connection pool settings. Methods: none declared.
+ */
+
+package com.picturemodel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the per-drive connection pools of SFTP and FTP
+ * providers (picture-model.connection-pool).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture-model.connection-pool")
+@Data
+public class ConnectionPoolProperties {
+
+    /**
+     * Most connections a drive holds at once: SFTP channels on its one SSH
+     * session, or FTP control connections. OpenSSH allows 10 channels per
+     * session by default ({@code MaxSessions}).
+     */
+    private int maxSize = 4;
+
+    /**
+     * How long a caller waits for a connection when all of them are in use
+     * before its request fails.
+     */
+    private long borrowTimeoutMs = 30000;
+
+    /**
+     * Idle time after which a connection is checked with a round trip to the
+     * server before it is handed out again.
+     */
+    private long validateAfterIdleMs = 30000;
+
+    /**
+     * Idle time after which a connection is closed instead of reused.
+     */
+    private long idleTimeoutMs = 300000;
+}
@@ -0,0 +1,375 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.config
+ * File: CrawlerProperties.java
+ * Version: 0.1.12
+ * Turns: 28,29,30,33,35,36,37,38,39,40,43,46,48
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:10:00Z
+ * Exports: CrawlerProperties
+ * Description: class CrawlerProperties for crawler tuning settings, including content sniffing, pipeline stage sizing, hashing, perceptual hashing, progress estimation, the crawl queue, drive watches and cluster crawls. Methods: resolveParallelism - clamp requested traversal parallelism to the drive type limit; Cluster.getNodeId - this node's id, generated when not configured.
+ */
+
+package com.picturemodel.config;
+
+import com.picturemodel.domain.enums.DriveType;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Configuration properties for the crawler (picture-model.crawler).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture-model.crawler")
+@Data
+public class CrawlerProperties {
+
+    private List<String> supportedMimeTypes;
+    private Integer threadPoolSize;
+    private Integer batchSize;
+    private Integer progressUpdateInterval;
+
+    /**
+     * Whether the hash stage checks each file's leading bytes against known
+     * image signatures and indexes the detected type instead of the extension's.
+     */
+    private boolean contentSniffing = true;
+
+    /**
+     * Maximum time a crawled image waits in the bulk writer before its batch is
+     * flushed, even if the batch is not full ({@code batchSize} rows).
+     */
+    private long flushIntervalMs = 2000;
+
+    /**
+     * Maximum number of concurrent directory workers per drive type.
+     * Also used as the default when a crawl request does not specify one.
+     */
+    private Map<DriveType, Integer> parallelism = new HashMap<>();
+
+    /**
+     * How often a running crawl records its directory frontier and counters.
+     */
+    private long checkpointIntervalMs = 30000;
+
+    /**
+     * Whether crawls left pending or in progress by a previous run are resumed at startup.
+     */
+    private boolean resumeOnStartup = true;
+
+    /**
+     * How a full crawl finds indexed images it did not list.
+     */
+    private DeletionDetection deletionDetection = DeletionDetection.MEMORY;
+
+    /**
+     * Worker threads and queue size for the hash, EXIF, perceptual-hash and persist stages.
+     */
+    private Stages stages = new Stages();
+
+    /**
+     * Content hashing and background completion of sampled hashes.
+     */
+    private Hashing hashing = new Hashing();
+
+    /**
+     * Perceptual hashes for similar-image search, computed by a crawl stage and a background backfill.
+     */
+    private PerceptualHash perceptualHash = new PerceptualHash();
+
+    /**
+     * Crawl size estimation behind progress percentages and ETAs.
+     */
+    private Progress progress = new Progress();
+
+    /**
+     * Crawl queue: concurrency cap, priorities and auto-crawl schedules.
+     */
+    private Scheduler scheduler = new Scheduler();
+
+    /**
+     * Directory manifests that let incremental crawls skip unchanged directories.
+     */
+    private Manifest manifest = new Manifest();
+
+    /**
+     * Change watching for drives with {@code watchChanges} set.
+     */
+    private Watch watch = new Watch();
+
+    /**
+     * Crawls shared by several API nodes through the database.
+     */
+    private Cluster cluster = new Cluster();
+
+    /**
+     * Resolve the traversal parallelism for a crawl, clamping the requested
+     * value to the configured limit for the drive type.
+     *
+     * @param type the drive type being crawled
+     * @param requested the parallelism requested by the caller, or null
+     * @return parallelism between 1 and the drive type limit
+     */
+    public int resolveParallelism(DriveType type, Integer requested) {
+        Integer configured = type != null ? parallelism.get(type) : null;
+        int limit = configured != null && configured > 0 ? configured : 1;
+        if (requested == null || requested < 1) {
+            return limit;
+        }
+        return Math.min(requested, limit);
+    }
+
+    /**
+     * Deletion detection strategies for full crawls.
+     */
+    public enum DeletionDetection {
+        /**
+         * Listed paths are kept as hashes in a {@code VisitedPathSet} and compared with the path index.
+         */
+        MEMORY,
+        /**
+         * Listed paths are streamed to the {@code crawl_seen_paths} table and compared in SQL.
+         */
+        STAGING
+    }
+
+    @Data
+    public static class Stages {
+        private int hashThreads = 4;
+        private int exifThreads = 2;
+        private int perceptualHashThreads = 2;
+        private int persistThreads = 2;
+        private int queueCapacity = 256;
+    }
+
+    @Data
+    public static class Hashing {
+        /**
+         * Default algorithm for crawls that do not request one.
+         */
+        private HashAlgorithm algorithm = HashAlgorithm.SHA256;
+
+        /**
+         * Full-content algorithm used to replace sampled hashes and for files too small to sample.
+         */
+        private HashAlgorithm fullAlgorithm = HashAlgorithm.SHA256;
+
+        private int bufferSize = 1024 * 1024;
+        private int sampleSize = 64 * 1024;
+        private boolean backfillEnabled = true;
+        private int backfillThreads = 2;
+        private int backfillBatchSize = 200;
+        private long backfillIntervalMs = 60000;
+    }
+
+    @Data
+    public static class PerceptualHash {
+        /**
+         * Whether crawls decode new and changed images to compute their perceptual hash.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Larger files are not decoded and get no perceptual hash.
+         */
+        private long maxFileSize = 64L * 1024 * 1024;
+
+        /**
+         * Bytes of file content a crawl may hold at once for the perceptual-hash stage.
+         * The stage decodes the bytes the hash stage read; files that do not fit, or that
+         * the crawl does not read in full, are left to the backfill.
+         */
+        private long captureBudgetBytes = 256L * 1024 * 1024;
+
+        /**
+         * Whether a crawl reads a file a second time to hash files whose bytes it did not
+         * capture (sampled hashes, unchanged images without a perceptual hash, files over
+         * the capture budget) instead of leaving them to the backfill.
+         */
+        private boolean rereadUncaptured = false;
+
+        /**
+         * Whether images indexed without a perceptual hash are hashed in the background,
+         * one sweep per drive after startup. Runs on the hashing backfill pool.
+         */
+        private boolean backfillEnabled = true;
+        private int backfillBatchSize = 200;
+        private long backfillIntervalMs = 60000;
+    }
+
+    @Data
+    public static class Progress {
+        /**
+         * Pre-scan before a crawl when no previous crawl of the same root gives a file count.
+         */
+        private boolean preScan = true;
+
+        /**
+         * Directory listings a pre-scan may make; half list the top of the tree, half sample below it.
+         */
+        private int preScanDirectories = 200;
+
+        /**
+         * Smoothing window for the files/s and bytes/s rates behind the ETA.
+         */
+        private long rateWindowMs = 60000;
+    }
+
+    @Data
+    public static class Scheduler {
+        /**
+         * Crawls running at once across all drives; one per drive at most.
+         */
+        private int maxConcurrentCrawls = 3;
+
+        /**
+         * Slots full crawls may not take, kept free for incremental crawls.
+         */
+        private int reservedIncrementalSlots = 1;
+
+        /**
+         * Default priorities; a request may set its own. Higher runs first.
+         */
+        private int incrementalPriority = 10;
+        private int fullPriority = 0;
+
+        /**
+         * A queued job gains one priority point per this many minutes of waiting.
+         */
+        private long agingMinutes = 30;
+
+        private long dispatchIntervalMs = 5000;
+        private long policyCheckIntervalMs = 60000;
+
+        /**
+         * Interval for auto-crawl drives without a cron or interval of their own.
+         */
+        private int defaultIntervalMinutes = 1440;
+    }
+
+    @Data
+    public static class Manifest {
+        /**
+         * Record each crawled directory's mtime and listing fingerprint, and skip
+         * unchanged directories in incremental crawls.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Drive types whose directory mtimes change whenever an entry is added,
+         * removed or renamed. Incremental crawls of these skip listing directories
+         * whose mtime is unchanged; other types (FTP) are always listed and only
+         * compare listing fingerprints.
+         */
+        private Set<DriveType> trustedDirectoryMtimes = EnumSet.of(DriveType.LOCAL, DriveType.SMB, DriveType.SFTP);
+    }
+
+    @Data
+    public static class Watch {
+        /**
+         * Watch drives that have {@code watchChanges} set; off stops every watch.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Quiet period after the last change before a batch is applied.
+         */
+        private long quietMs = 2000;
+
+        /**
+         * Longest a change waits while the drive keeps changing.
+         */
+        private long maxDelayMs = 10000;
+
+        /**
+         * Pending paths that make a batch due at once.
+         */
+        private int maxBatchSize = 1000;
+
+        /**
+         * Pending paths kept while a crawl of the drive holds batches back; beyond
+         * this their parent directories are rescanned instead.
+         */
+        private int maxPending = 50000;
+
+        /**
+         * Extract EXIF from changed files.
+         */
+        private boolean extractExif = true;
+
+        /**
+         * Queue an incremental crawl whenever a watch starts, to pick up changes
+         * made while nothing was watching.
+         */
+        private boolean catchUpOnStart = true;
+
+        /**
+         * How often watches are started, stopped and restarted to match the drives.
+         */
+        private long reconcileIntervalMs = 60000;
+    }
+
+    @Data
+    public static class Cluster {
+        /**
+         * Queue every crawl's directories in {@code crawl_work_items} so all API
+         * nodes sharing the database can work on it. Must be set on every node.
+         */
+        private boolean enabled = false;
+
+        /**
+         * This node's id in leases and node rows; generated from the host name when blank.
+         */
+        private String nodeId;
+
+        /**
+         * How long a claimed directory, or a coordinator, stays alive without a heartbeat.
+         */
+        private long leaseMs = 60000;
+
+        private long heartbeatIntervalMs = 10000;
+
+        /**
+         * Directories a node claims at a time.
+         */
+        private int claimBatchSize = 16;
+
+        /**
+         * Wait between claims while no directory is claimable.
+         */
+        private long idlePollMs = 2000;
+
+        /**
+         * A node helping with another node's crawl leaves it after this long
+         * without claimable directories, freeing its crawl slot.
+         */
+        private long helperIdleTimeoutMs = 30000;
+
+        public synchronized String getNodeId() {
+            if (nodeId == null || nodeId.isBlank()) {
+                nodeId = defaultNodeId();
+            }
+            return nodeId;
+        }
+
+        private static String defaultNodeId() {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "node";
+            }
+            return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.config
+ * File: DuplicateProperties.java
+ * Version: 0.1.0
+ * Turns: 45
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T18:40:00Z
+ * Exports: DuplicateProperties
+ * Description: class DuplicateProperties for duplicate detection settings. Methods: none declared.
+ */
+
+package com.picturemodel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for duplicate detection (picture-model.duplicates).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture-model.duplicates")
+@Data
+public class DuplicateProperties {
+
+    /**
+     * How often hashes changed by crawls are recounted into the duplicate summary.
+     */
+    private long refreshIntervalMs = 30000;
+
+    /**
+     * Queued hash changes recounted per transaction.
+     */
+    private int refreshBatchSize = 5000;
+
+    /**
+     * Above this many queued changes, e.g. after a first crawl of a large drive,
+     * the summary is rebuilt with one aggregate over all images instead.
+     */
+    private long rebuildThreshold = 200000;
+}
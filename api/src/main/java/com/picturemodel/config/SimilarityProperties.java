@@ -0,0 +1,42 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.config
+ * File: SimilarityProperties.java
+ * Version: 0.1.0
+ * Turns: 46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: SimilarityProperties
+ * Description: class SimilarityProperties for similar-image search settings. Methods: none declared.
+ */
+
+package com.picturemodel.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for similar-image search (picture-model.similarity).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture-model.similarity")
+@Data
+public class SimilarityProperties {
+
+    /**
+     * How often the in-memory index is rebuilt from the stored perceptual hashes.
+     */
+    private long refreshIntervalMs = 300000;
+
+    /**
+     * Hamming distance used when a request does not give one. Resized and
+     * recompressed copies are usually within 4 bits, light edits within 10.
+     */
+    private int defaultMaxDistance = 8;
+
+    /**
+     * Largest distance a request may ask for; wider searches visit most of the index.
+     */
+    private int maxDistance = 16;
+}
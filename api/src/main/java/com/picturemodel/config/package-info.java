@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.config
  * File: package-info.java
- * Version: 0.1.0
- * Turns: 10
+ * Version: 0.1.4
+ * Turns: 10,28,45,46,51
  * Author: Codex
- * Date: 2026-02-02T22:36:43Z
+ * Date: 2026-10-16T21:40:00Z
  * Exports: package-info
  * Description: Package-level documentation for com.picturemodel.config.
  */
@@ -16,11 +16,15 @@
  * <p>Key types:</p>
  * <ul>
  *   <li>AsyncConfig</li>
+ *   <li>ConnectionPoolProperties</li>
  *   <li>CorsConfig</li>
  *   <li>CorsProperties</li>
+ *   <li>CrawlerProperties</li>
+ *   <li>DuplicateProperties</li>
  *   <li>JacksonConfig</li>
  *   <li>JasyptConfig</li>
  *   <li>JpaConfig</li>
+ *   <li>SimilarityProperties</li>
  * </ul>
  */
 package com.picturemodel.config;
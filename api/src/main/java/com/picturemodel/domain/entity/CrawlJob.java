@@ -2,18 +2,21 @@
  * App: Picture Model
  * Package: com.picturemodel.domain.entity
  * File: CrawlJob.java
- * Version: 0.1.3
- * Turns: 5,16,17
+ * Version: 0.1.11
+ * Turns: 5,16,17,28,32,33,36,37,38,39,44
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-01T17:13:10Z
+ * Date: 2026-10-16T18:10:00Z
  * Exports: CrawlJob
- * Description: class CrawlJob for CrawlJob responsibilities. Methods: onCreate - on create; getDurationSeconds - get duration seconds; getProgressPercentage - get progress percentage.
+ * Description: class CrawlJob for CrawlJob responsibilities. Methods: onCreate - on create; getDurationSeconds - get duration seconds; getProgressPercentage - progress from files listed over the estimated total; getEtaSeconds - estimated seconds remaining.
  */
 
 package com.picturemodel.domain.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.picturemodel.domain.enums.CrawlEstimateSource;
 import com.picturemodel.domain.enums.CrawlStatus;
+import com.picturemodel.domain.enums.CrawlTrigger;
+import com.picturemodel.domain.enums.HashAlgorithm;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -32,7 +35,9 @@ import java.util.UUID;
 @Table(name = "crawl_jobs", indexes = {
         @Index(name = "idx_crawl_drive_id", columnList = "drive_id"),
         @Index(name = "idx_crawl_status", columnList = "status"),
-        @Index(name = "idx_crawl_start_time", columnList = "startTime")
+        @Index(name = "idx_crawl_start_time", columnList = "startTime"),
+        @Index(name = "idx_crawl_drive_status_end", columnList = "drive_id, status, endTime"),
+        @Index(name = "idx_crawl_status_queued", columnList = "status, queuedAt")
 })
 @Data
 @NoArgsConstructor
@@ -85,6 +90,86 @@ public class CrawlJob {
     @Builder.Default
     private Boolean isIncremental = false;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer parallelism = 1; // Concurrent directory workers
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long bytesRead = 0L; // File bytes read from the drive for hashing and EXIF
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private HashAlgorithm hashAlgorithm = HashAlgorithm.SHA256; // Algorithm for new and changed files
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean extractExif = false;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean singlePassRead = true; // Hash and extract EXIF from one read
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer resumeCount = 0; // Times the crawl was resumed from a checkpoint
+
+    private LocalDateTime lastCheckpoint;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer filesScanned = 0; // Image files listed, including unchanged ones
+
+    private Long estimatedTotalFiles; // Image files the crawl is expected to list
+
+    private Long estimatedTotalBytes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private CrawlEstimateSource estimateSource;
+
+    private Double filesPerSecond; // Listing rate, smoothed
+
+    private Double bytesPerSecond; // Read rate, smoothed
+
+    private LocalDateTime estimatedEndTime;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer priority = 0; // Higher runs first; grows while the job waits
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private CrawlTrigger triggeredBy = CrawlTrigger.MANUAL;
+
+    private LocalDateTime queuedAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer mergedRequests = 0; // Duplicate requests folded into this job
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer directoriesListed = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer directoriesSkipped = 0; // Unchanged directories whose files were not checked
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long metadataRowsInserted = 0L; // EXIF rows written for keys new to their image
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long metadataRowsUpdated = 0L; // EXIF rows whose value changed
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long metadataRowsDeleted = 0L; // EXIF rows for keys no longer extracted
+
     @Column(columnDefinition = "TEXT")
     private String errors; // JSON array of error messages
 
@@ -108,17 +193,31 @@ public class CrawlJob {
     }
 
     /**
-     * Calculate progress percentage (0-100).
+     * Calculate progress percentage (0-100) from the files listed so far and the
+     * estimated total. Capped below 100 until the crawl completes, since the
+     * estimate may be low.
      */
     @Transient
     public Double getProgressPercentage() {
-        // This is a simple calculation; can be enhanced with estimated total files
-        if (filesProcessed == 0) {
+        if (status == CrawlStatus.COMPLETED) {
+            return 100.0;
+        }
+        if (estimatedTotalFiles == null || estimatedTotalFiles <= 0 || filesScanned == null) {
             return 0.0;
         }
-        // For now, return a simple metric based on processed files
-        // In real implementation, would need total files estimate
-        return Math.min(100.0, (filesProcessed / 10.0)); // Placeholder logic
+        return Math.min(99.9, filesScanned * 100.0 / estimatedTotalFiles);
+    }
+
+    /**
+     * Seconds until the crawl is expected to finish, or null if it is not running
+     * or no estimate is available.
+     */
+    @Transient
+    public Long getEtaSeconds() {
+        if (status != CrawlStatus.IN_PROGRESS || estimatedEndTime == null) {
+            return null;
+        }
+        return Math.max(0L, java.time.Duration.between(LocalDateTime.now(), estimatedEndTime).getSeconds());
     }
 
     /**
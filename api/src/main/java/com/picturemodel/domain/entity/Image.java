@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.domain.entity
  * File: Image.java
- * Version: 0.1.2
- * Turns: 5
+ * Version: 0.1.4
+ * Turns: 5,33,46
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T23:08:17Z
+ * Date: 2026-10-16T19:10:00Z
  * Exports: Image
  * Description: class Image for Image responsibilities. Methods: onCreate - on create; getFullPath - get full path.
  */
@@ -13,6 +13,9 @@
 package com.picturemodel.domain.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.picturemodel.domain.enums.HashAlgorithm;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -64,7 +67,15 @@ public class Image {
     private Long fileSize; // Size in bytes
 
     @Column(nullable = false, length = 64)
-    private String fileHash; // SHA-256 hash
+    private String fileHash; // Content hash, produced by hashAlgorithm
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private HashAlgorithm hashAlgorithm = HashAlgorithm.SHA256;
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long perceptualHash; // 64-bit dHash of a downscaled decode; a string in JSON to keep all 64 bits
 
     @Column(nullable = false, length = 100)
     private String mimeType;
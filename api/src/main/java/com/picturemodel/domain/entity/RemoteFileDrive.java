@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.domain.entity
  * File: RemoteFileDrive.java
- * Version: 0.1.1
- * Turns: 5
+ * Version: 0.1.4
+ * Turns: 5,38,40,41
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T22:47:34Z
+ * Date: 2026-10-16T16:40:00Z
  * Exports: RemoteFileDrive
  * Description: class RemoteFileDrive for RemoteFileDrive responsibilities. Methods: onCreate - on create; onUpdate - on update.
  */
@@ -76,6 +76,24 @@ public class RemoteFileDrive {
     @Builder.Default
     private Boolean autoCrawl = false;
 
+    @Column(length = 100)
+    private String crawlCron; // Auto-crawl schedule (Spring cron, six fields)
+
+    private Integer crawlIntervalMinutes; // Auto-crawl interval when no cron is set
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean scheduledCrawlIncremental = true;
+
+    private LocalDateTime nextScheduledCrawl;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean watchChanges = false; // Index changes as the drive reports them, where the type supports it
+
+    @Column(length = 2000)
+    private String watchPaths; // Directories to watch, one per line; none watches the whole drive
+
     private LocalDateTime lastConnected;
 
     private LocalDateTime lastCrawled;
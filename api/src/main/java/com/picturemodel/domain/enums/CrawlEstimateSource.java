@@ -0,0 +1,33 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.enums
+ * File: CrawlEstimateSource.java
+ * Version: 0.1.0
+ * Turns: 37
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T14:40:00Z
+ * Exports: CrawlEstimateSource
+ * Description: enum CrawlEstimateSource for where a crawl's estimated total file count came from. Methods: none declared.
+ */
+
+package com.picturemodel.domain.enums;
+
+/**
+ * Origin of a crawl job's {@code estimatedTotalFiles}.
+ */
+public enum CrawlEstimateSource {
+    /**
+     * Files listed by the last completed crawl of the same drive and root
+     */
+    PREVIOUS_CRAWL,
+
+    /**
+     * Sampled pre-scan of the tree
+     */
+    PRE_SCAN,
+
+    /**
+     * Pre-scan that listed every directory
+     */
+    PRE_SCAN_EXACT
+}
@@ -0,0 +1,33 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.enums
+ * File: CrawlTrigger.java
+ * Version: 0.1.1
+ * Turns: 38,40
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T16:10:00Z
+ * Exports: CrawlTrigger
+ * Description: enum CrawlTrigger for what queued a crawl job. Methods: none declared.
+ */
+
+package com.picturemodel.domain.enums;
+
+/**
+ * What queued a crawl job.
+ */
+public enum CrawlTrigger {
+    /**
+     * Requested through the API
+     */
+    MANUAL,
+
+    /**
+     * Queued by a drive's auto-crawl schedule
+     */
+    SCHEDULED,
+
+    /**
+     * Queued by a drive watch to rescan a subtree whose changes it could not follow
+     */
+    WATCH
+}
@@ -0,0 +1,39 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.enums
+ * File: HashAlgorithm.java
+ * Version: 0.1.0
+ * Turns: 33
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T12:30:00Z
+ * Exports: HashAlgorithm
+ * Description: enum HashAlgorithm for the kind of hash stored in Image.fileHash. Methods: isFullContent - whether the hash covers every byte.
+ */
+
+package com.picturemodel.domain.enums;
+
+/**
+ * Algorithm that produced an image's {@code fileHash}. Hashes of different
+ * algorithms are never comparable.
+ */
+public enum HashAlgorithm {
+    /**
+     * SHA-256 over the whole file
+     */
+    SHA256,
+
+    /**
+     * XXH64 over the whole file (fast, non-cryptographic)
+     */
+    XXH64,
+
+    /**
+     * XXH64 over the first and last sample plus the file size; replaced by a
+     * full-content hash in the background
+     */
+    SAMPLED;
+
+    public boolean isFullContent() {
+        return this != SAMPLED;
+    }
+}
@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.domain.enums
  * File: package-info.java
- * Version: 0.1.0
- * Turns: 10
+ * Version: 0.1.3
+ * Turns: 10,33,37,38
  * Author: Codex
- * Date: 2026-02-02T22:36:43Z
+ * Date: 2026-10-16T15:10:00Z
  * Exports: package-info
  * Description: Package-level documentation for com.picturemodel.domain.enums.
  */
@@ -16,8 +16,11 @@
  * <p>Key types:</p>
  * <ul>
  *   <li>ConnectionStatus</li>
+ *   <li>CrawlEstimateSource</li>
  *   <li>CrawlStatus</li>
+ *   <li>CrawlTrigger</li>
  *   <li>DriveType</li>
+ *   <li>HashAlgorithm</li>
  *   <li>MetadataSource</li>
  * </ul>
  */
@@ -0,0 +1,119 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.repository
+ * File: CrawlFrontierRepository.java
+ * Version: 0.1.0
+ * Turns: 36
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T14:10:00Z
+ * Exports: CrawlFrontierRepository
+ * Description: class CrawlFrontierRepository for persisting crawl checkpoints. Methods: findByJob - load a job's directory markers; saveCheckpoint - record discovered and completed directories; deleteByJob - drop a job's markers.
+ */
+
+package com.picturemodel.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to {@code crawl_frontier}, one row per directory a crawl has
+ * discovered, flagged once the directory's files are all written. Rows of a
+ * finished crawl are deleted; those of an interrupted crawl let it resume.
+ *
+ * <p>The table is created by migration 06 on PostgreSQL. It has no entity, so on
+ * other databases (H2 in dev, where Hibernate manages the schema) it is created
+ * on first use.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlFrontierRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS crawl_frontier ("
+                    + "job_id UUID NOT NULL REFERENCES crawl_jobs(id) ON DELETE CASCADE, "
+                    + "dir_path VARCHAR(2000) NOT NULL, "
+                    + "done BOOLEAN NOT NULL DEFAULT FALSE, "
+                    + "PRIMARY KEY (job_id, dir_path))";
+
+    private static final String SELECT_BY_JOB =
+            "SELECT dir_path, done FROM crawl_frontier WHERE job_id = ?";
+
+    private static final String INSERT_DIRECTORY =
+            "INSERT INTO crawl_frontier (job_id, dir_path, done) VALUES (?, ?, FALSE)";
+
+    private static final String MARK_DONE =
+            "UPDATE crawl_frontier SET done = TRUE WHERE job_id = ? AND dir_path = ?";
+
+    private static final String DELETE_BY_JOB =
+            "DELETE FROM crawl_frontier WHERE job_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean tableReady;
+
+    /**
+     * A directory recorded for a crawl.
+     */
+    public record FrontierRow(String dirPath, boolean done) {
+    }
+
+    public List<FrontierRow> findByJob(UUID jobId) {
+        ensureTable();
+        return jdbcTemplate.query(SELECT_BY_JOB,
+                (rs, rowNum) -> new FrontierRow(rs.getString("dir_path"), rs.getBoolean("done")), jobId);
+    }
+
+    /**
+     * Record newly discovered directories as pending and mark completed ones done,
+     * in one transaction.
+     */
+    @Transactional
+    public void saveCheckpoint(UUID jobId, List<String> discovered, List<String> completed) {
+        ensureTable();
+        if (!discovered.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DIRECTORY, discovered, MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+                ps.setObject(1, jobId);
+                ps.setString(2, path);
+            });
+        }
+        if (!completed.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_DONE, completed, MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+                ps.setObject(1, jobId);
+                ps.setString(2, path);
+            });
+        }
+    }
+
+    public int deleteByJob(UUID jobId) {
+        ensureTable();
+        return jdbcTemplate.update(DELETE_BY_JOB, jobId);
+    }
+
+    private void ensureTable() {
+        if (tableReady) {
+            return;
+        }
+        synchronized (this) {
+            if (tableReady) {
+                return;
+            }
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (product == null || !product.toLowerCase().contains("postgres")) {
+                jdbcTemplate.execute(CREATE_TABLE);
+                log.info("Created crawl_frontier table ({})", product);
+            }
+            tableReady = true;
+        }
+    }
+}
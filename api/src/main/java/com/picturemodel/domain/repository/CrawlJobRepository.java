@@ -2,12 +2,12 @@
  * App: Picture Model
  * Package: com.picturemodel.domain.repository
  * File: CrawlJobRepository.java
- * Version: 0.1.2
- * Turns: 5,17
+ * Version: 0.1.4
+ * Turns: 5,17,37,38
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-01T17:12:25Z
+ * Date: 2026-10-16T15:10:00Z
  * Exports: CrawlJobRepository
- * Description: interface CrawlJobRepository for CrawlJobRepository responsibilities. Methods: findByDrive_IdOrderByStartTimeDesc - find by drive id order by start time desc; findByStatus - find by status; countByStatus - count by status.
+ * Description: interface CrawlJobRepository for CrawlJobRepository responsibilities. Methods: findByDrive_IdOrderByStartTimeDesc - find by drive id order by start time desc; findByStatus - find by status; findByStatusOrderByQueuedAtAsc - jobs with a status in queue order; findByDrive_IdAndStatusIn - a drive's jobs with given statuses; findFirstByDrive_IdAndRootPathAndStatusOrderByEndTimeDesc - latest job of a drive root with a status; countByStatus - count by status.
  */
 
 package com.picturemodel.domain.repository;
@@ -19,7 +19,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -40,6 +42,22 @@ public interface CrawlJobRepository extends JpaRepository<CrawlJob, UUID> {
      */
     List<CrawlJob> findByStatus(CrawlStatus status);
 
+    /**
+     * Find crawl jobs with a specific status in the order they were queued.
+     */
+    List<CrawlJob> findByStatusOrderByQueuedAtAsc(CrawlStatus status);
+
+    /**
+     * Find a drive's crawl jobs with any of the given statuses.
+     */
+    List<CrawlJob> findByDrive_IdAndStatusIn(UUID driveId, Collection<CrawlStatus> statuses);
+
+    /**
+     * Find the most recently finished crawl job of a drive and root with a specific status.
+     */
+    Optional<CrawlJob> findFirstByDrive_IdAndRootPathAndStatusOrderByEndTimeDesc(
+            UUID driveId, String rootPath, CrawlStatus status);
+
     /**
      * Count crawl jobs with a specific status.
      */
@@ -0,0 +1,131 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.repository
+ * File: CrawlSeenPathRepository.java
+ * Version: 0.1.0
+ * Turns: 34
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T13:00:00Z
+ * Exports: CrawlSeenPathRepository
+ * Description: class CrawlSeenPathRepository for staging the paths a full crawl has seen. Methods: insertPaths - stage a batch of paths; markUnseenDeleted - flag images below the root that were not seen; deleteByJob - drop a job's staged paths; deleteStale - drop paths of jobs no longer running.
+ */
+
+package com.picturemodel.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to {@code crawl_seen_paths}, the staging table a full crawl streams
+ * its listed image paths into. When the crawl completes, images below the crawl
+ * root that were not staged are marked deleted with one set-based UPDATE instead
+ * of loading the drive's images.
+ *
+ * <p>The table is created by migration 05 on PostgreSQL. It has no entity, so on
+ * other databases (H2 in dev, where Hibernate manages the schema) it is created
+ * on first use.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlSeenPathRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS crawl_seen_paths (job_id UUID NOT NULL, file_path VARCHAR(2000) NOT NULL)";
+
+    private static final String CREATE_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_crawl_seen_paths_job_path ON crawl_seen_paths (job_id, file_path)";
+
+    private static final String INSERT_PATH =
+            "INSERT INTO crawl_seen_paths (job_id, file_path) VALUES (?, ?)";
+
+    private static final String MARK_UNSEEN_DELETED =
+            "UPDATE images SET deleted = TRUE "
+                    + "WHERE drive_id = ? AND deleted = FALSE AND LEFT(file_path, ?) = ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM crawl_seen_paths s "
+                    + "WHERE s.job_id = ? AND s.file_path = images.file_path)";
+
+    private static final String DELETE_BY_JOB =
+            "DELETE FROM crawl_seen_paths WHERE job_id = ?";
+
+    private static final String DELETE_STALE =
+            "DELETE FROM crawl_seen_paths WHERE job_id NOT IN "
+                    + "(SELECT id FROM crawl_jobs WHERE status IN ('PENDING', 'IN_PROGRESS', 'PAUSED'))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean tableReady;
+
+    /**
+     * Stage a batch of relative paths seen by a crawl.
+     */
+    public void insertPaths(UUID jobId, List<String> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        ensureTable();
+        jdbcTemplate.batchUpdate(INSERT_PATH, paths, MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+            ps.setObject(1, jobId);
+            ps.setString(2, path);
+        });
+    }
+
+    /**
+     * Mark every live image of the drive below {@code rootPath} that the job did
+     * not stage as deleted.
+     *
+     * @param rootPath relative crawl root, empty for the whole drive
+     * @return number of images marked deleted
+     */
+    @Transactional
+    public int markUnseenDeleted(UUID jobId, UUID driveId, String rootPath) {
+        ensureTable();
+        String prefix = rootPath.isEmpty() ? "" : rootPath + "/";
+        return jdbcTemplate.update(MARK_UNSEEN_DELETED, driveId, prefix.length(), prefix, jobId);
+    }
+
+    /**
+     * Drop the paths staged by a job.
+     */
+    public int deleteByJob(UUID jobId) {
+        ensureTable();
+        return jdbcTemplate.update(DELETE_BY_JOB, jobId);
+    }
+
+    /**
+     * Drop paths left behind by jobs that are no longer pending or running,
+     * e.g. after the API was stopped mid-crawl.
+     */
+    public int deleteStale() {
+        ensureTable();
+        return jdbcTemplate.update(DELETE_STALE);
+    }
+
+    private void ensureTable() {
+        if (tableReady) {
+            return;
+        }
+        synchronized (this) {
+            if (tableReady) {
+                return;
+            }
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (product == null || !product.toLowerCase().contains("postgres")) {
+                jdbcTemplate.execute(CREATE_TABLE);
+                jdbcTemplate.execute(CREATE_INDEX);
+                log.info("Created crawl_seen_paths staging table ({})", product);
+            }
+            tableReady = true;
+        }
+    }
+}
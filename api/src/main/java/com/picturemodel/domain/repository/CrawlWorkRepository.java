@@ -0,0 +1,529 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.repository
+ * File: CrawlWorkRepository.java
+ * Version: 0.1.1
+ * Turns: 43,44
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T18:10:00Z
+ * Exports: CrawlWorkRepository
+ * Description: class CrawlWorkRepository for the shared directory queue and per-node counters of cluster crawls. Methods: hasWork - whether a job has queued directories; addPending - queue directories; claim - lease a batch of directories; markDone - finish leased directories; releaseLeases - hand a node's leases back; countOpen - directories not done; countOwned - directories a node holds; heartbeat - renew a node's leases and heartbeat; claimJob - take a queued job as its coordinator; findJoinableJobs - running jobs with claimable work; findOrphanedJobs - running jobs without a live coordinator; requeueOrphan - queue an orphaned job again; hasLiveCoordinator - whether a job's coordinator is alive; findNode - a node's counters; findNodes - every node of a job; saveNode - record a node's counters; sumOtherNodes - counters of the other nodes; requestCancel - flag a job cancelled for every node; clearCancelRequest - drop the flag; isStopRequested - whether nodes should stop; deleteByJob - drop a job's queue and node rows.
+ */
+
+package com.picturemodel.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to the two tables behind cluster crawls.
+ *
+ * <p>{@code crawl_work_items} is a crawl's directory frontier shared by every
+ * node: one row per discovered directory, {@code PENDING} until a node claims it
+ * with {@code SELECT ... FOR UPDATE SKIP LOCKED}, {@code CLAIMED} under a lease
+ * the node keeps renewing, {@code DONE} once all of its images are written. A
+ * claimed row whose lease has expired, because its node crashed or lost the
+ * database, is claimable again.</p>
+ *
+ * <p>{@code crawl_job_nodes} holds one row per node working on a crawl: its share
+ * of the job counters, its last heartbeat, whether it coordinates the job, and
+ * the cancel flag every node polls.</p>
+ *
+ * <p>The tables are created by migration 12 on PostgreSQL. They have no entity,
+ * so on other databases (H2 in dev, where Hibernate manages the schema) they are
+ * created on first use; there claims lock rows with plain {@code FOR UPDATE}.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlWorkRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String CREATE_WORK_TABLE =
+            "CREATE TABLE IF NOT EXISTS crawl_work_items ("
+                    + "job_id UUID NOT NULL REFERENCES crawl_jobs(id) ON DELETE CASCADE, "
+                    + "dir_path VARCHAR(2000) NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL DEFAULT 'PENDING', "
+                    + "lease_owner VARCHAR(200), "
+                    + "lease_expires_at TIMESTAMP, "
+                    + "attempts INTEGER NOT NULL DEFAULT 0, "
+                    + "PRIMARY KEY (job_id, dir_path))";
+
+    private static final String CREATE_WORK_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_crawl_work_items_claim ON crawl_work_items (job_id, status, lease_expires_at)";
+
+    private static final String CREATE_NODE_TABLE =
+            "CREATE TABLE IF NOT EXISTS crawl_job_nodes ("
+                    + "job_id UUID NOT NULL REFERENCES crawl_jobs(id) ON DELETE CASCADE, "
+                    + "node_id VARCHAR(200) NOT NULL, "
+                    + "coordinator BOOLEAN NOT NULL DEFAULT FALSE, "
+                    + "files_scanned INTEGER NOT NULL DEFAULT 0, "
+                    + "files_processed INTEGER NOT NULL DEFAULT 0, "
+                    + "files_added INTEGER NOT NULL DEFAULT 0, "
+                    + "files_updated INTEGER NOT NULL DEFAULT 0, "
+                    + "directories_listed INTEGER NOT NULL DEFAULT 0, "
+                    + "directories_skipped INTEGER NOT NULL DEFAULT 0, "
+                    + "bytes_read BIGINT NOT NULL DEFAULT 0, "
+                    + "metadata_rows_inserted BIGINT NOT NULL DEFAULT 0, "
+                    + "metadata_rows_updated BIGINT NOT NULL DEFAULT 0, "
+                    + "metadata_rows_deleted BIGINT NOT NULL DEFAULT 0, "
+                    + "heartbeat_at TIMESTAMP NOT NULL, "
+                    + "cancel_requested BOOLEAN NOT NULL DEFAULT FALSE, "
+                    + "PRIMARY KEY (job_id, node_id))";
+
+    private static final String EXISTS_WORK =
+            "SELECT COUNT(*) FROM crawl_work_items WHERE job_id = ?";
+
+    private static final String INSERT_PENDING_POSTGRES =
+            "INSERT INTO crawl_work_items (job_id, dir_path, status) VALUES (?, ?, 'PENDING') "
+                    + "ON CONFLICT (job_id, dir_path) DO NOTHING";
+
+    private static final String INSERT_PENDING =
+            "INSERT INTO crawl_work_items (job_id, dir_path, status) SELECT ?, ?, 'PENDING' "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM crawl_work_items WHERE job_id = ? AND dir_path = ?)";
+
+    private static final String SELECT_CLAIMABLE =
+            "SELECT dir_path FROM crawl_work_items WHERE job_id = ? "
+                    + "AND (status = 'PENDING' OR (status = 'CLAIMED' AND lease_expires_at < ?)) "
+                    + "ORDER BY attempts, dir_path LIMIT ? FOR UPDATE";
+
+    private static final String CLAIM =
+            "UPDATE crawl_work_items SET status = 'CLAIMED', lease_owner = ?, lease_expires_at = ?, "
+                    + "attempts = attempts + 1 WHERE job_id = ? AND dir_path = ?";
+
+    private static final String MARK_DONE =
+            "UPDATE crawl_work_items SET status = 'DONE', lease_owner = NULL, lease_expires_at = NULL "
+                    + "WHERE job_id = ? AND dir_path = ? AND lease_owner = ? AND status = 'CLAIMED'";
+
+    private static final String RELEASE_LEASES =
+            "UPDATE crawl_work_items SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL "
+                    + "WHERE job_id = ? AND lease_owner = ? AND status = 'CLAIMED'";
+
+    private static final String RENEW_LEASES =
+            "UPDATE crawl_work_items SET lease_expires_at = ? "
+                    + "WHERE job_id = ? AND lease_owner = ? AND status = 'CLAIMED'";
+
+    private static final String COUNT_OPEN =
+            "SELECT COUNT(*) FROM crawl_work_items WHERE job_id = ? AND status <> 'DONE'";
+
+    private static final String COUNT_OWNED =
+            "SELECT COUNT(*) FROM crawl_work_items WHERE job_id = ? AND lease_owner = ? AND status = 'CLAIMED'";
+
+    private static final String SELECT_JOINABLE =
+            "SELECT DISTINCT w.job_id FROM crawl_work_items w JOIN crawl_jobs j ON j.id = w.job_id "
+                    + "WHERE j.status = 'IN_PROGRESS' "
+                    + "AND (w.status = 'PENDING' OR (w.status = 'CLAIMED' AND w.lease_expires_at < ?)) "
+                    + "AND NOT EXISTS (SELECT 1 FROM crawl_job_nodes n WHERE n.job_id = w.job_id AND n.cancel_requested)";
+
+    private static final String LIVE_COORDINATOR =
+            "EXISTS (SELECT 1 FROM crawl_job_nodes n WHERE n.job_id = j.id AND n.coordinator AND n.heartbeat_at >= ?)";
+
+    private static final String SELECT_ORPHANED =
+            "SELECT j.id FROM crawl_jobs j WHERE j.status = 'IN_PROGRESS' AND NOT " + LIVE_COORDINATOR;
+
+    private static final String REQUEUE_ORPHAN =
+            "UPDATE crawl_jobs j SET status = 'PENDING', end_time = NULL, resume_count = resume_count + 1 "
+                    + "WHERE j.id = ? AND j.status = 'IN_PROGRESS' AND NOT " + LIVE_COORDINATOR;
+
+    private static final String COUNT_LIVE_COORDINATORS =
+            "SELECT COUNT(*) FROM crawl_jobs j WHERE j.id = ? AND " + LIVE_COORDINATOR;
+
+    private static final String START_JOB =
+            "UPDATE crawl_jobs SET status = 'IN_PROGRESS' WHERE id = ? AND status = 'PENDING'";
+
+    private static final String RESIGN_COORDINATORS =
+            "UPDATE crawl_job_nodes SET coordinator = FALSE WHERE job_id = ?";
+
+    private static final String UPDATE_HEARTBEAT =
+            "UPDATE crawl_job_nodes SET heartbeat_at = ? WHERE job_id = ? AND node_id = ?";
+
+    private static final String UPDATE_COORDINATOR =
+            "UPDATE crawl_job_nodes SET coordinator = TRUE, heartbeat_at = ? WHERE job_id = ? AND node_id = ?";
+
+    private static final String UPDATE_NODE =
+            "UPDATE crawl_job_nodes SET files_scanned = ?, files_processed = ?, files_added = ?, files_updated = ?, "
+                    + "directories_listed = ?, directories_skipped = ?, bytes_read = ?, metadata_rows_inserted = ?, "
+                    + "metadata_rows_updated = ?, metadata_rows_deleted = ?, heartbeat_at = ? "
+                    + "WHERE job_id = ? AND node_id = ?";
+
+    private static final String INSERT_NODE =
+            "INSERT INTO crawl_job_nodes (job_id, node_id, coordinator, files_scanned, files_processed, files_added, "
+                    + "files_updated, directories_listed, directories_skipped, bytes_read, metadata_rows_inserted, "
+                    + "metadata_rows_updated, metadata_rows_deleted, heartbeat_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String NODE_COLUMNS =
+            "node_id, coordinator, files_scanned, files_processed, files_added, files_updated, "
+                    + "directories_listed, directories_skipped, bytes_read, metadata_rows_inserted, "
+                    + "metadata_rows_updated, metadata_rows_deleted, heartbeat_at";
+
+    private static final String SELECT_NODE =
+            "SELECT " + NODE_COLUMNS + " FROM crawl_job_nodes WHERE job_id = ? AND node_id = ?";
+
+    private static final String SELECT_NODES =
+            "SELECT " + NODE_COLUMNS + " FROM crawl_job_nodes WHERE job_id = ? ORDER BY coordinator DESC, node_id";
+
+    private static final String SUM_OTHER_NODES =
+            "SELECT COALESCE(SUM(files_scanned), 0) AS files_scanned, "
+                    + "COALESCE(SUM(files_processed), 0) AS files_processed, "
+                    + "COALESCE(SUM(files_added), 0) AS files_added, "
+                    + "COALESCE(SUM(files_updated), 0) AS files_updated, "
+                    + "COALESCE(SUM(directories_listed), 0) AS directories_listed, "
+                    + "COALESCE(SUM(directories_skipped), 0) AS directories_skipped, "
+                    + "COALESCE(SUM(bytes_read), 0) AS bytes_read, "
+                    + "COALESCE(SUM(metadata_rows_inserted), 0) AS metadata_rows_inserted, "
+                    + "COALESCE(SUM(metadata_rows_updated), 0) AS metadata_rows_updated, "
+                    + "COALESCE(SUM(metadata_rows_deleted), 0) AS metadata_rows_deleted "
+                    + "FROM crawl_job_nodes WHERE job_id = ? AND node_id <> ?";
+
+    private static final String REQUEST_CANCEL =
+            "UPDATE crawl_job_nodes SET cancel_requested = TRUE WHERE job_id = ?";
+
+    private static final String CLEAR_CANCEL =
+            "UPDATE crawl_job_nodes SET cancel_requested = FALSE WHERE job_id = ?";
+
+    private static final String STOP_REQUESTED =
+            "SELECT COUNT(*) FROM crawl_jobs j WHERE j.id = ? "
+                    + "AND (j.status IN ('COMPLETED', 'FAILED', 'CANCELLED') "
+                    + "OR EXISTS (SELECT 1 FROM crawl_job_nodes n WHERE n.job_id = j.id AND n.cancel_requested))";
+
+    private static final String DELETE_WORK_BY_JOB =
+            "DELETE FROM crawl_work_items WHERE job_id = ?";
+
+    private static final String DELETE_NODES_BY_JOB =
+            "DELETE FROM crawl_job_nodes WHERE job_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean tableReady;
+    private volatile boolean postgres;
+
+    /**
+     * A node's share of a crawl's counters.
+     */
+    public record NodeCounters(
+            int filesScanned,
+            int filesProcessed,
+            int filesAdded,
+            int filesUpdated,
+            int directoriesListed,
+            int directoriesSkipped,
+            long bytesRead,
+            long metadataRowsInserted,
+            long metadataRowsUpdated,
+            long metadataRowsDeleted
+    ) {
+        public static final NodeCounters ZERO = new NodeCounters(0, 0, 0, 0, 0, 0, 0L, 0L, 0L, 0L);
+    }
+
+    /**
+     * A node working on a crawl, with its counters and last heartbeat.
+     */
+    public record NodeRow(String nodeId, boolean coordinator, NodeCounters counters, LocalDateTime heartbeatAt) {
+    }
+
+    private static final RowMapper<NodeCounters> COUNTERS_MAPPER = (rs, rowNum) -> new NodeCounters(
+            rs.getInt("files_scanned"),
+            rs.getInt("files_processed"),
+            rs.getInt("files_added"),
+            rs.getInt("files_updated"),
+            rs.getInt("directories_listed"),
+            rs.getInt("directories_skipped"),
+            rs.getLong("bytes_read"),
+            rs.getLong("metadata_rows_inserted"),
+            rs.getLong("metadata_rows_updated"),
+            rs.getLong("metadata_rows_deleted"));
+
+    private static final RowMapper<NodeRow> NODE_MAPPER = (rs, rowNum) -> new NodeRow(
+            rs.getString("node_id"),
+            rs.getBoolean("coordinator"),
+            COUNTERS_MAPPER.mapRow(rs, rowNum),
+            rs.getTimestamp("heartbeat_at").toLocalDateTime());
+
+    /**
+     * Whether any directory of the job has been queued, i.e. it ran distributed before.
+     */
+    public boolean hasWork(UUID jobId) {
+        ensureTable();
+        return count(EXISTS_WORK, jobId) > 0;
+    }
+
+    /**
+     * Queue directories for any node to claim. Directories already queued, done
+     * or not, are left as they are.
+     */
+    public void addPending(UUID jobId, Collection<String> directories) {
+        if (directories.isEmpty()) {
+            return;
+        }
+        ensureTable();
+        if (postgres) {
+            jdbcTemplate.batchUpdate(INSERT_PENDING_POSTGRES, directories, MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+                ps.setObject(1, jobId);
+                ps.setString(2, path);
+            });
+        } else {
+            jdbcTemplate.batchUpdate(INSERT_PENDING, directories, MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+                ps.setObject(1, jobId);
+                ps.setString(2, path);
+                ps.setObject(3, jobId);
+                ps.setString(4, path);
+            });
+        }
+    }
+
+    /**
+     * Lease up to {@code limit} pending directories, or directories whose lease
+     * expired, to a node. Rows other nodes are claiming at the same moment are
+     * skipped rather than waited for.
+     *
+     * @return the claimed directories, possibly none
+     */
+    @Transactional
+    public List<String> claim(UUID jobId, String nodeId, int limit, LocalDateTime now, LocalDateTime leaseUntil) {
+        ensureTable();
+        String select = postgres ? SELECT_CLAIMABLE + " SKIP LOCKED" : SELECT_CLAIMABLE;
+        List<String> claimed = jdbcTemplate.queryForList(select, String.class, jobId, Timestamp.valueOf(now),
+                Math.max(1, limit));
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+        Timestamp lease = Timestamp.valueOf(leaseUntil);
+        jdbcTemplate.batchUpdate(CLAIM, claimed, MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+            ps.setString(1, nodeId);
+            ps.setTimestamp(2, lease);
+            ps.setObject(3, jobId);
+            ps.setString(4, path);
+        });
+        return claimed;
+    }
+
+    /**
+     * Mark directories the node holds as done. A directory whose lease was lost to
+     * another node meanwhile stays with that node.
+     */
+    public void markDone(UUID jobId, String nodeId, Collection<String> directories) {
+        if (directories.isEmpty()) {
+            return;
+        }
+        ensureTable();
+        jdbcTemplate.batchUpdate(MARK_DONE, directories, MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+            ps.setObject(1, jobId);
+            ps.setString(2, path);
+            ps.setString(3, nodeId);
+        });
+    }
+
+    /**
+     * Return every directory the node holds to the queue, e.g. when it restarts
+     * a job it was running before.
+     */
+    public int releaseLeases(UUID jobId, String nodeId) {
+        ensureTable();
+        return jdbcTemplate.update(RELEASE_LEASES, jobId, nodeId);
+    }
+
+    /**
+     * @return directories of the job not done yet, on any node
+     */
+    public long countOpen(UUID jobId) {
+        ensureTable();
+        return count(COUNT_OPEN, jobId);
+    }
+
+    /**
+     * @return directories the node holds and has not finished
+     */
+    public long countOwned(UUID jobId, String nodeId) {
+        ensureTable();
+        return count(COUNT_OWNED, jobId, nodeId);
+    }
+
+    /**
+     * Renew the leases of every directory the node holds and record that it is alive.
+     */
+    @Transactional
+    public void heartbeat(UUID jobId, String nodeId, LocalDateTime now, LocalDateTime leaseUntil) {
+        ensureTable();
+        jdbcTemplate.update(RENEW_LEASES, Timestamp.valueOf(leaseUntil), jobId, nodeId);
+        jdbcTemplate.update(UPDATE_HEARTBEAT, Timestamp.valueOf(now), jobId, nodeId);
+    }
+
+    /**
+     * Move a queued job to {@code IN_PROGRESS} and make the node its coordinator,
+     * unless another node took it first.
+     *
+     * @return false if the job was no longer queued
+     */
+    @Transactional
+    public boolean claimJob(UUID jobId, String nodeId, LocalDateTime now) {
+        ensureTable();
+        if (jdbcTemplate.update(START_JOB, jobId) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(RESIGN_COORDINATORS, jobId);
+        Timestamp heartbeat = Timestamp.valueOf(now);
+        if (jdbcTemplate.update(UPDATE_COORDINATOR, heartbeat, jobId, nodeId) == 0) {
+            insertNode(jobId, nodeId, true, NodeCounters.ZERO, heartbeat);
+        }
+        return true;
+    }
+
+    /**
+     * Running jobs with directories a node could claim now, excluding cancelled ones.
+     */
+    public List<UUID> findJoinableJobs(LocalDateTime now) {
+        ensureTable();
+        return jdbcTemplate.queryForList(SELECT_JOINABLE, UUID.class, Timestamp.valueOf(now));
+    }
+
+    /**
+     * Running jobs whose coordinator has not sent a heartbeat since {@code aliveSince}.
+     */
+    public List<UUID> findOrphanedJobs(LocalDateTime aliveSince) {
+        ensureTable();
+        return jdbcTemplate.queryForList(SELECT_ORPHANED, UUID.class, Timestamp.valueOf(aliveSince));
+    }
+
+    /**
+     * Queue an orphaned job again so any node can take it over as coordinator.
+     *
+     * @return false if it has a live coordinator again or is no longer running
+     */
+    @Transactional
+    public boolean requeueOrphan(UUID jobId, LocalDateTime aliveSince) {
+        ensureTable();
+        if (jdbcTemplate.update(REQUEUE_ORPHAN, jobId, Timestamp.valueOf(aliveSince)) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(RESIGN_COORDINATORS, jobId);
+        return true;
+    }
+
+    /**
+     * Whether a node coordinating the job has sent a heartbeat since {@code aliveSince}.
+     */
+    public boolean hasLiveCoordinator(UUID jobId, LocalDateTime aliveSince) {
+        ensureTable();
+        return count(COUNT_LIVE_COORDINATORS, jobId, Timestamp.valueOf(aliveSince)) > 0;
+    }
+
+    /**
+     * @return the node's counters from an earlier run of the job, or zeros
+     */
+    public NodeCounters findNode(UUID jobId, String nodeId) {
+        ensureTable();
+        List<NodeRow> rows = jdbcTemplate.query(SELECT_NODE, NODE_MAPPER, jobId, nodeId);
+        return rows.isEmpty() ? NodeCounters.ZERO : rows.get(0).counters();
+    }
+
+    /**
+     * Every node that worked on the job, coordinator first.
+     */
+    public List<NodeRow> findNodes(UUID jobId) {
+        ensureTable();
+        return jdbcTemplate.query(SELECT_NODES, NODE_MAPPER, jobId);
+    }
+
+    /**
+     * Record the node's counters and heartbeat. The coordinator flag and cancel
+     * flag of an existing row are kept.
+     */
+    @Transactional
+    public void saveNode(UUID jobId, String nodeId, boolean coordinator, NodeCounters counters, LocalDateTime now) {
+        ensureTable();
+        Timestamp heartbeat = Timestamp.valueOf(now);
+        int updated = jdbcTemplate.update(UPDATE_NODE, counters.filesScanned(), counters.filesProcessed(),
+                counters.filesAdded(), counters.filesUpdated(), counters.directoriesListed(),
+                counters.directoriesSkipped(), counters.bytesRead(), counters.metadataRowsInserted(),
+                counters.metadataRowsUpdated(), counters.metadataRowsDeleted(), heartbeat, jobId, nodeId);
+        if (updated == 0) {
+            insertNode(jobId, nodeId, coordinator, counters, heartbeat);
+        }
+    }
+
+    /**
+     * @return the summed counters of every node of the job except {@code nodeId}
+     */
+    public NodeCounters sumOtherNodes(UUID jobId, String nodeId) {
+        ensureTable();
+        return jdbcTemplate.queryForObject(SUM_OTHER_NODES, COUNTERS_MAPPER, jobId, nodeId);
+    }
+
+    /**
+     * Ask every node working on the job to stop.
+     */
+    public void requestCancel(UUID jobId) {
+        ensureTable();
+        jdbcTemplate.update(REQUEST_CANCEL, jobId);
+    }
+
+    public void clearCancelRequest(UUID jobId) {
+        ensureTable();
+        jdbcTemplate.update(CLEAR_CANCEL, jobId);
+    }
+
+    /**
+     * Whether nodes should stop working on the job: it was cancelled, or it
+     * finished or failed on its coordinator.
+     */
+    public boolean isStopRequested(UUID jobId) {
+        ensureTable();
+        return count(STOP_REQUESTED, jobId) > 0;
+    }
+
+    /**
+     * Drop the job's work queue and node rows once it has completed.
+     */
+    @Transactional
+    public void deleteByJob(UUID jobId) {
+        ensureTable();
+        jdbcTemplate.update(DELETE_WORK_BY_JOB, jobId);
+        jdbcTemplate.update(DELETE_NODES_BY_JOB, jobId);
+    }
+
+    private void insertNode(UUID jobId, String nodeId, boolean coordinator, NodeCounters counters, Timestamp now) {
+        jdbcTemplate.update(INSERT_NODE, jobId, nodeId, coordinator, counters.filesScanned(),
+                counters.filesProcessed(), counters.filesAdded(), counters.filesUpdated(),
+                counters.directoriesListed(), counters.directoriesSkipped(), counters.bytesRead(),
+                counters.metadataRowsInserted(), counters.metadataRowsUpdated(), counters.metadataRowsDeleted(), now);
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count != null ? count : 0L;
+    }
+
+    private void ensureTable() {
+        if (tableReady) {
+            return;
+        }
+        synchronized (this) {
+            if (tableReady) {
+                return;
+            }
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            postgres = product != null && product.toLowerCase().contains("postgres");
+            if (!postgres) {
+                jdbcTemplate.execute(CREATE_WORK_TABLE);
+                jdbcTemplate.execute(CREATE_WORK_INDEX);
+                jdbcTemplate.execute(CREATE_NODE_TABLE);
+                log.info("Created crawl_work_items and crawl_job_nodes tables ({})", product);
+            }
+            tableReady = true;
+        }
+    }
+}
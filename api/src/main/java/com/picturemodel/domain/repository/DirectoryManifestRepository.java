@@ -0,0 +1,197 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.repository
+ * File: DirectoryManifestRepository.java
+ * Version: 0.1.0
+ * Turns: 39
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T15:40:00Z
+ * Exports: DirectoryManifestRepository
+ * Description: class DirectoryManifestRepository for persisting what crawls last listed in each directory. Methods: forEach - stream a drive's manifest rows below a root; save - write and delete manifest rows; deleteNotVerifiedSince - drop rows a full crawl did not confirm.
+ */
+
+package com.picturemodel.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to {@code crawl_directory_manifest}, one row per directory of a
+ * drive a crawl has fully indexed: the directory's modification time, a
+ * fingerprint of its listing and its image and subdirectory counts. Incremental
+ * crawls compare against it to skip unchanged directories.
+ *
+ * <p>The table is created by migration 09 on PostgreSQL. It has no entity, so on
+ * other databases (H2 in dev, where Hibernate manages the schema) it is created
+ * on first use.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class DirectoryManifestRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS crawl_directory_manifest ("
+                    + "drive_id UUID NOT NULL REFERENCES remote_file_drives(id) ON DELETE CASCADE, "
+                    + "dir_path VARCHAR(2000) NOT NULL, "
+                    + "mtime_millis BIGINT, "
+                    + "fingerprint BIGINT NOT NULL, "
+                    + "image_count INTEGER NOT NULL, "
+                    + "subdirectory_count INTEGER NOT NULL, "
+                    + "verified_at TIMESTAMP NOT NULL, "
+                    + "PRIMARY KEY (drive_id, dir_path))";
+
+    private static final String SELECT_BELOW_ROOT =
+            "SELECT dir_path, mtime_millis, fingerprint, image_count, subdirectory_count "
+                    + "FROM crawl_directory_manifest WHERE drive_id = ? AND (dir_path = ? OR LEFT(dir_path, ?) = ?)";
+
+    private static final String DELETE_DIRECTORY =
+            "DELETE FROM crawl_directory_manifest WHERE drive_id = ? AND dir_path = ?";
+
+    private static final String DELETE_SUBTREE =
+            "DELETE FROM crawl_directory_manifest WHERE drive_id = ? AND (dir_path = ? OR LEFT(dir_path, ?) = ?)";
+
+    private static final String INSERT_DIRECTORY =
+            "INSERT INTO crawl_directory_manifest "
+                    + "(drive_id, dir_path, mtime_millis, fingerprint, image_count, subdirectory_count, verified_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_NOT_VERIFIED =
+            "DELETE FROM crawl_directory_manifest WHERE drive_id = ? AND (dir_path = ? OR LEFT(dir_path, ?) = ?) "
+                    + "AND verified_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean tableReady;
+
+    /**
+     * What a crawl listed in one directory.
+     *
+     * @param dirPath directory path relative to the drive root, empty for the root
+     * @param mtimeMillis directory modification time read before the listing, or null if unknown
+     * @param fingerprint order-independent hash of the image files' names, sizes and
+     *                    modification times and the subdirectories' names
+     */
+    public record ManifestRow(
+            String dirPath,
+            Long mtimeMillis,
+            long fingerprint,
+            int imageCount,
+            int subdirectoryCount
+    ) {
+    }
+
+    /**
+     * Stream the rows of a drive's directories at or below {@code rootPath}.
+     */
+    public void forEach(UUID driveId, String rootPath, Consumer<ManifestRow> consumer) {
+        ensureTable();
+        String prefix = rootPath.isEmpty() ? "" : rootPath + "/";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_BELOW_ROOT);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, driveId);
+            ps.setString(2, rootPath);
+            ps.setInt(3, prefix.length());
+            ps.setString(4, prefix);
+            return ps;
+        }, rs -> {
+            long mtime = rs.getLong("mtime_millis");
+            consumer.accept(new ManifestRow(
+                    rs.getString("dir_path"),
+                    rs.wasNull() ? null : mtime,
+                    rs.getLong("fingerprint"),
+                    rs.getInt("image_count"),
+                    rs.getInt("subdirectory_count")));
+        });
+    }
+
+    /**
+     * Apply a batch of manifest changes in one transaction: drop the rows of
+     * removed subtrees and of directories that can no longer be trusted, then
+     * replace the rows of freshly listed directories.
+     *
+     * @param removedSubtrees directories that no longer exist; their descendants' rows go too
+     * @param invalidated directories whose rows must be dropped, e.g. after a file failed to index
+     */
+    @Transactional
+    public void save(UUID driveId, List<ManifestRow> writes, List<String> removedSubtrees, List<String> invalidated) {
+        ensureTable();
+        for (String subtree : removedSubtrees) {
+            String prefix = subtree.isEmpty() ? "" : subtree + "/";
+            jdbcTemplate.update(DELETE_SUBTREE, driveId, subtree, prefix.length(), prefix);
+        }
+        if (!invalidated.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_DIRECTORY, invalidated, MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+                ps.setObject(1, driveId);
+                ps.setString(2, path);
+            });
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_DIRECTORY, writes, MAX_ROWS_PER_STATEMENT, (ps, row) -> {
+            ps.setObject(1, driveId);
+            ps.setString(2, row.dirPath());
+        });
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_DIRECTORY, writes, MAX_ROWS_PER_STATEMENT, (ps, row) -> {
+            ps.setObject(1, driveId);
+            ps.setString(2, row.dirPath());
+            if (row.mtimeMillis() != null) {
+                ps.setLong(3, row.mtimeMillis());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setLong(4, row.fingerprint());
+            ps.setInt(5, row.imageCount());
+            ps.setInt(6, row.subdirectoryCount());
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    /**
+     * Drop rows at or below {@code rootPath} that were last written before
+     * {@code since}: directories a complete full crawl no longer found, or could
+     * not index cleanly.
+     */
+    public int deleteNotVerifiedSince(UUID driveId, String rootPath, LocalDateTime since) {
+        ensureTable();
+        String prefix = rootPath.isEmpty() ? "" : rootPath + "/";
+        return jdbcTemplate.update(DELETE_NOT_VERIFIED, driveId, rootPath, prefix.length(), prefix,
+                Timestamp.valueOf(since));
+    }
+
+    private void ensureTable() {
+        if (tableReady) {
+            return;
+        }
+        synchronized (this) {
+            if (tableReady) {
+                return;
+            }
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (product == null || !product.toLowerCase().contains("postgres")) {
+                jdbcTemplate.execute(CREATE_TABLE);
+                log.info("Created crawl_directory_manifest table ({})", product);
+            }
+            tableReady = true;
+        }
+    }
+}
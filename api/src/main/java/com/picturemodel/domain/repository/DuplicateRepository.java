@@ -0,0 +1,398 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.repository
+ * File: DuplicateRepository.java
+ * Version: 0.1.0
+ * Turns: 45
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T18:40:00Z
+ * Exports: DuplicateRepository
+ * Description: class DuplicateRepository for the duplicate-group summary kept over image content hashes. Methods: markHashes - queue hashes for recount; markImages - queue the hashes of images by ID; markImagesAt - queue the hashes of a drive's images at or below paths; markDrive - queue the hashes of a drive's images; refreshPending - recount a batch of queued hashes; rebuild - recount every hash; countPending - queued hashes; getRebuiltAt - time of the last rebuild; findGroups - a page of duplicate groups; findGroup - one group; summarize - totals over all groups.
+ */
+
+package com.picturemodel.domain.repository;
+
+import com.picturemodel.domain.enums.HashAlgorithm;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC access to the duplicate summary: {@code image_duplicate_groups} holds one
+ * row per full-content hash shared by more than one live image, with the number
+ * of copies, the drives they are on and the bytes deleting all but one would
+ * free. Sampled hashes are left out, since equal samples do not prove equal files.
+ *
+ * <p>The summary is maintained incrementally. Writes that add, change or remove
+ * an image hash queue the affected hashes in {@code image_duplicate_dirty} in the
+ * same transaction; {@link #refreshPending} later recounts just those hashes from
+ * {@code images} with one aggregate query per chunk. Queued rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED} on PostgreSQL, so several API nodes can refresh at
+ * once. {@link #rebuild} recounts everything with a single {@code GROUP BY}.</p>
+ *
+ * <p>The tables are created by migration 14 on PostgreSQL. They have no entity, so
+ * on other databases (H2 in dev, where Hibernate manages the schema) they are
+ * created on first use.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class DuplicateRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String CREATE_GROUP_TABLE =
+            "CREATE TABLE IF NOT EXISTS image_duplicate_groups ("
+                    + "hash_algorithm VARCHAR(20) NOT NULL, "
+                    + "file_hash VARCHAR(64) NOT NULL, "
+                    + "file_size BIGINT NOT NULL, "
+                    + "image_count INTEGER NOT NULL, "
+                    + "drive_count INTEGER NOT NULL, "
+                    + "reclaimable_bytes BIGINT NOT NULL, "
+                    + "updated_at TIMESTAMP NOT NULL, "
+                    + "PRIMARY KEY (hash_algorithm, file_hash))";
+
+    private static final String CREATE_GROUP_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_image_duplicate_groups_reclaimable "
+                    + "ON image_duplicate_groups (reclaimable_bytes DESC, file_hash)";
+
+    private static final String CREATE_DIRTY_TABLE =
+            "CREATE TABLE IF NOT EXISTS image_duplicate_dirty ("
+                    + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "hash_algorithm VARCHAR(20) NOT NULL, "
+                    + "file_hash VARCHAR(64) NOT NULL)";
+
+    private static final String CREATE_STATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS image_duplicate_state ("
+                    + "id INTEGER PRIMARY KEY, "
+                    + "rebuilt_at TIMESTAMP)";
+
+    private static final String INSERT_STATE =
+            "INSERT INTO image_duplicate_state (id) SELECT 1 "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM image_duplicate_state WHERE id = 1)";
+
+    private static final String INSERT_DIRTY =
+            "INSERT INTO image_duplicate_dirty (hash_algorithm, file_hash) VALUES (?, ?)";
+
+    private static final String INSERT_DIRTY_FROM_IMAGES =
+            "INSERT INTO image_duplicate_dirty (hash_algorithm, file_hash) "
+                    + "SELECT hash_algorithm, file_hash FROM images "
+                    + "WHERE deleted = FALSE AND hash_algorithm <> 'SAMPLED' AND ";
+
+    private static final String SELECT_DIRTY =
+            "SELECT id, file_hash FROM image_duplicate_dirty ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String DELETE_DIRTY =
+            "DELETE FROM image_duplicate_dirty WHERE id = ?";
+
+    private static final String DELETE_ALL_DIRTY =
+            "DELETE FROM image_duplicate_dirty";
+
+    private static final String COUNT_DIRTY =
+            "SELECT COUNT(*) FROM image_duplicate_dirty";
+
+    private static final String DELETE_GROUPS_BY_HASH =
+            "DELETE FROM image_duplicate_groups WHERE file_hash IN (";
+
+    private static final String DELETE_ALL_GROUPS =
+            "DELETE FROM image_duplicate_groups";
+
+    private static final String INSERT_GROUPS =
+            "INSERT INTO image_duplicate_groups "
+                    + "(hash_algorithm, file_hash, file_size, image_count, drive_count, reclaimable_bytes, updated_at) "
+                    + "SELECT hash_algorithm, file_hash, MAX(file_size), COUNT(*), COUNT(DISTINCT drive_id), "
+                    + "MAX(file_size) * (COUNT(*) - 1), ? "
+                    + "FROM images WHERE deleted = FALSE AND hash_algorithm <> 'SAMPLED'";
+
+    private static final String GROUP_BY =
+            " GROUP BY hash_algorithm, file_hash HAVING COUNT(*) > 1";
+
+    private static final String PG_UPSERT_GROUP =
+            " ON CONFLICT (hash_algorithm, file_hash) DO UPDATE SET "
+                    + "file_size = EXCLUDED.file_size, "
+                    + "image_count = EXCLUDED.image_count, "
+                    + "drive_count = EXCLUDED.drive_count, "
+                    + "reclaimable_bytes = EXCLUDED.reclaimable_bytes, "
+                    + "updated_at = EXCLUDED.updated_at";
+
+    private static final String LOCK_STATE =
+            "SELECT rebuilt_at FROM image_duplicate_state WHERE id = 1 FOR UPDATE";
+
+    private static final String SELECT_REBUILT_AT =
+            "SELECT rebuilt_at FROM image_duplicate_state WHERE id = 1";
+
+    private static final String UPDATE_REBUILT_AT =
+            "UPDATE image_duplicate_state SET rebuilt_at = ? WHERE id = 1";
+
+    private static final String GROUP_COLUMNS =
+            "hash_algorithm, file_hash, file_size, image_count, drive_count, reclaimable_bytes";
+
+    private static final String SELECT_GROUPS_PAGE =
+            "SELECT " + GROUP_COLUMNS + " FROM image_duplicate_groups "
+                    + "ORDER BY reclaimable_bytes DESC, file_hash LIMIT ? OFFSET ?";
+
+    private static final String SELECT_GROUP =
+            "SELECT " + GROUP_COLUMNS + " FROM image_duplicate_groups WHERE hash_algorithm = ? AND file_hash = ?";
+
+    private static final String SUMMARIZE =
+            "SELECT COUNT(*) AS group_count, COALESCE(SUM(image_count), 0) AS image_count, "
+                    + "COALESCE(SUM(reclaimable_bytes), 0) AS reclaimable_bytes FROM image_duplicate_groups";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean tableReady;
+    private volatile boolean postgres;
+
+    /**
+     * A content hash within the algorithm that produced it.
+     */
+    public record HashKey(HashAlgorithm algorithm, String fileHash) {
+    }
+
+    /**
+     * Live images sharing one full-content hash.
+     *
+     * @param reclaimableBytes bytes freed by keeping a single copy
+     */
+    public record DuplicateGroup(
+            HashAlgorithm hashAlgorithm,
+            String fileHash,
+            long fileSize,
+            int imageCount,
+            int driveCount,
+            long reclaimableBytes
+    ) {
+    }
+
+    /**
+     * Totals over every duplicate group.
+     *
+     * @param duplicateImages live images that share their hash with another, all copies counted
+     */
+    public record DuplicateSummary(long groups, long duplicateImages, long reclaimableBytes) {
+    }
+
+    private static final RowMapper<DuplicateGroup> GROUP_MAPPER = (rs, rowNum) -> new DuplicateGroup(
+            HashAlgorithm.valueOf(rs.getString("hash_algorithm")),
+            rs.getString("file_hash"),
+            rs.getLong("file_size"),
+            rs.getInt("image_count"),
+            rs.getInt("drive_count"),
+            rs.getLong("reclaimable_bytes"));
+
+    /**
+     * Queue hashes for recounting, e.g. the hashes images were just written with.
+     * Sampled hashes are ignored.
+     */
+    public void markHashes(Collection<HashKey> hashes) {
+        List<HashKey> keys = new ArrayList<>(hashes.size());
+        for (HashKey key : hashes) {
+            if (key.algorithm() != null && key.algorithm().isFullContent() && key.fileHash() != null) {
+                keys.add(key);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        ensureTable();
+        jdbcTemplate.batchUpdate(INSERT_DIRTY, keys, MAX_ROWS_PER_STATEMENT, (ps, key) -> {
+            ps.setString(1, key.algorithm().name());
+            ps.setString(2, key.fileHash());
+        });
+    }
+
+    /**
+     * Queue the current hashes of live images by ID, before they change.
+     */
+    public void markImages(List<UUID> imageIds) {
+        if (imageIds.isEmpty()) {
+            return;
+        }
+        ensureTable();
+        for (int from = 0; from < imageIds.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<UUID> chunk = imageIds.subList(from, Math.min(imageIds.size(), from + MAX_ROWS_PER_STATEMENT));
+            String sql = INSERT_DIRTY_FROM_IMAGES + "id IN (" + placeholders(chunk.size()) + ")";
+            jdbcTemplate.update(sql, chunk.toArray());
+        }
+    }
+
+    /**
+     * Queue the current hashes of a drive's live images at the given file paths,
+     * or at and below them if {@code subtrees} is set, before they change.
+     */
+    public void markImagesAt(UUID driveId, Collection<String> paths, boolean subtrees) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        ensureTable();
+        if (subtrees) {
+            String sql = INSERT_DIRTY_FROM_IMAGES + "drive_id = ? AND (file_path = ? OR LEFT(file_path, ?) = ?)";
+            jdbcTemplate.batchUpdate(sql, new ArrayList<>(paths), MAX_ROWS_PER_STATEMENT, (ps, path) -> {
+                String prefix = path.isEmpty() ? "" : path + "/";
+                ps.setObject(1, driveId);
+                ps.setString(2, path);
+                ps.setInt(3, prefix.length());
+                ps.setString(4, prefix);
+            });
+            return;
+        }
+        List<String> list = new ArrayList<>(paths);
+        for (int from = 0; from < list.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<String> chunk = list.subList(from, Math.min(list.size(), from + MAX_ROWS_PER_STATEMENT));
+            String sql = INSERT_DIRTY_FROM_IMAGES + "drive_id = ? AND file_path IN (" + placeholders(chunk.size()) + ")";
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(driveId);
+            args.addAll(chunk);
+            jdbcTemplate.update(sql, args.toArray());
+        }
+    }
+
+    /**
+     * Queue the hashes of every live image of a drive, e.g. before it is deleted.
+     */
+    public void markDrive(UUID driveId) {
+        ensureTable();
+        jdbcTemplate.update(INSERT_DIRTY_FROM_IMAGES + "drive_id = ?", driveId);
+    }
+
+    /**
+     * Recount the groups of up to {@code limit} queued hashes and drop them from
+     * the queue. Rows another node is refreshing are skipped.
+     *
+     * @return queued rows handled; fewer than {@code limit} once the queue is drained
+     */
+    @Transactional
+    public int refreshPending(int limit, LocalDateTime now) {
+        ensureTable();
+        String select = postgres ? SELECT_DIRTY + " SKIP LOCKED" : SELECT_DIRTY;
+        List<Long> ids = new ArrayList<>();
+        Set<String> hashes = new LinkedHashSet<>();
+        jdbcTemplate.query(select, rs -> {
+            ids.add(rs.getLong("id"));
+            hashes.add(rs.getString("file_hash"));
+        }, Math.max(1, limit));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<String> list = new ArrayList<>(hashes);
+        for (int from = 0; from < list.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<String> chunk = list.subList(from, Math.min(list.size(), from + MAX_ROWS_PER_STATEMENT));
+            String in = placeholders(chunk.size()) + ")";
+            jdbcTemplate.update(DELETE_GROUPS_BY_HASH + in, chunk.toArray());
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(updatedAt);
+            args.addAll(chunk);
+            String insert = INSERT_GROUPS + " AND file_hash IN (" + in + GROUP_BY;
+            jdbcTemplate.update(postgres ? insert + PG_UPSERT_GROUP : insert, args.toArray());
+        }
+        jdbcTemplate.batchUpdate(DELETE_DIRTY, ids, MAX_ROWS_PER_STATEMENT, (ps, id) -> ps.setLong(1, id));
+        return ids.size();
+    }
+
+    /**
+     * Recount every group with one aggregate over {@code images} and empty the
+     * queue. Rebuilds are serialized on the state row; one waiting behind a rebuild
+     * that started after {@code requestedAt} is skipped.
+     *
+     * @return false if a newer rebuild made this one unnecessary
+     */
+    @Transactional
+    public boolean rebuild(LocalDateTime requestedAt) {
+        ensureTable();
+        List<Timestamp> state = jdbcTemplate.query(LOCK_STATE, (rs, rowNum) -> rs.getTimestamp("rebuilt_at"));
+        Timestamp last = state.isEmpty() ? null : state.get(0);
+        if (last != null && last.toLocalDateTime().isAfter(requestedAt)) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // Queued changes committed before this point are covered by the aggregate below;
+        // later ones stay queued.
+        jdbcTemplate.update(DELETE_ALL_DIRTY);
+        jdbcTemplate.update(DELETE_ALL_GROUPS);
+        int groups = jdbcTemplate.update(INSERT_GROUPS + GROUP_BY, Timestamp.valueOf(now));
+        jdbcTemplate.update(UPDATE_REBUILT_AT, Timestamp.valueOf(now));
+        log.info("Rebuilt {} duplicate groups", groups);
+        return true;
+    }
+
+    public long countPending() {
+        ensureTable();
+        Long count = jdbcTemplate.queryForObject(COUNT_DIRTY, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * @return when the summary was last rebuilt, or empty if it never was
+     */
+    public Optional<LocalDateTime> getRebuiltAt() {
+        ensureTable();
+        List<Timestamp> rows = jdbcTemplate.query(SELECT_REBUILT_AT, (rs, rowNum) -> rs.getTimestamp("rebuilt_at"));
+        return rows.isEmpty() || rows.get(0) == null ? Optional.empty() : Optional.of(rows.get(0).toLocalDateTime());
+    }
+
+    /**
+     * A page of duplicate groups, most reclaimable bytes first.
+     */
+    public List<DuplicateGroup> findGroups(int offset, int limit) {
+        ensureTable();
+        return jdbcTemplate.query(SELECT_GROUPS_PAGE, GROUP_MAPPER, limit, offset);
+    }
+
+    public Optional<DuplicateGroup> findGroup(HashAlgorithm algorithm, String fileHash) {
+        ensureTable();
+        List<DuplicateGroup> rows = jdbcTemplate.query(SELECT_GROUP, GROUP_MAPPER, algorithm.name(), fileHash);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    public DuplicateSummary summarize() {
+        ensureTable();
+        return jdbcTemplate.queryForObject(SUMMARIZE, (rs, rowNum) -> new DuplicateSummary(
+                rs.getLong("group_count"),
+                rs.getLong("image_count"),
+                rs.getLong("reclaimable_bytes")));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private void ensureTable() {
+        if (tableReady) {
+            return;
+        }
+        synchronized (this) {
+            if (tableReady) {
+                return;
+            }
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            postgres = product != null && product.toLowerCase().contains("postgres");
+            if (!postgres) {
+                jdbcTemplate.execute(CREATE_GROUP_TABLE);
+                jdbcTemplate.execute(CREATE_GROUP_INDEX);
+                jdbcTemplate.execute(CREATE_DIRTY_TABLE);
+                jdbcTemplate.execute(CREATE_STATE_TABLE);
+                jdbcTemplate.update(INSERT_STATE);
+                log.info("Created image duplicate tables ({})", product);
+            }
+            tableReady = true;
+        }
+    }
+}
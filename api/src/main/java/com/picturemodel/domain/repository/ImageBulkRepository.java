@@ -0,0 +1,627 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.repository
+ * File: ImageBulkRepository.java
+ * Version: 0.1.7
+ * Turns: 30,31,33,35,40,44,45,46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: ImageBulkRepository
+ * Description: class ImageBulkRepository for set-based image reads and writes during crawls. Methods: streamDriveIndex - stream index rows for a drive; findIndexRows - index rows for given paths; writeBatch - upsert images and apply changed EXIF metadata keys in one transaction; replaceSampledHashes - store backfilled full hashes; replacePerceptualHashes - store backfilled perceptual hashes; streamPerceptualHashes - stream the perceptual hashes of live images; markDeleted - flag images deleted by ID; markDeletedAt - flag images deleted at or below paths.
+ */
+
+package com.picturemodel.domain.repository;
+
+import com.picturemodel.domain.entity.Image;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import com.picturemodel.domain.repository.DuplicateRepository.HashKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access for the crawler. Bypasses the persistence context so a batch of
+ * images costs a handful of statements instead of several round trips per file,
+ * and a drive's index rows can be streamed without loading entities.
+ *
+ * <p>On PostgreSQL images are written as multi-row
+ * {@code INSERT ... ON CONFLICT (drive_id, file_path) DO UPDATE}. Other databases
+ * (H2 in dev) fall back to plain JDBC batches of inserts and updates by ID.</p>
+ *
+ * <p>EXIF metadata is written as a diff: the stored EXIF rows of a batch are read
+ * with one query per chunk and only keys that were added, changed or dropped are
+ * inserted, updated or deleted, so re-extracting an unchanged file writes nothing.</p>
+ *
+ * <p>Every write that can change which images share a content hash queues the
+ * hashes involved with {@link DuplicateRepository} in the same transaction, so the
+ * duplicate summary can be brought up to date without rescanning all images.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class ImageBulkRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+    private static final int INDEX_FETCH_SIZE = 5000;
+
+    private static final String SELECT_INDEX_ROWS =
+            "SELECT id, file_path, file_size, modified_date, file_hash, deleted FROM images WHERE drive_id = ?";
+
+    private static final String SELECT_INDEX_ROWS_WITH_EXIF =
+            "SELECT i.id, i.file_path, i.file_size, i.modified_date, i.file_hash, i.deleted, "
+                    + "EXISTS (SELECT 1 FROM image_metadata m WHERE m.image_id = i.id AND m.source = 'EXIF') AS has_exif "
+                    + "FROM images i WHERE i.drive_id = ?";
+
+    private static final String IMAGE_COLUMNS =
+            "id, drive_id, file_name, file_path, file_size, file_hash, hash_algorithm, perceptual_hash, mime_type, "
+                    + "width, height, deleted, captured_at, created_date, modified_date, indexed_date";
+    private static final String IMAGE_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String PG_UPSERT_CONFLICT =
+            " ON CONFLICT (drive_id, file_path) DO UPDATE SET "
+                    + "file_name = EXCLUDED.file_name, "
+                    + "file_size = EXCLUDED.file_size, "
+                    + "file_hash = EXCLUDED.file_hash, "
+                    + "hash_algorithm = EXCLUDED.hash_algorithm, "
+                    + "perceptual_hash = EXCLUDED.perceptual_hash, "
+                    + "mime_type = EXCLUDED.mime_type, "
+                    + "width = EXCLUDED.width, "
+                    + "height = EXCLUDED.height, "
+                    + "deleted = EXCLUDED.deleted, "
+                    + "captured_at = EXCLUDED.captured_at, "
+                    + "modified_date = EXCLUDED.modified_date "
+                    + "RETURNING id, file_path";
+
+    private static final String INSERT_IMAGE =
+            "INSERT INTO images (" + IMAGE_COLUMNS + ") VALUES " + IMAGE_PLACEHOLDERS;
+
+    private static final String UPDATE_IMAGE =
+            "UPDATE images SET file_name = ?, file_size = ?, file_hash = ?, hash_algorithm = ?, perceptual_hash = ?, "
+                    + "mime_type = ?, width = ?, height = ?, deleted = ?, captured_at = ?, modified_date = ? WHERE id = ?";
+
+    private static final String REPLACE_SAMPLED_HASH =
+            "UPDATE images SET file_hash = ?, hash_algorithm = ? "
+                    + "WHERE id = ? AND file_hash = ? AND hash_algorithm = 'SAMPLED'";
+
+    private static final String REPLACE_PERCEPTUAL_HASH =
+            "UPDATE images SET perceptual_hash = ? WHERE id = ? AND file_hash = ? AND perceptual_hash IS NULL";
+
+    private static final String SELECT_PERCEPTUAL_HASHES =
+            "SELECT id, perceptual_hash FROM images WHERE deleted = FALSE AND perceptual_hash IS NOT NULL";
+
+    private static final String MARK_DELETED =
+            "UPDATE images SET deleted = TRUE WHERE id = ? AND deleted = FALSE";
+
+    private static final String MARK_DELETED_AT =
+            "UPDATE images SET deleted = TRUE "
+                    + "WHERE drive_id = ? AND deleted = FALSE AND (file_path = ? OR LEFT(file_path, ?) = ?)";
+
+    private static final String SELECT_EXIF_METADATA =
+            "SELECT id, image_id, metadata_key, value_entry FROM image_metadata WHERE source = 'EXIF' AND image_id IN (";
+
+    private static final String UPDATE_EXIF_METADATA =
+            "UPDATE image_metadata SET value_entry = ?, last_modified = ? WHERE id = ?";
+
+    private static final String DELETE_METADATA =
+            "DELETE FROM image_metadata WHERE id = ?";
+
+    private static final String INSERT_EXIF_METADATA =
+            "INSERT INTO image_metadata (id, image_id, metadata_key, value_entry, source, last_modified) "
+                    + "VALUES (?, ?, ?, ?, 'EXIF', ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DuplicateRepository duplicateRepository;
+
+    private volatile Boolean postgres;
+
+    /**
+     * One image row to write.
+     *
+     * @param image image values; {@code id} must be set for existing rows
+     * @param isNew true if the crawler found no row for this path
+     * @param exifMetadata EXIF key/values replacing the stored EXIF metadata, or null to leave it untouched
+     */
+    public record ImageWrite(Image image, boolean isNew, Map<String, String> exifMetadata) {
+    }
+
+    /**
+     * Metadata rows a write inserted, updated and deleted.
+     */
+    public record MetadataChurn(int inserted, int updated, int deleted) {
+        public static final MetadataChurn NONE = new MetadataChurn(0, 0, 0);
+
+        public boolean isEmpty() {
+            return inserted == 0 && updated == 0 && deleted == 0;
+        }
+    }
+
+    /**
+     * Outcome of {@link #writeBatch}.
+     *
+     * @param ids image ID by file path for every written row
+     */
+    public record WriteResult(Map<String, UUID> ids, MetadataChurn metadataChurn) {
+    }
+
+    private record StoredMetadata(UUID id, String value) {
+    }
+
+    /**
+     * A full-content hash to store in place of a sampled one.
+     */
+    public record SampledHashReplacement(UUID imageId, String sampledHash, String fullHash, HashAlgorithm algorithm) {
+    }
+
+    /**
+     * A perceptual hash computed for an image whose content hash was {@code fileHash}.
+     */
+    public record PerceptualHashUpdate(UUID imageId, String fileHash, long perceptualHash) {
+    }
+
+    /**
+     * The columns of an image row the crawler needs for existence and change checks.
+     */
+    public record ImageIndexRow(
+            UUID id,
+            String filePath,
+            long fileSize,
+            LocalDateTime modifiedDate,
+            String fileHash,
+            boolean deleted,
+            boolean hasExif
+    ) {
+    }
+
+    /**
+     * Stream every image row for a drive without materializing entities. Runs in a
+     * read-only transaction so PostgreSQL uses a cursor and honours the fetch size.
+     *
+     * @param includeExif whether to resolve {@code hasExif}; false leaves it unset
+     */
+    @Transactional(readOnly = true)
+    public void streamDriveIndex(UUID driveId, boolean includeExif, Consumer<ImageIndexRow> consumer) {
+        String sql = includeExif ? SELECT_INDEX_ROWS_WITH_EXIF : SELECT_INDEX_ROWS;
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(INDEX_FETCH_SIZE);
+            ps.setObject(1, driveId);
+            return ps;
+        }, rs -> {
+            consumer.accept(mapIndexRow(rs, includeExif));
+        });
+    }
+
+    /**
+     * Index rows of a drive's images at the given paths, for checking a handful
+     * of files without streaming the whole drive.
+     *
+     * @param includeExif whether to resolve {@code hasExif}; false leaves it unset
+     */
+    @Transactional(readOnly = true)
+    public List<ImageIndexRow> findIndexRows(UUID driveId, Collection<String> filePaths, boolean includeExif) {
+        List<ImageIndexRow> rows = new ArrayList<>();
+        List<String> paths = new ArrayList<>(filePaths);
+        String base = includeExif
+                ? SELECT_INDEX_ROWS_WITH_EXIF + " AND i.file_path IN ("
+                : SELECT_INDEX_ROWS + " AND file_path IN (";
+        for (int from = 0; from < paths.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<String> chunk = paths.subList(from, Math.min(paths.size(), from + MAX_ROWS_PER_STATEMENT));
+            String sql = base + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, ps -> {
+                ps.setObject(1, driveId);
+                int index = 2;
+                for (String path : chunk) {
+                    ps.setString(index++, path);
+                }
+            }, rs -> {
+                rows.add(mapIndexRow(rs, includeExif));
+            });
+        }
+        return rows;
+    }
+
+    /**
+     * Upsert a batch of images and bring the EXIF metadata of those that carry it
+     * in line with the extracted keys. New images are assigned an ID when they do
+     * not have one.
+     */
+    @Transactional
+    public WriteResult writeBatch(List<ImageWrite> writes) {
+        if (writes.isEmpty()) {
+            return new WriteResult(Map.of(), MetadataChurn.NONE);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (ImageWrite write : writes) {
+            Image image = write.image();
+            if (image.getId() == null) {
+                image.setId(UUID.randomUUID());
+            }
+            if (image.getIndexedDate() == null) {
+                image.setIndexedDate(now);
+            }
+        }
+
+        markReplacedHashes(writes);
+        Map<String, UUID> ids = isPostgres() ? upsertPostgres(writes) : writeBatched(writes);
+        Set<HashKey> written = new HashSet<>();
+        for (ImageWrite write : writes) {
+            Image image = write.image();
+            if (!Boolean.TRUE.equals(image.getDeleted())) {
+                written.add(new HashKey(image.getHashAlgorithm(), image.getFileHash()));
+            }
+        }
+        duplicateRepository.markHashes(written);
+        MetadataChurn churn = writeExifMetadata(writes, ids, now);
+        return new WriteResult(ids, churn);
+    }
+
+    /**
+     * Replace sampled hashes with full-content hashes. A row is only updated if it
+     * still carries the sampled hash that was read, so a concurrent crawl wins.
+     *
+     * @return number of rows updated
+     */
+    @Transactional
+    public int replaceSampledHashes(List<SampledHashReplacement> replacements) {
+        if (replacements.isEmpty()) {
+            return 0;
+        }
+        List<HashKey> hashes = new ArrayList<>(replacements.size());
+        for (SampledHashReplacement replacement : replacements) {
+            hashes.add(new HashKey(replacement.algorithm(), replacement.fullHash()));
+        }
+        duplicateRepository.markHashes(hashes);
+        int[][] counts = jdbcTemplate.batchUpdate(REPLACE_SAMPLED_HASH, replacements, MAX_ROWS_PER_STATEMENT,
+                (ps, replacement) -> {
+                    ps.setString(1, replacement.fullHash());
+                    ps.setString(2, replacement.algorithm().name());
+                    ps.setObject(3, replacement.imageId());
+                    ps.setString(4, replacement.sampledHash());
+                });
+        return sum(counts);
+    }
+
+    /**
+     * Store perceptual hashes computed in the background. Each update applies only
+     * while the image still has the content hash it was computed for and no
+     * perceptual hash, so a file re-crawled meanwhile keeps the crawl's value.
+     *
+     * @return number of rows updated
+     */
+    @Transactional
+    public int replacePerceptualHashes(List<PerceptualHashUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(REPLACE_PERCEPTUAL_HASH, updates, MAX_ROWS_PER_STATEMENT,
+                (ps, update) -> {
+                    ps.setLong(1, update.perceptualHash());
+                    ps.setObject(2, update.imageId());
+                    ps.setString(3, update.fileHash());
+                });
+        return sum(counts);
+    }
+
+    /**
+     * Stream the perceptual hash of every live image that has one, for building the
+     * similarity index. Runs in a read-only transaction so PostgreSQL uses a cursor.
+     */
+    @Transactional(readOnly = true)
+    public void streamPerceptualHashes(BiConsumer<UUID, Long> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_PERCEPTUAL_HASHES);
+            ps.setFetchSize(INDEX_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(rs.getObject("id", UUID.class), rs.getLong("perceptual_hash"));
+        });
+    }
+
+    /**
+     * Mark images deleted by ID, skipping rows already marked.
+     *
+     * @return number of rows updated
+     */
+    @Transactional
+    public int markDeleted(List<UUID> imageIds) {
+        if (imageIds.isEmpty()) {
+            return 0;
+        }
+        duplicateRepository.markImages(imageIds);
+        int[][] counts = jdbcTemplate.batchUpdate(MARK_DELETED, imageIds, MAX_ROWS_PER_STATEMENT,
+                (ps, imageId) -> ps.setObject(1, imageId));
+        return sum(counts);
+    }
+
+    /**
+     * Mark a drive's images deleted at each path and, for directories, below it,
+     * skipping rows already marked.
+     *
+     * @return number of rows updated
+     */
+    @Transactional
+    public int markDeletedAt(UUID driveId, Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return 0;
+        }
+        duplicateRepository.markImagesAt(driveId, paths, true);
+        int[][] counts = jdbcTemplate.batchUpdate(MARK_DELETED_AT, new ArrayList<>(paths), MAX_ROWS_PER_STATEMENT,
+                (ps, path) -> {
+                    String prefix = path.isEmpty() ? "" : path + "/";
+                    ps.setObject(1, driveId);
+                    ps.setString(2, path);
+                    ps.setInt(3, prefix.length());
+                    ps.setString(4, prefix);
+                });
+        return sum(counts);
+    }
+
+    /**
+     * Queue the hashes the written paths hold now, which the write may replace.
+     */
+    private void markReplacedHashes(List<ImageWrite> writes) {
+        Map<UUID, List<String>> pathsByDrive = new HashMap<>();
+        for (ImageWrite write : writes) {
+            Image image = write.image();
+            pathsByDrive.computeIfAbsent(image.getDriveId(), key -> new ArrayList<>()).add(image.getFilePath());
+        }
+        for (Map.Entry<UUID, List<String>> drive : pathsByDrive.entrySet()) {
+            duplicateRepository.markImagesAt(drive.getKey(), drive.getValue(), false);
+        }
+    }
+
+    private Map<String, UUID> upsertPostgres(List<ImageWrite> writes) {
+        Map<String, UUID> ids = new HashMap<>(writes.size() * 2);
+        for (int from = 0; from < writes.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<ImageWrite> chunk = writes.subList(from, Math.min(writes.size(), from + MAX_ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder("INSERT INTO images (").append(IMAGE_COLUMNS).append(") VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(IMAGE_PLACEHOLDERS);
+            }
+            sql.append(PG_UPSERT_CONFLICT);
+
+            jdbcTemplate.query(sql.toString(), ps -> {
+                int index = 1;
+                for (ImageWrite write : chunk) {
+                    index = bindInsert(ps, index, write.image());
+                }
+            }, rs -> {
+                ids.put(rs.getString("file_path"), rs.getObject("id", UUID.class));
+            });
+        }
+        return ids;
+    }
+
+    private Map<String, UUID> writeBatched(List<ImageWrite> writes) {
+        List<Image> inserts = new ArrayList<>();
+        List<Image> updates = new ArrayList<>();
+        Map<String, UUID> ids = new HashMap<>(writes.size() * 2);
+        for (ImageWrite write : writes) {
+            (write.isNew() ? inserts : updates).add(write.image());
+            ids.put(write.image().getFilePath(), write.image().getId());
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IMAGE, inserts, MAX_ROWS_PER_STATEMENT,
+                    (ps, image) -> bindInsert(ps, 1, image));
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_IMAGE, updates, MAX_ROWS_PER_STATEMENT, (ps, image) -> {
+                ps.setString(1, image.getFileName());
+                ps.setLong(2, image.getFileSize());
+                ps.setString(3, image.getFileHash());
+                ps.setString(4, image.getHashAlgorithm().name());
+                setLong(ps, 5, image.getPerceptualHash());
+                ps.setString(6, image.getMimeType());
+                setInteger(ps, 7, image.getWidth());
+                setInteger(ps, 8, image.getHeight());
+                ps.setBoolean(9, Boolean.TRUE.equals(image.getDeleted()));
+                setTimestamp(ps, 10, image.getCapturedAt());
+                setTimestamp(ps, 11, image.getModifiedDate());
+                ps.setObject(12, image.getId());
+            });
+        }
+        return ids;
+    }
+
+    private MetadataChurn writeExifMetadata(List<ImageWrite> writes, Map<String, UUID> ids, LocalDateTime now) {
+        Map<UUID, Map<String, String>> wanted = new HashMap<>();
+        List<UUID> stored = new ArrayList<>();
+        for (ImageWrite write : writes) {
+            if (write.exifMetadata() == null) {
+                continue;
+            }
+            UUID imageId = ids.get(write.image().getFilePath());
+            if (imageId == null) {
+                continue;
+            }
+            Map<String, String> entries = new HashMap<>(write.exifMetadata().size() * 2);
+            for (Map.Entry<String, String> entry : write.exifMetadata().entrySet()) {
+                if (entry.getKey() == null || entry.getValue() == null || entry.getValue().isBlank()) {
+                    continue;
+                }
+                // Same normalization as ImageMetadata#onSave.
+                entries.put(entry.getKey().toLowerCase().trim(), entry.getValue());
+            }
+            wanted.put(imageId, entries);
+            // A row inserted under the ID generated above cannot have metadata yet.
+            if (!(write.isNew() && imageId.equals(write.image().getId()))) {
+                stored.add(imageId);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return MetadataChurn.NONE;
+        }
+
+        List<UUID> deletes = new ArrayList<>();
+        Map<UUID, Map<String, StoredMetadata>> current = findExifMetadata(stored, deletes);
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Map.Entry<UUID, Map<String, String>> image : wanted.entrySet()) {
+            Map<String, StoredMetadata> existing = current.getOrDefault(image.getKey(), Map.of());
+            for (Map.Entry<String, String> entry : image.getValue().entrySet()) {
+                StoredMetadata row = existing.get(entry.getKey());
+                if (row == null) {
+                    inserts.add(new Object[]{UUID.randomUUID(), image.getKey(), entry.getKey(), entry.getValue()});
+                } else if (!entry.getValue().equals(row.value())) {
+                    updates.add(new Object[]{row.id(), entry.getValue()});
+                }
+            }
+            for (Map.Entry<String, StoredMetadata> row : existing.entrySet()) {
+                if (!image.getValue().containsKey(row.getKey())) {
+                    deletes.add(row.getValue().id());
+                }
+            }
+        }
+
+        Timestamp lastModified = Timestamp.valueOf(now);
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_METADATA, deletes, MAX_ROWS_PER_STATEMENT,
+                    (ps, id) -> ps.setObject(1, id));
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_EXIF_METADATA, updates, MAX_ROWS_PER_STATEMENT, (ps, row) -> {
+                ps.setString(1, (String) row[1]);
+                ps.setTimestamp(2, lastModified);
+                ps.setObject(3, row[0]);
+            });
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EXIF_METADATA, inserts, MAX_ROWS_PER_STATEMENT, (ps, row) -> {
+                ps.setObject(1, row[0]);
+                ps.setObject(2, row[1]);
+                ps.setString(3, (String) row[2]);
+                ps.setString(4, (String) row[3]);
+                ps.setTimestamp(5, lastModified);
+            });
+        }
+        return new MetadataChurn(inserts.size(), updates.size(), deletes.size());
+    }
+
+    /**
+     * Stored EXIF rows of the given images, by image and key.
+     *
+     * @param duplicates receives the IDs of rows repeating a key already seen for their image
+     */
+    private Map<UUID, Map<String, StoredMetadata>> findExifMetadata(List<UUID> imageIds, List<UUID> duplicates) {
+        Map<UUID, Map<String, StoredMetadata>> rows = new HashMap<>(imageIds.size() * 2);
+        for (int from = 0; from < imageIds.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<UUID> chunk = imageIds.subList(from, Math.min(imageIds.size(), from + MAX_ROWS_PER_STATEMENT));
+            String sql = SELECT_EXIF_METADATA + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, ps -> {
+                int index = 1;
+                for (UUID imageId : chunk) {
+                    ps.setObject(index++, imageId);
+                }
+            }, rs -> {
+                UUID id = rs.getObject("id", UUID.class);
+                Map<String, StoredMetadata> image = rows.computeIfAbsent(
+                        rs.getObject("image_id", UUID.class), key -> new HashMap<>());
+                StoredMetadata row = new StoredMetadata(id, rs.getString("value_entry"));
+                if (image.putIfAbsent(rs.getString("metadata_key"), row) != null) {
+                    // Inserted by delete-and-insert writes for keys that collided after normalization
+                    duplicates.add(id);
+                }
+            });
+        }
+        return rows;
+    }
+
+    private static ImageIndexRow mapIndexRow(ResultSet rs, boolean includeExif) throws SQLException {
+        Timestamp modified = rs.getTimestamp("modified_date");
+        return new ImageIndexRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("file_path"),
+                rs.getLong("file_size"),
+                modified != null ? modified.toLocalDateTime() : null,
+                rs.getString("file_hash"),
+                rs.getBoolean("deleted"),
+                includeExif && rs.getBoolean("has_exif"));
+    }
+
+    private int bindInsert(PreparedStatement ps, int index, Image image) throws SQLException {
+        ps.setObject(index++, image.getId());
+        ps.setObject(index++, image.getDriveId());
+        ps.setString(index++, image.getFileName());
+        ps.setString(index++, image.getFilePath());
+        ps.setLong(index++, image.getFileSize());
+        ps.setString(index++, image.getFileHash());
+        ps.setString(index++, image.getHashAlgorithm().name());
+        setLong(ps, index++, image.getPerceptualHash());
+        ps.setString(index++, image.getMimeType());
+        setInteger(ps, index++, image.getWidth());
+        setInteger(ps, index++, image.getHeight());
+        ps.setBoolean(index++, Boolean.TRUE.equals(image.getDeleted()));
+        setTimestamp(ps, index++, image.getCapturedAt());
+        setTimestamp(ps, index++, image.getCreatedDate());
+        setTimestamp(ps, index++, image.getModifiedDate());
+        setTimestamp(ps, index++, image.getIndexedDate());
+        return index;
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        }
+    }
+
+    private static int sum(int[][] counts) {
+        int total = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            cached = product != null && product.toLowerCase().contains("postgres");
+            postgres = cached;
+            log.info("Bulk image writes using {} path ({})", cached ? "ON CONFLICT upsert" : "JDBC batch", product);
+        }
+        return cached;
+    }
+}
@@ -2,17 +2,18 @@
  * App: Picture Model
  * Package: com.picturemodel.domain.repository
  * File: ImageRepository.java
- * Version: 0.1.3
- * Turns: 5
+ * Version: 0.1.6
+ * Turns: 5,33,45,46
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-31T07:44:19Z
+ * Date: 2026-10-16T19:10:00Z
  * Exports: ImageRepository
- * Description: interface ImageRepository for ImageRepository responsibilities. Methods: findByDrive_IdAndFilePath - find by drive id and file path; findByFileHash - find by file hash; findByDrive_Id - find by drive id; findAllByDrive_Id - find all by drive id; countByDrive_Id - count by drive id; countByDrive_IdAndDeletedFalse - count by drive id and deleted false.
+ * Description: interface ImageRepository for ImageRepository responsibilities. Methods: findByDrive_IdAndFilePath - find by drive id and file path; findByFileHashAndHashAlgorithm - find by file hash within an algorithm; findByFileHashAndHashAlgorithmAndDeletedFalse - live copies of a file; findByDrive_IdAndHashAlgorithmAndDeletedFalseAndIdGreaterThanOrderByIdAsc - page a drive's live images by hash algorithm; findByDrive_IdAndPerceptualHashIsNullAndDeletedFalseAndIdGreaterThanOrderByIdAsc - page a drive's live images without a perceptual hash; findByDrive_Id - find by drive id; findAllByDrive_Id - find all by drive id; countByDrive_Id - count by drive id; countByDrive_IdAndDeletedFalse - count by drive id and deleted false.
  */
 
 package com.picturemodel.domain.repository;
 
 import com.picturemodel.domain.entity.Image;
+import com.picturemodel.domain.enums.HashAlgorithm;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -39,9 +40,28 @@ public interface ImageRepository extends JpaRepository<Image, UUID>, JpaSpecific
     Optional<Image> findByDrive_IdAndFilePath(UUID driveId, String filePath);
 
     /**
-     * Find images by file hash (for duplicate detection).
+     * Find images by file hash (for duplicate detection). Hashes are only
+     * comparable within one algorithm.
      */
-    Optional<Image> findByFileHash(String fileHash);
+    List<Image> findByFileHashAndHashAlgorithm(String fileHash, HashAlgorithm hashAlgorithm);
+
+    /**
+     * Find the live images of a duplicate group.
+     */
+    List<Image> findByFileHashAndHashAlgorithmAndDeletedFalse(String fileHash, HashAlgorithm hashAlgorithm);
+
+    /**
+     * Page through a drive's live images whose hash was produced by an algorithm
+     * (e.g. sampled hashes to backfill), in ID order after {@code afterId}.
+     */
+    List<Image> findByDrive_IdAndHashAlgorithmAndDeletedFalseAndIdGreaterThanOrderByIdAsc(
+            UUID driveId, HashAlgorithm hashAlgorithm, UUID afterId, Pageable pageable);
+
+    /**
+     * Page through a drive's live images without a perceptual hash, in ID order after {@code afterId}.
+     */
+    List<Image> findByDrive_IdAndPerceptualHashIsNullAndDeletedFalseAndIdGreaterThanOrderByIdAsc(
+            UUID driveId, UUID afterId, Pageable pageable);
 
     /**
      * Find all images for a specific drive with pagination.
@@ -2,12 +2,12 @@
  * App: Picture Model
  * Package: com.picturemodel.domain.repository
  * File: RemoteFileDriveRepository.java
- * Version: 0.1.0
- * Turns: 5
+ * Version: 0.1.2
+ * Turns: 5,38,40
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T02:03:52Z
+ * Date: 2026-10-16T16:10:00Z
  * Exports: RemoteFileDriveRepository
- * Description: interface RemoteFileDriveRepository for RemoteFileDriveRepository responsibilities. Methods: findByStatus - find by status; findByAutoConnectTrue - find by auto connect true; countByStatus - count by status.
+ * Description: interface RemoteFileDriveRepository for RemoteFileDriveRepository responsibilities. Methods: findByStatus - find by status; findByAutoConnectTrue - find by auto connect true; findByAutoCrawlTrue - drives with auto-crawl enabled; updateNextScheduledCrawl - set the next scheduled crawl time; findByWatchChangesTrue - drives with change watching enabled; updateImageCount - set the image count; countByStatus - count by status.
  */
 
 package com.picturemodel.domain.repository;
@@ -15,8 +15,13 @@ package com.picturemodel.domain.repository;
 import com.picturemodel.domain.entity.RemoteFileDrive;
 import com.picturemodel.domain.enums.ConnectionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -38,6 +43,33 @@ public interface RemoteFileDriveRepository extends JpaRepository<RemoteFileDrive
      */
     List<RemoteFileDrive> findByAutoConnectTrue();
 
+    /**
+     * Find all drives that have autoCrawl enabled.
+     */
+    List<RemoteFileDrive> findByAutoCrawlTrue();
+
+    /**
+     * Set when a drive's next scheduled crawl is due, leaving its other columns
+     * untouched so a crawl updating the drive concurrently is not overwritten.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RemoteFileDrive d SET d.nextScheduledCrawl = :next WHERE d.id = :id")
+    int updateNextScheduledCrawl(@Param("id") UUID id, @Param("next") LocalDateTime next);
+
+    /**
+     * Find all drives that have watchChanges enabled.
+     */
+    List<RemoteFileDrive> findByWatchChangesTrue();
+
+    /**
+     * Set a drive's image count, leaving its other columns untouched.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RemoteFileDrive d SET d.imageCount = :count WHERE d.id = :id")
+    int updateImageCount(@Param("id") UUID id, @Param("count") int count);
+
     /**
      * Count drives with a specific connection status.
      */
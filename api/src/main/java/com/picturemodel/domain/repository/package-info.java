@@ -2,20 +2,26 @@
  * App: Picture Model
  * Package: com.picturemodel.domain.repository
  * File: package-info.java
- * Version: 0.1.0
- * Turns: 10
+ * Version: 0.1.6
+ * Turns: 10,30,34,36,39,43,45
  * Author: Codex
- * Date: 2026-02-02T22:36:43Z
+ * Date: 2026-10-16T18:40:00Z
  * Exports: package-info
  * Description: Package-level documentation for com.picturemodel.domain.repository.
  */
 
 /**
- * Spring Data repositories for domain entities.
+ * Spring Data repositories for domain entities, plus the JDBC bulk writer used by the crawler.
  *
  * <p>Key types:</p>
  * <ul>
+ *   <li>CrawlFrontierRepository</li>
  *   <li>CrawlJobRepository</li>
+ *   <li>CrawlSeenPathRepository</li>
+ *   <li>CrawlWorkRepository</li>
+ *   <li>DirectoryManifestRepository</li>
+ *   <li>DuplicateRepository</li>
+ *   <li>ImageBulkRepository</li>
  *   <li>ImageMetadataRepository</li>
  *   <li>ImageRepository</li>
  *   <li>RemoteFileDriveRepository</li>
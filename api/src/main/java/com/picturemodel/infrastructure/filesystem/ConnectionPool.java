@@ -0,0 +1,254 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: ConnectionPool.java
+ * Version: 0.1.0
+ * Turns: 51
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T21:40:00Z
+ * Exports: ConnectionPool
+ * Description: class ConnectionPool for sharing a bounded set of protocol connections between threads. Methods: borrow - take a connection, waiting up to the borrow timeout; release - return a connection; invalidate - return a connection to be closed; releaseOnClose - return a connection when a stream over it closes; close - close idle connections, stop reaping and refuse new borrows.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+import com.picturemodel.config.ConnectionPoolProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of connections that are not safe for concurrent use (SFTP
+ * channels, FTP control connections), so a crawl and thumbnail requests on the
+ * same drive each work on their own connection instead of interleaving commands
+ * on one socket.
+ *
+ * <p>At most {@code maxSize} connections are borrowed at once; further callers
+ * wait in arrival order for up to {@code borrowTimeoutMs} and then fail with an
+ * {@link IOException}. Connections are opened on demand and reused most recently
+ * returned first, so the ones left over after a burst go idle and are closed
+ * after {@code idleTimeoutMs}, by the next borrow or release or by a shared
+ * background reaper, so a drive that goes quiet does not keep its sockets open.
+ * A connection idle longer than {@code validateAfterIdleMs} is checked with a
+ * round trip before it is handed out, and one found closed when it is returned
+ * is dropped. A connection whose state is unknown after a failure is given back
+ * with {@link #invalidate} and closed.</p>
+ *
+ * @param <T> connection type
+ */
+@Slf4j
+final class ConnectionPool<T> {
+
+    /**
+     * Opens, checks and closes the pooled connections.
+     */
+    interface Connector<T> {
+
+        T open() throws Exception;
+
+        /**
+         * @return false if the connection is known to be closed, without a round trip
+         */
+        boolean isOpen(T connection);
+
+        /**
+         * @return true if the connection answers a round trip to the server
+         */
+        boolean isHealthy(T connection);
+
+        void close(T connection);
+    }
+
+    private record Idle<T>(T connection, long since) {
+    }
+
+    // One daemon thread closes expired idle connections for every pool
+    private static final ScheduledExecutorService REAPER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "connection-pool-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+    private final Connector<T> connector;
+    private final Semaphore permits;
+    private final long borrowTimeoutMs;
+    private final long validateAfterNanos;
+    private final long idleTimeoutNanos;
+    private final Deque<Idle<T>> idle = new ArrayDeque<>();
+    private final ScheduledFuture<?> reaper;
+    private volatile boolean closed;
+
+    ConnectionPool(String name, ConnectionPoolProperties settings, Connector<T> connector) {
+        this.name = name;
+        this.connector = connector;
+        this.permits = new Semaphore(Math.max(1, settings.getMaxSize()), true);
+        this.borrowTimeoutMs = settings.getBorrowTimeoutMs();
+        this.validateAfterNanos = TimeUnit.MILLISECONDS.toNanos(settings.getValidateAfterIdleMs());
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.getIdleTimeoutMs());
+        long period = Math.max(1000, settings.getIdleTimeoutMs() / 2);
+        this.reaper = REAPER.scheduleWithFixedDelay(this::reapQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Take a connection, reusing an idle one if it is still healthy and opening
+     * one otherwise. Every borrowed connection must be given back with
+     * {@link #release}.
+     *
+     * @throws IOException if no connection becomes free within the borrow timeout
+     * @throws IllegalStateException if the pool is closed
+     */
+    T borrow() throws Exception {
+        if (closed) {
+            throw new IllegalStateException("Connection pool closed: " + name);
+        }
+        if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new IOException("Timed out after " + borrowTimeoutMs + " ms waiting for a connection to " + name);
+        }
+        T connection = null;
+        try {
+            reapIdle();
+            Idle<T> candidate;
+            while (connection == null && (candidate = takeIdle()) != null) {
+                long idleFor = System.nanoTime() - candidate.since();
+                if (idleFor < idleTimeoutNanos && connector.isOpen(candidate.connection())
+                        && (idleFor < validateAfterNanos || connector.isHealthy(candidate.connection()))) {
+                    connection = candidate.connection();
+                } else {
+                    log.debug("Dropping stale pooled connection to {}", name);
+                    connector.close(candidate.connection());
+                }
+            }
+            if (connection == null) {
+                connection = connector.open();
+            }
+            return connection;
+        } finally {
+            if (connection == null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Give a borrowed connection back. Connections found closed, or returned
+     * after the pool was closed, are closed instead of kept.
+     */
+    void release(T connection) {
+        try {
+            boolean kept = false;
+            if (connector.isOpen(connection)) {
+                synchronized (idle) {
+                    if (!closed) {
+                        idle.push(new Idle<>(connection, System.nanoTime()));
+                        kept = true;
+                    }
+                }
+            }
+            if (kept) {
+                reapIdle();
+            } else {
+                connector.close(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Give back a borrowed connection whose state is unknown after a failure,
+     * closing it instead of keeping it.
+     */
+    void invalidate(T connection) {
+        try {
+            connector.close(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Wrap a stream that reads over a borrowed connection so closing it
+     * releases the connection, once, or invalidates it if closing the stream fails.
+     */
+    InputStream releaseOnClose(InputStream stream, T connection) {
+        return new FilterInputStream(stream) {
+            private boolean released;
+
+            @Override
+            public void close() throws IOException {
+                if (released) {
+                    return;
+                }
+                released = true;
+                try {
+                    super.close();
+                } catch (IOException | RuntimeException e) {
+                    invalidate(connection);
+                    throw e;
+                }
+                release(connection);
+            }
+        };
+    }
+
+    /**
+     * Close the idle connections and refuse further borrows. Borrowed
+     * connections are closed as they are released.
+     */
+    void close() {
+        reaper.cancel(false);
+        List<T> drained = new ArrayList<>();
+        synchronized (idle) {
+            closed = true;
+            for (Idle<T> candidate : idle) {
+                drained.add(candidate.connection());
+            }
+            idle.clear();
+        }
+        drained.forEach(connector::close);
+    }
+
+    /**
+     * Close the connections idle longer than the idle timeout. The deque is kept
+     * most recent first, so they are at its tail.
+     */
+    private void reapIdle() {
+        List<T> expired = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (idle) {
+            while (!idle.isEmpty() && now - idle.peekLast().since() > idleTimeoutNanos) {
+                expired.add(idle.pollLast().connection());
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.debug("Closing {} idle pooled connections to {}", expired.size(), name);
+            expired.forEach(connector::close);
+        }
+    }
+
+    private void reapQuietly() {
+        try {
+            reapIdle();
+        } catch (RuntimeException e) {
+            log.warn("Failed to close idle pooled connections to {}: {}", name, e.getMessage());
+        }
+    }
+
+    private Idle<T> takeIdle() {
+        synchronized (idle) {
+            return idle.poll();
+        }
+    }
+}
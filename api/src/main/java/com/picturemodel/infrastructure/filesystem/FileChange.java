@@ -0,0 +1,51 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: FileChange.java
+ * Version: 0.1.1
+ * Turns: 40,41
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T16:40:00Z
+ * Exports: FileChange
+ * Description: record FileChange for a change reported by a drive watch. Methods: none declared.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+/**
+ * A change below a watched directory, reported by a {@link WatchableFileSystemProvider}.
+ *
+ * @param kind what happened
+ * @param path path relative to the drive root, '/'-separated; empty for the root
+ * @param directory true if the entry is known to be a directory
+ */
+public record FileChange(Kind kind, String path, boolean directory) {
+
+    public enum Kind {
+        /**
+         * An entry was created or moved into place
+         */
+        CREATED,
+
+        /**
+         * A file's content or attributes changed
+         */
+        MODIFIED,
+
+        /**
+         * An entry was deleted or moved away; for a directory, everything below it too
+         */
+        DELETED,
+
+        /**
+         * Changes below {@code path} were lost; its subtree must be rescanned
+         */
+        OVERFLOW,
+
+        /**
+         * The watch of {@code path} was re-established after its connection was
+         * lost; changes made meanwhile are unknown
+         */
+        RESUMED
+    }
+}
@@ -2,17 +2,19 @@
  * App: Picture Model
  * Package: com.picturemodel.infrastructure.filesystem
  * File: FileSystemProvider.java
- * Version: 0.1.0
- * Turns: 5
+ * Version: 0.1.2
+ * Turns: 5,49,50
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T02:03:52Z
+ * Date: 2026-10-16T21:10:00Z
  * Exports: for
- * Description: interface for for for responsibilities. Methods: connect - connect; disconnect - disconnect; isConnected - is connected; listDirectory - list directory; getDirectoryTree - get directory tree; readFile - read file; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection.
+ * Description: interface for for for responsibilities. Methods: connect - connect; disconnect - disconnect; isConnected - is connected; listDirectory - list directory; streamDirectory - visit a directory's entries as they arrive; getDirectoryTree - get directory tree; readFile - read file; readRange - read part of a file; openChannel - open a file for positioned reads; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection.
  */
 
 package com.picturemodel.infrastructure.filesystem;
 
 import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -44,12 +46,33 @@ public interface FileSystemProvider {
 
     /**
      * List all files and directories in the specified path.
+     * Collects {@link #streamDirectory}; callers that can work entry by entry
+     * should stream instead, so a large directory is never held in memory.
      *
      * @param path the directory path to list
      * @return list of FileInfo objects
      * @throws Exception if listing fails
      */
-    List<FileInfo> listDirectory(String path) throws Exception;
+    default List<FileInfo> listDirectory(String path) throws Exception {
+        List<FileInfo> entries = new ArrayList<>();
+        streamDirectory(path, entry -> {
+            entries.add(entry);
+            return true;
+        });
+        return entries;
+    }
+
+    /**
+     * Visit the files and directories in the specified path as the provider
+     * receives them from the file system, without building the whole listing.
+     * The visitor runs on the calling thread, between the provider's reads, so it
+     * must not call back into the same provider.
+     *
+     * @param path the directory path to list
+     * @param visitor receives each entry; returning false stops the listing
+     * @throws Exception if listing fails, or the exception the visitor threw
+     */
+    void streamDirectory(String path, ListingVisitor visitor) throws Exception;
 
     /**
      * Get the complete directory tree structure starting from the specified path.
@@ -69,6 +92,28 @@ public interface FileSystemProvider {
      */
     InputStream readFile(String path) throws Exception;
 
+    /**
+     * Read part of a file, starting at {@code offset} without reading the bytes
+     * before it.
+     *
+     * @param path the file path to read
+     * @param offset first byte to read
+     * @param length maximum number of bytes to read; the stream ends early at the end of the file
+     * @return InputStream of the requested bytes
+     * @throws Exception if reading fails
+     */
+    InputStream readRange(String path, long offset, long length) throws Exception;
+
+    /**
+     * Open a file for reads at arbitrary positions. The channel is read-only,
+     * and like {@link #readFile} streams it must be closed by the caller.
+     *
+     * @param path the file path to read
+     * @return read-only channel over the file contents
+     * @throws Exception if the file cannot be opened
+     */
+    SeekableByteChannel openChannel(String path) throws Exception;
+
     /**
      * Get metadata about a specific file.
      *
@@ -92,4 +137,17 @@ public interface FileSystemProvider {
      * @return ConnectionTestResult with test outcome
      */
     ConnectionTestResult testConnection();
+
+    /**
+     * Receives the entries of a streamed directory listing one at a time.
+     */
+    @FunctionalInterface
+    interface ListingVisitor {
+
+        /**
+         * @return true to receive the next entry, false to stop the listing
+         * @throws Exception to stop the listing and fail {@link FileSystemProvider#streamDirectory} with it
+         */
+        boolean visit(FileInfo entry) throws Exception;
+    }
 }
@@ -2,28 +2,35 @@
  * App: Picture Model
  * Package: com.picturemodel.infrastructure.filesystem
  * File: FileSystemProviderFactory.java
- * Version: 0.1.1
- * Turns: 6
+ * Version: 0.1.4
+ * Turns: 6,42,47,51
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-31T08:57:04Z
+ * Date: 2026-10-16T21:40:00Z
  * Exports: FileSystemProviderFactory
- * Description: class FileSystemProviderFactory for FileSystemProviderFactory responsibilities. Methods: createProvider - create provider; getStringValue - get string value; getIntValue - get int value; extractHostFromUrl - extract host from url.
+ * Description: class FileSystemProviderFactory for FileSystemProviderFactory responsibilities. Methods: createProvider - create a metered provider; getStringValue - get string value; getIntValue - get int value; extractHostFromUrl - extract host from url.
  */
 
 package com.picturemodel.infrastructure.filesystem;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.picturemodel.config.ConnectionPoolProperties;
+import com.picturemodel.config.CrawlerProperties;
 import com.picturemodel.domain.entity.RemoteFileDrive;
 import com.picturemodel.domain.enums.DriveType;
 import com.picturemodel.infrastructure.security.CredentialEncryptionService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 /**
  * Factory for creating FileSystemProvider instances based on drive type.
- * Handles credential decryption and provider instantiation.
+ * Handles credential decryption and provider instantiation. Local providers
+ * walk directory trees with the crawler's LOCAL parallelism; SFTP and FTP
+ * providers pool their connections with the {@link ConnectionPoolProperties}
+ * settings. Every provider is wrapped in a {@link MeteredFileSystemProvider}
+ * tagged with its drive.
  *
  * @author Claude (AI Coding Agent)
  */
@@ -34,6 +41,9 @@ public class FileSystemProviderFactory {
 
     private final CredentialEncryptionService encryptionService;
     private final ObjectMapper objectMapper;
+    private final CrawlerProperties crawlerProperties;
+    private final ConnectionPoolProperties connectionPoolProperties;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Create a FileSystemProvider for the given drive.
@@ -43,6 +53,10 @@ public class FileSystemProviderFactory {
      * @throws Exception if provider creation fails
      */
     public FileSystemProvider createProvider(RemoteFileDrive drive) throws Exception {
+        return MeteredFileSystemProvider.wrap(instantiate(drive), meterRegistry, drive);
+    }
+
+    private FileSystemProvider instantiate(RemoteFileDrive drive) throws Exception {
         DriveType type = drive.getType();
         String connectionUrl = drive.getConnectionUrl();
         String rootPath = drive.getRootPath();
@@ -57,7 +71,8 @@ public class FileSystemProviderFactory {
         switch (type) {
             case LOCAL:
                 String localRoot = rootPath != null && !rootPath.isBlank() ? rootPath : connectionUrl;
-                return new LocalFileSystemProvider(localRoot);
+                return new LocalFileSystemProvider(localRoot,
+                        crawlerProperties.resolveParallelism(DriveType.LOCAL, null));
 
             case SMB:
                 String smbUsername = getStringValue(credentials, "username", "");
@@ -70,14 +85,16 @@ public class FileSystemProviderFactory {
                 int sftpPort = getIntValue(credentials, "port", 22);
                 String sftpUsername = getStringValue(credentials, "username", "");
                 String sftpPassword = getStringValue(credentials, "password", "");
-                return new SftpFileSystemProvider(sftpHost, sftpPort, sftpUsername, sftpPassword, rootPath);
+                return new SftpFileSystemProvider(sftpHost, sftpPort, sftpUsername, sftpPassword, rootPath,
+                        connectionPoolProperties);
 
             case FTP:
                 String ftpHost = getStringValue(credentials, "host", extractHostFromUrl(connectionUrl));
                 int ftpPort = getIntValue(credentials, "port", 21);
                 String ftpUsername = getStringValue(credentials, "username", "anonymous");
                 String ftpPassword = getStringValue(credentials, "password", "");
-                return new FtpFileSystemProvider(ftpHost, ftpPort, ftpUsername, ftpPassword, rootPath);
+                return new FtpFileSystemProvider(ftpHost, ftpPort, ftpUsername, ftpPassword, rootPath,
+                        connectionPoolProperties);
 
             default:
                 throw new IllegalArgumentException("Unsupported drive type: " + type);
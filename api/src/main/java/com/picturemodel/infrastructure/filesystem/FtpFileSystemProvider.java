@@ -2,23 +2,33 @@
  * App: Picture Model
  * Package: com.picturemodel.infrastructure.filesystem
  * File: FtpFileSystemProvider.java
- * Version: 0.1.1
- * Turns: 5,9
+ * Version: 0.1.5
+ * Turns: 5,9,48,49,50,51
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-31T21:59:02Z
+ * Date: 2026-10-16T21:40:00Z
  * Exports: FtpFileSystemProvider
- * Description: class FtpFileSystemProvider for FtpFileSystemProvider responsibilities. Methods: FtpFileSystemProvider - constructor; connect - connect; disconnect - disconnect; isConnected - is connected; listDirectory - list directory; getDirectoryTree - get directory tree; buildDirectoryTree - build directory tree; readFile - read file; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection; createFileInfo - create file info; normalizePath - normalize path; isImageFile - is image file; guessContentType - guess content type.
+ * Description: class FtpFileSystemProvider for FtpFileSystemProvider responsibilities. Methods: FtpFileSystemProvider - constructor; connect - connect; disconnect - disconnect; isConnected - is connected; streamDirectory - stream directory entries from MLSD; getDirectoryTree - get directory tree; buildDirectoryTree - build directory tree; readFile - read file; readRange - read part of a file from a REST offset; openChannel - open a file for seekable reads; getFileMetadata - stat one path with MLST or SIZE and MDTM; fileExists - file exists; testConnection - test connection; withClient - run a call on a pooled connection; openClient - open and log in a control connection; closeClient - log out and close a control connection; createFileInfo - create file info; retrieve - open a RETR transfer from an offset on a pooled connection; isSelfOrParent - whether an entry is the directory itself or its parent; supportsMlsd - whether the server lists with MLSD; supportsMlst - whether the server stats single paths with MLST; normalizePath - normalize path; isImageFile - is image file.
  */
 
 package com.picturemodel.infrastructure.filesystem;
 
+import com.picturemodel.config.ConnectionPoolProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.net.ftp.FTPCmd;
 import org.apache.commons.net.ftp.FTPFile;
+import org.apache.commons.net.ftp.FTPReply;
+import org.apache.commons.net.ftp.parser.MLSxEntryParser;
 
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.channels.SeekableByteChannel;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
@@ -27,6 +37,11 @@ import java.util.List;
 /**
  * File system provider for FTP using Apache Commons Net.
  *
+ * <p>An FTP control connection carries one command or transfer at a time, so
+ * the provider keeps a {@link ConnectionPool} of logged-in connections and every
+ * call borrows its own. Streams from {@code readFile} and {@code readRange} keep
+ * their connection until they are closed.</p>
+ *
  * @author Claude (AI Coding Agent)
  */
 @Slf4j
@@ -37,24 +52,63 @@ public class FtpFileSystemProvider implements FileSystemProvider {
     private final String username;
     private final String password;
     private final String rootPath;
-    private FTPClient ftpClient;
-    private boolean connected;
-
-    public FtpFileSystemProvider(String host, int port, String username, String password, String rootPath) {
+    private final ConnectionPoolProperties poolSettings;
+    private ConnectionPool<ListingFtpClient> clients;
+    private volatile boolean connected;
+    private volatile Boolean mlsd;
+    private volatile Boolean mlst;
+
+    public FtpFileSystemProvider(String host, int port, String username, String password, String rootPath,
+                                 ConnectionPoolProperties poolSettings) {
         this.host = host;
         this.port = port;
         this.username = username;
         this.password = password;
         this.rootPath = rootPath;
+        this.poolSettings = poolSettings;
     }
 
     @Override
     public void connect() throws Exception {
-        ftpClient = new FTPClient();
-        ftpClient.connect(host, port);
-        ftpClient.login(username, password);
-        ftpClient.enterLocalPassiveMode();
-        ftpClient.setFileType(FTP.BINARY_FILE_TYPE);
+        mlsd = null;
+        mlst = null;
+        if (clients != null) {
+            // Reconnecting: stop the previous pool and its reaper
+            clients.close();
+        }
+        clients = new ConnectionPool<>("ftp://" + host + ":" + port, poolSettings,
+                new ConnectionPool.Connector<>() {
+                    @Override
+                    public ListingFtpClient open() throws IOException {
+                        return openClient();
+                    }
+
+                    @Override
+                    public boolean isOpen(ListingFtpClient client) {
+                        return client.isConnected();
+                    }
+
+                    @Override
+                    public boolean isHealthy(ListingFtpClient client) {
+                        try {
+                            return client.sendNoOp();
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    }
+
+                    @Override
+                    public void close(ListingFtpClient client) {
+                        closeClient(client);
+                    }
+                });
+        // Log in once now, so wrong credentials fail the connect
+        try {
+            clients.release(clients.borrow());
+        } catch (Exception e) {
+            clients.close();
+            throw e;
+        }
 
         connected = true;
         log.info("Connected to FTP server: {}:{}", host, port);
@@ -62,41 +116,67 @@ public class FtpFileSystemProvider implements FileSystemProvider {
 
     @Override
     public void disconnect() {
-        if (ftpClient != null && ftpClient.isConnected()) {
-            try {
-                ftpClient.logout();
-                ftpClient.disconnect();
-            } catch (IOException e) {
-                log.error("Error disconnecting from FTP", e);
-            }
-        }
         connected = false;
+        if (clients != null) {
+            clients.close();
+        }
         log.info("Disconnected from FTP server: {}:{}", host, port);
     }
 
     @Override
     public boolean isConnected() {
-        return connected && ftpClient != null && ftpClient.isConnected();
+        return connected;
     }
 
+    /**
+     * Stream a directory from an {@code MLSD} data connection, parsing each line
+     * as it is read. Servers without MLSD are listed with {@code LIST}, which
+     * Commons Net only hands over as a whole array.
+     */
     @Override
-    public List<FileInfo> listDirectory(String path) throws Exception {
-        if (!isConnected()) {
-            throw new IllegalStateException("Not connected to FTP server");
-        }
-
+    public void streamDirectory(String path, ListingVisitor visitor) throws Exception {
         String fullPath = normalizePath(rootPath, path);
-        FTPFile[] files = ftpClient.listFiles(fullPath);
-
-        List<FileInfo> fileInfos = new ArrayList<>();
-        for (FTPFile file : files) {
-            if (".".equals(file.getName()) || "..".equals(file.getName())) {
-                continue;
+        withClient(client -> {
+            if (!supportsMlsd(client)) {
+                for (FTPFile file : client.listFiles(fullPath)) {
+                    if (isSelfOrParent(file)) {
+                        continue;
+                    }
+                    if (!visitor.visit(createFileInfo(file, fullPath))) {
+                        return null;
+                    }
+                }
+                return null;
             }
-            fileInfos.add(createFileInfo(file, fullPath));
-        }
 
-        return fileInfos;
+            Socket socket = client.openDataConnection(FTPCmd.MLSD, fullPath);
+            if (socket == null) {
+                throw new IOException("MLSD " + fullPath + " failed: " + client.getReplyString().trim());
+            }
+            boolean complete = false;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), client.getControlEncoding()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    FTPFile file = MLSxEntryParser.parseEntry(line);
+                    if (file == null || isSelfOrParent(file)) {
+                        continue;
+                    }
+                    if (!visitor.visit(createFileInfo(file, fullPath))) {
+                        return null;
+                    }
+                }
+                complete = true;
+            } finally {
+                socket.close();
+                // An abandoned transfer ends with a 426 reply, which still has to be read
+                boolean transferred = client.completePendingCommand();
+                if (complete && !transferred) {
+                    throw new IOException("MLSD " + fullPath + " failed: " + client.getReplyString().trim());
+                }
+            }
+            return null;
+        });
     }
 
     @Override
@@ -115,28 +195,29 @@ public class FtpFileSystemProvider implements FileSystemProvider {
                 .path(relativePath)
                 .build();
 
+        // Only subdirectory names are kept during the listing, so its connection
+        // goes back to the pool before the subdirectories borrow one
+        List<String> subdirectories = new ArrayList<>();
         try {
-            FTPFile[] files = ftpClient.listFiles(fullPath);
-
-            for (FTPFile file : files) {
-                if (".".equals(file.getName()) || "..".equals(file.getName())) {
-                    continue;
-                }
-
-                if (file.isDirectory()) {
-                    String childPath = relativePath + "/" + file.getName();
-                    DirectoryTreeNode child = buildDirectoryTree(fullPath + "/" + file.getName(), childPath);
-                    node.getChildren().add(child);
-                    node.setTotalImageCount(node.getTotalImageCount() + child.getTotalImageCount());
-                } else if (isImageFile(file.getName())) {
+            streamDirectory(relativePath, entry -> {
+                if (Boolean.TRUE.equals(entry.getIsDirectory())) {
+                    subdirectories.add(entry.getName());
+                } else if (isImageFile(entry.getName())) {
                     node.setImageCount(node.getImageCount() + 1);
                     node.setTotalImageCount(node.getTotalImageCount() + 1);
                 }
-            }
-        } catch (IOException e) {
+                return true;
+            });
+        } catch (Exception e) {
             log.warn("Error reading FTP directory: {}", fullPath, e);
         }
 
+        for (String name : subdirectories) {
+            DirectoryTreeNode child = buildDirectoryTree(fullPath + "/" + name, relativePath + "/" + name);
+            node.getChildren().add(child);
+            node.setTotalImageCount(node.getTotalImageCount() + child.getTotalImageCount());
+        }
+
         return node;
     }
 
@@ -147,27 +228,83 @@ public class FtpFileSystemProvider implements FileSystemProvider {
         }
 
         String fullPath = normalizePath(rootPath, path);
-        return ftpClient.retrieveFileStream(fullPath);
+        return retrieve(fullPath, 0);
     }
 
+    /**
+     * Sends {@code REST offset} before {@code RETR}, so the server starts the
+     * transfer at the range instead of at byte 0.
+     */
     @Override
-    public FileInfo getFileMetadata(String path) throws Exception {
+    public InputStream readRange(String path, long offset, long length) throws Exception {
         if (!isConnected()) {
             throw new IllegalStateException("Not connected to FTP server");
         }
 
+        String fullPath = normalizePath(rootPath, path);
+        return new RangeInputStream(retrieve(fullPath, offset), length);
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(String path) throws Exception {
+        Long size = getFileMetadata(path).getSize();
+        if (size == null) {
+            throw new IOException("Size unknown for FTP file: " + path);
+        }
+        return new RangeReadChannel((offset, length) -> readRange(path, offset, length), size);
+    }
+
+    /**
+     * Stat one path with {@code MLST} where the server has it, or with {@code SIZE}
+     * and {@code MDTM}, instead of listing its whole parent directory. Directories
+     * on servers without MLST, where SIZE fails, fall back to the parent listing.
+     */
+    /**
+     * Stat one path with {@code MLST} where the server has it, or with {@code SIZE}
+     * and {@code MDTM}, instead of listing its whole parent directory. Directories
+     * on servers without MLST, where SIZE fails, fall back to the parent listing.
+     */
+    @Override
+    public FileInfo getFileMetadata(String path) throws Exception {
         String fullPath = normalizePath(rootPath, path);
         String parentPath = fullPath.substring(0, fullPath.lastIndexOf('/'));
         String fileName = path.substring(path.lastIndexOf('/') + 1);
 
-        FTPFile[] files = ftpClient.listFiles(parentPath);
-        for (FTPFile file : files) {
-            if (file.getName().equals(fileName)) {
+        FileInfo info = withClient(client -> {
+            if (supportsMlst(client)) {
+                FTPFile file = client.mlistFile(fullPath);
+                if (file == null) {
+                    return null;
+                }
+                // MLST names the entry by the path it was asked for
+                file.setName(fileName);
                 return createFileInfo(file, parentPath);
             }
-        }
 
-        throw new IOException("File not found: " + path);
+            String size = client.getSize(fullPath);
+            if (size != null) {
+                Instant modified = client.mdtmInstant(fullPath);
+                return FileInfo.builder()
+                        .name(fileName)
+                        .path(parentPath + "/" + fileName)
+                        .size(Long.parseLong(size.trim()))
+                        .isDirectory(false)
+                        .lastModified(modified == null ? null : LocalDateTime.ofInstant(modified, ZoneId.systemDefault()))
+                        .mimeType(ImageContentTypes.forFileName(fileName))
+                        .build();
+            }
+
+            for (FTPFile file : client.listFiles(parentPath)) {
+                if (file.getName().equals(fileName)) {
+                    return createFileInfo(file, parentPath);
+                }
+            }
+            return null;
+        });
+        if (info == null) {
+            throw new IOException("File not found: " + path);
+        }
+        return info;
     }
 
     @Override
@@ -177,14 +314,14 @@ public class FtpFileSystemProvider implements FileSystemProvider {
             String parentPath = fullPath.substring(0, fullPath.lastIndexOf('/'));
             String fileName = path.substring(path.lastIndexOf('/') + 1);
 
-            FTPFile[] files = ftpClient.listFiles(parentPath);
+            FTPFile[] files = withClient(client -> client.listFiles(parentPath));
             for (FTPFile file : files) {
                 if (file.getName().equals(fileName)) {
                     return true;
                 }
             }
             return false;
-        } catch (IOException e) {
+        } catch (Exception e) {
             return false;
         }
     }
@@ -193,7 +330,7 @@ public class FtpFileSystemProvider implements FileSystemProvider {
     public ConnectionTestResult testConnection() {
         long startTime = System.currentTimeMillis();
         try {
-            ftpClient.listFiles(rootPath);
+            withClient(client -> client.listFiles(rootPath));
             return ConnectionTestResult.success("Successfully connected to FTP server: " + host + ":" + port,
                     System.currentTimeMillis() - startTime);
         } catch (Exception e) {
@@ -202,19 +339,153 @@ public class FtpFileSystemProvider implements FileSystemProvider {
         }
     }
 
+    /**
+     * Run a call on a connection borrowed from the pool for its duration.
+     */
+    private <R> R withClient(FtpCall<R> call) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to FTP server");
+        }
+        ListingFtpClient client = clients.borrow();
+        R result;
+        try {
+            result = call.call(client);
+        } catch (IOException e) {
+            // The control connection may be out of step with the server after an I/O failure
+            clients.invalidate(client);
+            throw e;
+        } catch (Exception e) {
+            clients.release(client);
+            throw e;
+        }
+        clients.release(client);
+        return result;
+    }
+
+    private ListingFtpClient openClient() throws IOException {
+        ListingFtpClient client = new ListingFtpClient();
+        try {
+            client.connect(host, port);
+            if (!FTPReply.isPositiveCompletion(client.getReplyCode())) {
+                throw new IOException("FTP server refused connection: " + client.getReplyString().trim());
+            }
+            if (!client.login(username, password)) {
+                throw new IOException("FTP login failed: " + client.getReplyString().trim());
+            }
+            client.enterLocalPassiveMode();
+            client.setFileType(FTP.BINARY_FILE_TYPE);
+            return client;
+        } catch (IOException e) {
+            closeClient(client);
+            throw e;
+        }
+    }
+
+    private void closeClient(ListingFtpClient client) {
+        if (client.isConnected()) {
+            try {
+                client.logout();
+            } catch (IOException e) {
+                log.debug("Error logging out of FTP: {}", e.getMessage());
+            }
+            try {
+                client.disconnect();
+            } catch (IOException e) {
+                log.error("Error disconnecting from FTP", e);
+            }
+        }
+    }
+
     private FileInfo createFileInfo(FTPFile file, String parentPath) {
         return FileInfo.builder()
                 .name(file.getName())
                 .path(parentPath + "/" + file.getName())
                 .size(file.getSize())
                 .isDirectory(file.isDirectory())
-                .lastModified(LocalDateTime.ofInstant(
+                .lastModified(file.getTimestamp() == null ? null : LocalDateTime.ofInstant(
                         file.getTimestamp().toInstant(),
                         ZoneId.systemDefault()))
-                .mimeType(file.isDirectory() ? null : guessContentType(file.getName()))
+                .mimeType(file.isDirectory() ? null : ImageContentTypes.forFileName(file.getName()))
                 .build();
     }
 
+    /**
+     * Open a transfer from {@code offset} on a pooled connection. The connection
+     * takes no other command until the transfer's reply is read, so closing the
+     * stream reads it, whether the caller read to the end or abandoned the
+     * transfer. Only a connection whose transfer completed cleanly goes back to
+     * the pool; after a failed RETR, or a transfer that did not complete (an
+     * abandoned read), the control connection may be out of step and is closed.
+     */
+    private InputStream retrieve(String fullPath, long offset) throws Exception {
+        ListingFtpClient client = clients.borrow();
+        InputStream stream;
+        try {
+            client.setRestartOffset(offset);
+            stream = client.retrieveFileStream(fullPath);
+            if (stream == null) {
+                throw new IOException("RETR " + fullPath + " failed: " + client.getReplyString().trim());
+            }
+        } catch (Exception e) {
+            clients.invalidate(client);
+            throw e;
+        }
+        return new FilterInputStream(stream) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                boolean completed = false;
+                try {
+                    super.close();
+                    completed = client.completePendingCommand();
+                } finally {
+                    if (completed) {
+                        clients.release(client);
+                    } else {
+                        clients.invalidate(client);
+                    }
+                }
+            }
+        };
+    }
+
+    private boolean isSelfOrParent(FTPFile file) {
+        if (".".equals(file.getName()) || "..".equals(file.getName())) {
+            return true;
+        }
+        // MLSD names the listed directory and its parent by type, not by "." and ".."
+        String raw = file.getRawListing();
+        if (raw == null) {
+            return false;
+        }
+        String facts = raw.toLowerCase();
+        return facts.startsWith("type=cdir;") || facts.contains(";type=cdir;")
+                || facts.startsWith("type=pdir;") || facts.contains(";type=pdir;");
+    }
+
+    private boolean supportsMlsd(FTPClient client) throws IOException {
+        Boolean supported = mlsd;
+        if (supported == null) {
+            supported = client.hasFeature("MLSD");
+            mlsd = supported;
+        }
+        return supported;
+    }
+
+    private boolean supportsMlst(FTPClient client) throws IOException {
+        Boolean supported = mlst;
+        if (supported == null) {
+            supported = client.hasFeature("MLST");
+            mlst = supported;
+        }
+        return supported;
+    }
+
     private String normalizePath(String root, String path) {
         if (path == null || path.isEmpty() || "/".equals(path)) {
             return root;
@@ -223,20 +494,22 @@ public class FtpFileSystemProvider implements FileSystemProvider {
     }
 
     private boolean isImageFile(String fileName) {
-        String contentType = guessContentType(fileName);
-        return contentType != null && contentType.startsWith("image/");
-    }
-
-    private String guessContentType(String fileName) {
-        String lower = fileName.toLowerCase();
-        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
-        if (lower.endsWith(".png")) return "image/png";
-        if (lower.endsWith(".gif")) return "image/gif";
-        if (lower.endsWith(".bmp")) return "image/bmp";
-        if (lower.endsWith(".webp")) return "image/webp";
-        if (lower.endsWith(".tiff") || lower.endsWith(".tif")) return "image/tiff";
-        if (lower.endsWith(".heic")) return "image/heic";
-        if (lower.endsWith(".heif")) return "image/heif";
-        return null;
+        return ImageContentTypes.isImageFileName(fileName);
+    }
+
+    /**
+     * Exposes the data connection of a listing command, so MLSD lines can be
+     * read as they arrive instead of after the whole listing is buffered.
+     */
+    private static final class ListingFtpClient extends FTPClient {
+
+        Socket openDataConnection(FTPCmd command, String path) throws IOException {
+            return _openDataConnection_(command, path);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FtpCall<R> {
+        R call(ListingFtpClient client) throws Exception;
     }
 }
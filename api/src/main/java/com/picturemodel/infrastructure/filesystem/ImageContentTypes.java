@@ -0,0 +1,262 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: ImageContentTypes.java
+ * Version: 0.1.1
+ * Turns: 42,48
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:10:00Z
+ * Exports: ImageContentTypes
+ * Description: class ImageContentTypes for classifying image files by extension and leading bytes. Methods: forFileName - image MIME type of a file name; isImageFileName - whether a file name has an image extension; sniff - image MIME type from a file's first bytes; resolve - MIME type from a file name and its first bytes.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+/**
+ * The one place that decides which files are images and of what type. Every
+ * provider labels its listing entries with {@link #forFileName}, and the crawler
+ * may confirm the label from the file's first bytes with {@link #resolve}.
+ *
+ * <p>Listings call {@link #forFileName} once per entry, so it allocates nothing:
+ * the extension is folded to lower case into a {@code long} and looked up in an
+ * open-addressed table of interned MIME strings. Besides the common web formats
+ * it recognises HEIF/AVIF and camera RAW files.</p>
+ *
+ * <p>Most RAW formats are TIFF containers and start with a TIFF header, so
+ * sniffing alone cannot tell a NEF from a TIFF; {@link #resolve} keeps the
+ * extension's RAW type when the bytes are a TIFF header.</p>
+ */
+public final class ImageContentTypes {
+
+    /** Bytes {@link #sniff} needs to recognise every supported signature. */
+    public static final int SNIFF_LENGTH = 16;
+
+    private static final int MAX_EXTENSION = 5;
+    private static final int TABLE_SIZE = 128;
+
+    private static final long[] KEYS = new long[TABLE_SIZE];
+    private static final String[] TYPES = new String[TABLE_SIZE];
+
+    private static final String JPEG = "image/jpeg";
+    private static final String PNG = "image/png";
+    private static final String GIF = "image/gif";
+    private static final String BMP = "image/bmp";
+    private static final String WEBP = "image/webp";
+    private static final String TIFF = "image/tiff";
+    private static final String HEIC = "image/heic";
+    private static final String HEIF = "image/heif";
+    private static final String AVIF = "image/avif";
+    private static final String CR2 = "image/x-canon-cr2";
+    private static final String CR3 = "image/x-canon-cr3";
+    private static final String ORF = "image/x-olympus-orf";
+    private static final String RW2 = "image/x-panasonic-rw2";
+    private static final String RAF = "image/x-fuji-raf";
+
+    static {
+        register(JPEG, "jpg", "jpeg", "jpe", "jfif");
+        register(PNG, "png");
+        register(GIF, "gif");
+        register(BMP, "bmp", "dib");
+        register(WEBP, "webp");
+        register(TIFF, "tif", "tiff");
+        register(HEIC, "heic");
+        register(HEIF, "heif", "hif");
+        register(AVIF, "avif");
+        register(CR2, "cr2");
+        register(CR3, "cr3");
+        register("image/x-canon-crw", "crw");
+        register("image/x-nikon-nef", "nef");
+        register("image/x-nikon-nrw", "nrw");
+        register("image/x-sony-arw", "arw");
+        register("image/x-sony-srf", "srf");
+        register("image/x-sony-sr2", "sr2");
+        register("image/x-adobe-dng", "dng");
+        register(ORF, "orf");
+        register(RW2, "rw2");
+        register(RAF, "raf");
+        register("image/x-pentax-pef", "pef");
+        register("image/x-samsung-srw", "srw");
+        register("image/x-sigma-x3f", "x3f");
+        register("image/x-hasselblad-3fr", "3fr");
+        register("image/x-phaseone-iiq", "iiq");
+        register("image/x-leica-rwl", "rwl");
+        register("image/x-epson-erf", "erf");
+        register("image/x-kodak-kdc", "kdc");
+        register("image/x-minolta-mrw", "mrw");
+        register("image/x-mamiya-mef", "mef");
+        register("image/x-leaf-mos", "mos");
+    }
+
+    private ImageContentTypes() {
+    }
+
+    /**
+     * @return the image MIME type for the file's extension, or null if it is not an image
+     */
+    public static String forFileName(CharSequence fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        int end = fileName.length();
+        int start = end;
+        while (start > 0 && end - start <= MAX_EXTENSION) {
+            char c = fileName.charAt(start - 1);
+            if (c == '.') {
+                break;
+            }
+            start--;
+        }
+        if (start == 0 || start == end || fileName.charAt(start - 1) != '.') {
+            return null;
+        }
+        long key = 0;
+        for (int i = start; i < end; i++) {
+            char c = fileName.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            } else if ((c < 'a' || c > 'z') && (c < '0' || c > '9')) {
+                return null;
+            }
+            key = key << 8 | c;
+        }
+        return lookup(key);
+    }
+
+    /**
+     * @return true if the file name has an image extension
+     */
+    public static boolean isImageFileName(CharSequence fileName) {
+        return forFileName(fileName) != null;
+    }
+
+    /**
+     * Recognise an image format from a file's first bytes.
+     *
+     * @param head the first bytes of the file
+     * @param length number of valid bytes in {@code head}; {@link #SNIFF_LENGTH} is enough
+     * @return the image MIME type, or null if the bytes match no supported signature
+     */
+    public static String sniff(byte[] head, int length) {
+        if (head == null) {
+            return null;
+        }
+        int n = Math.min(length, head.length);
+        if (startsWith(head, n, 0, 0xFF, 0xD8, 0xFF)) {
+            return JPEG;
+        }
+        if (startsWith(head, n, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return PNG;
+        }
+        if (startsWith(head, n, 0, 'G', 'I', 'F', '8')) {
+            return GIF;
+        }
+        if (startsWith(head, n, 0, 'R', 'I', 'F', 'F') && startsWith(head, n, 8, 'W', 'E', 'B', 'P')) {
+            return WEBP;
+        }
+        if (startsWith(head, n, 0, 'I', 'I', '*', 0)) {
+            return startsWith(head, n, 8, 'C', 'R') ? CR2 : TIFF;
+        }
+        if (startsWith(head, n, 0, 'M', 'M', 0, '*')) {
+            return TIFF;
+        }
+        if (startsWith(head, n, 0, 'I', 'I', 'R', 'O') || startsWith(head, n, 0, 'I', 'I', 'R', 'S')) {
+            return ORF;
+        }
+        if (startsWith(head, n, 0, 'I', 'I', 'U', 0)) {
+            return RW2;
+        }
+        if (startsWith(head, n, 0, 'F', 'U', 'J', 'I', 'F', 'I', 'L', 'M', 'C', 'C', 'D', '-', 'R', 'A', 'W')) {
+            return RAF;
+        }
+        if (startsWith(head, n, 4, 'f', 't', 'y', 'p')) {
+            return isoBrand(head, n);
+        }
+        if (startsWith(head, n, 0, 'B', 'M')) {
+            return BMP;
+        }
+        return null;
+    }
+
+    /**
+     * MIME type of a file from its name and, when available, its first bytes.
+     * A recognised signature wins over the extension, except that a TIFF header
+     * keeps an extension naming a TIFF-based RAW format.
+     *
+     * @return the MIME type, or the extension's type (possibly null) if the bytes are not recognised
+     */
+    public static String resolve(CharSequence fileName, byte[] head, int length) {
+        String byName = forFileName(fileName);
+        String sniffed = sniff(head, length);
+        if (sniffed == null) {
+            return byName;
+        }
+        if (TIFF.equals(sniffed) && byName != null && isRaw(byName)) {
+            return byName;
+        }
+        return sniffed;
+    }
+
+    private static boolean isRaw(String mimeType) {
+        return mimeType.startsWith("image/x-");
+    }
+
+    private static String isoBrand(byte[] head, int n) {
+        if (startsWith(head, n, 8, 'h', 'e', 'i', 'c') || startsWith(head, n, 8, 'h', 'e', 'i', 'x')
+                || startsWith(head, n, 8, 'h', 'e', 'v', 'c') || startsWith(head, n, 8, 'h', 'e', 'v', 'x')) {
+            return HEIC;
+        }
+        if (startsWith(head, n, 8, 'm', 'i', 'f', '1') || startsWith(head, n, 8, 'm', 's', 'f', '1')
+                || startsWith(head, n, 8, 'h', 'e', 'i', 'f')) {
+            return HEIF;
+        }
+        if (startsWith(head, n, 8, 'a', 'v', 'i', 'f') || startsWith(head, n, 8, 'a', 'v', 'i', 's')) {
+            return AVIF;
+        }
+        if (startsWith(head, n, 8, 'c', 'r', 'x', ' ')) {
+            return CR3;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int length, int offset, int... signature) {
+        if (offset + signature.length > length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void register(String mimeType, String... extensions) {
+        for (String extension : extensions) {
+            long key = 0;
+            for (int i = 0; i < extension.length(); i++) {
+                key = key << 8 | extension.charAt(i);
+            }
+            int slot = slot(key);
+            while (KEYS[slot] != 0) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            KEYS[slot] = key;
+            TYPES[slot] = mimeType;
+        }
+    }
+
+    private static String lookup(long key) {
+        int slot = slot(key);
+        while (KEYS[slot] != 0) {
+            if (KEYS[slot] == key) {
+                return TYPES[slot];
+            }
+            slot = (slot + 1) & (TABLE_SIZE - 1);
+        }
+        return null;
+    }
+
+    private static int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 57);
+    }
+}
@@ -2,12 +2,12 @@
  * App: Picture Model
  * Package: com.picturemodel.infrastructure.filesystem
  * File: LocalFileSystemProvider.java
- * Version: 0.1.1
- * Turns: 5
+ * Version: 0.1.6
+ * Turns: 5,40,42,49,50,54
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T23:05:49Z
+ * Date: 2026-10-16T23:10:00Z
  * Exports: LocalFileSystemProvider
- * Description: class LocalFileSystemProvider for LocalFileSystemProvider responsibilities. Methods: LocalFileSystemProvider - constructor; connect - connect; disconnect - disconnect; isConnected - is connected; listDirectory - list directory; getDirectoryTree - get directory tree; buildDirectoryTree - build directory tree; readFile - read file; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection; createFileInfo - create file info; probeContentType - probe content type; isImageFile - is image file.
+ * Description: class LocalFileSystemProvider for LocalFileSystemProvider responsibilities. Methods: LocalFileSystemProvider - constructor; connect - connect; disconnect - disconnect; isConnected - is connected; streamDirectory - visit a directory's entries as they are read; getDirectoryTree - get directory tree; scanPool - the provider's tree walk pool; buildDirectoryTree - walk a tree sequentially; readFile - read file; readRange - read part of a file from its position; openChannel - open a FileChannel; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection; createFileInfo - create file info; toFileInfo - file info from walk attributes; watch - report changes below a directory with a WatchService.
  */
 
 package com.picturemodel.infrastructure.filesystem;
@@ -16,27 +16,68 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * File system provider for local file system access using Java NIO.2.
+ * Changes can be watched with the platform's {@link WatchService}.
+ *
+ * <p>Listings and trees are walked with {@link Files#walkFileTree}, which
+ * iterates a {@link DirectoryStream} per directory, so a listing reaches the
+ * caller entry by entry. Its visitor receives each entry's
+ * {@link BasicFileAttributes} with the entry (on Windows straight from the
+ * directory listing, elsewhere from one stat), and images are recognized by
+ * extension, so an entry costs at most one system call. Directory trees are
+ * walked in parallel when the provider is created with a scan parallelism
+ * above 1, on one pool the provider keeps until it is disconnected. Like
+ * {@link Files#walkFileTree}, the parallel walk skips a directory that links
+ * back to one of its ancestors.</p>
  *
  * @author Claude (AI Coding Agent)
  */
 @Slf4j
-public class LocalFileSystemProvider implements FileSystemProvider {
+public class LocalFileSystemProvider implements WatchableFileSystemProvider {
+
+    private static final Set<FileVisitOption> FOLLOW_LINKS = EnumSet.of(FileVisitOption.FOLLOW_LINKS);
+    private static final long ROOT_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
 
     private final String rootPath;
-    private boolean connected;
+    private final int scanParallelism;
+    private final List<LocalTreeWatcher> watchers = new CopyOnWriteArrayList<>();
+    private volatile boolean connected;
+    private volatile boolean rootExists;
+    private volatile long rootCheckedNanos;
+    // Created by the first parallel tree walk, shut down on disconnect
+    private ForkJoinPool scanPool;
 
     public LocalFileSystemProvider(String rootPath) {
+        this(rootPath, 1);
+    }
+
+    /**
+     * @param scanParallelism threads walking a directory tree; 1 walks it sequentially
+     */
+    public LocalFileSystemProvider(String rootPath, int scanParallelism) {
         this.rootPath = rootPath;
+        this.scanParallelism = Math.max(1, scanParallelism);
         this.connected = false;
     }
 
@@ -50,37 +91,52 @@ public class LocalFileSystemProvider implements FileSystemProvider {
             throw new IOException("Root path is not a directory: " + rootPath);
         }
         connected = true;
+        rootExists = true;
+        rootCheckedNanos = System.nanoTime();
         log.info("Connected to local file system: {}", rootPath);
     }
 
     @Override
     public void disconnect() {
+        for (LocalTreeWatcher watcher : watchers) {
+            watcher.close();
+        }
+        synchronized (this) {
+            if (scanPool != null) {
+                scanPool.shutdown();
+                scanPool = null;
+            }
+        }
         connected = false;
         log.info("Disconnected from local file system: {}", rootPath);
     }
 
+    /**
+     * Connected, and the root existed when last checked. The root is checked at
+     * most every few seconds rather than on every operation.
+     */
     @Override
     public boolean isConnected() {
-        return connected && Files.exists(Paths.get(rootPath));
+        if (!connected) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - rootCheckedNanos >= ROOT_CHECK_INTERVAL_NANOS) {
+            rootExists = Files.isDirectory(Paths.get(rootPath));
+            rootCheckedNanos = now;
+        }
+        return rootExists;
     }
 
     @Override
-    public List<FileInfo> listDirectory(String path) throws Exception {
+    public void streamDirectory(String path, ListingVisitor visitor) throws Exception {
         if (!isConnected()) {
             throw new IllegalStateException("Not connected to file system");
         }
 
         String normalizedPath = normalizePath(path);
         Path dirPath = Paths.get(rootPath, normalizedPath);
-        List<FileInfo> fileInfos = new ArrayList<>();
-
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirPath)) {
-            for (Path entry : stream) {
-                fileInfos.add(createFileInfo(entry));
-            }
-        }
-
-        return fileInfos;
+        listEntries(dirPath, (entry, attrs) -> visitor.visit(toFileInfo(entry, attrs)));
     }
 
     @Override
@@ -91,34 +147,215 @@ public class LocalFileSystemProvider implements FileSystemProvider {
 
         String normalizedPath = normalizePath(path);
         Path dirPath = Paths.get(rootPath, normalizedPath);
-        return buildDirectoryTree(dirPath, normalizedPath);
+        if (scanParallelism <= 1) {
+            return buildDirectoryTree(dirPath, normalizedPath);
+        }
+        return scanPool().invoke(new TreeTask(dirPath, normalizedPath, new Ancestor(dirPath, fileKey(dirPath), null)));
+    }
+
+    private synchronized ForkJoinPool scanPool() {
+        if (scanPool == null) {
+            scanPool = new ForkJoinPool(scanParallelism);
+        }
+        return scanPool;
     }
 
+    /**
+     * Walk a tree in one {@link Files#walkFileTree} pass, building nodes on a stack.
+     */
     private DirectoryTreeNode buildDirectoryTree(Path dirPath, String relativePath) throws IOException {
-        DirectoryTreeNode node = DirectoryTreeNode.builder()
-                .name(dirPath.getFileName() != null ? dirPath.getFileName().toString() : rootPath)
-                .path(relativePath.isEmpty() ? "/" : relativePath)
-                .build();
+        Deque<DirectoryTreeNode> stack = new ArrayDeque<>();
+        DirectoryTreeNode[] root = new DirectoryTreeNode[1];
+        Files.walkFileTree(dirPath, FOLLOW_LINKS, Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                DirectoryTreeNode parent = stack.peek();
+                String nodePath = parent == null ? relativePath : childPath(parent, dir);
+                stack.push(newNode(dir, nodePath));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isDirectory() && isImageFile(file)) {
+                    countImage(stack.peek());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                if (file.equals(dirPath)) {
+                    log.warn("Error reading directory: {}", dirPath, e);
+                    root[0] = newNode(dirPath, relativePath);
+                } else {
+                    log.debug("Skipping unreadable path {}: {}", file, e.getMessage());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                if (e != null) {
+                    log.warn("Error reading directory: {}", dir, e);
+                }
+                DirectoryTreeNode node = stack.pop();
+                DirectoryTreeNode parent = stack.peek();
+                if (parent == null) {
+                    root[0] = node;
+                } else {
+                    addChild(parent, node);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return root[0];
+    }
+
+    /**
+     * One directory of a parallel tree walk: lists the directory, then walks its
+     * subdirectories as forked tasks. A subdirectory that is the same directory
+     * as one of its ancestors, reached through a symbolic link, is skipped.
+     */
+    private final class TreeTask extends RecursiveTask<DirectoryTreeNode> {
+        private final Path dirPath;
+        private final String relativePath;
+        private final Ancestor ancestors;
+
+        private TreeTask(Path dirPath, String relativePath, Ancestor ancestors) {
+            this.dirPath = dirPath;
+            this.relativePath = relativePath;
+            this.ancestors = ancestors;
+        }
+
+        @Override
+        protected DirectoryTreeNode compute() {
+            DirectoryTreeNode node = newNode(dirPath, relativePath);
+            List<TreeTask> subtrees = new ArrayList<>();
+            try {
+                listEntries(dirPath, (entry, attrs) -> {
+                    if (attrs.isDirectory()) {
+                        Object key = attrs.fileKey();
+                        if (ancestors.contains(entry, key)) {
+                            log.debug("Skipping unreadable path {}: {}", entry,
+                                    new FileSystemLoopException(entry.toString()).getMessage());
+                        } else {
+                            subtrees.add(new TreeTask(entry, childPath(node, entry), new Ancestor(entry, key, ancestors)));
+                        }
+                    } else if (isImageFile(entry)) {
+                        countImage(node);
+                    }
+                    return true;
+                });
+            } catch (Exception e) {
+                log.warn("Error reading directory: {}", dirPath, e);
+                return node;
+            }
+            for (TreeTask subtree : invokeAll(subtrees)) {
+                addChild(node, subtree.join());
+            }
+            return node;
+        }
+    }
+
+    /**
+     * Visit the entries of one directory as its {@link DirectoryStream} yields
+     * them, with the attributes the walk read for them. Symbolic links are
+     * followed; a broken link is visited as a link.
+     *
+     * @throws IOException if the directory itself cannot be read
+     * @throws Exception the exception the visitor threw, which ends the walk
+     */
+    private void listEntries(Path dirPath, EntryVisitor visitor) throws Exception {
+        Exception[] failure = new Exception[1];
+        Files.walkFileTree(dirPath, FOLLOW_LINKS, 1, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                try {
+                    return visitor.visit(file, attrs) ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+                } catch (Exception e) {
+                    failure[0] = e;
+                    return FileVisitResult.TERMINATE;
+                }
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                if (file.equals(dirPath)) {
+                    throw e;
+                }
+                log.debug("Skipping unreadable entry {}: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
 
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirPath)) {
-            for (Path entry : stream) {
-                if (Files.isDirectory(entry)) {
-                    String childRelativePath = relativePath.isEmpty()
-                            ? entry.getFileName().toString()
-                            : relativePath + "/" + entry.getFileName().toString();
-                    DirectoryTreeNode child = buildDirectoryTree(entry, childRelativePath);
-                    node.getChildren().add(child);
-                    node.setTotalImageCount(node.getTotalImageCount() + child.getTotalImageCount());
-                } else if (isImageFile(entry)) {
-                    node.setImageCount(node.getImageCount() + 1);
-                    node.setTotalImageCount(node.getTotalImageCount() + 1);
+    /**
+     * A directory on the path from the root of a parallel walk, identified as
+     * {@link Files#walkFileTree} identifies it: by file key, or with
+     * {@link Files#isSameFile} where the platform has no file keys.
+     */
+    private record Ancestor(Path dir, Object key, Ancestor parent) {
+        boolean contains(Path entry, Object entryKey) {
+            for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+                if (entryKey != null && ancestor.key != null) {
+                    if (entryKey.equals(ancestor.key)) {
+                        return true;
+                    }
+                } else {
+                    try {
+                        if (Files.isSameFile(entry, ancestor.dir)) {
+                            return true;
+                        }
+                    } catch (IOException | SecurityException e) {
+                        // Not comparable; treat as different, as the walk does
+                    }
                 }
             }
+            return false;
+        }
+    }
+
+    private static Object fileKey(Path dir) {
+        try {
+            return Files.readAttributes(dir, BasicFileAttributes.class).fileKey();
         } catch (IOException e) {
-            log.warn("Error reading directory: {}", dirPath, e);
+            return null;
         }
+    }
+
+    @FunctionalInterface
+    private interface EntryVisitor {
+        /**
+         * @return true to continue with the next entry
+         */
+        boolean visit(Path entry, BasicFileAttributes attrs) throws Exception;
+    }
+
+    private DirectoryTreeNode newNode(Path dirPath, String relativePath) {
+        return DirectoryTreeNode.builder()
+                .name(dirPath.getFileName() != null ? dirPath.getFileName().toString() : rootPath)
+                .path(relativePath.isEmpty() ? "/" : relativePath)
+                .build();
+    }
+
+    private static String childPath(DirectoryTreeNode parent, Path entry) {
+        String parentPath = "/".equals(parent.getPath()) ? "" : parent.getPath();
+        String name = entry.getFileName().toString();
+        return parentPath.isEmpty() ? name : parentPath + "/" + name;
+    }
+
+    private static void countImage(DirectoryTreeNode node) {
+        node.setImageCount(node.getImageCount() + 1);
+        node.setTotalImageCount(node.getTotalImageCount() + 1);
+    }
 
-        return node;
+    private static void addChild(DirectoryTreeNode parent, DirectoryTreeNode child) {
+        parent.getChildren().add(child);
+        parent.setTotalImageCount(parent.getTotalImageCount() + child.getTotalImageCount());
     }
 
     @Override
@@ -131,6 +368,27 @@ public class LocalFileSystemProvider implements FileSystemProvider {
         return Files.newInputStream(filePath);
     }
 
+    @Override
+    public InputStream readRange(String path, long offset, long length) throws Exception {
+        SeekableByteChannel channel = openChannel(path);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new RangeInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(String path) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to file system");
+        }
+
+        return FileChannel.open(Paths.get(rootPath, path), StandardOpenOption.READ);
+    }
+
     @Override
     public FileInfo getFileMetadata(String path) throws Exception {
         if (!isConnected()) {
@@ -147,6 +405,23 @@ public class LocalFileSystemProvider implements FileSystemProvider {
         return Files.exists(filePath);
     }
 
+    @Override
+    public Watch watch(String path, Consumer<FileChange> listener) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to file system");
+        }
+
+        Path root = Paths.get(rootPath);
+        Path directory = root.resolve(normalizePath(path));
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Not a directory: " + directory);
+        }
+        LocalTreeWatcher watcher = new LocalTreeWatcher(root, directory, listener, watchers::remove);
+        watcher.start();
+        watchers.add(watcher);
+        return watcher;
+    }
+
     @Override
     public ConnectionTestResult testConnection() {
         long startTime = System.currentTimeMillis();
@@ -169,28 +444,23 @@ public class LocalFileSystemProvider implements FileSystemProvider {
     }
 
     private FileInfo createFileInfo(Path path) throws IOException {
-        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        return toFileInfo(path, Files.readAttributes(path, BasicFileAttributes.class));
+    }
 
+    private FileInfo toFileInfo(Path path, BasicFileAttributes attrs) {
+        String name = path.getFileName().toString();
         return FileInfo.builder()
-                .name(path.getFileName().toString())
+                .name(name)
                 .path(path.toString())
                 .size(attrs.size())
-                .isDirectory(Files.isDirectory(path))
+                .isDirectory(attrs.isDirectory())
                 .lastModified(LocalDateTime.ofInstant(
                         Instant.ofEpochMilli(attrs.lastModifiedTime().toMillis()),
                         ZoneId.systemDefault()))
-                .mimeType(Files.isDirectory(path) ? null : probeContentType(path))
+                .mimeType(attrs.isDirectory() ? null : ImageContentTypes.forFileName(name))
                 .build();
     }
 
-    private String probeContentType(Path path) {
-        try {
-            return Files.probeContentType(path);
-        } catch (IOException e) {
-            return null;
-        }
-    }
-
     private String normalizePath(String path) {
         if (path == null) {
             return "";
@@ -205,8 +475,7 @@ public class LocalFileSystemProvider implements FileSystemProvider {
         return trimmed;
     }
 
-    private boolean isImageFile(Path path) {
-        String contentType = probeContentType(path);
-        return contentType != null && contentType.startsWith("image/");
+    private static boolean isImageFile(Path path) {
+        return ImageContentTypes.forFileName(path.getFileName().toString()) != null;
     }
 }
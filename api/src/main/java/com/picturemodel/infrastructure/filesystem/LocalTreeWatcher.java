@@ -0,0 +1,211 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: LocalTreeWatcher.java
+ * Version: 0.1.0
+ * Turns: 40
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T16:10:00Z
+ * Exports: LocalTreeWatcher
+ * Description: class LocalTreeWatcher for watching a local directory tree with a WatchService. Methods: start - register the tree and start the watch thread; isOpen - whether the watch runs; close - stop the watch.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Watches a local directory tree. {@link WatchService} only watches single
+ * directories, so every directory of the tree is registered, and directories
+ * created later are registered as their creation is seen.
+ *
+ * <p>A directory created together with its content (a copy or a move) may fill
+ * up before it is registered, so its creation is reported and its content is
+ * not: the consumer must scan new directories itself. A lost event queue is
+ * reported as an overflow of the directory whose key overflowed, or of the
+ * watched root when the platform does not say which.</p>
+ */
+@Slf4j
+class LocalTreeWatcher implements WatchableFileSystemProvider.Watch {
+
+    private final Path root;
+    private final Path base;
+    private final Consumer<FileChange> listener;
+    private final Consumer<LocalTreeWatcher> onClose;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean open;
+
+    /**
+     * @param root drive root that reported paths are relative to
+     * @param base directory to watch, at or below the root
+     * @param onClose called once when the watch stops
+     */
+    LocalTreeWatcher(Path root, Path base, Consumer<FileChange> listener, Consumer<LocalTreeWatcher> onClose) {
+        this.root = root;
+        this.base = base;
+        this.listener = listener;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Register the tree and start the watch thread.
+     */
+    void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        long startNanos = System.nanoTime();
+        try {
+            registerTree(base);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        open = true;
+        log.info("Watching {} directories below {} ({} ms to register)", keys.size(), base,
+                (System.nanoTime() - startNanos) / 1_000_000);
+
+        thread = new Thread(this::run, "watch-" + (base.getFileName() != null ? base.getFileName() : "root"));
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Error closing watch service for {}: {}", base, e.getMessage());
+        }
+        onClose.accept(this);
+    }
+
+    private void run() {
+        try {
+            while (open) {
+                WatchKey key = watchService.take();
+                Path directory = keys.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (directory != null) {
+                        handle(directory, event);
+                    } else if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        report(FileChange.Kind.OVERFLOW, base, true);
+                    }
+                }
+                if (!key.reset()) {
+                    // Directory deleted or no longer accessible
+                    keys.remove(key);
+                    if (directory != null) {
+                        directories.remove(directory);
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed by close()
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Watch of {} failed", base, e);
+        } finally {
+            close();
+        }
+    }
+
+    private void handle(Path directory, WatchEvent<?> event) {
+        WatchEvent.Kind<?> kind = event.kind();
+        if (kind == StandardWatchEventKinds.OVERFLOW) {
+            report(FileChange.Kind.OVERFLOW, directory, true);
+            return;
+        }
+        Path child = directory.resolve((Path) event.context());
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            boolean isDirectory = Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS);
+            if (isDirectory) {
+                try {
+                    registerTree(child);
+                } catch (IOException e) {
+                    log.warn("Could not watch new directory {}: {}", child, e.getMessage());
+                }
+            }
+            report(FileChange.Kind.CREATED, child, isDirectory);
+        } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+            // A directory's own modify events only echo changes to its entries
+            if (!directories.contains(child)) {
+                report(FileChange.Kind.MODIFIED, child, false);
+            }
+        } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            report(FileChange.Kind.DELETED, child, directories.remove(child));
+        }
+    }
+
+    private void report(FileChange.Kind kind, Path path, boolean isDirectory) {
+        try {
+            listener.accept(new FileChange(kind, relativize(path), isDirectory));
+        } catch (RuntimeException e) {
+            log.warn("Watch listener failed for {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                try {
+                    WatchKey key = dir.register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+                    keys.put(key, dir);
+                    directories.add(dir);
+                } catch (IOException e) {
+                    if (dir.equals(start)) {
+                        throw e;
+                    }
+                    // e.g. inotify watch limit reached: changes below it are only found by crawls
+                    log.warn("Could not watch directory {}: {}", dir, e.getMessage());
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                log.debug("Skipping unreadable path {} while registering watches: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private String relativize(Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+}
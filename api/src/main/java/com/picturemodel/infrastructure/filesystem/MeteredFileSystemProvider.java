@@ -0,0 +1,333 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: MeteredFileSystemProvider.java
+ * Version: 0.1.2
+ * Turns: 47,49,50
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T21:10:00Z
+ * Exports: MeteredFileSystemProvider
+ * Description: class MeteredFileSystemProvider for recording provider call latency and bytes read with Micrometer. Methods: wrap - meter a provider for a drive.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+import com.picturemodel.domain.entity.RemoteFileDrive;
+import com.picturemodel.infrastructure.metrics.DriveMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Decorator that times {@code listDirectory}, {@code streamDirectory},
+ * {@code getDirectoryTree}, {@code readFile}, {@code readRange},
+ * {@code openChannel} and {@code getFileMetadata} of any provider and counts the
+ * bytes read through its streams and channels, tagged with the drive
+ * ({@link DriveMetrics#PROVIDER_CALLS}, {@link DriveMetrics#PROVIDER_BYTES_READ}).
+ * Success timers are resolved once per provider; failures are rare enough to be
+ * looked up in the registry when they happen. A streamed listing is timed
+ * without the time its visitor spends, which is the caller's work.
+ *
+ * <p>Providers that can watch for changes are wrapped in a subclass that is
+ * itself a {@link WatchableFileSystemProvider}, so callers still find out what
+ * a drive supports with {@code instanceof}.</p>
+ */
+class MeteredFileSystemProvider implements FileSystemProvider {
+
+    private final FileSystemProvider delegate;
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Timer listTimer;
+    private final Timer streamTimer;
+    private final Timer treeTimer;
+    private final Timer readTimer;
+    private final Timer rangeTimer;
+    private final Timer channelTimer;
+    private final Timer metadataTimer;
+    private final Counter bytesRead;
+
+    private MeteredFileSystemProvider(FileSystemProvider delegate, MeterRegistry registry, RemoteFileDrive drive) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.tags = DriveMetrics.tags(drive);
+        this.listTimer = timer("listDirectory", "success");
+        this.streamTimer = timer("streamDirectory", "success");
+        this.treeTimer = timer("getDirectoryTree", "success");
+        this.readTimer = timer("readFile", "success");
+        this.rangeTimer = timer("readRange", "success");
+        this.channelTimer = timer("openChannel", "success");
+        this.metadataTimer = timer("getFileMetadata", "success");
+        this.bytesRead = Counter.builder(DriveMetrics.PROVIDER_BYTES_READ)
+                .baseUnit("bytes")
+                .description("Bytes read from drive file streams")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * Meter a provider created for a drive.
+     */
+    static FileSystemProvider wrap(FileSystemProvider provider, MeterRegistry registry, RemoteFileDrive drive) {
+        if (provider instanceof WatchableFileSystemProvider watchable) {
+            return new Watchable(watchable, registry, drive);
+        }
+        return new MeteredFileSystemProvider(provider, registry, drive);
+    }
+
+    @Override
+    public void connect() throws Exception {
+        delegate.connect();
+    }
+
+    @Override
+    public void disconnect() {
+        delegate.disconnect();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return delegate.isConnected();
+    }
+
+    @Override
+    public List<FileInfo> listDirectory(String path) throws Exception {
+        long start = System.nanoTime();
+        try {
+            List<FileInfo> entries = delegate.listDirectory(path);
+            listTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return entries;
+        } catch (Exception e) {
+            recordFailure("listDirectory", start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void streamDirectory(String path, ListingVisitor visitor) throws Exception {
+        long[] visiting = new long[1];
+        long start = System.nanoTime();
+        try {
+            delegate.streamDirectory(path, entry -> {
+                long visitStart = System.nanoTime();
+                try {
+                    return visitor.visit(entry);
+                } finally {
+                    visiting[0] += System.nanoTime() - visitStart;
+                }
+            });
+            streamTimer.record(System.nanoTime() - start - visiting[0], TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            recordFailure("streamDirectory", start + visiting[0]);
+            throw e;
+        }
+    }
+
+    @Override
+    public DirectoryTreeNode getDirectoryTree(String path) throws Exception {
+        long start = System.nanoTime();
+        try {
+            DirectoryTreeNode tree = delegate.getDirectoryTree(path);
+            treeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return tree;
+        } catch (Exception e) {
+            recordFailure("getDirectoryTree", start);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream readFile(String path) throws Exception {
+        long start = System.nanoTime();
+        try {
+            InputStream stream = delegate.readFile(path);
+            readTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new CountingStream(stream, bytesRead);
+        } catch (Exception e) {
+            recordFailure("readFile", start);
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream readRange(String path, long offset, long length) throws Exception {
+        long start = System.nanoTime();
+        try {
+            InputStream stream = delegate.readRange(path, offset, length);
+            rangeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new CountingStream(stream, bytesRead);
+        } catch (Exception e) {
+            recordFailure("readRange", start);
+            throw e;
+        }
+    }
+
+    @Override
+    public SeekableByteChannel openChannel(String path) throws Exception {
+        long start = System.nanoTime();
+        try {
+            SeekableByteChannel channel = delegate.openChannel(path);
+            channelTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new CountingChannel(channel, bytesRead);
+        } catch (Exception e) {
+            recordFailure("openChannel", start);
+            throw e;
+        }
+    }
+
+    @Override
+    public FileInfo getFileMetadata(String path) throws Exception {
+        long start = System.nanoTime();
+        try {
+            FileInfo info = delegate.getFileMetadata(path);
+            metadataTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return info;
+        } catch (Exception e) {
+            recordFailure("getFileMetadata", start);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean fileExists(String path) {
+        return delegate.fileExists(path);
+    }
+
+    @Override
+    public ConnectionTestResult testConnection() {
+        return delegate.testConnection();
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder(DriveMetrics.PROVIDER_CALLS)
+                .description("Latency of file system provider calls")
+                .tags(tags)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private void recordFailure(String operation, long start) {
+        timer(operation, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static final class Watchable extends MeteredFileSystemProvider implements WatchableFileSystemProvider {
+
+        private final WatchableFileSystemProvider watchable;
+
+        private Watchable(WatchableFileSystemProvider delegate, MeterRegistry registry, RemoteFileDrive drive) {
+            super(delegate, registry, drive);
+            this.watchable = delegate;
+        }
+
+        @Override
+        public Watch watch(String path, Consumer<FileChange> listener) throws Exception {
+            return watchable.watch(path, listener);
+        }
+    }
+
+    /**
+     * Adds bytes read to the drive's counter as they are read.
+     */
+    private static final class CountingStream extends FilterInputStream {
+
+        private final Counter counter;
+
+        private CountingStream(InputStream in, Counter counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                counter.increment(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    /**
+     * Adds bytes read to the drive's counter as they are read through a channel.
+     */
+    private static final class CountingChannel implements SeekableByteChannel {
+
+        private final SeekableByteChannel channel;
+        private final Counter counter;
+
+        private CountingChannel(SeekableByteChannel channel, Counter counter) {
+            this.channel = channel;
+            this.counter = counter;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int read = channel.read(dst);
+            if (read > 0) {
+                counter.increment(read);
+            }
+            return read;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
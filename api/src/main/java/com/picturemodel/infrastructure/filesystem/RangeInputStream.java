@@ -0,0 +1,76 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: RangeInputStream.java
+ * Version: 0.1.0
+ * Turns: 50
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T21:10:00Z
+ * Exports: RangeInputStream
+ * Description: class RangeInputStream for ending a file stream after a byte range. Methods: read - read within the range; skip - skip within the range; available - bytes available within the range.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Ends a stream already positioned at a range's first byte once the range's
+ * length has been read, so providers can hand out {@code readRange} streams
+ * without knowing how many bytes the caller will consume. Closing it closes the
+ * underlying stream, which lets a remote transfer be abandoned early.
+ */
+final class RangeInputStream extends FilterInputStream {
+
+    private long remaining;
+
+    RangeInputStream(InputStream in, long length) {
+        super(in);
+        this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int b = in.read();
+        if (b >= 0) {
+            remaining--;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+        if (read > 0) {
+            remaining -= read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(Math.min(n, remaining));
+        if (skipped > 0) {
+            remaining -= skipped;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
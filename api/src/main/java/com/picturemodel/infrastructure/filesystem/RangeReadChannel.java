@@ -0,0 +1,146 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: RangeReadChannel.java
+ * Version: 0.1.0
+ * Turns: 50
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T21:10:00Z
+ * Exports: RangeReadChannel
+ * Description: class RangeReadChannel for seekable reads over a provider's ranged streams. Methods: read - read at the current position; position - get or set the read position; size - file size.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read-only {@link SeekableByteChannel} for protocols that read files as
+ * streams from an offset (SFTP, FTP) rather than at arbitrary positions.
+ * Sequential reads share one open stream; a seek only costs a new stream, opened
+ * at the new position on the next read, instead of reading up to it.
+ */
+final class RangeReadChannel implements SeekableByteChannel {
+
+    /**
+     * Opens a stream over {@code length} bytes of the file from {@code offset}.
+     */
+    @FunctionalInterface
+    interface RangeOpener {
+        InputStream open(long offset, long length) throws Exception;
+    }
+
+    private final RangeOpener opener;
+    private final long size;
+    private InputStream stream;
+    private long streamPosition;
+    private long position;
+    private boolean open = true;
+
+    RangeReadChannel(RangeOpener opener, long size) {
+        this.opener = opener;
+        this.size = size;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= size) {
+            return -1;
+        }
+        if (stream == null || streamPosition != position) {
+            closeStream();
+            try {
+                stream = opener.open(position, size - position);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to read at offset " + position, e);
+            }
+            streamPosition = position;
+        }
+        int read;
+        if (dst.hasArray()) {
+            read = stream.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (read > 0) {
+                dst.position(dst.position() + read);
+            }
+        } else {
+            byte[] buffer = new byte[Math.min(dst.remaining(), 64 * 1024)];
+            read = stream.read(buffer);
+            if (read > 0) {
+                dst.put(buffer, 0, read);
+            }
+        }
+        if (read < 0) {
+            return -1;
+        }
+        position += read;
+        streamPosition = position;
+        return read;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            open = false;
+            closeStream();
+        }
+    }
+
+    private void closeStream() throws IOException {
+        if (stream != null) {
+            InputStream current = stream;
+            stream = null;
+            current.close();
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
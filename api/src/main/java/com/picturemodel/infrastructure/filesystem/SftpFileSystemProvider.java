@@ -2,29 +2,35 @@
  * App: Picture Model
  * Package: com.picturemodel.infrastructure.filesystem
  * File: SftpFileSystemProvider.java
- * Version: 0.1.1
- * Turns: 5,9
+ * Version: 0.1.5
+ * Turns: 5,9,48,49,50,51
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-31T21:59:02Z
+ * Date: 2026-10-16T21:40:00Z
  * Exports: SftpFileSystemProvider
- * Description: class SftpFileSystemProvider for SftpFileSystemProvider responsibilities. Methods: SftpFileSystemProvider - constructor; connect - connect; disconnect - disconnect; isConnected - is connected; listDirectory - list directory; getDirectoryTree - get directory tree; buildDirectoryTree - build directory tree; readFile - read file; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection; createFileInfo - create file info; normalizePath - normalize path; isImageFile - is image file; guessContentType - guess content type.
+ * Description: class SftpFileSystemProvider for SftpFileSystemProvider responsibilities. Methods: SftpFileSystemProvider - constructor; connect - connect; disconnect - disconnect; isConnected - is connected; streamDirectory - visit a directory's entries as they arrive; getDirectoryTree - get directory tree; buildDirectoryTree - build directory tree; readFile - read file; readRange - read part of a file from an SFTP offset; openChannel - open a file for seekable reads; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection; withChannel - run a call on a pooled channel; openPooledChannel - open an SFTP channel on a session; closeSession - close the channel pool and its SSH session; createFileInfo - create file info; normalizePath - normalize path; isImageFile - is image file.
  */
 
 package com.picturemodel.infrastructure.filesystem;
 
 import com.jcraft.jsch.*;
+import com.picturemodel.config.ConnectionPoolProperties;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.InputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Vector;
 
 /**
  * File system provider for SFTP using JSch library.
  *
+ * <p>A {@link ChannelSftp} runs one request at a time, so the provider keeps a
+ * {@link ConnectionPool} of channels multiplexed over its one SSH session and
+ * every call borrows its own. Streams from {@code readFile} and
+ * {@code readRange} keep their channel until they are closed.</p>
+ *
  * @author Claude (AI Coding Agent)
  */
 @Slf4j
@@ -35,33 +41,72 @@ public class SftpFileSystemProvider implements FileSystemProvider {
     private final String username;
     private final String password;
     private final String rootPath;
+    private final ConnectionPoolProperties poolSettings;
     private Session session;
-    private ChannelSftp sftpChannel;
-    private boolean connected;
+    private ConnectionPool<ChannelSftp> channels;
+    private volatile boolean connected;
 
-    public SftpFileSystemProvider(String host, int port, String username, String password, String rootPath) {
+    public SftpFileSystemProvider(String host, int port, String username, String password, String rootPath,
+                                  ConnectionPoolProperties poolSettings) {
         this.host = host;
         this.port = port;
         this.username = username;
         this.password = password;
         this.rootPath = rootPath;
+        this.poolSettings = poolSettings;
     }
 
     @Override
     public void connect() throws Exception {
+        // Reconnecting: drain the previous pool and end the session its channels ran on
+        closeSession();
+
         JSch jsch = new JSch();
-        session = jsch.getSession(username, host, port);
-        session.setPassword(password);
+        Session newSession = jsch.getSession(username, host, port);
+        newSession.setPassword(password);
 
         // Disable strict host key checking for convenience (not recommended for production)
         java.util.Properties config = new java.util.Properties();
         config.put("StrictHostKeyChecking", "no");
-        session.setConfig(config);
-        session.setTimeout(30000);
-
-        session.connect();
-        sftpChannel = (ChannelSftp) session.openChannel("sftp");
-        sftpChannel.connect();
+        newSession.setConfig(config);
+        newSession.setTimeout(30000);
+
+        newSession.connect();
+        session = newSession;
+        channels = new ConnectionPool<>("sftp://" + host + ":" + port, poolSettings,
+                new ConnectionPool.Connector<>() {
+                    @Override
+                    public ChannelSftp open() throws JSchException {
+                        return openPooledChannel(newSession);
+                    }
+
+                    @Override
+                    public boolean isOpen(ChannelSftp channel) {
+                        return channel.isConnected() && !channel.isClosed();
+                    }
+
+                    @Override
+                    public boolean isHealthy(ChannelSftp channel) {
+                        try {
+                            channel.realpath(".");
+                            return true;
+                        } catch (SftpException e) {
+                            return false;
+                        }
+                    }
+
+                    @Override
+                    public void close(ChannelSftp channel) {
+                        channel.disconnect();
+                    }
+                });
+        // Open the first channel now, so a server refusing SFTP fails the connect
+        try {
+            channels.release(channels.borrow());
+        } catch (Exception e) {
+            closeSession();
+            throw e;
+        }
 
         connected = true;
         log.info("Connected to SFTP server: {}:{}", host, port);
@@ -69,40 +114,45 @@ public class SftpFileSystemProvider implements FileSystemProvider {
 
     @Override
     public void disconnect() {
-        if (sftpChannel != null && sftpChannel.isConnected()) {
-            sftpChannel.disconnect();
-        }
-        if (session != null && session.isConnected()) {
-            session.disconnect();
-        }
         connected = false;
+        closeSession();
         log.info("Disconnected from SFTP server: {}:{}", host, port);
     }
 
     @Override
     public boolean isConnected() {
-        return connected && sftpChannel != null && sftpChannel.isConnected();
+        return connected && session != null && session.isConnected();
     }
 
+    /**
+     * Stream a directory with {@code ls} and an {@link ChannelSftp.LsEntrySelector},
+     * which receives each entry as its SSH_FXP_NAME batch is parsed instead of
+     * collecting the whole listing into a {@link java.util.Vector}.
+     */
     @Override
-    public List<FileInfo> listDirectory(String path) throws Exception {
-        if (!isConnected()) {
-            throw new IllegalStateException("Not connected to SFTP server");
-        }
-
+    public void streamDirectory(String path, ListingVisitor visitor) throws Exception {
         String fullPath = normalizePath(rootPath, path);
-        @SuppressWarnings("unchecked")
-        Vector<ChannelSftp.LsEntry> files = sftpChannel.ls(fullPath);
-
-        List<FileInfo> fileInfos = new ArrayList<>();
-        for (ChannelSftp.LsEntry entry : files) {
-            if (".".equals(entry.getFilename()) || "..".equals(entry.getFilename())) {
-                continue;
-            }
-            fileInfos.add(createFileInfo(entry, fullPath));
+        Exception[] failure = new Exception[1];
+        withChannel(channel -> {
+            channel.ls(fullPath, entry -> {
+                if (".".equals(entry.getFilename()) || "..".equals(entry.getFilename())) {
+                    return ChannelSftp.LsEntrySelector.CONTINUE;
+                }
+                try {
+                    return visitor.visit(createFileInfo(entry, fullPath))
+                            ? ChannelSftp.LsEntrySelector.CONTINUE
+                            : ChannelSftp.LsEntrySelector.BREAK;
+                } catch (Exception e) {
+                    // Break rather than throw, so the channel closes the directory handle
+                    failure[0] = e;
+                    return ChannelSftp.LsEntrySelector.BREAK;
+                }
+            });
+            return null;
+        });
+        if (failure[0] != null) {
+            throw failure[0];
         }
-
-        return fileInfos;
     }
 
     @Override
@@ -121,50 +171,78 @@ public class SftpFileSystemProvider implements FileSystemProvider {
                 .path(relativePath)
                 .build();
 
+        // Only subdirectory names are kept during the listing, so its channel
+        // goes back to the pool before the subdirectories borrow one
+        List<String> subdirectories = new ArrayList<>();
         try {
-            @SuppressWarnings("unchecked")
-            Vector<ChannelSftp.LsEntry> files = sftpChannel.ls(fullPath);
-
-            for (ChannelSftp.LsEntry entry : files) {
-                if (".".equals(entry.getFilename()) || "..".equals(entry.getFilename())) {
-                    continue;
-                }
-
-                if (entry.getAttrs().isDir()) {
-                    String childPath = relativePath + "/" + entry.getFilename();
-                    DirectoryTreeNode child = buildDirectoryTree(fullPath + "/" + entry.getFilename(), childPath);
-                    node.getChildren().add(child);
-                    node.setTotalImageCount(node.getTotalImageCount() + child.getTotalImageCount());
-                } else if (isImageFile(entry.getFilename())) {
-                    node.setImageCount(node.getImageCount() + 1);
-                    node.setTotalImageCount(node.getTotalImageCount() + 1);
-                }
-            }
-        } catch (SftpException e) {
+            withChannel(channel -> {
+                channel.ls(fullPath, entry -> {
+                    if (".".equals(entry.getFilename()) || "..".equals(entry.getFilename())) {
+                        return ChannelSftp.LsEntrySelector.CONTINUE;
+                    }
+                    if (entry.getAttrs().isDir()) {
+                        subdirectories.add(entry.getFilename());
+                    } else if (isImageFile(entry.getFilename())) {
+                        node.setImageCount(node.getImageCount() + 1);
+                        node.setTotalImageCount(node.getTotalImageCount() + 1);
+                    }
+                    return ChannelSftp.LsEntrySelector.CONTINUE;
+                });
+                return null;
+            });
+        } catch (Exception e) {
             log.warn("Error reading SFTP directory: {}", fullPath, e);
         }
 
+        for (String name : subdirectories) {
+            DirectoryTreeNode child = buildDirectoryTree(fullPath + "/" + name, relativePath + "/" + name);
+            node.getChildren().add(child);
+            node.setTotalImageCount(node.getTotalImageCount() + child.getTotalImageCount());
+        }
+
         return node;
     }
 
     @Override
     public InputStream readFile(String path) throws Exception {
+        return readRange(path, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * SFTP reads carry their own offset, so the transfer starts at {@code offset}
+     * instead of skipping through the bytes before it.
+     */
+    @Override
+    public InputStream readRange(String path, long offset, long length) throws Exception {
         if (!isConnected()) {
             throw new IllegalStateException("Not connected to SFTP server");
         }
 
         String fullPath = normalizePath(rootPath, path);
-        return sftpChannel.get(fullPath);
+        ChannelSftp channel = channels.borrow();
+        try {
+            InputStream stream = offset > 0 ? channel.get(fullPath, null, offset) : channel.get(fullPath);
+            if (length != Long.MAX_VALUE) {
+                stream = new RangeInputStream(stream, length);
+            }
+            return channels.releaseOnClose(stream, channel);
+        } catch (Exception e) {
+            channels.release(channel);
+            throw e;
+        }
     }
 
     @Override
-    public FileInfo getFileMetadata(String path) throws Exception {
-        if (!isConnected()) {
-            throw new IllegalStateException("Not connected to SFTP server");
-        }
+    public SeekableByteChannel openChannel(String path) throws Exception {
+        String fullPath = normalizePath(rootPath, path);
+        long size = withChannel(channel -> channel.stat(fullPath).getSize());
+        return new RangeReadChannel((offset, length) -> readRange(path, offset, length), size);
+    }
 
+    @Override
+    public FileInfo getFileMetadata(String path) throws Exception {
         String fullPath = normalizePath(rootPath, path);
-        SftpATTRS attrs = sftpChannel.stat(fullPath);
+        SftpATTRS attrs = withChannel(channel -> channel.stat(fullPath));
         String fileName = path.substring(path.lastIndexOf('/') + 1);
 
         return FileInfo.builder()
@@ -175,7 +253,7 @@ public class SftpFileSystemProvider implements FileSystemProvider {
                 .lastModified(LocalDateTime.ofInstant(
                         java.time.Instant.ofEpochMilli(attrs.getMTime() * 1000L),
                         ZoneId.systemDefault()))
-                .mimeType(attrs.isDir() ? null : guessContentType(fileName))
+                .mimeType(attrs.isDir() ? null : ImageContentTypes.forFileName(fileName))
                 .build();
     }
 
@@ -183,9 +261,9 @@ public class SftpFileSystemProvider implements FileSystemProvider {
     public boolean fileExists(String path) {
         try {
             String fullPath = normalizePath(rootPath, path);
-            sftpChannel.stat(fullPath);
+            withChannel(channel -> channel.stat(fullPath));
             return true;
-        } catch (SftpException e) {
+        } catch (Exception e) {
             return false;
         }
     }
@@ -194,7 +272,7 @@ public class SftpFileSystemProvider implements FileSystemProvider {
     public ConnectionTestResult testConnection() {
         long startTime = System.currentTimeMillis();
         try {
-            sftpChannel.stat(rootPath);
+            withChannel(channel -> channel.stat(rootPath));
             return ConnectionTestResult.success("Successfully connected to SFTP server: " + host + ":" + port,
                     System.currentTimeMillis() - startTime);
         } catch (Exception e) {
@@ -203,6 +281,40 @@ public class SftpFileSystemProvider implements FileSystemProvider {
         }
     }
 
+    /**
+     * Run a call on a channel borrowed from the pool for its duration.
+     */
+    private <R> R withChannel(SftpCall<R> call) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to SFTP server");
+        }
+        ChannelSftp channel = channels.borrow();
+        try {
+            return call.call(channel);
+        } finally {
+            channels.release(channel);
+        }
+    }
+
+    private ChannelSftp openPooledChannel(Session channelSession) throws JSchException {
+        ChannelSftp channel = (ChannelSftp) channelSession.openChannel("sftp");
+        channel.connect();
+        return channel;
+    }
+
+    /**
+     * Close the channel pool and the SSH session under it. Channels still
+     * borrowed end with the session and are closed as they are returned.
+     */
+    private void closeSession() {
+        if (channels != null) {
+            channels.close();
+        }
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+    }
+
     private FileInfo createFileInfo(ChannelSftp.LsEntry entry, String parentPath) {
         return FileInfo.builder()
                 .name(entry.getFilename())
@@ -212,7 +324,7 @@ public class SftpFileSystemProvider implements FileSystemProvider {
                 .lastModified(LocalDateTime.ofInstant(
                         java.time.Instant.ofEpochMilli(entry.getAttrs().getMTime() * 1000L),
                         ZoneId.systemDefault()))
-                .mimeType(entry.getAttrs().isDir() ? null : guessContentType(entry.getFilename()))
+                .mimeType(entry.getAttrs().isDir() ? null : ImageContentTypes.forFileName(entry.getFilename()))
                 .build();
     }
 
@@ -224,20 +336,11 @@ public class SftpFileSystemProvider implements FileSystemProvider {
     }
 
     private boolean isImageFile(String fileName) {
-        String contentType = guessContentType(fileName);
-        return contentType != null && contentType.startsWith("image/");
-    }
-
-    private String guessContentType(String fileName) {
-        String lower = fileName.toLowerCase();
-        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
-        if (lower.endsWith(".png")) return "image/png";
-        if (lower.endsWith(".gif")) return "image/gif";
-        if (lower.endsWith(".bmp")) return "image/bmp";
-        if (lower.endsWith(".webp")) return "image/webp";
-        if (lower.endsWith(".tiff") || lower.endsWith(".tif")) return "image/tiff";
-        if (lower.endsWith(".heic")) return "image/heic";
-        if (lower.endsWith(".heif")) return "image/heif";
-        return null;
+        return ImageContentTypes.isImageFileName(fileName);
+    }
+
+    @FunctionalInterface
+    private interface SftpCall<R> {
+        R call(ChannelSftp channel) throws Exception;
     }
 }
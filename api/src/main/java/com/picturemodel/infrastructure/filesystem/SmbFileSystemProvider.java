@@ -2,38 +2,51 @@
  * App: Picture Model
  * Package: com.picturemodel.infrastructure.filesystem
  * File: SmbFileSystemProvider.java
- * Version: 0.1.3
- * Turns: 5,9,23,27
+ * Version: 0.1.8
+ * Turns: 5,9,23,27,41,48,49,50,52
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-02T20:38:20Z
+ * Date: 2026-10-16T22:10:00Z
  * Exports: SmbFileSystemProvider
- * Description: class SmbFileSystemProvider for SmbFileSystemProvider responsibilities. Methods: SmbFileSystemProvider - constructor; connect - connect; disconnect - disconnect; isConnected - is connected; listDirectory - list directory; getDirectoryTree - get directory tree; buildDirectoryTree - build directory tree; readFile - read file; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection; createFileInfo - create file info; isImageFile - is image file; guessContentType - guess content type.
+ * Description: class SmbFileSystemProvider for SmbFileSystemProvider responsibilities. Methods: SmbFileSystemProvider - constructor; connect - connect; disconnect - disconnect; isConnected - is connected; streamDirectory - visit a directory's entries page by page from their FIND attributes; getDirectoryTree - get directory tree; buildDirectoryTree - build directory tree; readFile - read file; readRange - read part of a file with positioned SMB reads; openChannel - open a file for positioned SMB reads; getFileMetadata - get file metadata; fileExists - file exists; testConnection - test connection; watch - report changes below a directory with SMB2 CHANGE_NOTIFY; createFileInfo - file info from one attribute read; isDirectoryEntry - whether an entry is a directory from its attributes; isMissingDirectory - whether a listing failed because the directory is absent; directoryUrl - URL of a directory with its trailing slash; isImageFile - is image file.
  */
 
 package com.picturemodel.infrastructure.filesystem;
 
 import jcifs.CIFSContext;
+import jcifs.CloseableIterator;
+import jcifs.SmbConstants;
+import jcifs.SmbResource;
+import jcifs.smb.NtStatus;
 import jcifs.smb.NtlmPasswordAuthenticator;
 import jcifs.smb.SmbFile;
+import jcifs.smb.SmbRandomAccessFile;
 import jcifs.config.PropertyConfiguration;
 import jcifs.context.BaseContext;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * File system provider for SMB/CIFS network shares using jCIFS-ng.
+ * Changes can be watched with SMB2 CHANGE_NOTIFY.
  *
  * @author Claude (AI Coding Agent)
  */
 @Slf4j
-public class SmbFileSystemProvider implements FileSystemProvider {
+public class SmbFileSystemProvider implements WatchableFileSystemProvider {
 
     private final String connectionUrl;
     private final String username;
@@ -41,6 +54,7 @@ public class SmbFileSystemProvider implements FileSystemProvider {
     private final String domain;
     private CIFSContext cifsContext;
     private boolean connected;
+    private final List<SmbTreeWatcher> watchers = new CopyOnWriteArrayList<>();
 
     public SmbFileSystemProvider(String connectionUrl, String username, String password, String domain) {
         // Ensure connection URL ends with trailing slash for proper path concatenation
@@ -128,6 +142,9 @@ public class SmbFileSystemProvider implements FileSystemProvider {
 
     @Override
     public void disconnect() {
+        for (SmbTreeWatcher watcher : watchers) {
+            watcher.close();
+        }
         cifsContext = null;
         connected = false;
         log.info("Disconnected from SMB share: {}", connectionUrl);
@@ -138,51 +155,52 @@ public class SmbFileSystemProvider implements FileSystemProvider {
         return connected && cifsContext != null;
     }
 
+    /**
+     * Stream a directory through {@link SmbFile#children()}, which requests the
+     * next page of the SMB FIND / QUERY_DIRECTORY enumeration only when the
+     * previous one is used up, so at most one response page is held at a time.
+     *
+     * <p>The listing is the only round trip: there is no existence or type check
+     * up front, since opening a missing path or a file for enumeration fails with
+     * a status that says so, and each entry is built from the size, times and
+     * attributes its FIND response carried.</p>
+     */
     @Override
-    public List<FileInfo> listDirectory(String path) throws Exception {
+    public void streamDirectory(String path, ListingVisitor visitor) throws Exception {
         if (!isConnected()) {
             throw new IllegalStateException("Not connected to SMB share");
         }
 
-        String url = buildUrl(path);
-        log.debug("SMB listDirectory path '{}' -> {}", path, sanitizeUrl(url));
-
-        try {
-            SmbFile directory = new SmbFile(url, cifsContext);
-
-            // Check if directory exists and is accessible
-            if (!directory.exists()) {
-                log.warn("SMB directory does not exist: {}", sanitizeUrl(url));
-                return new ArrayList<>();
-            }
-
-            if (!directory.isDirectory()) {
-                log.warn("SMB path is not a directory: {}", sanitizeUrl(url));
-                return new ArrayList<>();
-            }
-
-            SmbFile[] files = directory.listFiles();
-            if (files == null) {
-                log.debug("No files in SMB directory: {}", sanitizeUrl(url));
-                return new ArrayList<>();
-            }
-
-            List<FileInfo> fileInfos = new ArrayList<>();
-            for (SmbFile file : files) {
-                try {
-                    fileInfos.add(createFileInfo(file));
-                } catch (Exception e) {
-                    log.debug("Error getting info for file '{}': {} - skipping", file.getName(), e.getMessage());
+        String url = directoryUrl(buildUrl(path));
+        log.debug("SMB streamDirectory path '{}' -> {}", path, sanitizeUrl(url));
+
+        try (SmbFile directory = new SmbFile(url, cifsContext)) {
+            try (CloseableIterator<SmbResource> children = directory.children()) {
+                while (children.hasNext()) {
+                    FileInfo info;
+                    try (SmbResource child = children.next()) {
+                        try {
+                            info = createFileInfo((SmbFile) child);
+                        } catch (Exception e) {
+                            log.debug("Error getting info for file '{}': {} - skipping", child.getName(), e.getMessage());
+                            continue;
+                        }
+                    }
+                    if (!visitor.visit(info)) {
+                        return;
+                    }
                 }
             }
 
-            return fileInfos;
-
         } catch (jcifs.smb.SmbAuthException e) {
             log.error("Access denied to SMB directory '{}': {}", sanitizeUrl(url), e.getMessage());
             throw new Exception("Access denied to directory: " + path, e);
 
         } catch (jcifs.smb.SmbException e) {
+            if (isMissingDirectory(e)) {
+                log.warn("SMB directory does not exist or is not a directory: {}", sanitizeUrl(url));
+                return;
+            }
             log.error("SMB error accessing directory '{}' (error 0x{}): {}",
                     sanitizeUrl(url),
                     Integer.toHexString(e.getNtStatus()),
@@ -197,7 +215,7 @@ public class SmbFileSystemProvider implements FileSystemProvider {
             throw new IllegalStateException("Not connected to SMB share");
         }
 
-        SmbFile directory = new SmbFile(buildUrl(path), cifsContext);
+        SmbFile directory = new SmbFile(directoryUrl(buildUrl(path)), cifsContext);
         return buildDirectoryTree(directory, path);
     }
 
@@ -215,9 +233,9 @@ public class SmbFileSystemProvider implements FileSystemProvider {
                 return node;
             }
 
-            SmbFile[] files;
+            CloseableIterator<SmbResource> children;
             try {
-                files = directory.listFiles();
+                children = directory.children();
             } catch (jcifs.smb.SmbAuthException e) {
                 log.warn("Access denied to SMB directory '{}': {}", sanitizeUrl(directory.getPath()), e.getMessage());
                 return node;
@@ -229,34 +247,33 @@ public class SmbFileSystemProvider implements FileSystemProvider {
                 return node;
             }
 
-            if (files == null) {
-                log.debug("No files in directory: {}", sanitizeUrl(directory.getPath()));
-                return node;
-            }
-
-            for (SmbFile file : files) {
-                try {
-                    if (file.isDirectory()) {
-                        String childName = file.getName().replace("/", "");
-                        String childPath = relativePath + "/" + childName;
-
-                        // Skip protected directories at any level
-                        if (isProtectedDirectory(childName)) {
-                            log.debug("Skipping protected subdirectory: {}", childName);
-                            continue;
+            try (children) {
+                while (children.hasNext()) {
+                    try (SmbFile file = (SmbFile) children.next()) {
+                        try {
+                            if (isDirectoryEntry(file)) {
+                                String childName = file.getName().replace("/", "");
+                                String childPath = relativePath + "/" + childName;
+
+                                // Skip protected directories at any level
+                                if (isProtectedDirectory(childName)) {
+                                    log.debug("Skipping protected subdirectory: {}", childName);
+                                    continue;
+                                }
+
+                                DirectoryTreeNode child = buildDirectoryTree(file, childPath);
+                                node.getChildren().add(child);
+                                node.setTotalImageCount(node.getTotalImageCount() + child.getTotalImageCount());
+                            } else if (isImageFile(file)) {
+                                node.setImageCount(node.getImageCount() + 1);
+                                node.setTotalImageCount(node.getTotalImageCount() + 1);
+                            }
+                        } catch (jcifs.smb.SmbAuthException e) {
+                            log.debug("Access denied to file '{}': skipping", file.getName());
+                        } catch (Exception e) {
+                            log.debug("Error processing file '{}': {} - skipping", file.getName(), e.getMessage());
                         }
-
-                        DirectoryTreeNode child = buildDirectoryTree(file, childPath);
-                        node.getChildren().add(child);
-                        node.setTotalImageCount(node.getTotalImageCount() + child.getTotalImageCount());
-                    } else if (isImageFile(file)) {
-                        node.setImageCount(node.getImageCount() + 1);
-                        node.setTotalImageCount(node.getTotalImageCount() + 1);
                     }
-                } catch (jcifs.smb.SmbAuthException e) {
-                    log.debug("Access denied to file '{}': skipping", file.getName());
-                } catch (Exception e) {
-                    log.debug("Error processing file '{}': {} - skipping", file.getName(), e.getMessage());
                 }
             }
         } catch (Exception e) {
@@ -276,6 +293,36 @@ public class SmbFileSystemProvider implements FileSystemProvider {
         return file.getInputStream();
     }
 
+    @Override
+    public InputStream readRange(String path, long offset, long length) throws Exception {
+        SeekableByteChannel channel = openChannel(path);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new RangeInputStream(Channels.newInputStream(channel), length);
+    }
+
+    /**
+     * Each read is an SMB READ at the channel's position, so seeking costs nothing.
+     */
+    @Override
+    public SeekableByteChannel openChannel(String path) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to SMB share");
+        }
+
+        SmbFile file = new SmbFile(buildUrl(path), cifsContext);
+        try {
+            return new SmbChannel(file, new SmbRandomAccessFile(file, "r"));
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
     @Override
     public FileInfo getFileMetadata(String path) throws Exception {
         if (!isConnected()) {
@@ -296,6 +343,24 @@ public class SmbFileSystemProvider implements FileSystemProvider {
         }
     }
 
+    @Override
+    public Watch watch(String path, Consumer<FileChange> listener) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to SMB share");
+        }
+
+        String basePath = normalizeRelativePath(path);
+        String url = buildUrl(basePath);
+        SmbFile directory = new SmbFile(url.endsWith("/") ? url : url + "/", cifsContext);
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException("Not a directory: " + basePath);
+        }
+        SmbTreeWatcher watcher = new SmbTreeWatcher(directory, basePath, listener, this::isDirectory, watchers::remove);
+        watcher.start();
+        watchers.add(watcher);
+        return watcher;
+    }
+
     @Override
     public ConnectionTestResult testConnection() {
         long startTime = System.currentTimeMillis();
@@ -310,22 +375,78 @@ public class SmbFileSystemProvider implements FileSystemProvider {
         }
     }
 
+    /**
+     * File info from one read of the file's attributes. For an entry returned by
+     * a listing, jCIFS holds the values its FIND response carried (for
+     * {@code jcifs.smb.client.attrExpirationPeriod}), so building the info costs
+     * no round trip; for a path opened on its own it costs one QUERY_INFO.
+     */
     private FileInfo createFileInfo(SmbFile file) throws Exception {
+        boolean directory = isDirectoryEntry(file);
+        String name = file.getName();
         return FileInfo.builder()
-                .name(file.getName().replace("/", ""))
+                .name(name.replace("/", ""))
                 .path(file.getPath())
-                .size(file.length())
-                .isDirectory(file.isDirectory())
+                .size(directory ? 0L : file.length())
+                .isDirectory(directory)
                 .lastModified(LocalDateTime.ofInstant(
-                        java.time.Instant.ofEpochMilli(file.getLastModified()),
+                        java.time.Instant.ofEpochMilli(file.lastModified()),
                         ZoneId.systemDefault()))
-                .mimeType(file.isDirectory() ? null : guessContentType(file.getName()))
+                .mimeType(directory ? null : ImageContentTypes.forFileName(name))
                 .build();
     }
 
+    /**
+     * Directory check from the entry's attribute bits, unlike
+     * {@link SmbFile#isDirectory()}, which first re-checks that the entry exists.
+     */
+    private static boolean isDirectoryEntry(SmbFile file) throws Exception {
+        return (file.getAttributes() & SmbConstants.ATTR_DIRECTORY) != 0;
+    }
+
+    /**
+     * Whether a listing failed because its path is missing or is not a directory.
+     */
+    private static boolean isMissingDirectory(jcifs.smb.SmbException e) {
+        int status = e.getNtStatus();
+        return status == NtStatus.NT_STATUS_OBJECT_NAME_NOT_FOUND
+                || status == NtStatus.NT_STATUS_OBJECT_PATH_NOT_FOUND
+                || status == NtStatus.NT_STATUS_NOT_A_DIRECTORY;
+    }
+
+    /**
+     * jCIFS resolves child entries against the directory URL, which must end with a slash.
+     */
+    private static String directoryUrl(String url) {
+        return url.endsWith("/") ? url : url + "/";
+    }
+
+    private boolean isDirectory(String path) {
+        try {
+            return new SmbFile(buildUrl(path) + "/", cifsContext).isDirectory();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static String normalizeRelativePath(String path) {
+        if (path == null) {
+            return "";
+        }
+        String normalized = path.trim().replace('\\', '/');
+        int start = 0;
+        int end = normalized.length();
+        while (start < end && normalized.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && normalized.charAt(end - 1) == '/') {
+            end--;
+        }
+        return normalized.substring(start, end);
+    }
+
     private boolean isImageFile(SmbFile file) throws Exception {
-        String contentType = guessContentType(file.getName());
-        return contentType != null && contentType.startsWith("image/");
+        return ImageContentTypes.isImageFileName(file.getName());
     }
 
     private String buildUrl(String path) {
@@ -390,16 +511,93 @@ public class SmbFileSystemProvider implements FileSystemProvider {
                lower.startsWith(".");
     }
 
-    private String guessContentType(String fileName) {
-        String lower = fileName.toLowerCase();
-        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
-        if (lower.endsWith(".png")) return "image/png";
-        if (lower.endsWith(".gif")) return "image/gif";
-        if (lower.endsWith(".bmp")) return "image/bmp";
-        if (lower.endsWith(".webp")) return "image/webp";
-        if (lower.endsWith(".tiff") || lower.endsWith(".tif")) return "image/tiff";
-        if (lower.endsWith(".heic")) return "image/heic";
-        if (lower.endsWith(".heif")) return "image/heif";
-        return null;
+    /**
+     * Read-only channel over an {@link SmbRandomAccessFile}, which reads at its
+     * file pointer and seeks without a round trip.
+     */
+    private static final class SmbChannel implements SeekableByteChannel {
+
+        private final SmbFile file;
+        private final SmbRandomAccessFile access;
+        private boolean open = true;
+
+        private SmbChannel(SmbFile file, SmbRandomAccessFile access) {
+            this.file = file;
+            this.access = access;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (!dst.hasRemaining()) {
+                return 0;
+            }
+            int read;
+            if (dst.hasArray()) {
+                read = access.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+                if (read > 0) {
+                    dst.position(dst.position() + read);
+                }
+            } else {
+                byte[] buffer = new byte[Math.min(dst.remaining(), 64 * 1024)];
+                read = access.read(buffer, 0, buffer.length);
+                if (read > 0) {
+                    dst.put(buffer, 0, read);
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return access.getFilePointer();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            access.seek(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return access.length();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (open) {
+                open = false;
+                try {
+                    access.close();
+                } finally {
+                    file.close();
+                }
+            }
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
     }
 }
@@ -0,0 +1,208 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: SmbTreeWatcher.java
+ * Version: 0.1.1
+ * Turns: 41,48
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:10:00Z
+ * Exports: SmbTreeWatcher
+ * Description: class SmbTreeWatcher for watching an SMB directory tree with CHANGE_NOTIFY. Methods: start - open the watch and start the watch thread; isOpen - whether the watch runs; close - stop the watch.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+import jcifs.CIFSException;
+import jcifs.FileNotifyInformation;
+import jcifs.SmbWatchHandle;
+import jcifs.smb.SmbFile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Watches an SMB directory tree with one recursive SMB2 CHANGE_NOTIFY request
+ * at a time, through jcifs-ng's {@link SmbFile#watch}. The server queues
+ * changes between requests, so none are lost while a batch is handled.
+ *
+ * <p>Notifications carry names only, so a created entry without an image
+ * extension is looked up once to tell directories from files. A server whose
+ * change buffer overflowed answers with no entries (STATUS_NOTIFY_ENUM_DIR),
+ * which is reported as an overflow of the watched directory.</p>
+ *
+ * <p>When the request fails because the session or tree was lost, the watch is
+ * opened again with backoff until the session is re-established, then reported
+ * as {@link FileChange.Kind#RESUMED}, since changes made in between are unknown.</p>
+ */
+@Slf4j
+class SmbTreeWatcher implements WatchableFileSystemProvider.Watch {
+
+    private static final int FILTER = FileNotifyInformation.FILE_NOTIFY_CHANGE_FILE_NAME
+            | FileNotifyInformation.FILE_NOTIFY_CHANGE_DIR_NAME
+            | FileNotifyInformation.FILE_NOTIFY_CHANGE_SIZE
+            | FileNotifyInformation.FILE_NOTIFY_CHANGE_LAST_WRITE;
+    private static final long MIN_RETRY_MS = 1000;
+    private static final long MAX_RETRY_MS = 60000;
+
+    private final SmbFile directory;
+    private final String basePath;
+    private final Consumer<FileChange> listener;
+    private final Predicate<String> isDirectory;
+    private final Consumer<SmbTreeWatcher> onClose;
+    private volatile SmbWatchHandle handle;
+    private volatile boolean open;
+
+    /**
+     * @param directory directory to watch
+     * @param basePath its path relative to the drive root, '/'-separated
+     * @param isDirectory whether a path relative to the drive root is a directory
+     * @param onClose called once when the watch stops
+     */
+    SmbTreeWatcher(
+            SmbFile directory,
+            String basePath,
+            Consumer<FileChange> listener,
+            Predicate<String> isDirectory,
+            Consumer<SmbTreeWatcher> onClose
+    ) {
+        this.directory = directory;
+        this.basePath = basePath;
+        this.listener = listener;
+        this.isDirectory = isDirectory;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Open the watch and start the watch thread.
+     */
+    void start() throws CIFSException {
+        handle = directory.watch(FILTER, true);
+        open = true;
+        Thread thread = new Thread(this::run, "smb-watch-" + (basePath.isEmpty() ? "root" : basePath));
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching SMB directory '{}' for changes", basePath);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        closeHandle();
+        onClose.accept(this);
+    }
+
+    private void run() {
+        try {
+            while (open) {
+                List<FileNotifyInformation> notifications;
+                try {
+                    notifications = handle.watch();
+                } catch (CIFSException e) {
+                    if (!open) {
+                        break;
+                    }
+                    log.warn("SMB watch of '{}' lost: {}; reopening", basePath, e.getMessage());
+                    if (!reopen()) {
+                        break;
+                    }
+                    report(FileChange.Kind.RESUMED, basePath, true);
+                    continue;
+                }
+                if (!open) {
+                    break;
+                }
+                if (notifications == null || notifications.isEmpty()) {
+                    // STATUS_NOTIFY_ENUM_DIR: the server dropped the changes it had queued
+                    report(FileChange.Kind.OVERFLOW, basePath, true);
+                    continue;
+                }
+                for (FileNotifyInformation notification : notifications) {
+                    handle(notification);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("SMB watch of '{}' failed", basePath, e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Open the watch again with backoff until it succeeds or the watch is closed.
+     *
+     * @return false if the watch was closed meanwhile
+     */
+    private boolean reopen() throws InterruptedException {
+        closeHandle();
+        long delay = MIN_RETRY_MS;
+        while (open) {
+            TimeUnit.MILLISECONDS.sleep(delay);
+            try {
+                handle = directory.watch(FILTER, true);
+                log.info("SMB watch of '{}' re-established", basePath);
+                return open;
+            } catch (CIFSException e) {
+                log.debug("SMB watch of '{}' not reopened yet: {}", basePath, e.getMessage());
+                delay = Math.min(MAX_RETRY_MS, delay * 2);
+            }
+        }
+        return false;
+    }
+
+    private void handle(FileNotifyInformation notification) {
+        String name = notification.getFileName();
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        String path = childPath(name.replace('\\', '/'));
+        switch (notification.getAction()) {
+            case FileNotifyInformation.FILE_ACTION_ADDED, FileNotifyInformation.FILE_ACTION_RENAMED_NEW_NAME -> {
+                boolean created = !ImageContentTypes.isImageFileName(path) && isDirectory.test(path);
+                report(FileChange.Kind.CREATED, path, created);
+            }
+            case FileNotifyInformation.FILE_ACTION_MODIFIED -> report(FileChange.Kind.MODIFIED, path, false);
+            case FileNotifyInformation.FILE_ACTION_REMOVED, FileNotifyInformation.FILE_ACTION_RENAMED_OLD_NAME ->
+                    report(FileChange.Kind.DELETED, path, false);
+            default -> {
+                // Stream changes
+            }
+        }
+    }
+
+    private void report(FileChange.Kind kind, String path, boolean directory) {
+        try {
+            listener.accept(new FileChange(kind, path, directory));
+        } catch (RuntimeException e) {
+            log.warn("Watch listener failed for '{}': {}", path, e.getMessage());
+        }
+    }
+
+    private void closeHandle() {
+        SmbWatchHandle current = handle;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (Exception e) {
+            log.debug("Error closing SMB watch of '{}': {}", basePath, e.getMessage());
+        }
+    }
+
+    private String childPath(String name) {
+        return basePath.isEmpty() ? name : basePath + "/" + name;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: WatchableFileSystemProvider.java
+ * Version: 0.1.1
+ * Turns: 40,41
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T16:40:00Z
+ * Exports: WatchableFileSystemProvider
+ * Description: interface WatchableFileSystemProvider for providers that can report changes as they happen. Methods: watch - start reporting changes below a directory.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+import java.util.function.Consumer;
+
+/**
+ * A file system provider that can push changes instead of being crawled for them.
+ */
+public interface WatchableFileSystemProvider extends FileSystemProvider {
+
+    /**
+     * Start reporting changes below a directory, including directories created
+     * after the watch started. Changes the provider cannot report one by one are
+     * reported as {@link FileChange.Kind#OVERFLOW} of the smallest directory
+     * that covers them. Providers that reconnect a lost watch themselves report
+     * {@link FileChange.Kind#RESUMED} once it runs again.
+     *
+     * @param path directory relative to the drive root; empty for the whole drive
+     * @param listener receives changes on the provider's watch thread; must not block
+     * @return handle that stops the watch when closed
+     * @throws Exception if the watch cannot be set up
+     */
+    Watch watch(String path, Consumer<FileChange> listener) throws Exception;
+
+    /**
+     * A running watch. It also stops when the provider disconnects.
+     */
+    interface Watch extends AutoCloseable {
+
+        /**
+         * @return false once the watch has stopped, for whatever reason
+         */
+        boolean isOpen();
+
+        @Override
+        void close();
+    }
+}
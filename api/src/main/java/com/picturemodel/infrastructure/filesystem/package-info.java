@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.infrastructure.filesystem
  * File: package-info.java
- * Version: 0.1.0
- * Turns: 10
+ * Version: 0.1.6
+ * Turns: 10,40,41,42,47,50,51
  * Author: Codex
- * Date: 2026-02-02T22:36:43Z
+ * Date: 2026-10-16T21:40:00Z
  * Exports: package-info
  * Description: Package-level documentation for com.picturemodel.infrastructure.filesystem.
  */
@@ -15,15 +15,24 @@
  *
  * <p>Key types:</p>
  * <ul>
+ *   <li>ConnectionPool</li>
  *   <li>ConnectionTestResult</li>
  *   <li>DirectoryTreeNode</li>
+ *   <li>FileChange</li>
  *   <li>FileInfo</li>
  *   <li>FileSystemProvider</li>
  *   <li>FileSystemProviderFactory</li>
  *   <li>FtpFileSystemProvider</li>
+ *   <li>ImageContentTypes</li>
  *   <li>LocalFileSystemProvider</li>
+ *   <li>LocalTreeWatcher</li>
+ *   <li>MeteredFileSystemProvider</li>
+ *   <li>RangeInputStream</li>
+ *   <li>RangeReadChannel</li>
  *   <li>SftpFileSystemProvider</li>
  *   <li>SmbFileSystemProvider</li>
+ *   <li>SmbTreeWatcher</li>
+ *   <li>WatchableFileSystemProvider</li>
  * </ul>
  */
 package com.picturemodel.infrastructure.filesystem;
@@ -0,0 +1,68 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.metrics
+ * File: DriveMetrics.java
+ * Version: 0.1.0
+ * Turns: 47
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:40:00Z
+ * Exports: DriveMetrics
+ * Description: class DriveMetrics for the names and drive tags of Picture Model meters. Methods: tags - drive and drive type tags for a drive.
+ */
+
+package com.picturemodel.infrastructure.metrics;
+
+import com.picturemodel.domain.entity.RemoteFileDrive;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Names of the meters recorded per drive, and the tags they all carry:
+ * {@code drive} (drive ID) and {@code drive.type} ({@code LOCAL}, {@code SMB},
+ * {@code SFTP}, {@code FTP}). Comparing provider latency with flush time for the
+ * same drive tells a slow share apart from a slow database.
+ */
+public final class DriveMetrics {
+
+    /**
+     * Timer per provider call, tagged {@code operation} and {@code outcome}.
+     * For {@code readFile} it measures opening the stream, not reading it.
+     */
+    public static final String PROVIDER_CALLS = "picture.model.provider.calls";
+
+    /**
+     * Counter of bytes read through provider streams.
+     */
+    public static final String PROVIDER_BYTES_READ = "picture.model.provider.bytes.read";
+
+    /**
+     * Counter of files a crawl or change batch has processed; its rate is files per second.
+     */
+    public static final String CRAWLER_FILES = "picture.model.crawler.files";
+
+    /**
+     * Timer per item in a crawl pipeline stage, tagged {@code stage}.
+     */
+    public static final String CRAWLER_STAGE = "picture.model.crawler.stage";
+
+    /**
+     * Timer per crawl batch written to the database.
+     */
+    public static final String CRAWLER_FLUSH = "picture.model.crawler.flush";
+
+    /**
+     * Timer per generated thumbnail, reading the original included, tagged {@code size}.
+     */
+    public static final String THUMBNAIL_GENERATION = "picture.model.thumbnail.generation";
+
+    private DriveMetrics() {
+    }
+
+    /**
+     * @return the {@code drive} and {@code drive.type} tags of a drive
+     */
+    public static Tags tags(RemoteFileDrive drive) {
+        return Tags.of(
+                "drive", String.valueOf(drive.getId()),
+                "drive.type", drive.getType() != null ? drive.getType().name() : "UNKNOWN");
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.metrics
+ * File: package-info.java
+ * Version: 0.1.0
+ * Turns: 47
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:40:00Z
+ * Exports: package-info
+ * Description: Package-level documentation for com.picturemodel.infrastructure.metrics.
+ */
+
+/**
+ * Micrometer meter names and tags shared by the providers, the crawler and the
+ * file endpoints, exported through the Prometheus actuator endpoint.
+ *
+ * <p>Key types:</p>
+ * <ul>
+ *   <li>DriveMetrics</li>
+ * </ul>
+ */
+package com.picturemodel.infrastructure.metrics;
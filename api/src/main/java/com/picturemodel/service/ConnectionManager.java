@@ -2,12 +2,12 @@
  * App: Picture Model
  * Package: com.picturemodel.service
  * File: ConnectionManager.java
- * Version: 0.1.1
- * Turns: 5,24
+ * Version: 0.1.3
+ * Turns: 5,24,33,41
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-02T19:53:10Z
+ * Date: 2026-10-16T16:40:00Z
  * Exports: ConnectionManager
- * Description: class ConnectionManager for ConnectionManager responsibilities. Methods: connect - connect; disconnect - disconnect; getProvider - get provider; isConnected - is connected; performHealthCheck - perform health check; shutdown - shutdown; getActiveConnectionCount - get active connection count.
+ * Description: class ConnectionManager for ConnectionManager responsibilities. Methods: connect - connect; disconnect - disconnect; getProvider - get provider; isConnected - is connected; performHealthCheck - perform health check; shutdown - shutdown; getActiveConnectionCount - get active connection count; getConnectedDriveIds - connected drive IDs; addConnectListener - be told when a drive connects.
  */
 
 package com.picturemodel.service;
@@ -26,8 +26,12 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.net.URI;
 import java.util.Map;
+import java.util.Set;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Manages file system provider connections with health checks and connection pooling.
@@ -45,6 +49,9 @@ public class ConnectionManager {
     // Cache of active file system providers
     private final Map<UUID, FileSystemProvider> providerCache = new ConcurrentHashMap<>();
 
+    // Told the drive ID whenever a new provider connects, e.g. to re-open watches
+    private final List<Consumer<UUID>> connectListeners = new CopyOnWriteArrayList<>();
+
     /**
      * Connect to a drive and cache the provider.
      *
@@ -62,8 +69,9 @@ public class ConnectionManager {
                 log.debug("Using existing connection for drive: {}", drive.getName());
                 return existing;
             } else {
-                // Remove stale connection
+                // Remove stale connection; disconnecting it also stops its watches
                 providerCache.remove(driveId);
+                disconnectQuietly(driveId, existing);
             }
         }
 
@@ -92,6 +100,13 @@ public class ConnectionManager {
             driveRepository.save(drive);
 
             log.info("Successfully connected to drive: {}", drive.getName());
+            for (Consumer<UUID> listener : connectListeners) {
+                try {
+                    listener.accept(driveId);
+                } catch (RuntimeException e) {
+                    log.warn("Connect listener failed for drive {}: {}", drive.getName(), e.getMessage());
+                }
+            }
             return provider;
 
         } catch (Exception e) {
@@ -169,6 +184,7 @@ public class ConnectionManager {
 
             if (!provider.isConnected()) {
                 log.warn("Drive {} is no longer connected, removing from cache", driveId);
+                disconnectQuietly(driveId, provider);
 
                 // Update drive status
                 driveRepository.findById(driveId).ifPresent(drive -> {
@@ -210,6 +226,29 @@ public class ConnectionManager {
         return providerCache.size();
     }
 
+    /**
+     * IDs of drives with a cached, connected provider.
+     */
+    public Set<UUID> getConnectedDriveIds() {
+        return Set.copyOf(providerCache.keySet());
+    }
+
+    /**
+     * Be told the drive ID each time a drive connects with a new provider. Runs on
+     * the connecting thread, so listeners must not block.
+     */
+    public void addConnectListener(Consumer<UUID> listener) {
+        connectListeners.add(listener);
+    }
+
+    private void disconnectQuietly(UUID driveId, FileSystemProvider provider) {
+        try {
+            provider.disconnect();
+        } catch (Exception e) {
+            log.debug("Error disconnecting stale provider of drive {}: {}", driveId, e.getMessage());
+        }
+    }
+
     private String sanitizeConnectionUrl(String url) {
         if (url == null || url.isBlank()) {
             return "[missing]";
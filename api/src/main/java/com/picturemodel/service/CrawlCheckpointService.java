@@ -0,0 +1,205 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: CrawlCheckpointService.java
+ * Version: 0.1.0
+ * Turns: 54
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T23:10:00Z
+ * Exports: CrawlCheckpointService
+ * Description: Service for the frontier checkpoints and directory manifest of crawls.
+ * CrawlCheckpointService - loadFrontier - resume a job's frontier; deleteFrontier - drop a finished job's frontier; loadManifest - load the directory manifest; maybeSave - save progress every few steps; isCheckpointDue - claim the next checkpoint; checkpoint - record the frontier and counters; saveManifest - write completed directories' manifest rows; finishManifest - write and prune the manifest of a completed crawl.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.config.CrawlerProperties;
+import com.picturemodel.domain.repository.CrawlFrontierRepository;
+import com.picturemodel.domain.repository.CrawlJobRepository;
+import com.picturemodel.domain.repository.DirectoryManifestRepository;
+import com.picturemodel.domain.repository.DirectoryManifestRepository.ManifestRow;
+import com.picturemodel.service.crawler.CrawlFrontier;
+import com.picturemodel.service.crawler.DirectoryManifest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps what a crawl needs to resume and to skip unchanged directories next
+ * time: the frontier checkpoint of a single-node crawl ({@code crawl_frontier})
+ * and the directory manifest ({@code crawl_directory_manifest}). Cluster crawls
+ * checkpoint through {@link CrawlClusterTraversalService} and only share the
+ * manifest writes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class CrawlCheckpointService {
+
+    private static final int SAVE_INTERVAL = 5;
+
+    private final CrawlJobRepository crawlJobRepository;
+    private final CrawlFrontierRepository crawlFrontierRepository;
+    private final DirectoryManifestRepository directoryManifestRepository;
+    private final CrawlerProperties crawlerProperties;
+
+    /**
+     * Build the job's frontier: from its last checkpoint when it has one, otherwise
+     * a fresh one at the crawl root.
+     *
+     * @param startDirectories receives the directories to crawl
+     */
+    CrawlFrontier loadFrontier(UUID jobId, String rootPath, List<String> startDirectories) {
+        List<CrawlFrontierRepository.FrontierRow> rows = crawlFrontierRepository.findByJob(jobId);
+        if (rows.isEmpty()) {
+            startDirectories.add(rootPath);
+            return CrawlFrontier.start(rootPath);
+        }
+        List<String> done = new ArrayList<>();
+        for (CrawlFrontierRepository.FrontierRow row : rows) {
+            (row.done() ? done : startDirectories).add(row.dirPath());
+        }
+        log.info("Resuming crawl job {} from checkpoint: {} directories pending, {} done",
+                jobId, startDirectories.size(), done.size());
+        return CrawlFrontier.resume(startDirectories, done);
+    }
+
+    /**
+     * Drop the frontier of a job that completed.
+     */
+    void deleteFrontier(UUID jobId) {
+        crawlFrontierRepository.deleteByJob(jobId);
+    }
+
+    /**
+     * Load the directory manifest below the crawl root for an incremental crawl.
+     * A full crawl lists every directory anyway, so it starts from an empty
+     * manifest and only records into it.
+     *
+     * @return null if directory manifests are disabled
+     */
+    DirectoryManifest loadManifest(UUID driveId, String rootPath, boolean incremental) {
+        if (!crawlerProperties.getManifest().isEnabled()) {
+            return null;
+        }
+        if (!incremental) {
+            return new DirectoryManifest(List.of());
+        }
+        long start = System.nanoTime();
+        List<ManifestRow> rows = new ArrayList<>();
+        directoryManifestRepository.forEach(driveId, rootPath, rows::add);
+        DirectoryManifest manifest = new DirectoryManifest(rows);
+        log.info("Loaded directory manifest for drive {}: {} directories in {} ms", driveId, manifest.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return manifest;
+    }
+
+    /**
+     * Save the job's counters every {@value #SAVE_INTERVAL} steps. Only the node
+     * coordinating a crawl saves the job row.
+     */
+    void maybeSave(CrawlContext context) {
+        if (context.tracked && context.coordinator && context.steps.incrementAndGet() % SAVE_INTERVAL == 0) {
+            synchronized (context.job) {
+                context.publishCounters();
+                crawlJobRepository.save(context.job);
+            }
+        }
+    }
+
+    /**
+     * Whether the checkpoint interval has passed. Only one caller gets true per
+     * interval, so only one thread checkpoints at a time.
+     */
+    boolean isCheckpointDue(CrawlContext context) {
+        if (!context.tracked) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long due = context.nextCheckpointNanos.get();
+        return now >= due && context.nextCheckpointNanos.compareAndSet(due, now + context.checkpointIntervalNanos);
+    }
+
+    /**
+     * Write directories discovered and completed since the last checkpoint, then
+     * the job counters. Staged seen paths are flushed first so a directory is
+     * never marked done before its paths are recorded.
+     */
+    void checkpoint(CrawlContext context) {
+        synchronized (context.frontier) {
+            CrawlFrontier.Checkpoint checkpoint = context.frontier.drain();
+            try {
+                if (context.seenPaths != null) {
+                    context.seenPaths.flush();
+                }
+                if (!checkpoint.isEmpty()) {
+                    crawlFrontierRepository.saveCheckpoint(context.job.getId(), checkpoint.discovered(),
+                            checkpoint.completed());
+                }
+            } catch (RuntimeException e) {
+                context.frontier.restore(checkpoint);
+                throw e;
+            }
+            saveManifest(context, checkpoint.completed());
+            synchronized (context.job) {
+                context.publishCounters();
+                context.job.setLastCheckpoint(LocalDateTime.now());
+                crawlJobRepository.save(context.job);
+            }
+            log.debug("Checkpointed crawl job {}: {} directories discovered, {} done", context.job.getId(),
+                    checkpoint.discovered().size(), checkpoint.completed().size());
+        }
+    }
+
+    /**
+     * Write the manifest rows of directories the frontier completed. A failed
+     * write is kept for the next attempt; a missing row only means the directory
+     * is listed again.
+     */
+    void saveManifest(CrawlContext context, List<String> completed) {
+        DirectoryManifest manifest = context.manifest;
+        if (manifest == null) {
+            return;
+        }
+        manifest.complete(completed);
+        DirectoryManifest.Changes changes = manifest.drain();
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            directoryManifestRepository.save(context.driveId(), changes.writes(), changes.removedSubtrees(),
+                    changes.invalidated());
+        } catch (RuntimeException e) {
+            manifest.restore(changes);
+            log.warn("Failed to save directory manifest of crawl job {}: {}", context.job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Write the remaining manifest rows of a completed crawl. After a full crawl
+     * that listed every directory, rows it did not rewrite belong to directories
+     * that are gone or did not index cleanly, and are dropped.
+     */
+    void finishManifest(CrawlContext context, boolean listedEverything) {
+        if (context.manifest == null) {
+            return;
+        }
+        synchronized (context.frontier) {
+            saveManifest(context, context.frontier.drain().completed());
+        }
+        if (listedEverything) {
+            try {
+                int pruned = directoryManifestRepository.deleteNotVerifiedSince(context.driveId(), context.rootPath,
+                        context.startedAt);
+                log.info("Crawl job {} dropped {} stale directory manifest rows", context.job.getId(), pruned);
+            } catch (RuntimeException e) {
+                log.warn("Failed to prune directory manifest of crawl job {}: {}", context.job.getId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: CrawlClusterService.java
+ * Version: 0.1.0
+ * Turns: 43
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T17:40:00Z
+ * Exports: CrawlClusterService
+ * Description: class CrawlClusterService for keeping this node's part in cluster crawls alive. Methods: tick - heartbeat, requeue orphaned crawls and join crawls with claimable work.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.config.CrawlerProperties;
+import com.picturemodel.domain.repository.CrawlWorkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * This node's side of cluster crawls ({@code picture-model.crawler.cluster}).
+ * Every {@code heartbeat-interval-ms} it:
+ * <ul>
+ *   <li>renews the leases of the directories it holds and the heartbeat of each
+ *       crawl it works on, so they outlive long listings and large files;</li>
+ *   <li>queues again any running crawl whose coordinator sent no heartbeat for
+ *       {@code lease-ms}, so any node can take it over from its shared queue;</li>
+ *   <li>joins running crawls with claimable directories while it has free crawl
+ *       slots, as a helper of their coordinator.</li>
+ * </ul>
+ * Directories held by a node that crashed are claimable again once their leases expire.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlClusterService {
+
+    private final CrawlWorkRepository crawlWorkRepository;
+    private final CrawlerJobRunner crawlerJobRunner;
+    private final CrawlScheduler crawlScheduler;
+    private final CrawlerProperties crawlerProperties;
+
+    @Scheduled(fixedDelayString = "${picture-model.crawler.cluster.heartbeat-interval-ms:10000}")
+    public void tick() {
+        CrawlerProperties.Cluster cluster = crawlerProperties.getCluster();
+        if (!cluster.isEnabled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Duration lease = Duration.ofMillis(cluster.getLeaseMs());
+        LocalDateTime leaseUntil = now.plus(lease);
+        LocalDateTime aliveSince = now.minus(lease);
+        try {
+            heartbeat(cluster.getNodeId(), now, leaseUntil);
+            requeueOrphans(aliveSince);
+            joinCrawls(now);
+        } catch (RuntimeException e) {
+            log.warn("Cluster crawl tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat(String nodeId, LocalDateTime now, LocalDateTime leaseUntil) {
+        for (UUID jobId : crawlerJobRunner.getRunningJobIds()) {
+            crawlWorkRepository.heartbeat(jobId, nodeId, now, leaseUntil);
+        }
+    }
+
+    private void requeueOrphans(LocalDateTime aliveSince) {
+        boolean requeued = false;
+        for (UUID jobId : crawlWorkRepository.findOrphanedJobs(aliveSince)) {
+            if (crawlerJobRunner.isRunning(jobId) && !crawlerJobRunner.isAssisting(jobId)) {
+                continue;
+            }
+            if (crawlWorkRepository.requeueOrphan(jobId, aliveSince)) {
+                log.warn("Crawl job {} lost its coordinator; queued again", jobId);
+                requeued = true;
+            }
+        }
+        if (requeued) {
+            crawlScheduler.dispatch();
+        }
+    }
+
+    private void joinCrawls(LocalDateTime now) {
+        int maxCrawls = Math.max(1, crawlerProperties.getScheduler().getMaxConcurrentCrawls());
+        Set<UUID> running = crawlerJobRunner.getRunningJobIds();
+        int free = maxCrawls - running.size();
+        if (free <= 0) {
+            return;
+        }
+        for (UUID jobId : crawlWorkRepository.findJoinableJobs(now)) {
+            if (free == 0) {
+                break;
+            }
+            if (running.contains(jobId) || !crawlerJobRunner.reserve(jobId)) {
+                continue;
+            }
+            try {
+                crawlerJobRunner.assistJob(jobId);
+                free--;
+            } catch (RuntimeException e) {
+                crawlerJobRunner.release(jobId);
+                log.warn("Failed to join crawl job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: CrawlClusterTraversalService.java
+ * Version: 0.1.0
+ * Turns: 54
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T23:10:00Z
+ * Exports: CrawlClusterTraversalService
+ * Description: Service for this node's traversal of cluster crawls through the shared work queue.
+ * CrawlClusterTraversalService - nodeId - this node; startCoordinating - resume or seed a job's queue; ownCounters - this node's saved share; otherNodes - the other nodes' shares; deleteWork - drop a finished job's queue; releaseLeases - hand back unfinished directories; traverse - claim and crawl directories until done; checkpoint - mark completed directories done and save this node's counters.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.config.CrawlerProperties;
+import com.picturemodel.domain.repository.CrawlJobRepository;
+import com.picturemodel.domain.repository.CrawlWorkRepository;
+import com.picturemodel.domain.repository.CrawlWorkRepository.NodeCounters;
+import com.picturemodel.service.crawler.CrawlFrontier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The work-queue side of a cluster crawl ({@code picture-model.crawler.cluster}):
+ * which directories this node claims, when it is finished, and how it records
+ * completed directories. Listing and indexing the claimed directories is left to
+ * {@link CrawlerJobRunner}. Leases are renewed by {@link CrawlClusterService}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class CrawlClusterTraversalService {
+
+    private final CrawlWorkRepository crawlWorkRepository;
+    private final CrawlJobRepository crawlJobRepository;
+    private final CrawlCheckpointService crawlCheckpointService;
+    private final CrawlerProperties crawlerProperties;
+
+    /**
+     * Crawls a batch of claimed directories, handing their subdirectories to
+     * {@code publish} instead of crawling them.
+     */
+    @FunctionalInterface
+    interface ClaimedDirectories {
+        void crawl(List<String> directories, Consumer<List<String>> publish) throws Exception;
+    }
+
+    String nodeId() {
+        return crawlerProperties.getCluster().getNodeId();
+    }
+
+    /**
+     * Take on a job as its coordinator. A job that already has a shared queue is
+     * resumed from it, after handing back the directories this node held when it
+     * stopped.
+     *
+     * @return true if the job has no shared queue yet
+     */
+    boolean startCoordinating(UUID jobId) {
+        if (!crawlWorkRepository.hasWork(jobId)) {
+            return true;
+        }
+        crawlWorkRepository.releaseLeases(jobId, nodeId());
+        return false;
+    }
+
+    /**
+     * Queue the crawl root of a fresh job.
+     */
+    void seed(UUID jobId, String startPath) {
+        crawlWorkRepository.addPending(jobId, List.of(startPath));
+    }
+
+    /**
+     * This node's counters as last saved for the job.
+     */
+    NodeCounters ownCounters(UUID jobId) {
+        return crawlWorkRepository.findNode(jobId, nodeId());
+    }
+
+    /**
+     * The other nodes' counters for the job, summed.
+     */
+    NodeCounters otherNodes(UUID jobId) {
+        return crawlWorkRepository.sumOtherNodes(jobId, nodeId());
+    }
+
+    /**
+     * Drop the shared queue of a job that completed.
+     */
+    void deleteWork(UUID jobId) {
+        crawlWorkRepository.deleteByJob(jobId);
+    }
+
+    /**
+     * Hand this node's unfinished directories to the other nodes now rather than
+     * when their leases expire.
+     */
+    void releaseLeases(UUID jobId) {
+        try {
+            crawlWorkRepository.releaseLeases(jobId, nodeId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to release directories of crawl job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * Crawl directories claimed from the job's shared work queue, a batch at a
+     * time. Subdirectories go back to the queue, where any node may claim them,
+     * instead of being crawled here. The coordinator returns once every directory
+     * is done on some node; a helper once it has had nothing to claim for
+     * {@code helper-idle-timeout-ms}.
+     */
+    void traverse(CrawlContext context, ClaimedDirectories crawler) throws Exception {
+        CrawlerProperties.Cluster cluster = crawlerProperties.getCluster();
+        UUID jobId = context.job.getId();
+        String nodeId = cluster.getNodeId();
+        long helperIdleNanos = TimeUnit.MILLISECONDS.toNanos(cluster.getHelperIdleTimeoutMs());
+        Consumer<List<String>> publish = subdirectories -> crawlWorkRepository.addPending(jobId, subdirectories);
+        long idleSince = System.nanoTime();
+        while (!context.shouldStop()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> claimed = crawlWorkRepository.claim(jobId, nodeId, cluster.getClaimBatchSize(), now,
+                    now.plus(Duration.ofMillis(cluster.getLeaseMs())));
+            if (!claimed.isEmpty()) {
+                crawler.crawl(claimed, publish);
+                idleSince = System.nanoTime();
+                continue;
+            }
+            // Mark finished claims done before deciding whether the crawl is over
+            try {
+                checkpoint(context);
+            } catch (RuntimeException e) {
+                log.warn("Failed to checkpoint crawl job {}: {}", jobId, e.getMessage());
+            }
+            boolean finished = context.coordinator
+                    ? crawlWorkRepository.countOpen(jobId) == 0
+                    : crawlWorkRepository.countOwned(jobId, nodeId) == 0
+                            && System.nanoTime() - idleSince >= helperIdleNanos;
+            if (finished) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(Math.max(100, cluster.getIdlePollMs()));
+        }
+    }
+
+    /**
+     * Checkpoint of a cluster crawl: flush staged paths, mark the directories this
+     * node completed done in the shared queue, then save their manifest rows and
+     * this node's counters. The coordinator also folds the other nodes' counters
+     * into the job. Every node stops once the job is cancelled or over.
+     */
+    void checkpoint(CrawlContext context) {
+        UUID jobId = context.job.getId();
+        String nodeId = nodeId();
+        synchronized (context.frontier) {
+            // Discovered directories were queued as soon as they were listed
+            List<String> completed = context.frontier.drain().completed();
+            try {
+                if (context.seenPaths != null) {
+                    context.seenPaths.flush();
+                }
+                crawlWorkRepository.markDone(jobId, nodeId, completed);
+            } catch (RuntimeException e) {
+                context.frontier.restore(new CrawlFrontier.Checkpoint(List.of(), completed));
+                throw e;
+            }
+            crawlCheckpointService.saveManifest(context, completed);
+            crawlWorkRepository.saveNode(jobId, nodeId, context.coordinator, context.localCounters(),
+                    LocalDateTime.now());
+            if (context.coordinator) {
+                context.remote = crawlWorkRepository.sumOtherNodes(jobId, nodeId);
+                synchronized (context.job) {
+                    context.publishCounters();
+                    context.job.setLastCheckpoint(LocalDateTime.now());
+                    crawlJobRepository.save(context.job);
+                }
+            }
+            if (crawlWorkRepository.isStopRequested(jobId)) {
+                context.requestCancel();
+            }
+            log.debug("Checkpointed crawl job {} on node {}: {} directories done", jobId, nodeId, completed.size());
+        }
+    }
+}
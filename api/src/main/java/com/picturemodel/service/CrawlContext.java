@@ -0,0 +1,215 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: CrawlContext.java
+ * Version: 0.1.0
+ * Turns: 54
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T23:10:00Z
+ * Exports: CrawlContext
+ * Description: class CrawlContext for the state of one running crawl or change batch. Methods: shouldStop - whether the crawl failed or was cancelled; requestCancel - stop the crawl; startFrom - count from this node's share; recordMetadataChurn - add flushed row counts; localCounters - this node's counters; publishCounters - copy counters onto the job.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.domain.entity.CrawlJob;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import com.picturemodel.domain.repository.CrawlWorkRepository.NodeCounters;
+import com.picturemodel.domain.repository.ImageBulkRepository.MetadataChurn;
+import com.picturemodel.infrastructure.filesystem.FileSystemProvider;
+import com.picturemodel.service.crawler.CrawlFrontier;
+import com.picturemodel.service.crawler.CrawlItem;
+import com.picturemodel.service.crawler.CrawlMetrics;
+import com.picturemodel.service.crawler.CrawlPipeline;
+import com.picturemodel.service.crawler.CrawlProgress;
+import com.picturemodel.service.crawler.DirectoryManifest;
+import com.picturemodel.service.crawler.DrivePathIndex;
+import com.picturemodel.service.crawler.ImageBatchWriter;
+import com.picturemodel.service.crawler.SeenPathWriter;
+import com.picturemodel.service.crawler.StageStats;
+import com.picturemodel.service.crawler.VisitedPathSet;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-job crawl state shared by all traversal workers. Counters are atomic and
+ * copied onto the {@link CrawlJob} entity only while holding the job's monitor.
+ * In a cluster crawl they count this node's share; the coordinator adds the
+ * other nodes' shares when it publishes them. The cancel flag is the one the
+ * runner keeps for the job, so a cancel request reaches every worker.
+ */
+final class CrawlContext {
+    final CrawlJob job;
+    final AtomicBoolean cancelled;
+    final FileSystemProvider provider;
+    final String rootPath;
+    final boolean incremental;
+    final LocalDateTime lastCrawled;
+    final CrawlFrontier frontier;
+    final VisitedPathSet visitedPaths;
+    final SeenPathWriter seenPaths;
+    final DrivePathIndex index;
+    final DirectoryManifest manifest;
+    final boolean trustDirectoryMtimes;
+    final Map<String, Long> observedMtimes = new ConcurrentHashMap<>();
+    final LocalDateTime startedAt = LocalDateTime.now();
+    final boolean extractExif;
+    final boolean singlePassRead;
+    final HashAlgorithm hashAlgorithm;
+    final AtomicInteger filesScanned;
+    final AtomicInteger filesProcessed;
+    final AtomicInteger filesAdded;
+    final AtomicInteger filesUpdated;
+    final AtomicInteger directoriesListed;
+    final AtomicInteger directoriesSkipped;
+    final AtomicInteger steps = new AtomicInteger();
+    final AtomicLong nextCheckpointNanos = new AtomicLong();
+    final LongAdder bytesRead = new LongAdder();
+    final AtomicLong capturedBytes = new AtomicLong(); // File bytes held for the perceptual-hash stage
+    final LongAdder metadataRowsInserted = new LongAdder();
+    final LongAdder metadataRowsUpdated = new LongAdder();
+    final LongAdder metadataRowsDeleted = new LongAdder();
+    final StageStats listStats;
+    final CrawlProgress progress;
+    long checkpointIntervalNanos;
+    CrawlPipeline<CrawlItem> pipeline;
+    ImageBatchWriter writer;
+    CrawlMetrics metrics;
+    boolean indexWhileListing; // False when read stages run inline on the listing thread
+    volatile String currentPath;
+    volatile boolean failed;
+    boolean tracked = true; // False for change batches, which have no job row to save
+    boolean distributed; // Cluster crawl: the frontier is the shared work queue
+    boolean coordinator = true; // False on nodes helping with another node's crawl
+    volatile NodeCounters remote = NodeCounters.ZERO; // Other nodes' shares, summed
+
+    CrawlContext(
+            CrawlJob job,
+            FileSystemProvider provider,
+            String rootPath,
+            boolean incremental,
+            LocalDateTime lastCrawled,
+            CrawlFrontier frontier,
+            VisitedPathSet visitedPaths,
+            SeenPathWriter seenPaths,
+            DrivePathIndex index,
+            DirectoryManifest manifest,
+            boolean trustDirectoryMtimes,
+            boolean extractExif,
+            boolean singlePassRead,
+            int parallelism,
+            long rateWindowMs,
+            AtomicBoolean cancelled
+    ) {
+        this.job = job;
+        this.cancelled = cancelled;
+        this.provider = provider;
+        this.rootPath = rootPath;
+        this.incremental = incremental;
+        this.lastCrawled = lastCrawled;
+        this.frontier = frontier;
+        this.visitedPaths = visitedPaths;
+        this.seenPaths = seenPaths;
+        this.index = index;
+        this.manifest = manifest;
+        this.trustDirectoryMtimes = trustDirectoryMtimes;
+        this.extractExif = extractExif;
+        this.singlePassRead = singlePassRead;
+        this.hashAlgorithm = job.getHashAlgorithm() != null ? job.getHashAlgorithm() : HashAlgorithm.SHA256;
+        this.filesScanned = new AtomicInteger(job.getFilesScanned());
+        this.filesProcessed = new AtomicInteger(job.getFilesProcessed());
+        this.filesAdded = new AtomicInteger(job.getFilesAdded());
+        this.filesUpdated = new AtomicInteger(job.getFilesUpdated());
+        this.directoriesListed = new AtomicInteger(job.getDirectoriesListed());
+        this.directoriesSkipped = new AtomicInteger(job.getDirectoriesSkipped());
+        this.bytesRead.add(job.getBytesRead() != null ? job.getBytesRead() : 0L);
+        this.metadataRowsInserted.add(job.getMetadataRowsInserted() != null ? job.getMetadataRowsInserted() : 0L);
+        this.metadataRowsUpdated.add(job.getMetadataRowsUpdated() != null ? job.getMetadataRowsUpdated() : 0L);
+        this.metadataRowsDeleted.add(job.getMetadataRowsDeleted() != null ? job.getMetadataRowsDeleted() : 0L);
+        this.listStats = new StageStats("list", Math.max(1, parallelism), 0, () -> 0);
+        long estimatedFiles = job.getEstimatedTotalFiles() != null ? job.getEstimatedTotalFiles() : 0L;
+        this.progress = new CrawlProgress(estimatedFiles, rateWindowMs, filesScanned.get(), bytesRead.sum());
+    }
+
+    UUID driveId() {
+        return job.getDrive().getId();
+    }
+
+    void updateCurrentPath(String path) {
+        currentPath = path;
+    }
+
+    boolean shouldStop() {
+        return failed || cancelled.get();
+    }
+
+    void requestCancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Count from this node's share of a cluster crawl instead of the job totals.
+     */
+    void startFrom(NodeCounters own) {
+        filesScanned.set(own.filesScanned());
+        filesProcessed.set(own.filesProcessed());
+        filesAdded.set(own.filesAdded());
+        filesUpdated.set(own.filesUpdated());
+        directoriesListed.set(own.directoriesListed());
+        directoriesSkipped.set(own.directoriesSkipped());
+        bytesRead.reset();
+        bytesRead.add(own.bytesRead());
+        metadataRowsInserted.reset();
+        metadataRowsInserted.add(own.metadataRowsInserted());
+        metadataRowsUpdated.reset();
+        metadataRowsUpdated.add(own.metadataRowsUpdated());
+        metadataRowsDeleted.reset();
+        metadataRowsDeleted.add(own.metadataRowsDeleted());
+    }
+
+    void recordMetadataChurn(MetadataChurn churn) {
+        metadataRowsInserted.add(churn.inserted());
+        metadataRowsUpdated.add(churn.updated());
+        metadataRowsDeleted.add(churn.deleted());
+    }
+
+    NodeCounters localCounters() {
+        return new NodeCounters(filesScanned.get(), filesProcessed.get(), filesAdded.get(), filesUpdated.get(),
+                directoriesListed.get(), directoriesSkipped.get(), bytesRead.sum(), metadataRowsInserted.sum(),
+                metadataRowsUpdated.sum(), metadataRowsDeleted.sum());
+    }
+
+    void publishCounters() {
+        NodeCounters others = remote;
+        synchronized (job) {
+            int scanned = filesScanned.get() + others.filesScanned();
+            long bytes = bytesRead.sum() + others.bytesRead();
+            job.setFilesScanned(scanned);
+            job.setFilesProcessed(filesProcessed.get() + others.filesProcessed());
+            job.setFilesAdded(filesAdded.get() + others.filesAdded());
+            job.setFilesUpdated(filesUpdated.get() + others.filesUpdated());
+            job.setDirectoriesListed(directoriesListed.get() + others.directoriesListed());
+            job.setDirectoriesSkipped(directoriesSkipped.get() + others.directoriesSkipped());
+            job.setBytesRead(bytes);
+            job.setMetadataRowsInserted(metadataRowsInserted.sum() + others.metadataRowsInserted());
+            job.setMetadataRowsUpdated(metadataRowsUpdated.sum() + others.metadataRowsUpdated());
+            job.setMetadataRowsDeleted(metadataRowsDeleted.sum() + others.metadataRowsDeleted());
+            CrawlProgress.Snapshot rates = progress.update(scanned, bytes);
+            job.setFilesPerSecond(rates.filesPerSecond());
+            job.setBytesPerSecond(rates.bytesPerSecond());
+            job.setEstimatedEndTime(rates.etaSeconds() != null
+                    ? LocalDateTime.now().plusSeconds(rates.etaSeconds())
+                    : null);
+            if (currentPath != null) {
+                job.setCurrentPathValue(currentPath);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: CrawlEstimationService.java
+ * Version: 0.1.0
+ * Turns: 37
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T14:40:00Z
+ * Exports: CrawlEstimationService
+ * Description: Service for estimating the size of a crawl before and while it runs.
+ * CrawlEstimationService - combines the previous crawl's file count with a sampled pre-scan into an estimated total; findPreviousCrawl - last completed crawl of a root; listedFiles - files a finished crawl listed.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.config.CrawlerProperties;
+import com.picturemodel.domain.entity.CrawlJob;
+import com.picturemodel.domain.enums.CrawlEstimateSource;
+import com.picturemodel.domain.enums.CrawlStatus;
+import com.picturemodel.domain.repository.CrawlJobRepository;
+import com.picturemodel.infrastructure.filesystem.FileSystemProvider;
+import com.picturemodel.service.crawler.CrawlEstimator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Estimates how many image files a crawl will list, the input for its progress
+ * percentage and ETA.
+ *
+ * <p>Two inputs are combined. The last completed crawl of the same drive and root
+ * gives a file count that is usually within a few percent, since photo libraries
+ * change slowly. A sampled pre-scan ({@link CrawlEstimator}) covers first crawls
+ * and new roots; when it manages to list the whole tree its count is exact and
+ * wins. Nothing here writes to the database.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlEstimationService {
+
+    private final CrawlJobRepository crawlJobRepository;
+    private final CrawlerProperties crawlerProperties;
+
+    /**
+     * Estimated size of a crawl.
+     *
+     * @param files estimated image files, null if unknown
+     * @param bytes estimated size of those files, null if unknown
+     * @param source where {@code files} came from, null if unknown
+     * @param previousCrawl last completed crawl of the same drive and root, or null
+     * @param preScan pre-scan result, or null if none ran
+     */
+    public record Estimate(
+            Long files,
+            Long bytes,
+            CrawlEstimateSource source,
+            CrawlJob previousCrawl,
+            CrawlEstimator.Estimate preScan
+    ) {
+    }
+
+    /**
+     * Estimate a crawl of {@code rootPath} on a drive.
+     *
+     * @param rootPath crawl root as stored on the job, used to find the previous crawl
+     * @param startPath crawl root relative to the drive, used for the pre-scan
+     * @param forcePreScan pre-scan even if a previous crawl gives a count
+     * @throws Exception if a pre-scan runs and the root cannot be listed
+     */
+    public Estimate estimate(
+            FileSystemProvider provider,
+            UUID driveId,
+            String rootPath,
+            String startPath,
+            boolean forcePreScan
+    ) throws Exception {
+        CrawlJob previous = findPreviousCrawl(driveId, rootPath).orElse(null);
+        Long previousFiles = previous != null ? listedFiles(previous) : null;
+
+        CrawlerProperties.Progress settings = crawlerProperties.getProgress();
+        CrawlEstimator.Estimate preScan = null;
+        if (forcePreScan || (previousFiles == null && settings.isPreScan())) {
+            preScan = new CrawlEstimator(provider, settings.getPreScanDirectories(), new Random()).estimate(startPath);
+            log.info("Pre-scan of drive {} root '{}': ~{} files, ~{} MB from {} listings ({}) in {} ms",
+                    driveId, startPath, preScan.files(), preScan.bytes() / (1024 * 1024),
+                    preScan.directoriesListed(), preScan.exact() ? "exact" : "sampled", preScan.elapsedMillis());
+        }
+
+        if (preScan != null && preScan.exact()) {
+            return new Estimate(preScan.files(), preScan.bytes(), CrawlEstimateSource.PRE_SCAN_EXACT, previous, preScan);
+        }
+        if (previousFiles != null) {
+            Long bytes = preScan != null ? preScan.bytes() : previous.getEstimatedTotalBytes();
+            return new Estimate(previousFiles, bytes, CrawlEstimateSource.PREVIOUS_CRAWL, previous, preScan);
+        }
+        if (preScan != null) {
+            return new Estimate(preScan.files(), preScan.bytes(), CrawlEstimateSource.PRE_SCAN, null, preScan);
+        }
+        return new Estimate(null, null, null, null, null);
+    }
+
+    /**
+     * Last completed crawl of the same drive and root.
+     */
+    public Optional<CrawlJob> findPreviousCrawl(UUID driveId, String rootPath) {
+        return crawlJobRepository.findFirstByDrive_IdAndRootPathAndStatusOrderByEndTimeDesc(
+                driveId, rootPath != null ? rootPath : "", CrawlStatus.COMPLETED);
+    }
+
+    /**
+     * Image files a finished crawl listed, or null if the job does not record it.
+     */
+    public static Long listedFiles(CrawlJob job) {
+        if (job.getFilesScanned() != null && job.getFilesScanned() > 0) {
+            return job.getFilesScanned().longValue();
+        }
+        // Jobs from before filesScanned was recorded: a full crawl processed every listed file.
+        if (!Boolean.TRUE.equals(job.getIsIncremental()) && job.getFilesProcessed() != null
+                && job.getFilesProcessed() > 0) {
+            return job.getFilesProcessed().longValue();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,342 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: CrawlScheduler.java
+ * Version: 0.1.1
+ * Turns: 38,43
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T17:40:00Z
+ * Exports: CrawlScheduler
+ * Description: Service for queuing crawl jobs in the database and dispatching them fairly.
+ * CrawlScheduler - enqueue - queue a crawl or merge it into an equivalent one; covers - whether a job crawls everything a request asks for; merge - fold a request into a queued job; dispatch - start queued crawls within the concurrency cap; getQueue - queued crawls in dispatch order; nextRun - next auto-crawl time of a drive.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.config.CrawlerProperties;
+import com.picturemodel.domain.entity.CrawlJob;
+import com.picturemodel.domain.entity.RemoteFileDrive;
+import com.picturemodel.domain.enums.CrawlStatus;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import com.picturemodel.domain.repository.CrawlJobRepository;
+import com.picturemodel.domain.repository.CrawlWorkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Crawl queue backed by the {@code crawl_jobs} table: a job waits as
+ * {@code PENDING} until a slot is free, so queued crawls survive restarts.
+ *
+ * <p>Dispatch rules, applied every {@code dispatch-interval-ms} and whenever a job
+ * is queued:</p>
+ * <ul>
+ *   <li>at most {@code max-concurrent-crawls} crawls run, and one per drive;</li>
+ *   <li>full crawls never take the last {@code reserved-incremental-slots} slots,
+ *       so incremental crawls are not stuck behind hours-long full crawls;</li>
+ *   <li>higher priority first; a waiting job gains a point every
+ *       {@code aging-minutes}, so full crawls are not starved either;</li>
+ *   <li>among equal priorities, the drive served least recently goes first
+ *       (round-robin), then the job queued earliest.</li>
+ * </ul>
+ *
+ * <p>A request that an already queued or running crawl of the drive covers is
+ * merged into that job instead of queuing another. A request the job would crawl
+ * differently (another hash algorithm or read mode, or a full or EXIF crawl a
+ * resumable incremental job cannot become) is queued on its own.</p>
+ *
+ * <p>In cluster mode every node dispatches from the same table: a node takes a
+ * job only if it wins the conditional move to {@code IN_PROGRESS}, the slot cap
+ * applies per node, and a drive counts as busy while any node runs a crawl of it.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlScheduler {
+
+    private static final List<CrawlStatus> ACTIVE = List.of(CrawlStatus.PENDING, CrawlStatus.IN_PROGRESS);
+
+    private final CrawlJobRepository crawlJobRepository;
+    private final CrawlWorkRepository crawlWorkRepository;
+    private final CrawlerJobRunner crawlerJobRunner;
+    private final CrawlerProperties crawlerProperties;
+
+    private final Map<UUID, LocalDateTime> lastServed = new ConcurrentHashMap<>();
+
+    /**
+     * Queue a new, unsaved crawl job, or merge it into a queued or running crawl
+     * of the same drive that covers it, then dispatch.
+     *
+     * @return the job that will do the crawl
+     */
+    public synchronized CrawlJob enqueue(CrawlJob candidate) {
+        UUID driveId = candidate.getDrive().getId();
+        List<CrawlJob> active = crawlJobRepository.findByDrive_IdAndStatusIn(driveId, ACTIVE);
+
+        for (CrawlJob job : active) {
+            if (job.getStatus() == CrawlStatus.IN_PROGRESS && isRunning(job) && covers(job, candidate)) {
+                log.info("Crawl request for drive {} '{}' merged into running job {}",
+                        driveId, candidate.getRootPath(), job.getId());
+                return job;
+            }
+        }
+        for (CrawlJob job : active) {
+            if (job.getStatus() == CrawlStatus.PENDING && !crawlerJobRunner.isRunning(job.getId())
+                    && merge(job, candidate)) {
+                CrawlJob saved = crawlJobRepository.save(job);
+                log.info("Crawl request for drive {} '{}' merged into queued job {}",
+                        driveId, candidate.getRootPath(), job.getId());
+                dispatch();
+                return saved;
+            }
+        }
+
+        candidate.setStatus(CrawlStatus.PENDING);
+        candidate.setQueuedAt(LocalDateTime.now());
+        CrawlJob saved = crawlJobRepository.save(candidate);
+        log.info("Queued {} crawl job {} for drive {} '{}' with priority {}", saved.getTriggeredBy(), saved.getId(),
+                driveId, saved.getRootPath(), saved.getPriority());
+        dispatch();
+        return saved;
+    }
+
+    /**
+     * Start queued crawls while slots are free.
+     */
+    @Scheduled(fixedDelayString = "${picture-model.crawler.scheduler.dispatch-interval-ms:5000}")
+    public synchronized void dispatch() {
+        CrawlerProperties.Scheduler settings = crawlerProperties.getScheduler();
+        int maxCrawls = Math.max(1, settings.getMaxConcurrentCrawls());
+        Set<UUID> running = crawlerJobRunner.getRunningJobIds();
+        int free = maxCrawls - running.size();
+        if (free <= 0) {
+            return;
+        }
+        List<CrawlJob> pending = crawlJobRepository.findByStatusOrderByQueuedAtAsc(CrawlStatus.PENDING);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> busyDrives = new HashSet<>();
+        int runningFull = 0;
+        for (CrawlJob job : crawlJobRepository.findAllById(running)) {
+            busyDrives.add(job.getDriveId());
+            if (!Boolean.TRUE.equals(job.getIsIncremental())) {
+                runningFull++;
+            }
+        }
+        if (crawlerProperties.getCluster().isEnabled()) {
+            for (CrawlJob job : crawlJobRepository.findByStatus(CrawlStatus.IN_PROGRESS)) {
+                busyDrives.add(job.getDriveId());
+            }
+        }
+        int fullSlots = Math.max(1, maxCrawls - Math.max(0, settings.getReservedIncrementalSlots()));
+
+        for (CrawlJob job : inDispatchOrder(pending, LocalDateTime.now())) {
+            if (free == 0) {
+                break;
+            }
+            boolean full = !Boolean.TRUE.equals(job.getIsIncremental());
+            if (running.contains(job.getId()) || busyDrives.contains(job.getDriveId())
+                    || (full && runningFull >= fullSlots)) {
+                continue;
+            }
+            if (launch(job)) {
+                free--;
+                busyDrives.add(job.getDriveId());
+                if (full) {
+                    runningFull++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Queued crawls in the order they would be dispatched, ignoring slot limits.
+     */
+    public List<CrawlJob> getQueue() {
+        return inDispatchOrder(crawlJobRepository.findByStatusOrderByQueuedAtAsc(CrawlStatus.PENDING),
+                LocalDateTime.now());
+    }
+
+    /**
+     * Next auto-crawl time of a drive after {@code after}: its cron expression if
+     * it has one, otherwise its interval or the default interval.
+     */
+    public LocalDateTime nextRun(RemoteFileDrive drive, LocalDateTime after) {
+        String cron = drive.getCrawlCron();
+        if (cron != null && !cron.isBlank()) {
+            LocalDateTime next = CronExpression.parse(cron).next(after);
+            if (next != null) {
+                return next;
+            }
+        }
+        Integer minutes = drive.getCrawlIntervalMinutes();
+        int interval = minutes != null && minutes > 0
+                ? minutes
+                : crawlerProperties.getScheduler().getDefaultIntervalMinutes();
+        return after.plusMinutes(Math.max(1, interval));
+    }
+
+    private boolean launch(CrawlJob job) {
+        if (!crawlerJobRunner.reserve(job.getId())) {
+            return false;
+        }
+        try {
+            CrawlerProperties.Cluster cluster = crawlerProperties.getCluster();
+            if (cluster.isEnabled()) {
+                if (!crawlWorkRepository.claimJob(job.getId(), cluster.getNodeId(), LocalDateTime.now())) {
+                    // Another node took it first
+                    crawlerJobRunner.release(job.getId());
+                    return false;
+                }
+                job.setStatus(CrawlStatus.IN_PROGRESS);
+            }
+            if (job.getLastCheckpoint() == null && job.getResumeCount() == 0) {
+                // The job's duration and rates start when it runs, not when it was queued.
+                job.setStartTime(LocalDateTime.now());
+                crawlJobRepository.save(job);
+            }
+            crawlerJobRunner.runJob(job.getId());
+            lastServed.put(job.getDriveId(), LocalDateTime.now());
+            log.info("Dispatched crawl job {} for drive {} (priority {}, waited {} s)", job.getId(), job.getDriveId(),
+                    job.getPriority(), Duration.between(queuedAt(job), LocalDateTime.now()).getSeconds());
+            return true;
+        } catch (RuntimeException e) {
+            crawlerJobRunner.release(job.getId());
+            log.warn("Failed to dispatch crawl job {}: {}", job.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Whether a job is running here, or in cluster mode on a node whose heartbeat is current.
+     */
+    private boolean isRunning(CrawlJob job) {
+        if (crawlerJobRunner.isRunning(job.getId())) {
+            return true;
+        }
+        CrawlerProperties.Cluster cluster = crawlerProperties.getCluster();
+        return cluster.isEnabled() && crawlWorkRepository.hasLiveCoordinator(job.getId(),
+                LocalDateTime.now().minus(Duration.ofMillis(cluster.getLeaseMs())));
+    }
+
+    private List<CrawlJob> inDispatchOrder(List<CrawlJob> jobs, LocalDateTime now) {
+        List<CrawlJob> ordered = new ArrayList<>(jobs);
+        ordered.sort(Comparator
+                .comparingLong((CrawlJob job) -> effectivePriority(job, now)).reversed()
+                .thenComparing(job -> lastServed.getOrDefault(job.getDriveId(), LocalDateTime.MIN))
+                .thenComparing(this::queuedAt));
+        return ordered;
+    }
+
+    private long effectivePriority(CrawlJob job, LocalDateTime now) {
+        long waitedMinutes = Math.max(0, Duration.between(queuedAt(job), now).toMinutes());
+        long aging = Math.max(1, crawlerProperties.getScheduler().getAgingMinutes());
+        return job.getPriority() + waitedMinutes / aging;
+    }
+
+    private LocalDateTime queuedAt(CrawlJob job) {
+        return job.getQueuedAt() != null ? job.getQueuedAt() : job.getStartTime();
+    }
+
+    /**
+     * Whether a job crawls everything the candidate asks for: its root, a full
+     * crawl if the candidate is one, EXIF if the candidate wants it, and with the
+     * same hash algorithm.
+     */
+    static boolean covers(CrawlJob job, CrawlJob candidate) {
+        return rootCovers(job.getRootPath(), candidate.getRootPath())
+                && (Boolean.TRUE.equals(candidate.getIsIncremental()) || !Boolean.TRUE.equals(job.getIsIncremental()))
+                && (!Boolean.TRUE.equals(candidate.getExtractExif()) || Boolean.TRUE.equals(job.getExtractExif()))
+                && hashAlgorithm(job) == hashAlgorithm(candidate);
+    }
+
+    /**
+     * Fold a candidate into a queued job of the same drive. A job that has not
+     * started yet takes the wider root, the stronger options and the higher
+     * parallelism; one with a checkpoint keeps its options so it can resume, and
+     * only absorbs a candidate it {@link #covers}.
+     *
+     * @return false if the roots are unrelated, the hash algorithms or read modes
+     *         differ, or a started job does not cover the candidate
+     */
+    static boolean merge(CrawlJob job, CrawlJob candidate) {
+        boolean started = job.getLastCheckpoint() != null;
+        if (started) {
+            if (!covers(job, candidate)) {
+                return false;
+            }
+        } else {
+            boolean jobCovers = rootCovers(job.getRootPath(), candidate.getRootPath());
+            if (!jobCovers && !rootCovers(candidate.getRootPath(), job.getRootPath())) {
+                return false;
+            }
+            // Neither can be widened: one job hashes with one algorithm and one read mode
+            if (hashAlgorithm(job) != hashAlgorithm(candidate) || singlePassRead(job) != singlePassRead(candidate)) {
+                return false;
+            }
+            if (!jobCovers) {
+                job.setRootPath(candidate.getRootPath());
+            }
+            job.setIsIncremental(Boolean.TRUE.equals(job.getIsIncremental())
+                    && Boolean.TRUE.equals(candidate.getIsIncremental()));
+            job.setExtractExif(Boolean.TRUE.equals(job.getExtractExif())
+                    || Boolean.TRUE.equals(candidate.getExtractExif()));
+            job.setParallelism(Math.max(parallelism(job), parallelism(candidate)));
+            job.setEstimatedTotalFiles(null);
+            job.setEstimatedTotalBytes(null);
+            job.setEstimateSource(null);
+        }
+        job.setPriority(Math.max(job.getPriority(), candidate.getPriority()));
+        job.setMergedRequests(job.getMergedRequests() + 1);
+        return true;
+    }
+
+    private static HashAlgorithm hashAlgorithm(CrawlJob job) {
+        return job.getHashAlgorithm() != null ? job.getHashAlgorithm() : HashAlgorithm.SHA256;
+    }
+
+    private static boolean singlePassRead(CrawlJob job) {
+        return !Boolean.FALSE.equals(job.getSinglePassRead());
+    }
+
+    private static int parallelism(CrawlJob job) {
+        return job.getParallelism() != null ? job.getParallelism() : 1;
+    }
+
+    private static boolean rootCovers(String root, String path) {
+        String outer = normalize(root);
+        String inner = normalize(path);
+        return outer.isEmpty() || inner.equals(outer) || inner.startsWith(outer + "/");
+    }
+
+    private static String normalize(String path) {
+        if (path == null) {
+            return "";
+        }
+        String normalized = path.trim().replace('\\', '/');
+        int start = 0;
+        int end = normalized.length();
+        while (start < end && normalized.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && normalized.charAt(end - 1) == '/') {
+            end--;
+        }
+        return normalized.substring(start, end);
+    }
+}
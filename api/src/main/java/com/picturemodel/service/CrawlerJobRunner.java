@@ -2,82 +2,217 @@
  * App: Picture Model
  * Package: com.picturemodel.service
  * File: CrawlerJobRunner.java
- * Version: 0.1.9
- * Turns: 8,9,10,22,25,26
+ * Version: 0.1.31
+ * Turns: 8,9,10,22,25,26,28,29,30,31,32,33,34,35,36,37,38,39,40,43,44,46,47,48,49,50,51,54
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-02T20:20:10Z
+ * Date: 2026-10-16T23:10:00Z
  * Exports: CrawlerJobRunner
  * Description: Async crawl job executor for indexing files into Image records.
- * CrawlerJobRunner - traverses file trees, updates crawl job status, and persists images.
+ * CrawlerJobRunner - runs crawl jobs: walks directory trees and feeds image files through the hash/EXIF/perceptual-hash/persist pipeline. Checkpoints and manifests are kept by CrawlCheckpointService, cluster work queues by CrawlClusterTraversalService; watch batches come from DriveChangeService.
  */
 
 package com.picturemodel.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.picturemodel.config.CrawlerProperties;
 import com.picturemodel.domain.entity.CrawlJob;
 import com.picturemodel.domain.entity.Image;
-import com.picturemodel.domain.entity.ImageMetadata;
 import com.picturemodel.domain.entity.RemoteFileDrive;
 import com.picturemodel.domain.enums.CrawlStatus;
-import com.picturemodel.domain.enums.MetadataSource;
+import com.picturemodel.domain.enums.CrawlTrigger;
 import com.picturemodel.domain.repository.CrawlJobRepository;
-import com.picturemodel.domain.repository.ImageMetadataRepository;
+import com.picturemodel.domain.repository.CrawlSeenPathRepository;
+import com.picturemodel.domain.repository.DirectoryManifestRepository.ManifestRow;
+import com.picturemodel.domain.repository.ImageBulkRepository;
 import com.picturemodel.domain.repository.ImageRepository;
 import com.picturemodel.domain.repository.RemoteFileDriveRepository;
 import com.picturemodel.infrastructure.filesystem.FileInfo;
 import com.picturemodel.infrastructure.filesystem.FileSystemProvider;
+import com.picturemodel.infrastructure.filesystem.ImageContentTypes;
+import com.picturemodel.service.crawler.CapturingInputStream;
+import com.picturemodel.service.crawler.CrawlItem;
+import com.picturemodel.service.crawler.CountingInputStream;
+import com.picturemodel.service.crawler.CrawlFrontier;
+import com.picturemodel.service.crawler.CrawlMetrics;
+import com.picturemodel.service.crawler.CrawlPaths;
+import com.picturemodel.service.crawler.CrawlPipeline;
+import com.picturemodel.service.crawler.DirectoryManifest;
+import com.picturemodel.service.crawler.DrivePathIndex;
+import com.picturemodel.service.crawler.HashingInputStream;
+import com.picturemodel.service.crawler.ImageBatchWriter;
+import com.picturemodel.service.crawler.SeenPathWriter;
+import com.picturemodel.service.crawler.SniffingInputStream;
+import com.picturemodel.service.crawler.StageStats;
+import com.picturemodel.service.crawler.VisitedPathSet;
+import com.picturemodel.service.hashing.FileHashingService;
+import com.picturemodel.service.hashing.PerceptualHashService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class CrawlerJobRunner {
 
-    private static final int SAVE_INTERVAL = 5;
-    private static final Set<String> IGNORED_ROOT_NAMES = Set.of(
-            "$RECYCLE.BIN",
-            "SYSTEM VOLUME INFORMATION",
-            ".TRASHES",
-            ".SPOTLIGHT-V100",
-            "RECYCLER",
-            "$WINDOWS.~BT",
-            "$WINDOWS.~WS",
-            "RECOVERY",
-            "MSOCACHE",
-            "PERFLOGS",
-            "WINDOWSIMAGEBACKUP",
-            "CONFIG.MSI",
-            "FOUND.000",
-            "FOUND.001"
-    );
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+    // Images of a directory held back while its listing may still match the manifest
+    private static final int UNCHANGED_CHECK_LIMIT = 20 * LOOKUP_CHUNK_SIZE;
+    private static final int SEEN_PATH_BATCH_SIZE = 2000;
 
     private final CrawlJobRepository crawlJobRepository;
     private final RemoteFileDriveRepository driveRepository;
     private final ImageRepository imageRepository;
-    private final ImageMetadataRepository imageMetadataRepository;
+    private final ImageBulkRepository imageBulkRepository;
+    private final CrawlSeenPathRepository crawlSeenPathRepository;
     private final ConnectionManager connectionManager;
     private final ExifExtractorService exifExtractorService;
     private final ObjectMapper objectMapper;
+    private final CrawlerProperties crawlerProperties;
+    private final FileHashingService fileHashingService;
+    private final PerceptualHashService perceptualHashService;
+    private final CrawlEstimationService crawlEstimationService;
+    private final CrawlCheckpointService crawlCheckpointService;
+    private final CrawlClusterTraversalService crawlClusterTraversalService;
+    private final MeterRegistry meterRegistry;
 
     private final Map<UUID, AtomicBoolean> cancelFlags = new ConcurrentHashMap<>();
+    private final Map<UUID, CrawlContext> activeCrawls = new ConcurrentHashMap<>();
+    private final Set<UUID> runningJobs = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> assistingJobs = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> deferredPerceptualHashes = ConcurrentHashMap.newKeySet(); // Drives with images left to the backfill
 
     public void requestCancel(UUID jobId) {
         cancelFlags.computeIfAbsent(jobId, id -> new AtomicBoolean(false)).set(true);
     }
 
-    @Async("taskExecutor")
-    public void runJob(UUID jobId, boolean extractExif) {
+    /**
+     * Per-stage throughput and queue depth for a running crawl.
+     *
+     * @return stage snapshots in pipeline order, or an empty list if the job is not running
+     */
+    public List<StageStats.Snapshot> getStageStats(UUID jobId) {
+        CrawlContext context = activeCrawls.get(jobId);
+        if (context == null) {
+            return List.of();
+        }
+        List<StageStats.Snapshot> snapshots = new ArrayList<>();
+        snapshots.add(context.listStats.snapshot());
+        snapshots.addAll(context.pipeline.snapshot());
+        return snapshots;
+    }
+
+    /**
+     * Whether the job is running, or reserved to run, in this instance.
+     */
+    public boolean isRunning(UUID jobId) {
+        return runningJobs.contains(jobId);
+    }
+
+    /**
+     * Claim a job before {@link #runJob} is called, so it counts as running from
+     * the moment it is dispatched.
+     *
+     * @return false if the job is already running
+     */
+    public boolean reserve(UUID jobId) {
+        return runningJobs.add(jobId);
+    }
+
+    /**
+     * Give up a reservation whose job could not be started.
+     */
+    public void release(UUID jobId) {
+        runningJobs.remove(jobId);
+    }
+
+    /**
+     * Whether this instance works on the job as a helper of another node's cluster crawl.
+     */
+    public boolean isAssisting(UUID jobId) {
+        return assistingJobs.contains(jobId);
+    }
+
+    /**
+     * Jobs running or reserved in this instance.
+     */
+    public Set<UUID> getRunningJobIds() {
+        return Set.copyOf(runningJobs);
+    }
+
+    /**
+     * Forget a cancel request so a cancelled job can be resumed.
+     */
+    public void clearCancelRequest(UUID jobId) {
+        cancelFlags.remove(jobId);
+    }
+
+    /**
+     * Whether a crawl of the drive is running in this instance.
+     */
+    public boolean isCrawling(UUID driveId) {
+        return activeCrawls.values().stream()
+                .anyMatch(context -> driveId.equals(context.job.getDrive().getId()));
+    }
+
+    /**
+     * Whether crawls of the drive left perceptual hashes to the backfill since the
+     * last call; clears the flag.
+     */
+    public boolean takeDeferredPerceptualHashes(UUID driveId) {
+        return deferredPerceptualHashes.remove(driveId);
+    }
+
+    /**
+     * Run a crawl job, resuming from its last checkpoint if it has one. Crawl
+     * options are read from the job. Called by {@code CrawlScheduler} after
+     * {@link #reserve}; the reservation ends when the job does.
+     */
+    @Async("crawlExecutor")
+    public void runJob(UUID jobId) {
+        runningJobs.add(jobId);
+        try {
+            executeJob(jobId);
+        } finally {
+            runningJobs.remove(jobId);
+        }
+    }
+
+    /**
+     * Help with a cluster crawl another node coordinates: claim directories from
+     * its shared work queue until none are left for this node. Called by
+     * {@code CrawlClusterService} after {@link #reserve}; the reservation ends when
+     * this node leaves the crawl.
+     */
+    @Async("crawlExecutor")
+    public void assistJob(UUID jobId) {
+        runningJobs.add(jobId);
+        assistingJobs.add(jobId);
+        try {
+            executeAssist(jobId);
+        } finally {
+            assistingJobs.remove(jobId);
+            runningJobs.remove(jobId);
+        }
+    }
+
+    private void executeJob(UUID jobId) {
         Optional<CrawlJob> jobOptional = crawlJobRepository.findById(jobId);
         if (jobOptional.isEmpty()) {
             log.warn("Crawl job not found: {}", jobId);
@@ -85,6 +220,11 @@ public class CrawlerJobRunner {
         }
 
         CrawlJob job = jobOptional.get();
+        if (job.getStatus() != CrawlStatus.PENDING && job.getStatus() != CrawlStatus.IN_PROGRESS) {
+            // Cancelled between dispatch and the executor picking it up
+            log.info("Crawl job {} is {}; not starting it", jobId, job.getStatus());
+            return;
+        }
         UUID driveId = job.getDrive() != null ? job.getDrive().getId() : null;
         if (driveId == null) {
             log.error("Crawl job {} missing drive reference", jobId);
@@ -95,36 +235,119 @@ public class CrawlerJobRunner {
                 .orElseThrow(() -> new IllegalArgumentException("Drive not found: " + driveId));
         job.setDrive(drive);
 
-        cancelFlags.computeIfAbsent(jobId, id -> new AtomicBoolean(false));
+        AtomicBoolean cancelled = cancelFlags.computeIfAbsent(jobId, id -> new AtomicBoolean(false));
 
+        boolean extractExif = Boolean.TRUE.equals(job.getExtractExif());
+        boolean singlePassRead = !Boolean.FALSE.equals(job.getSinglePassRead());
+        CrawlContext context = null;
         try {
             job.setStatus(CrawlStatus.IN_PROGRESS);
             job.setStartTime(job.getStartTime() == null ? LocalDateTime.now() : job.getStartTime());
+            job.setEndTime(null);
             crawlJobRepository.save(job);
 
             FileSystemProvider provider = connectionManager.getProvider(driveId);
-            String startPath = normalizeRoot(job.getRootPath(), drive.getRootPath());
+            String startPath = CrawlPaths.normalizeRoot(job.getRootPath(), drive.getRootPath());
             boolean incremental = Boolean.TRUE.equals(job.getIsIncremental());
             LocalDateTime lastCrawled = drive.getLastCrawled();
+            if (job.getEstimatedTotalFiles() == null) {
+                estimateTotals(job, provider, startPath);
+            }
+
+            boolean distributed = crawlerProperties.getCluster().isEnabled();
+            List<String> startDirectories = new ArrayList<>();
+            CrawlFrontier frontier;
+            boolean fresh;
+            if (distributed) {
+                // The shared work queue is the frontier; this node only tracks what it claimed
+                fresh = crawlClusterTraversalService.startCoordinating(jobId);
+                frontier = CrawlFrontier.resume(List.of(), List.of());
+            } else {
+                frontier = crawlCheckpointService.loadFrontier(jobId, startPath, startDirectories);
+                fresh = frontier.doneCount() == 0;
+            }
+            DrivePathIndex index = loadPathIndex(driveId, startPath, extractExif);
+            DirectoryManifest manifest = crawlCheckpointService.loadManifest(driveId, startPath, incremental);
+            boolean trustDirectoryMtimes = manifest != null
+                    && crawlerProperties.getManifest().getTrustedDirectoryMtimes().contains(drive.getType());
 
-            Set<String> visitedPaths = incremental ? null : new HashSet<>();
-            Counter counter = new Counter();
+            // Deletions can only be detected if this run lists every directory.
+            VisitedPathSet visitedPaths = null;
+            SeenPathWriter seenPaths = null;
+            if (!incremental && fresh) {
+                // Paths listed on other nodes can only be compared in SQL
+                if (distributed
+                        || crawlerProperties.getDeletionDetection() == CrawlerProperties.DeletionDetection.STAGING) {
+                    crawlSeenPathRepository.deleteStale();
+                    crawlSeenPathRepository.deleteByJob(jobId);
+                    seenPaths = new SeenPathWriter(crawlSeenPathRepository, jobId, SEEN_PATH_BATCH_SIZE);
+                } else {
+                    visitedPaths = new VisitedPathSet(index.size());
+                }
+            } else if (!incremental && distributed) {
+                log.info("Crawl job {} resumed from its shared work queue; deleted files will not be detected", jobId);
+            } else if (!incremental) {
+                log.info("Crawl job {} resumed past {} finished directories; deleted files will not be detected",
+                        jobId, frontier.doneCount());
+            }
+            int parallelism = job.getParallelism() != null ? job.getParallelism() : 1;
+            context = new CrawlContext(job, provider, startPath, incremental, lastCrawled, frontier, visitedPaths,
+                    seenPaths, index, manifest, trustDirectoryMtimes, extractExif, singlePassRead, parallelism,
+                    crawlerProperties.getProgress().getRateWindowMs(), cancelled);
+            if (distributed) {
+                context.distributed = true;
+                context.startFrom(crawlClusterTraversalService.ownCounters(jobId));
+            }
+            log.info("Crawl job {} hashing with {}", jobId, context.hashAlgorithm);
+            context.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+                    Math.max(1000, crawlerProperties.getCheckpointIntervalMs()));
+            context.nextCheckpointNanos.set(System.nanoTime() + context.checkpointIntervalNanos);
+            context.pipeline = buildPipeline(context, drive);
+            context.writer = new ImageBatchWriter(
+                    "crawl-" + jobId.toString().substring(0, 8),
+                    imageBulkRepository,
+                    crawlerProperties.getBatchSize() != null ? crawlerProperties.getBatchSize() : 100,
+                    crawlerProperties.getFlushIntervalMs(),
+                    context::recordMetadataChurn,
+                    context.metrics.getFlushTimer());
+            activeCrawls.put(jobId, context);
 
-            crawlPath(provider, job, startPath, startPath, incremental, lastCrawled, visitedPaths, counter, extractExif);
+            CrawlContext crawl = context;
+            if (distributed) {
+                if (fresh) {
+                    crawlClusterTraversalService.seed(jobId, startPath);
+                }
+                log.info("Crawl job {} shared with the cluster; coordinated by node {}", jobId,
+                        crawlClusterTraversalService.nodeId());
+                runPipeline(context, () -> traverseShared(crawl, parallelism));
+                context.remote = crawlClusterTraversalService.otherNodes(jobId);
+            } else {
+                runPipeline(context, () -> traverse(crawl, startDirectories, parallelism));
+            }
+            context.publishCounters();
 
             if (isCancelled(jobId)) {
                 job.setStatus(CrawlStatus.CANCELLED);
                 if (job.getEndTime() == null) {
                     job.setEndTime(LocalDateTime.now());
                 }
+                checkpointQuietly(context);
             } else {
                 job.setStatus(CrawlStatus.COMPLETED);
                 job.setEndTime(LocalDateTime.now());
                 drive.setLastCrawled(LocalDateTime.now());
             }
 
-            if (!incremental && visitedPaths != null) {
-                markDeletedImages(driveId, visitedPaths, job);
+            if (job.getStatus() == CrawlStatus.COMPLETED) {
+                if (visitedPaths != null || seenPaths != null) {
+                    markDeletedImages(context, driveId);
+                }
+                crawlCheckpointService.finishManifest(context, visitedPaths != null || seenPaths != null);
+                if (distributed) {
+                    crawlClusterTraversalService.deleteWork(jobId);
+                } else {
+                    crawlCheckpointService.deleteFrontier(jobId);
+                }
             }
 
             long imageCount = imageRepository.countByDrive_IdAndDeletedFalse(driveId);
@@ -132,175 +355,936 @@ public class CrawlerJobRunner {
             driveRepository.save(drive);
 
             crawlJobRepository.save(job);
+            log.info("Crawl job {} {}: {} metadata rows inserted, {} updated, {} deleted", jobId,
+                    job.getStatus().name().toLowerCase(), job.getMetadataRowsInserted(),
+                    job.getMetadataRowsUpdated(), job.getMetadataRowsDeleted());
         } catch (Exception e) {
             log.error("Crawl job {} failed", jobId, e);
+            if (context != null) {
+                checkpointQuietly(context);
+                context.publishCounters();
+            }
             job.setStatus(CrawlStatus.FAILED);
             job.setEndTime(LocalDateTime.now());
             appendError(job, e.getMessage());
             crawlJobRepository.save(job);
         } finally {
             cancelFlags.remove(jobId);
+            activeCrawls.remove(jobId);
+            if (context != null && (context.seenPaths != null || context.distributed)) {
+                clearSeenPaths(jobId);
+            }
+        }
+    }
+
+    private void executeAssist(UUID jobId) {
+        CrawlJob job = crawlJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != CrawlStatus.IN_PROGRESS || job.getDrive() == null) {
+            return;
+        }
+        UUID driveId = job.getDrive().getId();
+        RemoteFileDrive drive = driveRepository.findById(driveId).orElse(null);
+        if (drive == null) {
+            return;
+        }
+        job.setDrive(drive);
+        AtomicBoolean cancelled = cancelFlags.computeIfAbsent(jobId, id -> new AtomicBoolean(false));
+
+        String nodeId = crawlClusterTraversalService.nodeId();
+        boolean extractExif = Boolean.TRUE.equals(job.getExtractExif());
+        boolean singlePassRead = !Boolean.FALSE.equals(job.getSinglePassRead());
+        boolean failed = false;
+        CrawlContext context = null;
+        try {
+            FileSystemProvider provider = connectionManager.getProvider(driveId);
+            String startPath = CrawlPaths.normalizeRoot(job.getRootPath(), drive.getRootPath());
+            boolean incremental = Boolean.TRUE.equals(job.getIsIncremental());
+            DrivePathIndex index = loadPathIndex(driveId, startPath, extractExif);
+            DirectoryManifest manifest = crawlCheckpointService.loadManifest(driveId, startPath, incremental);
+            boolean trustDirectoryMtimes = manifest != null
+                    && crawlerProperties.getManifest().getTrustedDirectoryMtimes().contains(drive.getType());
+            // The coordinator compares the paths staged by every node once the crawl completes
+            SeenPathWriter seenPaths = incremental
+                    ? null
+                    : new SeenPathWriter(crawlSeenPathRepository, jobId, SEEN_PATH_BATCH_SIZE);
+            int parallelism = job.getParallelism() != null ? job.getParallelism() : 1;
+            context = new CrawlContext(job, provider, startPath, incremental, drive.getLastCrawled(),
+                    CrawlFrontier.resume(List.of(), List.of()), null, seenPaths, index, manifest,
+                    trustDirectoryMtimes, extractExif, singlePassRead, parallelism,
+                    crawlerProperties.getProgress().getRateWindowMs(), cancelled);
+            context.distributed = true;
+            context.coordinator = false;
+            context.startFrom(crawlClusterTraversalService.ownCounters(jobId));
+            context.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+                    Math.max(1000, crawlerProperties.getCheckpointIntervalMs()));
+            context.nextCheckpointNanos.set(System.nanoTime() + context.checkpointIntervalNanos);
+            context.pipeline = buildPipeline(context, drive);
+            context.writer = new ImageBatchWriter(
+                    "crawl-" + jobId.toString().substring(0, 8),
+                    imageBulkRepository,
+                    crawlerProperties.getBatchSize() != null ? crawlerProperties.getBatchSize() : 100,
+                    crawlerProperties.getFlushIntervalMs(),
+                    context::recordMetadataChurn,
+                    context.metrics.getFlushTimer());
+            activeCrawls.put(jobId, context);
+
+            log.info("Node {} joined crawl job {} with parallelism {}", nodeId, jobId, parallelism);
+            CrawlContext crawl = context;
+            runPipeline(context, () -> traverseShared(crawl, parallelism));
+        } catch (Exception e) {
+            failed = true;
+            log.error("Node {} failed while helping with crawl job {}", nodeId, jobId, e);
+        } finally {
+            if (context != null) {
+                checkpointQuietly(context);
+                log.info("Node {} left crawl job {}: {} files scanned, {} directories listed", nodeId, jobId,
+                        context.filesScanned.get(), context.directoriesListed.get());
+                if (job.getErrors() != null) {
+                    log.warn("Crawl job {} errors on node {}: {}", jobId, nodeId, job.getErrors());
+                }
+            }
+            if (failed) {
+                crawlClusterTraversalService.releaseLeases(jobId);
+            }
+            cancelFlags.remove(jobId);
+            activeCrawls.remove(jobId);
         }
     }
 
-    private void crawlPath(
+    /**
+     * Index files reported by a drive watch on the calling thread, through the
+     * same path index check and hash, EXIF and persist stages as crawled ones.
+     * Used by {@link DriveChangeService}.
+     *
+     * @param index the indexed images at the changed paths
+     * @param filesByDirectory changed image files by directory, relative to the drive root
+     * @return a transient job that carried the options and holds the counters; it is never saved
+     * @throws Exception if the drive cannot be read or the writes fail
+     */
+    public CrawlJob indexChangedFiles(
+            RemoteFileDrive drive,
             FileSystemProvider provider,
-            CrawlJob job,
-            String rootPath,
-            String relativePath,
-            boolean incremental,
-            LocalDateTime lastCrawled,
-            Set<String> visitedPaths,
-            Counter counter,
+            DrivePathIndex index,
+            Map<String, List<FileInfo>> filesByDirectory,
             boolean extractExif
     ) throws Exception {
-        if (isCancelled(job.getId())) {
+        CrawlJob job = CrawlJob.builder()
+                .id(UUID.randomUUID())
+                .drive(drive)
+                .rootPath("")
+                .startTime(LocalDateTime.now())
+                .isIncremental(true)
+                .hashAlgorithm(crawlerProperties.getHashing().getAlgorithm())
+                .extractExif(extractExif)
+                .triggeredBy(CrawlTrigger.WATCH)
+                .build();
+        CrawlContext context = new CrawlContext(job, provider, "", true, null, CrawlFrontier.start(""), null, null,
+                index, null, false, extractExif, true, 1, crawlerProperties.getProgress().getRateWindowMs(),
+                new AtomicBoolean());
+        context.tracked = false;
+        context.pipeline = buildPipeline(context, drive);
+        context.writer = new ImageBatchWriter(
+                "watch-" + drive.getId().toString().substring(0, 8),
+                imageBulkRepository,
+                crawlerProperties.getBatchSize() != null ? crawlerProperties.getBatchSize() : 100,
+                0,
+                context::recordMetadataChurn,
+                context.metrics.getFlushTimer());
+        runPipeline(context, () -> {
+            for (Map.Entry<String, List<FileInfo>> directory : filesByDirectory.entrySet()) {
+                context.frontier.begin(directory.getKey());
+                indexFiles(context, directory.getKey(), directory.getValue());
+                context.frontier.release(directory.getKey());
+            }
+        });
+        context.publishCounters();
+        return job;
+    }
+
+    /**
+     * Feeds a crawl's pipeline: a tree traversal, or the files of a change batch.
+     */
+    @FunctionalInterface
+    private interface Traversal {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run the traversal, feeding image files into the pipeline, then wait for every
+     * stage to drain before returning.
+     */
+    private void runPipeline(CrawlContext context, Traversal traversal) throws Exception {
+        CrawlPipeline<CrawlItem> pipeline = context.pipeline;
+        boolean completed = false;
+        pipeline.start();
+        context.listStats.start();
+        try {
+            try {
+                traversal.run();
+            } catch (Exception e) {
+                pipeline.abort();
+                throw e;
+            } finally {
+                context.listStats.stop();
+                if (context.shouldStop()) {
+                    pipeline.abort();
+                }
+                pipeline.finish();
+                if (context.tracked) {
+                    logStageStats(context);
+                }
+            }
+            pipeline.throwIfFailed();
+            completed = true;
+        } finally {
+            // Buffered rows are still written on cancel; only a failed crawl drops them.
+            if (!completed) {
+                context.writer.discard();
+            }
+            closeWriter(context, completed);
+        }
+    }
+
+    private void closeWriter(CrawlContext context, boolean rethrow) {
+        try {
+            context.writer.close();
+        } catch (RuntimeException e) {
+            if (rethrow) {
+                throw e;
+            }
+            log.warn("Failed to flush crawled images for failed job {}", context.job.getId(), e);
+        }
+    }
+
+    private void logStageStats(CrawlContext context) {
+        List<StageStats.Snapshot> snapshots = new ArrayList<>();
+        snapshots.add(context.listStats.snapshot());
+        snapshots.addAll(context.pipeline.snapshot());
+        for (StageStats.Snapshot stage : snapshots) {
+            log.info("Crawl job {} stage '{}': {} items, {} items/s, {}% busy across {} threads, producers blocked {} ms",
+                    context.job.getId(), stage.stage(), stage.processed(),
+                    String.format("%.1f", stage.itemsPerSecond()), String.format("%.0f", stage.busyPercent()),
+                    stage.threads(), stage.producerWaitMillis());
+        }
+    }
+
+    /**
+     * Load the drive's indexed images below the crawl root into a compact path index.
+     */
+    private DrivePathIndex loadPathIndex(UUID driveId, String rootPath, boolean includeExif) {
+        long start = System.nanoTime();
+        long expected = imageRepository.countByDrive_Id(driveId);
+        DrivePathIndex index = new DrivePathIndex((int) Math.min(expected, Integer.MAX_VALUE - 8));
+        String prefix = rootPath.isEmpty() ? "" : rootPath + "/";
+        imageBulkRepository.streamDriveIndex(driveId, includeExif, row -> {
+            if (row.filePath().startsWith(prefix)) {
+                index.add(row.id(), row.filePath(), row.fileSize(), row.modifiedDate(), row.fileHash(),
+                        row.deleted(), row.hasExif());
+            }
+        });
+        log.info("Loaded path index for drive {}: {} images, ~{} MB in {} ms", driveId, index.size(),
+                index.estimatedBytes() / (1024 * 1024), (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    /**
+     * Record the expected size of the crawl on the job for its progress and ETA.
+     * A failed estimate leaves the crawl without one rather than failing it.
+     */
+    private void estimateTotals(CrawlJob job, FileSystemProvider provider, String startPath) {
+        try {
+            CrawlEstimationService.Estimate estimate = crawlEstimationService.estimate(
+                    provider, job.getDrive().getId(), job.getRootPath(), startPath, false);
+            job.setEstimatedTotalFiles(estimate.files());
+            job.setEstimatedTotalBytes(estimate.bytes());
+            job.setEstimateSource(estimate.source());
+            crawlJobRepository.save(job);
+            log.info("Crawl job {} expects ~{} files ({})", job.getId(), estimate.files(), estimate.source());
+        } catch (Exception e) {
+            log.warn("Failed to estimate the size of crawl job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Crawl the tree below the start directories. With a parallelism of one the
+     * tree is walked depth-first on the calling thread from an explicit work queue;
+     * otherwise directories are spread across a dedicated work-stealing pool sized
+     * to the job's parallelism.
+     */
+    private void traverse(CrawlContext context, List<String> startDirectories, int parallelism) throws Exception {
+        if (parallelism <= 1) {
+            crawlQueue(context, startDirectories);
             return;
         }
 
-        if (isIgnoredPath(relativePath)) {
+        log.info("Crawl job {} traversing with parallelism {}", context.job.getId(), parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism, workerFactory(context.job.getId()), null, false);
+        List<DirectoryTask> tasks = new ArrayList<>(startDirectories.size());
+        for (String directory : startDirectories) {
+            tasks.add(new DirectoryTask(context, directory, null));
+        }
+        try {
+            invokeAll(pool, tasks);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Crawl the directories this node claims from a cluster crawl's shared work
+     * queue, on a pool sized to the job's parallelism that lives as long as the
+     * crawl. {@link CrawlClusterTraversalService} decides what to claim and when
+     * the crawl is over.
+     */
+    private void traverseShared(CrawlContext context, int parallelism) throws Exception {
+        ForkJoinPool pool = parallelism > 1
+                ? new ForkJoinPool(parallelism, workerFactory(context.job.getId()), null, false)
+                : null;
+        try {
+            crawlClusterTraversalService.traverse(context,
+                    (directories, publish) -> crawlClaimed(context, directories, pool, publish));
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private void crawlClaimed(
+            CrawlContext context,
+            List<String> directories,
+            ForkJoinPool pool,
+            Consumer<List<String>> publish
+    ) throws Exception {
+        if (pool == null) {
+            for (String directory : directories) {
+                if (context.shouldStop()) {
+                    return;
+                }
+                crawlDirectory(context, directory, publish);
+            }
             return;
         }
+        List<DirectoryTask> tasks = new ArrayList<>(directories.size());
+        for (String directory : directories) {
+            tasks.add(new DirectoryTask(context, directory, publish));
+        }
+        invokeAll(pool, tasks);
+    }
+
+    /**
+     * Run directory tasks on the pool, rethrowing the first checked exception a task hit.
+     */
+    private void invokeAll(ForkJoinPool pool, List<DirectoryTask> tasks) throws Exception {
+        try {
+            pool.invoke(ForkJoinTask.adapt(() -> {
+                ForkJoinTask.invokeAll(tasks);
+            }));
+        } catch (RuntimeException e) {
+            Throwable cause = e;
+            while (cause instanceof CrawlTaskException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
 
-        job.setCurrentPathValue(relativePath.isEmpty() ? rootPath : relativePath);
-        maybeSave(job, counter);
+    private ForkJoinPool.ForkJoinWorkerThreadFactory workerFactory(UUID jobId) {
+        String prefix = "crawl-" + jobId.toString().substring(0, 8) + "-";
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(prefix + thread.getPoolIndex());
+            return thread;
+        };
+    }
 
-        List<FileInfo> entries;
+    private void crawlQueue(CrawlContext context, List<String> startDirectories) throws Exception {
+        Deque<String> queue = new ArrayDeque<>();
+        for (int i = startDirectories.size() - 1; i >= 0; i--) {
+            queue.push(startDirectories.get(i));
+        }
+        List<String> subdirectories = new ArrayList<>();
+        while (!queue.isEmpty() && !context.shouldStop()) {
+            subdirectories.clear();
+            crawlDirectory(context, queue.pop(), subdirectories::addAll);
+            for (int i = subdirectories.size() - 1; i >= 0; i--) {
+                queue.push(subdirectories.get(i));
+            }
+        }
+    }
+
+    /**
+     * Stream a single directory's listing and index its image files. Child
+     * directories not yet in the frontier are handed to {@code subdirectorySink}
+     * before the files listed after them are processed, so parallel callers can
+     * schedule them while this thread works. The directory's listing reference is
+     * released only if it was fully indexed.
+     */
+    private void crawlDirectory(
+            CrawlContext context,
+            String relativePath,
+            Consumer<List<String>> subdirectorySink
+    ) throws Exception {
+        if (context.shouldStop()) {
+            return;
+        }
+
+        CrawlFrontier frontier = context.frontier;
+        frontier.begin(relativePath);
+        if (CrawlPaths.isIgnoredPath(relativePath)) {
+            frontier.release(relativePath);
+            return;
+        }
+
+        String rootPath = context.rootPath;
+        context.updateCurrentPath(relativePath.isEmpty() ? rootPath : relativePath);
+        crawlCheckpointService.maybeSave(context);
+        maybeCheckpoint(context);
+
+        DirectoryManifest manifest = context.manifest;
+        Long mtime = manifest != null ? directoryMtime(context, relativePath) : null;
+        ManifestRow previous = manifest != null ? manifest.get(relativePath) : null;
+        if (previous != null && context.incremental && context.trustDirectoryMtimes && mtime != null
+                && mtime.equals(previous.mtimeMillis()) && replayDirectory(context, previous, subdirectorySink)) {
+            return;
+        }
+
+        DirectoryListing listing = new DirectoryListing(context, relativePath, previous, mtime, subdirectorySink);
         try {
-            entries = provider.listDirectory(relativePath.isEmpty() ? "" : relativePath);
+            context.provider.streamDirectory(relativePath, listing::visit);
         } catch (Exception e) {
+            if (listing.failure != null) {
+                throw listing.failure;
+            }
             String targetPath = relativePath.isEmpty() ? rootPath : relativePath;
-            log.warn("Skipping unreadable path '{}' during crawl job {}", targetPath, job.getId(), e);
-            appendError(job, "Failed to list path '" + targetPath + "': " + e.getMessage());
+            log.warn("Skipping unreadable path '{}' during crawl job {}", targetPath, context.job.getId(), e);
+            appendError(context.job, "Failed to list path '" + targetPath + "': " + e.getMessage());
             if (relativePath.isEmpty() || relativePath.equals(rootPath)) {
                 throw e;
             }
+            if (manifest != null) {
+                manifest.invalidate(relativePath);
+            }
+            frontier.release(relativePath);
+            return;
+        }
+        if (listing.failure != null) {
+            throw listing.failure;
+        }
+        if (listing.stopped) {
             return;
         }
+        context.directoriesListed.incrementAndGet();
+        listing.finish();
+    }
 
-        for (FileInfo entry : entries) {
-            if (isCancelled(job.getId())) {
-                return;
-            }
+    /**
+     * Consumes one directory's streamed listing. Subdirectories are scheduled and
+     * image files indexed in chunks of {@value #LOOKUP_CHUNK_SIZE} while entries
+     * arrive, so a flat directory of any size costs one chunk of memory. Images
+     * are held back until the listing ends while it may still match the manifest
+     * row (up to {@value #UNCHANGED_CHECK_LIMIT} images), and on drives whose read
+     * stages run inline, so a sequential crawl never reads a file while it holds a
+     * connection for a listing.
+     */
+    private final class DirectoryListing {
+        private final CrawlContext context;
+        private final String relativePath;
+        private final ManifestRow previous;
+        private final Long mtime;
+        private final Consumer<List<String>> subdirectorySink;
+        private final List<String> subdirectories = new ArrayList<>();
+        private final Map<String, Long> subdirectoryMtimes = new HashMap<>();
+        private final List<FileInfo> pendingImages = new ArrayList<>();
+        private int scheduledSubdirectories;
+        private int imageCount;
+        private long fingerprint;
+        private boolean mayBeUnchanged;
+        private boolean stopped;
+        private Exception failure;
 
+        private DirectoryListing(
+                CrawlContext context,
+                String relativePath,
+                ManifestRow previous,
+                Long mtime,
+                Consumer<List<String>> subdirectorySink
+        ) {
+            this.context = context;
+            this.relativePath = relativePath;
+            this.previous = previous;
+            this.mtime = mtime;
+            this.subdirectorySink = subdirectorySink;
+            this.mayBeUnchanged = context.manifest != null && context.incremental && previous != null;
+        }
+
+        /**
+         * Take one entry. Failures of the crawl itself are kept and stop the listing,
+         * so they are not mistaken for an unreadable directory.
+         */
+        private boolean visit(FileInfo entry) {
+            if (context.shouldStop()) {
+                stopped = true;
+                return false;
+            }
             String entryName = entry.getName();
             if (entryName == null || entryName.isEmpty()) {
-                continue;
+                return true;
             }
 
-            boolean isDirectory = Boolean.TRUE.equals(entry.getIsDirectory());
-            String childRelativePath = relativePath.isEmpty() ? entryName : relativePath + "/" + entryName;
+            if (Boolean.TRUE.equals(entry.getIsDirectory())) {
+                String childRelativePath = CrawlPaths.childPath(relativePath, entryName);
+                if (CrawlPaths.isIgnoredPath(childRelativePath) || CrawlPaths.isIgnoredName(entryName)) {
+                    return true;
+                }
+                subdirectories.add(childRelativePath);
+                fingerprint += DirectoryManifest.fingerprint(childRelativePath);
+                Long childMtime = DirectoryManifest.mtimeMillis(entry.getLastModified());
+                if (context.trustDirectoryMtimes && childMtime != null) {
+                    subdirectoryMtimes.put(childRelativePath, childMtime);
+                }
+            } else if (CrawlPaths.isImageFile(entry)) {
+                pendingImages.add(entry);
+                imageCount++;
+                fingerprint += DirectoryManifest.fingerprint(entry);
+            } else {
+                return true;
+            }
 
-            if (isDirectory) {
-                if (isIgnoredPath(childRelativePath) || isIgnoredName(entryName)) {
-                    continue;
+            if (mayBeUnchanged && (imageCount > previous.imageCount() || imageCount > UNCHANGED_CHECK_LIMIT
+                    || subdirectories.size() > previous.subdirectoryCount())) {
+                mayBeUnchanged = false;
+            }
+            if (!mayBeUnchanged && context.indexWhileListing && pendingImages.size() >= LOOKUP_CHUNK_SIZE) {
+                try {
+                    scheduleSubdirectories();
+                    indexPending();
+                } catch (Exception e) {
+                    failure = e;
+                    return false;
                 }
-                crawlPath(provider, job, rootPath, childRelativePath, incremental, lastCrawled, visitedPaths, counter, extractExif);
-                continue;
             }
+            return true;
+        }
 
-            if (!isImageFile(entry)) {
-                continue;
+        /**
+         * Record the listing in the manifest, then index the images still held
+         * back, or count them as scanned if the listing matches the manifest row.
+         */
+        private void finish() throws InterruptedException {
+            DirectoryManifest manifest = context.manifest;
+            boolean unchanged = false;
+            if (manifest != null) {
+                ManifestRow row = new ManifestRow(relativePath, context.trustDirectoryMtimes ? mtime : null,
+                        fingerprint, imageCount, subdirectories.size());
+                if (previous != null) {
+                    unchanged = mayBeUnchanged && row.fingerprint() == previous.fingerprint()
+                            && row.imageCount() == previous.imageCount()
+                            && row.subdirectoryCount() == previous.subdirectoryCount();
+                    manifest.removeMissing(relativePath, subdirectories);
+                }
+                if (!row.equals(previous)) {
+                    manifest.record(row);
+                }
             }
+            scheduleSubdirectories();
 
-            if (visitedPaths != null) {
-                visitedPaths.add(childRelativePath);
+            if (unchanged) {
+                // Same names, sizes and mtimes as when the manifest was recorded
+                context.filesScanned.addAndGet(pendingImages.size());
+                context.directoriesSkipped.incrementAndGet();
+                context.frontier.release(relativePath);
+                return;
+            }
+            for (int from = 0; from < pendingImages.size(); from += LOOKUP_CHUNK_SIZE) {
+                if (context.shouldStop()) {
+                    return;
+                }
+                indexFiles(context, relativePath,
+                        pendingImages.subList(from, Math.min(pendingImages.size(), from + LOOKUP_CHUNK_SIZE)));
             }
+            context.frontier.release(relativePath);
+        }
 
-            LocalDateTime lastModified = entry.getLastModified();
-            if (incremental && lastCrawled != null && lastModified != null && !lastModified.isAfter(lastCrawled)) {
-                Optional<Image> existing = imageRepository.findByDrive_IdAndFilePath(job.getDrive().getId(), childRelativePath);
-                if (existing.isPresent()) {
-                    continue;
+        /**
+         * Hand subdirectories listed since the last call to the sink, before this
+         * thread indexes more files, so parallel workers can start on them.
+         */
+        private void scheduleSubdirectories() {
+            if (scheduledSubdirectories == subdirectories.size()) {
+                return;
+            }
+            List<String> listed = new ArrayList<>(subdirectories.subList(scheduledSubdirectories, subdirectories.size()));
+            scheduledSubdirectories = subdirectories.size();
+            List<String> newSubdirectories = context.frontier.discover(listed);
+            if (newSubdirectories.isEmpty()) {
+                return;
+            }
+            for (String subdirectory : newSubdirectories) {
+                Long childMtime = subdirectoryMtimes.remove(subdirectory);
+                if (childMtime != null) {
+                    // Read before the child is listed, so a change made in between is seen next time
+                    context.observedMtimes.put(subdirectory, childMtime);
                 }
             }
+            subdirectorySink.accept(newSubdirectories);
+        }
 
-            upsertImage(provider, job, entry, childRelativePath, extractExif);
-            job.setFilesProcessed(job.getFilesProcessed() + 1);
-            maybeSave(job, counter);
+        private void indexPending() throws InterruptedException {
+            indexFiles(context, relativePath, pendingImages);
+            pendingImages.clear();
         }
     }
 
-    private void upsertImage(
-            FileSystemProvider provider,
-            CrawlJob job,
-            FileInfo entry,
-            String relativePath,
-            boolean extractExif
-    ) throws Exception {
-        UUID driveId = job.getDrive().getId();
-        Optional<Image> existing = imageRepository.findByDrive_IdAndFilePath(driveId, relativePath);
+    /**
+     * Modification time of a directory, read before it is listed: taken from its
+     * parent's listing when this crawl listed the parent, otherwise with one
+     * metadata request, which is much cheaper than a listing on SMB and SFTP.
+     *
+     * @return epoch milliseconds, or null if unknown or not trusted for the drive type
+     */
+    private Long directoryMtime(CrawlContext context, String relativePath) {
+        Long observed = context.observedMtimes.remove(relativePath);
+        if (observed != null || !context.trustDirectoryMtimes) {
+            return observed;
+        }
+        try {
+            return DirectoryManifest.mtimeMillis(context.provider.getFileMetadata(relativePath).getLastModified());
+        } catch (Exception e) {
+            log.debug("Could not read the modification time of '{}' in crawl job {}: {}", relativePath,
+                    context.job.getId(), e.getMessage());
+            return null;
+        }
+    }
 
-        if (existing.isPresent()) {
-            Image image = existing.get();
+    /**
+     * Stand in for the listing of a directory whose mtime shows that no entry was
+     * added, removed or renamed since the manifest recorded it: count its images
+     * as scanned and schedule its recorded subdirectories, which are checked the
+     * same way. Files modified in place without touching the directory are only
+     * picked up by a full crawl.
+     *
+     * @return false if the manifest does not know all its subdirectories, so it must be listed
+     */
+    private boolean replayDirectory(CrawlContext context, ManifestRow row, Consumer<List<String>> subdirectorySink) {
+        List<String> subdirectories = context.manifest.recordedSubdirectories(row);
+        if (subdirectories == null) {
+            return false;
+        }
+        context.filesScanned.addAndGet(row.imageCount());
+        context.directoriesSkipped.incrementAndGet();
+        List<String> newSubdirectories = context.frontier.discover(subdirectories);
+        if (!newSubdirectories.isEmpty()) {
+            subdirectorySink.accept(newSubdirectories);
+        }
+        context.frontier.release(row.dirPath());
+        return true;
+    }
+
+    /**
+     * Check a chunk of image files from one directory against the preloaded path
+     * index. Unchanged files are counted without touching the database; the rows
+     * of changed files are loaded in one query and submitted to the pipeline with
+     * new files.
+     */
+    private void indexFiles(CrawlContext context, String relativePath, List<FileInfo> entries) throws InterruptedException {
+        long lookupStart = System.nanoTime();
+        context.filesScanned.addAndGet(entries.size());
+        DrivePathIndex index = context.index;
+        List<CrawlItem> items = new ArrayList<>(entries.size());
+        List<UUID> reloadIds = new ArrayList<>();
+        List<String> seen = context.incremental ? null : new ArrayList<>(entries.size());
+        for (FileInfo entry : entries) {
+            String path = CrawlPaths.childPath(relativePath, entry.getName());
+            if (seen != null) {
+                seen.add(path);
+            }
+
+            CrawlItem item = new CrawlItem(path, entry);
+            item.setDirectory(relativePath);
+            item.setExtractExif(context.extractExif);
+            int slot = index.find(path);
+            if (slot < 0) {
+                items.add(item);
+                continue;
+            }
+
+            boolean deleted = index.isDeleted(slot);
+            LocalDateTime lastModified = entry.getLastModified();
+            if (!deleted && context.incremental && context.lastCrawled != null && lastModified != null
+                    && !lastModified.isAfter(context.lastCrawled)) {
+                continue;
+            }
+
+            boolean contentUnchanged = index.matches(slot, entry.getSize(), lastModified);
+            boolean needsExif = context.extractExif && (!contentUnchanged || !index.hasExif(slot));
+            if (contentUnchanged && !deleted && !needsExif) {
+                context.filesProcessed.incrementAndGet();
+                context.metrics.fileProcessed();
+                crawlCheckpointService.maybeSave(context);
+                continue;
+            }
+
+            item.setExtractExif(needsExif);
+            reloadIds.add(index.getId(slot));
+            items.add(item);
+        }
+        if (context.visitedPaths != null) {
+            context.visitedPaths.addAll(seen);
+        } else if (context.seenPaths != null) {
+            context.seenPaths.add(seen);
+        }
+
+        Map<UUID, Image> reloaded = new HashMap<>();
+        if (!reloadIds.isEmpty()) {
+            for (Image image : imageRepository.findAllById(reloadIds)) {
+                reloaded.put(image.getId(), image);
+            }
+        }
+        context.listStats.recordItems(entries.size(), System.nanoTime() - lookupStart);
+
+        for (CrawlItem item : items) {
+            int slot = index.find(item.getRelativePath());
+            Image image = slot >= 0 ? reloaded.get(index.getId(slot)) : null;
             boolean changed = false;
-            if (entry.getSize() != null && !entry.getSize().equals(image.getFileSize())) {
-                image.setFileSize(entry.getSize());
-                changed = true;
-            }
-            if (entry.getLastModified() != null && !entry.getLastModified().equals(image.getModifiedDate())) {
-                image.setModifiedDate(entry.getLastModified());
-                changed = true;
-            }
-            if (entry.getMimeType() != null && !entry.getMimeType().equals(image.getMimeType())) {
-                image.setMimeType(entry.getMimeType());
-                changed = true;
-            }
-            if (changed) {
-                image.setFileHash(computeHash(provider, relativePath));
-                image.setDeleted(false);
-                imageRepository.save(image);
-                job.setFilesUpdated(job.getFilesUpdated() + 1);
-            }
-            if (extractExif && shouldExtractExifForExisting(image, changed)) {
-                ExifExtractorService.ExifExtractionResult exifData = extractExif(provider, relativePath);
-                if (!exifData.isFailed()) {
-                    applyExifToImage(image, exifData);
-                    imageRepository.save(image);
-                    replaceMetadata(image, exifData);
+            if (image != null) {
+                item.setExisting(image);
+                changed = applyListingChanges(image, item.getEntry());
+                item.setChanged(changed || Boolean.TRUE.equals(image.getDeleted()));
+                if (!changed) {
+                    // Only the deleted flag or EXIF is stale; the stored hash is still valid.
+                    item.setFileHash(image.getFileHash());
+                    item.setHashAlgorithm(image.getHashAlgorithm());
                 }
             }
-            return;
+            // New files, changed content and images indexed before they had one
+            item.setComputePerceptualHash((image == null || changed || image.getPerceptualHash() == null)
+                    && canPerceptualHash(item));
+            context.frontier.retain(relativePath);
+            context.pipeline.submit(item);
+        }
+    }
+
+    /**
+     * Build the crawl pipeline for a job: hash, EXIF and perceptual-hash stages read
+     * from the drive, the persist stage writes to the database. Read stages run inline on the
+     * traversal threads when the drive type's crawls are sequential (SFTP and FTP by
+     * default); their images are indexed after each listing ends, so the crawl uses one
+     * pooled connection at a time and leaves the rest of the drive's pool to requests.
+     */
+    private CrawlPipeline<CrawlItem> buildPipeline(CrawlContext context, RemoteFileDrive drive) {
+        CrawlerProperties.Stages stages = crawlerProperties.getStages();
+        boolean concurrentReads = crawlerProperties.resolveParallelism(drive.getType(), null) > 1;
+        int readThreads = concurrentReads ? stages.getHashThreads() : 0;
+        int exifThreads = concurrentReads ? stages.getExifThreads() : 0;
+        int perceptualHashThreads = concurrentReads ? stages.getPerceptualHashThreads() : 0;
+        context.indexWhileListing = concurrentReads;
+
+        CrawlMetrics metrics = new CrawlMetrics(meterRegistry, drive);
+        context.metrics = metrics;
+        String name = "crawl-" + context.job.getId().toString().substring(0, 8);
+        return new CrawlPipeline<CrawlItem>(name)
+                .addStage("hash", readThreads, stages.getQueueCapacity(),
+                        metrics.timed("hash", item -> hashStage(context, item)))
+                .addStage("exif", exifThreads, stages.getQueueCapacity(),
+                        metrics.timed("exif", item -> exifStage(context, item)))
+                .addStage("phash", perceptualHashThreads, stages.getQueueCapacity(),
+                        metrics.timed("phash", item -> perceptualHashStage(context, item)))
+                .addStage("persist", stages.getPersistThreads(), stages.getQueueCapacity(),
+                        metrics.timed("persist", item -> persistStage(context, item)));
+    }
+
+    private CrawlItem hashStage(CrawlContext context, CrawlItem item) {
+        if (context.shouldStop()) {
+            return null;
+        }
+        if (!item.needsHash()) {
+            return item;
+        }
+        try {
+            if (item.isExtractExif() && context.singlePassRead && context.hashAlgorithm.isFullContent()) {
+                hashAndExtractExif(context, item);
+            } else {
+                FileHashingService.HashResult result = computeHash(context, item);
+                item.setFileHash(result.hash());
+                item.setHashAlgorithm(result.algorithm());
+            }
+            return item;
+        } catch (Exception e) {
+            if (item.getContent() != null) {
+                item.setContent(null);
+                releaseCapture(context, item);
+            }
+            log.warn("Skipping unreadable file '{}' during crawl job {}", item.getRelativePath(), context.job.getId(), e);
+            appendError(context.job, "Failed to read file '" + item.getRelativePath() + "': " + e.getMessage());
+            if (context.manifest != null) {
+                context.manifest.invalidate(item.getDirectory());
+            }
+            context.frontier.release(item.getDirectory());
+            return null;
+        }
+    }
+
+    private CrawlItem exifStage(CrawlContext context, CrawlItem item) {
+        if (context.shouldStop()) {
+            return null;
+        }
+        if (item.isExtractExif() && item.getExif() == null) {
+            item.setExif(extractExif(context, item.getRelativePath()));
         }
+        return item;
+    }
+
+    /**
+     * Decode the bytes the hash stage captured. Files it did not read in full are
+     * re-read only with {@code reread-uncaptured}; otherwise the backfill hashes them.
+     */
+    private CrawlItem perceptualHashStage(CrawlContext context, CrawlItem item) {
+        if (context.shouldStop()) {
+            return null;
+        }
+        if (!item.isComputePerceptualHash()) {
+            return item;
+        }
+        byte[] content = item.getContent();
+        if (content != null) {
+            item.setContent(null);
+            try {
+                item.setPerceptualHash(perceptualHashService.hash(new ByteArrayInputStream(content)));
+            } catch (Exception e) {
+                log.debug("Could not decode {} for its perceptual hash: {}", item.getRelativePath(), e.getMessage());
+            } finally {
+                releaseCapture(context, item);
+            }
+        } else if (crawlerProperties.getPerceptualHash().isRereadUncaptured()) {
+            try (InputStream inputStream = openFile(context, item.getRelativePath())) {
+                item.setPerceptualHash(perceptualHashService.hash(inputStream));
+            } catch (Exception e) {
+                log.debug("Could not decode {} for its perceptual hash: {}", item.getRelativePath(), e.getMessage());
+            }
+        } else {
+            deferredPerceptualHashes.add(context.job.getDrive().getId());
+        }
+        return item;
+    }
+
+    private CrawlItem persistStage(CrawlContext context, CrawlItem item) {
+        if (context.shouldStop()) {
+            return null;
+        }
+        Image image = item.isNew() ? buildNewImage(context, item) : item.getExisting();
+        if (!item.isNew() && item.isChanged()) {
+            image.setFileHash(item.getFileHash());
+            image.setHashAlgorithm(item.getHashAlgorithm());
+            image.setDeleted(false);
+        }
+        if (item.isComputePerceptualHash()) {
+            image.setPerceptualHash(item.getPerceptualHash());
+        }
+        if (item.getSniffedMimeType() != null) {
+            image.setMimeType(item.getSniffedMimeType());
+        }
+
+        ExifExtractorService.ExifExtractionResult exifData = item.getExif();
+        boolean hasExif = exifData != null && !exifData.isFailed();
+        if (hasExif) {
+            applyExifToImage(image, exifData);
+        }
+        context.writer.add(new ImageBulkRepository.ImageWrite(image, item.isNew(), hasExif ? exifData.getMetadata() : null),
+                () -> context.frontier.release(item.getDirectory()));
+
+        if (item.isNew()) {
+            context.filesAdded.incrementAndGet();
+        } else if (item.isChanged()) {
+            context.filesUpdated.incrementAndGet();
+        }
+        context.filesProcessed.incrementAndGet();
+        context.metrics.fileProcessed();
+        crawlCheckpointService.maybeSave(context);
+        maybeCheckpoint(context);
+        return null;
+    }
+
+    /**
+     * Whether the perceptual-hash stage can decode an item: enabled, small enough
+     * and of a type an installed image reader handles.
+     */
+    private boolean canPerceptualHash(CrawlItem item) {
+        CrawlerProperties.PerceptualHash settings = crawlerProperties.getPerceptualHash();
+        if (!settings.isEnabled()) {
+            return false;
+        }
+        FileInfo entry = item.getEntry();
+        if (entry.getSize() != null && entry.getSize() > settings.getMaxFileSize()) {
+            return false;
+        }
+        String mimeType;
+        if (!item.isNew()) {
+            mimeType = item.getExisting().getMimeType();
+        } else if (entry.getMimeType() != null) {
+            mimeType = entry.getMimeType();
+        } else {
+            mimeType = ImageContentTypes.forFileName(item.getRelativePath());
+        }
+        return perceptualHashService.canDecode(mimeType);
+    }
 
+    /**
+     * Copy size, modified date and MIME type from a listing entry onto an indexed image.
+     * With content sniffing on, a differing MIME type alone is not a change: the
+     * stored type was read from the file's bytes and outranks the extension.
+     *
+     * @return true if any of them changed
+     */
+    private boolean applyListingChanges(Image image, FileInfo entry) {
+        boolean changed = false;
+        if (entry.getSize() != null && !entry.getSize().equals(image.getFileSize())) {
+            image.setFileSize(entry.getSize());
+            changed = true;
+        }
+        if (entry.getLastModified() != null && !entry.getLastModified().equals(image.getModifiedDate())) {
+            image.setModifiedDate(entry.getLastModified());
+            changed = true;
+        }
+        if (entry.getMimeType() != null && !entry.getMimeType().equals(image.getMimeType())
+                && !crawlerProperties.isContentSniffing()) {
+            image.setMimeType(entry.getMimeType());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private Image buildNewImage(CrawlContext context, CrawlItem item) {
+        FileInfo entry = item.getEntry();
+        String relativePath = item.getRelativePath();
         String fileName = entry.getName();
         if (fileName == null || fileName.isBlank()) {
             fileName = extractFileName(relativePath);
         }
-        String mimeType = entry.getMimeType() != null ? entry.getMimeType() : guessContentType(fileName);
+        String mimeType = entry.getMimeType() != null ? entry.getMimeType() : ImageContentTypes.forFileName(fileName);
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime modified = entry.getLastModified() != null ? entry.getLastModified() : now;
 
-        Image image = Image.builder()
-                .drive(job.getDrive())
+        return Image.builder()
+                .drive(context.job.getDrive())
                 .fileName(fileName)
                 .filePath(relativePath)
                 .fileSize(entry.getSize() != null ? entry.getSize() : 0L)
-                .fileHash(computeHash(provider, relativePath))
+                .fileHash(item.getFileHash())
+                .hashAlgorithm(item.getHashAlgorithm())
                 .mimeType(mimeType != null ? mimeType : "application/octet-stream")
                 .createdDate(modified)
                 .modifiedDate(modified)
-                .indexedDate(LocalDateTime.now())
+                .indexedDate(now)
                 .deleted(false)
                 .build();
-
-        if (extractExif) {
-            ExifExtractorService.ExifExtractionResult exifData = extractExif(provider, relativePath);
-            if (!exifData.isFailed()) {
-                applyExifToImage(image, exifData);
-            }
-            imageRepository.save(image);
-            if (!exifData.isFailed()) {
-                replaceMetadata(image, exifData);
-            }
-        } else {
-            imageRepository.save(image);
-        }
-        job.setFilesAdded(job.getFilesAdded() + 1);
     }
 
-    private ExifExtractorService.ExifExtractionResult extractExif(FileSystemProvider provider, String relativePath) {
-        try (InputStream inputStream = provider.readFile(relativePath)) {
+    private ExifExtractorService.ExifExtractionResult extractExif(CrawlContext context, String relativePath) {
+        try (InputStream inputStream = openFile(context, relativePath)) {
             return exifExtractorService.extract(inputStream);
         } catch (Exception e) {
             log.warn("Failed to read image for EXIF extraction: {}", relativePath, e);
@@ -314,87 +1298,180 @@ public class CrawlerJobRunner {
         image.setHeight(exifData.getHeight());
     }
 
-    private void replaceMetadata(Image image, ExifExtractorService.ExifExtractionResult exifData) {
-        imageMetadataRepository.deleteByImageIdAndSource(image.getId(), MetadataSource.EXIF);
-        if (exifData.getMetadata().isEmpty()) {
-            return;
-        }
-        List<ImageMetadata> metadataEntries = new ArrayList<>();
-        for (Map.Entry<String, String> entry : exifData.getMetadata().entrySet()) {
-            if (entry.getValue() == null || entry.getValue().isBlank()) {
-                continue;
+    /**
+     * Mark live images below the crawl root that the completed full crawl did not
+     * list as deleted: indexed images missing from the visited set, or with one
+     * UPDATE against the staged paths.
+     */
+    private void markDeletedImages(CrawlContext context, UUID driveId) {
+        long start = System.nanoTime();
+        CrawlJob job = context.job;
+        int deleted;
+        if (context.visitedPaths != null) {
+            DrivePathIndex index = context.index;
+            VisitedPathSet visited = context.visitedPaths;
+            List<UUID> unseen = new ArrayList<>();
+            for (int entry = 0; entry < index.size(); entry++) {
+                if (!index.isDeleted(entry) && !visited.containsHash(index.getKey(entry), index.getCheck(entry))) {
+                    unseen.add(index.getId(entry));
+                }
             }
-            metadataEntries.add(ImageMetadata.builder()
-                    .image(image)
-                    .key(entry.getKey())
-                    .value_entry(entry.getValue())
-                    .source(MetadataSource.EXIF)
-                    .build());
-        }
-        if (!metadataEntries.isEmpty()) {
-            imageMetadataRepository.saveAll(metadataEntries);
+            log.info("Crawl job {} visited {} paths in ~{} MB", job.getId(), visited.size(),
+                    visited.estimatedBytes() / (1024 * 1024));
+            deleted = imageBulkRepository.markDeleted(unseen);
+        } else {
+            context.seenPaths.flush();
+            deleted = crawlSeenPathRepository.markUnseenDeleted(job.getId(), driveId, context.rootPath);
         }
+        job.setFilesDeleted(job.getFilesDeleted() + deleted);
+        log.info("Crawl job {} marked {} images deleted in {} ms", job.getId(), deleted,
+                (System.nanoTime() - start) / 1_000_000);
     }
 
-    private boolean shouldExtractExifForExisting(Image image, boolean changed) {
-        if (changed) {
-            return true;
+    private void clearSeenPaths(UUID jobId) {
+        try {
+            crawlSeenPathRepository.deleteByJob(jobId);
+        } catch (Exception e) {
+            log.warn("Failed to clear staged paths for crawl job {}: {}", jobId, e.getMessage());
         }
-        return !imageMetadataRepository.existsByImageIdAndSource(image.getId(), MetadataSource.EXIF);
     }
 
-    private void markDeletedImages(UUID driveId, Set<String> visitedPaths, CrawlJob job) {
-        List<Image> images = imageRepository.findAllByDrive_Id(driveId);
-        for (Image image : images) {
-            if (Boolean.TRUE.equals(image.getDeleted())) {
-                continue;
+    /**
+     * Hash a file and extract its EXIF from one read: the extractor consumes the
+     * stream through a digest and whatever it leaves unread is drained into the
+     * digest afterwards. The same read is captured for the perceptual-hash stage.
+     */
+    private void hashAndExtractExif(CrawlContext context, CrawlItem item) throws Exception {
+        try (InputStream fileStream = openFile(context, item.getRelativePath())) {
+            CapturingInputStream capturingStream = capture(context, item, fileStream);
+            InputStream inputStream = capturingStream != null ? capturingStream : fileStream;
+            try {
+                SniffingInputStream sniffingStream = sniff(inputStream);
+                HashingInputStream hashingStream = new HashingInputStream(
+                        sniffingStream != null ? sniffingStream : inputStream,
+                        fileHashingService.newHash(context.hashAlgorithm));
+                item.setExif(exifExtractorService.extract(hashingStream));
+                hashingStream.drain();
+                item.setFileHash(FileHashingService.toHex(hashingStream.digest()));
+                item.setHashAlgorithm(context.hashAlgorithm);
+                if (sniffingStream != null) {
+                    item.setSniffedMimeType(sniffingStream.contentType(item.getRelativePath()));
+                }
+            } finally {
+                keepCapture(context, item, capturingStream);
             }
-            if (!visitedPaths.contains(image.getFilePath())) {
-                image.setDeleted(true);
-                imageRepository.save(image);
-                job.setFilesDeleted(job.getFilesDeleted() + 1);
+        }
+    }
+
+    private FileHashingService.HashResult computeHash(CrawlContext context, CrawlItem item) throws Exception {
+        Long size = item.getEntry().getSize();
+        if (fileHashingService.samples(context.hashAlgorithm, size)) {
+            return computeSampledHash(context, item, size);
+        }
+        try (InputStream fileStream = openFile(context, item.getRelativePath())) {
+            CapturingInputStream capturingStream = capture(context, item, fileStream);
+            InputStream inputStream = capturingStream != null ? capturingStream : fileStream;
+            try {
+                SniffingInputStream sniffingStream = sniff(inputStream);
+                FileHashingService.HashResult result = fileHashingService.hash(
+                        sniffingStream != null ? sniffingStream : inputStream,
+                        item.getEntry().getSize(), context.hashAlgorithm);
+                if (sniffingStream != null) {
+                    item.setSniffedMimeType(sniffingStream.contentType(item.getRelativePath()));
+                }
+                return result;
+            } finally {
+                keepCapture(context, item, capturingStream);
             }
         }
     }
 
-    private boolean isImageFile(FileInfo entry) {
-        if (entry.getMimeType() != null) {
-            return entry.getMimeType().startsWith("image/");
+    /**
+     * Sampled hash from two ranged reads, so the provider never transfers the
+     * middle of the file; the head range is also the one that is sniffed.
+     */
+    private FileHashingService.HashResult computeSampledHash(CrawlContext context, CrawlItem item, long size)
+            throws Exception {
+        SniffingInputStream[] head = new SniffingInputStream[1];
+        FileHashingService.HashResult result = fileHashingService.sample((offset, length) -> {
+            InputStream range = openRange(context, item.getRelativePath(), offset, length);
+            if (offset == 0) {
+                head[0] = sniff(range);
+            }
+            return offset == 0 && head[0] != null ? head[0] : range;
+        }, size);
+        if (head[0] != null) {
+            item.setSniffedMimeType(head[0].contentType(item.getRelativePath()));
         }
-        return guessContentType(entry.getName()) != null;
+        return result;
     }
 
-    private String guessContentType(String fileName) {
-        if (fileName == null) {
+    /**
+     * Keep a copy of a file the hash stage reads in full, for the perceptual-hash
+     * stage to decode, if the item needs a perceptual hash and its listed size fits
+     * in what is left of the crawl's capture budget.
+     *
+     * @return the capturing stream, or null when the file is not captured
+     */
+    private CapturingInputStream capture(CrawlContext context, CrawlItem item, InputStream inputStream) {
+        Long size = item.getEntry().getSize();
+        if (!item.isComputePerceptualHash() || size == null || size > Integer.MAX_VALUE - 8) {
             return null;
         }
-        String lower = fileName.toLowerCase();
-        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
-        if (lower.endsWith(".png")) return "image/png";
-        if (lower.endsWith(".gif")) return "image/gif";
-        if (lower.endsWith(".bmp")) return "image/bmp";
-        if (lower.endsWith(".webp")) return "image/webp";
-        if (lower.endsWith(".tiff") || lower.endsWith(".tif")) return "image/tiff";
-        if (lower.endsWith(".heic")) return "image/heic";
-        if (lower.endsWith(".heif")) return "image/heif";
-        return null;
+        long budget = crawlerProperties.getPerceptualHash().getCaptureBudgetBytes();
+        long held;
+        do {
+            held = context.capturedBytes.get();
+            if (held + size > budget) {
+                return null;
+            }
+        } while (!context.capturedBytes.compareAndSet(held, held + size));
+        return new CapturingInputStream(inputStream, size.intValue());
     }
 
-    private String computeHash(FileSystemProvider provider, String relativePath) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        try (InputStream inputStream = provider.readFile(relativePath)) {
-            byte[] buffer = new byte[8192];
-            int read;
-            while ((read = inputStream.read(buffer)) != -1) {
-                digest.update(buffer, 0, read);
-            }
+    /**
+     * Hand the captured bytes to the item, or give their budget back if the file
+     * outgrew its listed size. Also runs when the read fails; the hash stage then
+     * drops the partial copy.
+     */
+    private void keepCapture(CrawlContext context, CrawlItem item, CapturingInputStream capturingStream) {
+        if (capturingStream == null) {
+            return;
         }
-        byte[] hash = digest.digest();
-        StringBuilder builder = new StringBuilder();
-        for (byte b : hash) {
-            builder.append(String.format("%02x", b));
+        byte[] content = capturingStream.content();
+        if (content != null) {
+            item.setContent(content);
+        } else {
+            releaseCapture(context, item);
         }
-        return builder.toString();
+    }
+
+    private void releaseCapture(CrawlContext context, CrawlItem item) {
+        context.capturedBytes.addAndGet(-item.getEntry().getSize());
+    }
+
+    /**
+     * Keep the first bytes of a stream the hash stage reads anyway, when content sniffing is on.
+     *
+     * @return the sniffing stream, or null when sniffing is off
+     */
+    private SniffingInputStream sniff(InputStream inputStream) {
+        return crawlerProperties.isContentSniffing() ? new SniffingInputStream(inputStream) : null;
+    }
+
+    /**
+     * Open a file on the crawled drive, counting the bytes read towards the job.
+     */
+    private InputStream openFile(CrawlContext context, String relativePath) throws Exception {
+        return new CountingInputStream(context.provider.readFile(relativePath), context.bytesRead);
+    }
+
+    /**
+     * Open part of a file on the crawled drive, counting the bytes read towards the job.
+     */
+    private InputStream openRange(CrawlContext context, String relativePath, long offset, long length)
+            throws Exception {
+        return new CountingInputStream(context.provider.readRange(relativePath, offset, length), context.bytesRead);
     }
 
     private String extractFileName(String relativePath) {
@@ -410,6 +1487,12 @@ public class CrawlerJobRunner {
         if (message == null || message.isBlank()) {
             return;
         }
+        synchronized (job) {
+            appendErrorLocked(job, message);
+        }
+    }
+
+    private void appendErrorLocked(CrawlJob job, String message) {
         List<String> errors = new ArrayList<>();
         if (job.getErrors() != null && !job.getErrors().isBlank()) {
             try {
@@ -431,112 +1514,68 @@ public class CrawlerJobRunner {
         return flag != null && flag.get();
     }
 
-    private boolean isIgnoredPath(String path) {
-        if (path == null || path.isBlank()) {
-            return false;
-        }
-        String normalized = path.replace('\\', '/');
-        String[] parts = normalized.split("/");
-        for (String part : parts) {
-            if (isIgnoredName(part)) {
-                return true;
-            }
+    /**
+     * Checkpoint if the checkpoint interval has passed; a failed checkpoint is
+     * retried later.
+     */
+    private void maybeCheckpoint(CrawlContext context) {
+        if (crawlCheckpointService.isCheckpointDue(context)) {
+            checkpointQuietly(context);
         }
-        return false;
     }
 
-    private boolean isIgnoredName(String name) {
-        if (name == null) {
-            return false;
-        }
-        String trimmed = name.trim();
-        String upper = trimmed.toUpperCase();
-
-        // Check against known system directories
-        if (IGNORED_ROOT_NAMES.contains(upper)) {
-            return true;
-        }
-
-        // Skip hidden files/directories (starting with .)
-        if (trimmed.startsWith(".")) {
-            return true;
+    private void checkpointQuietly(CrawlContext context) {
+        try {
+            if (context.distributed) {
+                crawlClusterTraversalService.checkpoint(context);
+            } else {
+                crawlCheckpointService.checkpoint(context);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to checkpoint crawl job {}: {}", context.job.getId(), e.getMessage());
         }
+    }
 
-        // Skip temp files and Office lock files
-        if (trimmed.startsWith("~$") || trimmed.startsWith("~")) {
-            return true;
-        }
+    /**
+     * Fork/join task for one directory. Subdirectories are forked before the
+     * directory's own files are indexed so idle workers can steal them, or handed
+     * to {@code publish} in cluster crawls, which queue them for every node.
+     */
+    private final class DirectoryTask extends RecursiveAction {
+        private final CrawlContext context;
+        private final String relativePath;
+        private final Consumer<List<String>> publish;
 
-        // Skip thumbs.db and desktop.ini
-        if (upper.equals("THUMBS.DB") || upper.equals("DESKTOP.INI")) {
-            return true;
+        private DirectoryTask(CrawlContext context, String relativePath, Consumer<List<String>> publish) {
+            this.context = context;
+            this.relativePath = relativePath;
+            this.publish = publish;
         }
 
-        return false;
-    }
-
-    private String normalizeRoot(String rootPath, String driveRootPath) {
-        if (rootPath == null) {
-            return "";
-        }
-        String trimmed = rootPath.trim();
-        if (trimmed.isEmpty() || "/".equals(trimmed)) {
-            return "";
-        }
-        String driveRoot = driveRootPath != null ? driveRootPath.trim() : "";
-        if (!driveRoot.isEmpty()) {
-            String normalizedRoot = stripTrailingSeparators(trimmed);
-            String normalizedDriveRoot = stripTrailingSeparators(driveRoot);
-            if (normalizedRoot.equals(normalizedDriveRoot)) {
-                return "";
-            }
-            if (normalizedRoot.startsWith(normalizedDriveRoot + "/")
-                    || normalizedRoot.startsWith(normalizedDriveRoot + "\\")) {
-                trimmed = normalizedRoot.substring(normalizedDriveRoot.length());
+        @Override
+        protected void compute() {
+            List<DirectoryTask> forked = new ArrayList<>();
+            try {
+                crawlDirectory(context, relativePath, publish != null ? publish : subdirectories -> {
+                    for (String subdirectory : subdirectories) {
+                        DirectoryTask task = new DirectoryTask(context, subdirectory, null);
+                        task.fork();
+                        forked.add(task);
+                    }
+                });
+            } catch (Exception e) {
+                context.failed = true;
+                throw new CrawlTaskException(e);
             }
-        }
-        if (trimmed.startsWith("/") || trimmed.startsWith("\\")) {
-            return trimmed.substring(1);
-        }
-        return trimmed;
-    }
-
-    private String stripTrailingSeparators(String path) {
-        if (path == null || path.isEmpty()) {
-            return "";
-        }
-        int end = path.length();
-        while (end > 1) {
-            char c = path.charAt(end - 1);
-            if (c == '/' || c == '\\') {
-                end -= 1;
-            } else {
-                break;
+            for (DirectoryTask task : forked) {
+                task.join();
             }
         }
-        return path.substring(0, end);
-    }
-
-    private void maybeSave(CrawlJob job, Counter counter) {
-        counter.increment();
-        if (counter.shouldSave()) {
-            crawlJobRepository.save(job);
-        }
     }
 
-    private static final class Counter {
-        private int steps = 0;
-
-        void increment() {
-            steps += 1;
-        }
-
-        boolean shouldSave() {
-            if (steps >= SAVE_INTERVAL) {
-                steps = 0;
-                return true;
-            }
-            return false;
+    private static final class CrawlTaskException extends RuntimeException {
+        private CrawlTaskException(Throwable cause) {
+            super(cause);
         }
     }
 }
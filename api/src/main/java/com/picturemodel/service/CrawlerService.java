@@ -2,29 +2,40 @@
  * App: Picture Model
  * Package: com.picturemodel.service
  * File: CrawlerService.java
- * Version: 0.1.3
- * Turns: 5,10,24
+ * Version: 0.1.12
+ * Turns: 5,10,24,28,29,32,33,36,37,38,40,43
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-02T02:17:16Z
+ * Date: 2026-10-16T17:40:00Z
  * Exports: CrawlerService
  * Description: Service for managing crawl job lifecycle and scheduling.
- * CrawlerService - creates crawl jobs, starts execution, and handles cancellation.
+ * CrawlerService - queues crawl jobs (manual, scheduled and for drive watches), estimates dry runs, handles resume and cancellation (on every node of a cluster crawl), and exposes pipeline stage stats and cluster nodes.
  */
 
 package com.picturemodel.service;
 
 import com.picturemodel.api.dto.request.StartCrawlRequest;
+import com.picturemodel.api.dto.response.CrawlEstimateDto;
+import com.picturemodel.config.CrawlerProperties;
 import com.picturemodel.domain.entity.CrawlJob;
 import com.picturemodel.domain.entity.RemoteFileDrive;
 import com.picturemodel.domain.enums.CrawlStatus;
+import com.picturemodel.domain.enums.CrawlTrigger;
 import com.picturemodel.domain.repository.CrawlJobRepository;
+import com.picturemodel.domain.repository.CrawlWorkRepository;
 import com.picturemodel.domain.repository.RemoteFileDriveRepository;
+import com.picturemodel.service.crawler.CrawlPaths;
+import com.picturemodel.service.crawler.StageStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -33,32 +44,232 @@ import java.util.UUID;
 public class CrawlerService {
 
     private final CrawlJobRepository crawlJobRepository;
+    private final CrawlWorkRepository crawlWorkRepository;
     private final RemoteFileDriveRepository driveRepository;
     private final CrawlerJobRunner crawlerJobRunner;
+    private final CrawlerProperties crawlerProperties;
+    private final CrawlEstimationService crawlEstimationService;
+    private final ConnectionManager connectionManager;
+    private final CrawlScheduler crawlScheduler;
 
+    /**
+     * Queue a crawl. A queued or running crawl of the drive that covers the
+     * request absorbs it instead, and that job is returned.
+     */
     public CrawlJob startCrawl(StartCrawlRequest request) {
         RemoteFileDrive drive = driveRepository.findById(request.getDriveId())
                 .orElseThrow(() -> new IllegalArgumentException("Drive not found: " + request.getDriveId()));
 
+        return crawlScheduler.enqueue(newJob(drive, request, CrawlTrigger.MANUAL));
+    }
+
+    /**
+     * Queue crawls of auto-crawl drives whose schedule is due. A drive that was
+     * never crawled is crawled in full at once; afterwards its cron expression or
+     * interval decides, counted from its last crawl.
+     */
+    @Scheduled(
+            initialDelayString = "${picture-model.crawler.scheduler.policy-check-interval-ms:60000}",
+            fixedDelayString = "${picture-model.crawler.scheduler.policy-check-interval-ms:60000}")
+    public void enqueueScheduledCrawls() {
+        LocalDateTime now = LocalDateTime.now();
+        for (RemoteFileDrive drive : driveRepository.findByAutoCrawlTrue()) {
+            try {
+                LocalDateTime due = drive.getNextScheduledCrawl();
+                if (due == null) {
+                    due = drive.getLastCrawled() != null ? crawlScheduler.nextRun(drive, drive.getLastCrawled()) : now;
+                }
+                if (due.isAfter(now)) {
+                    if (drive.getNextScheduledCrawl() == null) {
+                        driveRepository.updateNextScheduledCrawl(drive.getId(), due);
+                    }
+                    continue;
+                }
+
+                StartCrawlRequest request = StartCrawlRequest.builder()
+                        .driveId(drive.getId())
+                        .isIncremental(drive.getLastCrawled() != null
+                                && !Boolean.FALSE.equals(drive.getScheduledCrawlIncremental()))
+                        .build();
+                CrawlJob job = crawlScheduler.enqueue(newJob(drive, request, CrawlTrigger.SCHEDULED));
+                LocalDateTime next = crawlScheduler.nextRun(drive, now);
+                driveRepository.updateNextScheduledCrawl(drive.getId(), next);
+                log.info("Scheduled crawl of drive {} queued as job {}; next due {}", drive.getName(), job.getId(), next);
+            } catch (RuntimeException e) {
+                log.warn("Failed to schedule crawl of drive {}: {}", drive.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Queue a crawl on behalf of a drive watch: an incremental catch-up of
+     * changes made while nothing was watching, or a full crawl of a subtree
+     * whose changes were lost, which also finds the files deleted in it. Both
+     * take the incremental priority, since they are usually small.
+     */
+    public CrawlJob queueWatchCrawl(RemoteFileDrive drive, String rootPath, boolean incremental) {
+        StartCrawlRequest request = StartCrawlRequest.builder()
+                .driveId(drive.getId())
+                .rootPath(rootPath)
+                .isIncremental(incremental)
+                .extractExif(crawlerProperties.getWatch().isExtractExif())
+                .priority(crawlerProperties.getScheduler().getIncrementalPriority())
+                .build();
+        return crawlScheduler.enqueue(newJob(drive, request, CrawlTrigger.WATCH));
+    }
+
+    /**
+     * Queued crawl jobs in dispatch order.
+     */
+    public List<CrawlJob> getQueue() {
+        return crawlScheduler.getQueue();
+    }
+
+    private CrawlJob newJob(RemoteFileDrive drive, StartCrawlRequest request, CrawlTrigger trigger) {
         String rootPath = request.getRootPath();
         if (rootPath == null || rootPath.isBlank()) {
             rootPath = "";
         }
 
-        CrawlJob job = CrawlJob.builder()
+        boolean incremental = Boolean.TRUE.equals(request.getIsIncremental());
+        CrawlerProperties.Scheduler scheduler = crawlerProperties.getScheduler();
+        return CrawlJob.builder()
                 .drive(drive)
                 .rootPath(rootPath)
                 .status(CrawlStatus.PENDING)
                 .startTime(LocalDateTime.now())
-                .isIncremental(Boolean.TRUE.equals(request.getIsIncremental()))
+                .isIncremental(incremental)
+                .parallelism(crawlerProperties.resolveParallelism(drive.getType(), request.getParallelism()))
+                .hashAlgorithm(request.getHashAlgorithm() != null
+                        ? request.getHashAlgorithm()
+                        : crawlerProperties.getHashing().getAlgorithm())
+                .extractExif(Boolean.TRUE.equals(request.getExtractExif()))
+                .singlePassRead(!Boolean.FALSE.equals(request.getSinglePassRead()))
+                .priority(request.getPriority() != null
+                        ? request.getPriority()
+                        : incremental ? scheduler.getIncrementalPriority() : scheduler.getFullPriority())
+                .triggeredBy(trigger)
                 .build();
+    }
+
+    /**
+     * Estimate a crawl without running it: pre-scan the tree and combine the
+     * result with the previous crawl of the same root. No job is created.
+     *
+     * @throws IllegalArgumentException if the drive does not exist
+     * @throws IllegalStateException if the drive is not connected
+     */
+    public CrawlEstimateDto estimateCrawl(StartCrawlRequest request) {
+        RemoteFileDrive drive = driveRepository.findById(request.getDriveId())
+                .orElseThrow(() -> new IllegalArgumentException("Drive not found: " + request.getDriveId()));
+        if (!connectionManager.isConnected(drive.getId())) {
+            throw new IllegalStateException("Drive is not connected: " + drive.getId());
+        }
+
+        String rootPath = request.getRootPath();
+        if (rootPath == null || rootPath.isBlank()) {
+            rootPath = "";
+        }
+
+        CrawlEstimationService.Estimate estimate;
+        try {
+            estimate = crawlEstimationService.estimate(connectionManager.getProvider(drive.getId()), drive.getId(),
+                    rootPath, CrawlPaths.normalizeRoot(rootPath, drive.getRootPath()), true);
+        } catch (Exception e) {
+            throw new RuntimeException("Pre-scan failed: " + e.getMessage(), e);
+        }
+
+        CrawlEstimateDto.CrawlEstimateDtoBuilder result = CrawlEstimateDto.builder()
+                .driveId(drive.getId())
+                .rootPath(rootPath)
+                .estimatedTotalFiles(estimate.files())
+                .estimatedTotalBytes(estimate.bytes())
+                .estimateSource(estimate.source())
+                .preScanFiles(estimate.preScan().files())
+                .preScanBytes(estimate.preScan().bytes())
+                .preScanDirectories(estimate.preScan().directoriesListed())
+                .preScanExact(estimate.preScan().exact())
+                .preScanMillis(estimate.preScan().elapsedMillis());
 
+        CrawlJob previous = estimate.previousCrawl();
+        if (previous != null) {
+            Long previousFiles = CrawlEstimationService.listedFiles(previous);
+            long seconds = previous.getDurationSeconds();
+            result.previousJobId(previous.getId()).previousFiles(previousFiles);
+            if (previousFiles != null && seconds > 0) {
+                double filesPerSecond = (double) previousFiles / seconds;
+                result.filesPerSecond(filesPerSecond)
+                        .bytesPerSecond((double) previous.getBytesRead() / seconds)
+                        .estimatedDurationSeconds(Math.round(estimate.files() / filesPerSecond));
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Queue an interrupted, failed or cancelled crawl to resume from its last
+     * checkpoint. A job that is still queued is left as it is.
+     *
+     * @throws IllegalArgumentException if the job does not exist
+     * @throws IllegalStateException if the job completed or is running
+     */
+    public CrawlJob resumeJob(UUID jobId) {
+        CrawlJob job = crawlJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Crawl job not found: " + jobId));
+
+        if (job.getStatus() == CrawlStatus.COMPLETED) {
+            throw new IllegalStateException("Crawl job already completed: " + jobId);
+        }
+        if (crawlerJobRunner.isRunning(jobId) || isRunningOnOtherNode(jobId)) {
+            throw new IllegalStateException("Crawl job is already running: " + jobId);
+        }
+        if (job.getStatus() == CrawlStatus.PENDING) {
+            crawlScheduler.dispatch();
+            return job;
+        }
+
+        job.setStatus(CrawlStatus.PENDING);
+        job.setEndTime(null);
+        job.setResumeCount(job.getResumeCount() + 1);
         CrawlJob saved = crawlJobRepository.save(job);
-        boolean extractExif = Boolean.TRUE.equals(request.getExtractExif());
-        crawlerJobRunner.runJob(saved.getId(), extractExif);
+        crawlerJobRunner.clearCancelRequest(jobId);
+        if (crawlerProperties.getCluster().isEnabled()) {
+            crawlWorkRepository.clearCancelRequest(jobId);
+        }
+        crawlScheduler.dispatch();
         return saved;
     }
 
+    /**
+     * In cluster mode, whether another node coordinates the job and is alive.
+     */
+    private boolean isRunningOnOtherNode(UUID jobId) {
+        CrawlerProperties.Cluster cluster = crawlerProperties.getCluster();
+        return cluster.isEnabled() && crawlWorkRepository.hasLiveCoordinator(jobId,
+                LocalDateTime.now().minus(Duration.ofMillis(cluster.getLeaseMs())));
+    }
+
+    /**
+     * Requeue crawls a previous run of the API left in progress. Jobs it left
+     * queued stay queued and are dispatched as usual. In cluster mode a running
+     * crawl may belong to another node, so {@code CrawlClusterService} requeues
+     * only those whose coordinator stopped sending heartbeats.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        if (!crawlerProperties.isResumeOnStartup() || crawlerProperties.getCluster().isEnabled()) {
+            return;
+        }
+        for (CrawlJob job : crawlJobRepository.findByStatus(CrawlStatus.IN_PROGRESS)) {
+            try {
+                log.info("Resuming interrupted crawl job {}", job.getId());
+                resumeJob(job.getId());
+            } catch (RuntimeException e) {
+                log.warn("Failed to resume crawl job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
     public CrawlJob cancelJob(UUID jobId) {
         CrawlJob job = crawlJobRepository.findById(jobId)
                 .orElseThrow(() -> new IllegalArgumentException("Crawl job not found: " + jobId));
@@ -71,9 +282,31 @@ public class CrawlerService {
         job.setEndTime(LocalDateTime.now());
         crawlJobRepository.save(job);
         crawlerJobRunner.requestCancel(jobId);
+        if (crawlerProperties.getCluster().isEnabled()) {
+            // Nodes running the crawl elsewhere see this at their next checkpoint
+            crawlWorkRepository.requestCancel(jobId);
+        }
         return job;
     }
 
+    public List<StageStats.Snapshot> getStageStats(UUID jobId) {
+        if (!crawlJobRepository.existsById(jobId)) {
+            throw new IllegalArgumentException("Crawl job not found: " + jobId);
+        }
+        return crawlerJobRunner.getStageStats(jobId);
+    }
+
+    /**
+     * Nodes that worked on a cluster crawl, coordinator first, with their share
+     * of the counters. Empty for crawls that ran on one node.
+     */
+    public List<CrawlWorkRepository.NodeRow> getJobNodes(UUID jobId) {
+        if (!crawlJobRepository.existsById(jobId)) {
+            throw new IllegalArgumentException("Crawl job not found: " + jobId);
+        }
+        return crawlWorkRepository.findNodes(jobId);
+    }
+
     @Transactional
     public void clearDriveHistory(UUID driveId) {
         crawlJobRepository.deleteByDrive_Id(driveId);
@@ -0,0 +1,152 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: DriveChangeService.java
+ * Version: 0.1.0
+ * Turns: 54
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T23:10:00Z
+ * Exports: DriveChangeService, ChangeResult
+ * Description: Service for applying the change batches drive watches report.
+ * DriveChangeService - applyChanges - index changed files and mark deleted paths; ChangeResult - counts of a batch.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.domain.entity.CrawlJob;
+import com.picturemodel.domain.entity.RemoteFileDrive;
+import com.picturemodel.domain.repository.ImageBulkRepository;
+import com.picturemodel.domain.repository.ImageRepository;
+import com.picturemodel.domain.repository.RemoteFileDriveRepository;
+import com.picturemodel.infrastructure.filesystem.FileInfo;
+import com.picturemodel.infrastructure.filesystem.FileSystemProvider;
+import com.picturemodel.service.crawler.CrawlPaths;
+import com.picturemodel.service.crawler.DrivePathIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies a batch of changes reported by a drive watch, on the calling thread.
+ * Changed paths are resolved to files here; their images go through the crawl
+ * pipeline of {@link CrawlerJobRunner}, so they get the same path index check
+ * and hash, EXIF and persist stages as crawled ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DriveChangeService {
+
+    private final RemoteFileDriveRepository driveRepository;
+    private final ImageRepository imageRepository;
+    private final ImageBulkRepository imageBulkRepository;
+    private final ConnectionManager connectionManager;
+    private final CrawlerJobRunner crawlerJobRunner;
+
+    /**
+     * Outcome of {@link #applyChanges}.
+     *
+     * @param filesChecked changed image files checked against the index
+     * @param filesAdded new images written
+     * @param filesUpdated existing images rewritten
+     * @param filesDeleted images marked deleted
+     */
+    public record ChangeResult(int filesChecked, int filesAdded, int filesUpdated, int filesDeleted) {
+    }
+
+    /**
+     * Index changed files and mark images at or below deleted paths deleted.
+     * Files that vanished before they could be read count as deleted.
+     * Directories are left to crawls. No crawl job is recorded.
+     *
+     * @param changedPaths files created or modified, relative to the drive root
+     * @param deletedPaths files or directories deleted, relative to the drive root
+     * @throws Exception if the drive cannot be reached or the writes fail
+     */
+    public ChangeResult applyChanges(
+            UUID driveId,
+            Collection<String> changedPaths,
+            Collection<String> deletedPaths,
+            boolean extractExif
+    ) throws Exception {
+        RemoteFileDrive drive = driveRepository.findById(driveId)
+                .orElseThrow(() -> new IllegalArgumentException("Drive not found: " + driveId));
+        FileSystemProvider provider = connectionManager.getProvider(driveId);
+
+        List<String> gone = new ArrayList<>(deletedPaths);
+        Map<String, List<FileInfo>> filesByDirectory = new LinkedHashMap<>();
+        for (String path : changedPaths) {
+            if (CrawlPaths.isIgnoredPath(path)) {
+                continue;
+            }
+            FileInfo entry;
+            try {
+                entry = provider.getFileMetadata(path);
+            } catch (Exception e) {
+                if (!provider.fileExists(path)) {
+                    gone.add(path);
+                } else {
+                    log.warn("Skipping changed file '{}' on drive {}: {}", path, driveId, e.getMessage());
+                }
+                continue;
+            }
+            if (Boolean.TRUE.equals(entry.getIsDirectory())) {
+                continue;
+            }
+            entry.setName(extractFileName(path));
+            if (CrawlPaths.isImageFile(entry)) {
+                filesByDirectory.computeIfAbsent(parentPath(path), directory -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        int deleted = imageBulkRepository.markDeletedAt(driveId, gone);
+        if (filesByDirectory.isEmpty()) {
+            if (deleted > 0) {
+                refreshImageCount(driveId);
+            }
+            return new ChangeResult(0, 0, 0, deleted);
+        }
+
+        List<String> paths = new ArrayList<>();
+        filesByDirectory.forEach((directory, entries) -> entries.forEach(
+                entry -> paths.add(CrawlPaths.childPath(directory, entry.getName()))));
+        DrivePathIndex index = new DrivePathIndex(paths.size());
+        for (ImageBulkRepository.ImageIndexRow row : imageBulkRepository.findIndexRows(driveId, paths, extractExif)) {
+            index.add(row.id(), row.filePath(), row.fileSize(), row.modifiedDate(), row.fileHash(), row.deleted(),
+                    row.hasExif());
+        }
+
+        CrawlJob job = crawlerJobRunner.indexChangedFiles(drive, provider, index, filesByDirectory, extractExif);
+        if (job.getErrors() != null) {
+            log.warn("Changes on drive {} applied with errors: {}", driveId, job.getErrors());
+        }
+        ChangeResult result = new ChangeResult(job.getFilesScanned(), job.getFilesAdded(), job.getFilesUpdated(),
+                deleted);
+        if (result.filesAdded() > 0 || deleted > 0) {
+            refreshImageCount(driveId);
+        }
+        return result;
+    }
+
+    private void refreshImageCount(UUID driveId) {
+        driveRepository.updateImageCount(driveId, (int) imageRepository.countByDrive_IdAndDeletedFalse(driveId));
+    }
+
+    private static String parentPath(String relativePath) {
+        int lastSlash = relativePath.lastIndexOf('/');
+        return lastSlash >= 0 ? relativePath.substring(0, lastSlash) : "";
+    }
+
+    private static String extractFileName(String relativePath) {
+        String normalized = relativePath.replace("\\", "/");
+        int lastSlash = normalized.lastIndexOf('/');
+        return lastSlash >= 0 ? normalized.substring(lastSlash + 1) : normalized;
+    }
+}
@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.service
  * File: DriveService.java
- * Version: 0.1.1
- * Turns: 5
+ * Version: 0.1.5
+ * Turns: 5,38,40,41,45
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-01-30T23:05:49Z
+ * Date: 2026-10-16T18:40:00Z
  * Exports: DriveService
  * Description: class DriveService for DriveService responsibilities. Methods: createDrive - create drive; getAllDrives - get all drives; getDrive - get drive; updateDrive - update drive; deleteDrive - delete drive; connect - connect; disconnect - disconnect; testConnection - test connection; getDirectoryTree - get directory tree; getStatus - get status.
  */
@@ -15,6 +15,7 @@ package com.picturemodel.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.picturemodel.domain.entity.RemoteFileDrive;
 import com.picturemodel.domain.enums.ConnectionStatus;
+import com.picturemodel.domain.repository.DuplicateRepository;
 import com.picturemodel.domain.repository.RemoteFileDriveRepository;
 import com.picturemodel.infrastructure.filesystem.ConnectionTestResult;
 import com.picturemodel.infrastructure.filesystem.DirectoryTreeNode;
@@ -41,6 +42,7 @@ import java.util.UUID;
 public class DriveService {
 
     private final RemoteFileDriveRepository driveRepository;
+    private final DuplicateRepository duplicateRepository;
     private final ConnectionManager connectionManager;
     private final CredentialEncryptionService encryptionService;
     private final ObjectMapper objectMapper;
@@ -125,6 +127,32 @@ public class DriveService {
             drive.setAutoCrawl(updateData.getAutoCrawl());
         }
 
+        // Update the auto-crawl policy; an empty cron or a zero interval clears it
+        boolean scheduleChanged = updateData.getAutoCrawl() != null;
+        if (updateData.getCrawlCron() != null) {
+            drive.setCrawlCron(updateData.getCrawlCron().isBlank() ? null : updateData.getCrawlCron().trim());
+            scheduleChanged = true;
+        }
+        if (updateData.getCrawlIntervalMinutes() != null) {
+            drive.setCrawlIntervalMinutes(updateData.getCrawlIntervalMinutes() > 0
+                    ? updateData.getCrawlIntervalMinutes()
+                    : null);
+            scheduleChanged = true;
+        }
+        if (updateData.getScheduledCrawlIncremental() != null) {
+            drive.setScheduledCrawlIncremental(updateData.getScheduledCrawlIncremental());
+        }
+        if (updateData.getWatchChanges() != null) {
+            drive.setWatchChanges(updateData.getWatchChanges());
+        }
+        if (updateData.getWatchPaths() != null) {
+            drive.setWatchPaths(updateData.getWatchPaths().isBlank() ? null : updateData.getWatchPaths().trim());
+        }
+        if (scheduleChanged) {
+            // Recomputed from the new policy on the next scheduler pass
+            drive.setNextScheduledCrawl(null);
+        }
+
         // Update credentials if provided
         if (credentials != null && !credentials.isEmpty()) {
             try {
@@ -160,6 +188,8 @@ public class DriveService {
             connectionManager.disconnect(id);
         }
 
+        // Its images go with it; their duplicate groups shrink.
+        duplicateRepository.markDrive(id);
         driveRepository.deleteById(id);
     }
 
@@ -0,0 +1,367 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: DriveWatchService.java
+ * Version: 0.1.2
+ * Turns: 40,41,54
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T23:10:00Z
+ * Exports: DriveWatchService
+ * Description: class DriveWatchService for indexing the changes drive watches report. Methods: init - restart watches when drives reconnect; reconcile - start, stop and restart watches to match the drives; getStatus - watch state of a drive; shutdown - stop every watch.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.config.CrawlerProperties;
+import com.picturemodel.domain.entity.RemoteFileDrive;
+import com.picturemodel.domain.repository.RemoteFileDriveRepository;
+import com.picturemodel.infrastructure.filesystem.FileChange;
+import com.picturemodel.infrastructure.filesystem.FileSystemProvider;
+import com.picturemodel.infrastructure.filesystem.WatchableFileSystemProvider;
+import com.picturemodel.service.crawler.ChangeCoalescer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps drives that have {@code watchChanges} set indexed between crawls,
+ * watching the drive root or the directories listed in {@code watchPaths}.
+ *
+ * <p>Each watched drive's changes are debounced by a {@link ChangeCoalescer} and
+ * applied in batches: changed and deleted files through
+ * {@link DriveChangeService#applyChanges}, which reuses the crawl's index check,
+ * hash, EXIF and persist stages, and subtrees the watch could not follow
+ * (new directories, overflows) as queued full crawls of that subtree. Batches
+ * are held back while a crawl of the drive runs.</p>
+ *
+ * <p>Watches are reconciled with the drives every {@code reconcile-interval-ms},
+ * and at once when a drive connects with a new provider: a watch that stopped,
+ * or whose provider was replaced by a reconnect, is started again, followed by
+ * an incremental catch-up crawl for the changes made while nothing was
+ * watching. A watch the provider re-established itself ({@code RESUMED}) gets
+ * the same catch-up crawl of its directory.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DriveWatchService {
+
+    private static final long POLL_INTERVAL_MS = 250;
+
+    private final RemoteFileDriveRepository driveRepository;
+    private final ConnectionManager connectionManager;
+    private final CrawlerJobRunner crawlerJobRunner;
+    private final DriveChangeService driveChangeService;
+    private final CrawlerService crawlerService;
+    private final CrawlerProperties crawlerProperties;
+
+    private final Map<UUID, DriveWatch> watches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poller = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "drive-watch-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Watch state of a drive.
+     *
+     * @param watching whether a watch is running
+     * @param paths watched directories; empty for the whole drive
+     * @param since when the watch started
+     * @param pending paths and subtrees waiting to be applied
+     * @param events changes reported since the watch started
+     * @param filesIndexed images added or updated from changes
+     * @param filesDeleted images marked deleted from changes
+     * @param rescansQueued subtree crawls queued
+     * @param lastBatch when a batch was last applied
+     * @param lastError why the last batch failed, if it did
+     */
+    public record WatchStatus(
+            boolean watching,
+            List<String> paths,
+            LocalDateTime since,
+            int pending,
+            long events,
+            long filesIndexed,
+            long filesDeleted,
+            long rescansQueued,
+            LocalDateTime lastBatch,
+            String lastError
+    ) {
+    }
+
+    @PostConstruct
+    public void init() {
+        connectionManager.addConnectListener(driveId -> poller.execute(() -> restart(driveId)));
+    }
+
+    /**
+     * Start watches for drives that want one, stop those no longer wanted, and
+     * restart watches that stopped or whose provider changed.
+     */
+    @Scheduled(fixedDelayString = "${picture-model.crawler.watch.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        CrawlerProperties.Watch settings = crawlerProperties.getWatch();
+        Set<UUID> wanted = new HashSet<>();
+        if (settings.isEnabled()) {
+            for (RemoteFileDrive drive : driveRepository.findByWatchChangesTrue()) {
+                wanted.add(drive.getId());
+                ensureWatch(drive, settings);
+            }
+        }
+        for (UUID driveId : List.copyOf(watches.keySet())) {
+            if (!wanted.contains(driveId)) {
+                stop(driveId);
+            }
+        }
+    }
+
+    /**
+     * Watch state of a drive; not watching if the drive has no watch.
+     */
+    public WatchStatus getStatus(UUID driveId) {
+        if (!driveRepository.existsById(driveId)) {
+            throw new IllegalArgumentException("Drive not found: " + driveId);
+        }
+        DriveWatch watch = watches.get(driveId);
+        if (watch == null) {
+            return new WatchStatus(false, List.of(), null, 0, 0, 0, 0, 0, null, null);
+        }
+        return new WatchStatus(watch.isOpen(), watch.paths, watch.since, watch.coalescer.size(), watch.events.get(),
+                watch.filesIndexed.get(), watch.filesDeleted.get(), watch.rescansQueued.get(), watch.lastBatch,
+                watch.lastError);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        poller.shutdownNow();
+        for (UUID driveId : List.copyOf(watches.keySet())) {
+            stop(driveId);
+        }
+    }
+
+    private synchronized void restart(UUID driveId) {
+        CrawlerProperties.Watch settings = crawlerProperties.getWatch();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        driveRepository.findById(driveId)
+                .filter(drive -> Boolean.TRUE.equals(drive.getWatchChanges()))
+                .ifPresent(drive -> ensureWatch(drive, settings));
+    }
+
+    private void ensureWatch(RemoteFileDrive drive, CrawlerProperties.Watch settings) {
+        UUID driveId = drive.getId();
+        List<String> paths = parseWatchPaths(drive.getWatchPaths());
+        DriveWatch current = watches.get(driveId);
+        FileSystemProvider provider;
+        try {
+            provider = connectionManager.getProvider(driveId);
+        } catch (Exception e) {
+            log.warn("Cannot watch drive {}: {}", drive.getName(), e.getMessage());
+            stop(driveId);
+            return;
+        }
+        if (current != null && current.provider == provider && current.paths.equals(paths) && current.isOpen()) {
+            return;
+        }
+        stop(driveId);
+        if (!(provider instanceof WatchableFileSystemProvider watchable)) {
+            log.debug("Drive {} ({}) cannot report changes; it is only crawled", drive.getName(), drive.getType());
+            return;
+        }
+
+        ChangeCoalescer coalescer = new ChangeCoalescer(settings.getQuietMs(), settings.getMaxDelayMs(),
+                settings.getMaxBatchSize(), settings.getMaxPending());
+        DriveWatch watch = new DriveWatch(driveId, provider, paths, coalescer);
+        try {
+            for (String path : paths.isEmpty() ? List.of("") : paths) {
+                watch.handles.add(watchable.watch(path, change -> onChange(watch, change)));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to watch drive {}: {}", drive.getName(), e.getMessage());
+            watch.handles.forEach(WatchableFileSystemProvider.Watch::close);
+            return;
+        }
+        watch.poll = poller.scheduleWithFixedDelay(() -> poll(watch), POLL_INTERVAL_MS, POLL_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+        watches.put(driveId, watch);
+        log.info("Watching drive {} for changes", drive.getName());
+
+        if (settings.isCatchUpOnStart() && drive.getLastCrawled() != null) {
+            for (String path : paths.isEmpty() ? List.of("") : paths) {
+                queueCatchUp(drive, path);
+            }
+        }
+    }
+
+    private void onChange(DriveWatch watch, FileChange change) {
+        watch.events.incrementAndGet();
+        if (change.kind() == FileChange.Kind.RESUMED) {
+            poller.execute(() -> driveRepository.findById(watch.driveId)
+                    .ifPresent(drive -> queueCatchUp(drive, change.path())));
+            return;
+        }
+        watch.coalescer.add(change, System.nanoTime());
+    }
+
+    private void queueCatchUp(RemoteFileDrive drive, String path) {
+        try {
+            crawlerService.queueWatchCrawl(drive, path, true);
+        } catch (RuntimeException e) {
+            log.warn("Failed to queue catch-up crawl of '{}' for drive {}: {}", path, drive.getName(), e.getMessage());
+        }
+    }
+
+    private void stop(UUID driveId) {
+        DriveWatch watch = watches.remove(driveId);
+        if (watch == null) {
+            return;
+        }
+        if (watch.poll != null) {
+            watch.poll.cancel(false);
+        }
+        watch.handles.forEach(WatchableFileSystemProvider.Watch::close);
+        if (watch.coalescer.size() > 0) {
+            log.info("Stopped watching drive {} with {} changes not applied", driveId, watch.coalescer.size());
+        } else {
+            log.info("Stopped watching drive {}", driveId);
+        }
+    }
+
+    private void poll(DriveWatch watch) {
+        if (crawlerJobRunner.isCrawling(watch.driveId)) {
+            return;
+        }
+        ChangeCoalescer.Batch batch = watch.coalescer.poll(System.nanoTime());
+        if (batch == null) {
+            return;
+        }
+        try {
+            apply(watch, batch);
+            watch.lastError = null;
+        } catch (Exception e) {
+            log.warn("Failed to apply {} changes on drive {}: {}", batch.size(), watch.driveId, e.getMessage());
+            watch.lastError = e.getMessage();
+            // Hand the lost changes to crawls of their directories
+            for (String path : batch.changed()) {
+                watch.coalescer.add(new FileChange(FileChange.Kind.OVERFLOW, parentPath(path), true), System.nanoTime());
+            }
+            for (String path : batch.deleted()) {
+                watch.coalescer.add(new FileChange(FileChange.Kind.OVERFLOW, parentPath(path), true), System.nanoTime());
+            }
+            for (String path : batch.rescans()) {
+                watch.coalescer.add(new FileChange(FileChange.Kind.OVERFLOW, path, true), System.nanoTime());
+            }
+        }
+    }
+
+    private void apply(DriveWatch watch, ChangeCoalescer.Batch batch) throws Exception {
+        RemoteFileDrive drive = driveRepository.findById(watch.driveId).orElse(null);
+        if (drive == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (!batch.changed().isEmpty() || !batch.deleted().isEmpty()) {
+            DriveChangeService.ChangeResult result = driveChangeService.applyChanges(watch.driveId, batch.changed(),
+                    batch.deleted(), crawlerProperties.getWatch().isExtractExif());
+            watch.filesIndexed.addAndGet(result.filesAdded() + result.filesUpdated());
+            watch.filesDeleted.addAndGet(result.filesDeleted());
+            log.debug("Drive {}: {} changed and {} deleted paths -> {} added, {} updated, {} deleted in {} ms",
+                    drive.getName(), batch.changed().size(), batch.deleted().size(), result.filesAdded(),
+                    result.filesUpdated(), result.filesDeleted(), (System.nanoTime() - start) / 1_000_000);
+        }
+        for (String directory : batch.rescans()) {
+            crawlerService.queueWatchCrawl(drive, directory, false);
+            watch.rescansQueued.incrementAndGet();
+        }
+        watch.lastBatch = LocalDateTime.now();
+    }
+
+    /**
+     * Directories listed one per line, without surrounding slashes; nested ones
+     * are dropped since watches are recursive. Empty if the whole drive is watched.
+     */
+    private static List<String> parseWatchPaths(String value) {
+        List<String> paths = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return paths;
+        }
+        for (String line : value.split("\\R")) {
+            String path = line.trim().replace('\\', '/');
+            while (path.startsWith("/")) {
+                path = path.substring(1);
+            }
+            while (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            if (path.isEmpty()) {
+                return new ArrayList<>();
+            }
+            if (!paths.contains(path)) {
+                paths.add(path);
+            }
+        }
+        List<String> roots = new ArrayList<>();
+        for (String path : paths) {
+            boolean nested = paths.stream().anyMatch(other -> !other.equals(path) && path.startsWith(other + "/"));
+            if (!nested) {
+                roots.add(path);
+            }
+        }
+        return roots;
+    }
+
+    private static String parentPath(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash >= 0 ? path.substring(0, slash) : "";
+    }
+
+    /**
+     * A running watch of one drive.
+     */
+    private static final class DriveWatch {
+        private final UUID driveId;
+        private final FileSystemProvider provider;
+        private final List<String> paths;
+        private final ChangeCoalescer coalescer;
+        private final List<WatchableFileSystemProvider.Watch> handles = new ArrayList<>();
+        private final LocalDateTime since = LocalDateTime.now();
+        private final AtomicLong events = new AtomicLong();
+        private final AtomicLong filesIndexed = new AtomicLong();
+        private final AtomicLong filesDeleted = new AtomicLong();
+        private final AtomicInteger rescansQueued = new AtomicInteger();
+        private ScheduledFuture<?> poll;
+        private volatile LocalDateTime lastBatch;
+        private volatile String lastError;
+
+        private DriveWatch(UUID driveId, FileSystemProvider provider, List<String> paths, ChangeCoalescer coalescer) {
+            this.driveId = driveId;
+            this.provider = provider;
+            this.paths = List.copyOf(paths);
+            this.coalescer = coalescer;
+        }
+
+        private boolean isOpen() {
+            return !handles.isEmpty() && handles.stream().allMatch(WatchableFileSystemProvider.Watch::isOpen);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: DuplicateService.java
+ * Version: 0.1.0
+ * Turns: 45
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T18:40:00Z
+ * Exports: DuplicateService
+ * Description: class DuplicateService for finding images with identical content across drives. Methods: refresh - bring the duplicate summary up to date; requestRebuild - recount every group on the next refresh; getGroups - a page of duplicate groups with totals; getGroup - one group with its images; getStatus - totals and refresh state.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.config.DuplicateProperties;
+import com.picturemodel.domain.entity.Image;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import com.picturemodel.domain.repository.DuplicateRepository;
+import com.picturemodel.domain.repository.DuplicateRepository.DuplicateGroup;
+import com.picturemodel.domain.repository.DuplicateRepository.DuplicateSummary;
+import com.picturemodel.domain.repository.ImageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Duplicate detection over full-content hashes. Images with the same hash under
+ * the same algorithm are copies of one file, whichever drive they are on.
+ *
+ * <p>Reads come from the summary in {@link DuplicateRepository}, so listing groups
+ * costs the same with 10 million images as with 10 thousand. Every
+ * {@code refresh-interval-ms} the hashes crawls queued are recounted in batches;
+ * the first run, a requested rebuild or a backlog beyond
+ * {@code rebuild-threshold} recounts everything with one aggregate query instead.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DuplicateService {
+
+    private final DuplicateRepository duplicateRepository;
+    private final ImageRepository imageRepository;
+    private final DuplicateProperties duplicateProperties;
+
+    private volatile LocalDateTime rebuildRequestedAt;
+
+    /**
+     * Bring the duplicate summary up to date.
+     */
+    @Scheduled(
+            initialDelayString = "${picture-model.duplicates.refresh-interval-ms:30000}",
+            fixedDelayString = "${picture-model.duplicates.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            LocalDateTime requested = rebuildRequestedAt;
+            if (requested != null
+                    || duplicateRepository.getRebuiltAt().isEmpty()
+                    || duplicateRepository.countPending() > duplicateProperties.getRebuildThreshold()) {
+                LocalDateTime since = requested != null ? requested : LocalDateTime.now();
+                if (duplicateRepository.rebuild(since)) {
+                    log.info("Duplicate summary rebuilt");
+                }
+                if (rebuildRequestedAt == requested) {
+                    rebuildRequestedAt = null;
+                }
+                return;
+            }
+            int batchSize = Math.max(1, duplicateProperties.getRefreshBatchSize());
+            long handled = 0;
+            int count;
+            do {
+                count = duplicateRepository.refreshPending(batchSize, LocalDateTime.now());
+                handled += count;
+            } while (count == batchSize);
+            if (handled > 0) {
+                log.debug("Recounted duplicate groups for {} hash changes", handled);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Duplicate summary refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recount every group on the next refresh, e.g. after images were changed
+     * outside the crawler.
+     */
+    public void requestRebuild() {
+        rebuildRequestedAt = LocalDateTime.now();
+    }
+
+    /**
+     * A page of duplicate groups, most reclaimable bytes first, with totals over all groups.
+     */
+    public Map<String, Object> getGroups(int page, int size) {
+        DuplicateSummary summary = duplicateRepository.summarize();
+        List<DuplicateGroup> groups = duplicateRepository.findGroups(page * size, size);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("content", groups);
+        response.put("totalElements", summary.groups());
+        response.put("totalPages", (summary.groups() + size - 1) / size);
+        response.put("currentPage", page);
+        response.put("size", size);
+        response.put("duplicateImages", summary.duplicateImages());
+        response.put("reclaimableBytes", summary.reclaimableBytes());
+        return response;
+    }
+
+    /**
+     * One group with its live images, oldest indexed first (the copy a cleanup would keep).
+     *
+     * @throws IllegalArgumentException if the algorithm is unknown or no image shares the hash
+     */
+    public Map<String, Object> getGroup(String hashAlgorithm, String fileHash) {
+        HashAlgorithm algorithm = HashAlgorithm.valueOf(hashAlgorithm.toUpperCase(Locale.ROOT));
+        DuplicateGroup group = duplicateRepository.findGroup(algorithm, fileHash)
+                .orElseThrow(() -> new IllegalArgumentException("No duplicate group for hash: " + fileHash));
+        List<Image> images = new ArrayList<>(
+                imageRepository.findByFileHashAndHashAlgorithmAndDeletedFalse(fileHash, algorithm));
+        images.sort(Comparator.comparing(Image::getIndexedDate, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("group", group);
+        response.put("images", images);
+        return response;
+    }
+
+    /**
+     * Totals and the state of the incremental refresh.
+     */
+    public Map<String, Object> getStatus() {
+        DuplicateSummary summary = duplicateRepository.summarize();
+        Map<String, Object> response = new HashMap<>();
+        response.put("groups", summary.groups());
+        response.put("duplicateImages", summary.duplicateImages());
+        response.put("reclaimableBytes", summary.reclaimableBytes());
+        response.put("pendingChanges", duplicateRepository.countPending());
+        response.put("rebuiltAt", duplicateRepository.getRebuiltAt().orElse(null));
+        response.put("rebuildRequested", rebuildRequestedAt != null);
+        return response;
+    }
+}
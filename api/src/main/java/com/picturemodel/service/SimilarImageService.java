@@ -0,0 +1,145 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: SimilarImageService.java
+ * Version: 0.1.0
+ * Turns: 46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: SimilarImageService
+ * Description: class SimilarImageService for finding visually similar images by perceptual hash. Methods: refresh - rebuild the in-memory index; findSimilar - images within a Hamming distance of an image.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.config.SimilarityProperties;
+import com.picturemodel.domain.entity.Image;
+import com.picturemodel.domain.repository.ImageBulkRepository;
+import com.picturemodel.domain.repository.ImageRepository;
+import com.picturemodel.service.hashing.HammingBkTree;
+import com.picturemodel.service.hashing.PerceptualHashService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Near-duplicate search over perceptual hashes. Resized, recompressed and
+ * re-exported copies of a picture have different content hashes but perceptual
+ * hashes a few bits apart, so they are found by Hamming distance instead of equality.
+ *
+ * <p>The hashes of all live images are held in a {@link HammingBkTree}, rebuilt
+ * from the database every {@code refresh-interval-ms} and swapped in whole, so a
+ * search never scans the images table. The queried image's own hash is read from
+ * the database, and matches are checked against their current rows, so an index
+ * up to one interval old never returns deleted or re-hashed images; it can only
+ * miss images hashed since the last rebuild.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarImageService {
+
+    private final ImageRepository imageRepository;
+    private final ImageBulkRepository imageBulkRepository;
+    private final SimilarityProperties similarityProperties;
+
+    private volatile HammingBkTree index;
+    private volatile LocalDateTime indexBuiltAt;
+
+    /**
+     * An image within the search distance.
+     */
+    public record SimilarImage(Image image, int distance) {
+    }
+
+    /**
+     * Rebuild the in-memory index from the stored perceptual hashes.
+     */
+    @Scheduled(fixedDelayString = "${picture-model.similarity.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            long start = System.nanoTime();
+            HammingBkTree current = index;
+            HammingBkTree rebuilt = new HammingBkTree(current != null ? current.size() : 0);
+            imageBulkRepository.streamPerceptualHashes(rebuilt::add);
+            index = rebuilt;
+            indexBuiltAt = LocalDateTime.now();
+            log.debug("Similarity index rebuilt with {} images in {} ms",
+                    rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Similarity index rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Live images whose perceptual hash is within {@code maxDistance} bits of an
+     * image's, closest first, excluding the image itself.
+     *
+     * @param maxDistance Hamming distance, or null for the configured default
+     * @param limit maximum number of images returned
+     * @throws IllegalArgumentException if the image does not exist
+     * @throws IllegalStateException if the image has no perceptual hash or the index is not built yet
+     */
+    public Map<String, Object> findSimilar(UUID imageId, Integer maxDistance, int limit) {
+        long start = System.nanoTime();
+        Image image = imageRepository.findById(imageId)
+                .orElseThrow(() -> new IllegalArgumentException("Image not found: " + imageId));
+        if (image.getPerceptualHash() == null) {
+            throw new IllegalStateException("Image has no perceptual hash: " + imageId);
+        }
+        HammingBkTree current = index;
+        if (current == null) {
+            throw new IllegalStateException("Similarity index is not built yet");
+        }
+        int distance = Math.max(0, Math.min(
+                maxDistance != null ? maxDistance : similarityProperties.getDefaultMaxDistance(),
+                similarityProperties.getMaxDistance()));
+        long hash = image.getPerceptualHash();
+
+        List<HammingBkTree.Match> matches = current.search(hash, distance);
+        matches.removeIf(match -> match.imageId().equals(imageId));
+        matches.sort(Comparator.comparingInt(HammingBkTree.Match::distance));
+
+        // Load a few more rows than needed, since some may be stale
+        List<UUID> candidateIds = new ArrayList<>();
+        for (HammingBkTree.Match match : matches) {
+            if (candidateIds.size() >= limit * 2) {
+                break;
+            }
+            candidateIds.add(match.imageId());
+        }
+        List<SimilarImage> similar = new ArrayList<>();
+        for (Image candidate : imageRepository.findAllById(candidateIds)) {
+            if (Boolean.TRUE.equals(candidate.getDeleted()) || candidate.getPerceptualHash() == null) {
+                continue;
+            }
+            int candidateDistance = PerceptualHashService.distance(hash, candidate.getPerceptualHash());
+            if (candidateDistance <= distance) {
+                similar.add(new SimilarImage(candidate, candidateDistance));
+            }
+        }
+        similar.sort(Comparator.comparingInt(SimilarImage::distance));
+        if (similar.size() > limit) {
+            similar = new ArrayList<>(similar.subList(0, limit));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("imageId", imageId);
+        response.put("maxDistance", distance);
+        response.put("content", similar);
+        response.put("totalMatches", matches.size());
+        response.put("indexedImages", current.size());
+        response.put("indexBuiltAt", indexBuiltAt);
+        response.put("tookMs", (System.nanoTime() - start) / 1_000_000);
+        return response;
+    }
+}
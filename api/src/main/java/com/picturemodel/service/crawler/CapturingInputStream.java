@@ -0,0 +1,98 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CapturingInputStream.java
+ * Version: 0.1.0
+ * Turns: 46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: CapturingInputStream
+ * Description: class CapturingInputStream for keeping a copy of a file while another reader consumes it. Methods: content - the bytes read, or null if the file outgrew its expected size.
+ */
+
+package com.picturemodel.service.crawler;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Copies every byte that passes through it into a buffer sized from the
+ * listing, so the perceptual-hash stage can decode a file from the read the
+ * hash stage already does instead of fetching it from the drive again.
+ * Skipped bytes are read and copied too, so the copy has no gaps.
+ */
+public class CapturingInputStream extends FilterInputStream {
+
+    private static final int SKIP_BUFFER_SIZE = 64 * 1024;
+
+    private final byte[] content;
+    private int length;
+    // Set when the file is larger than the buffer; the copy is then dropped
+    private boolean overflow;
+
+    public CapturingInputStream(InputStream in, int expectedSize) {
+        super(in);
+        this.content = new byte[expectedSize];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            if (length < content.length) {
+                content[length++] = (byte) b;
+            } else {
+                overflow = true;
+            }
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        int read = in.read(buffer, offset, count);
+        if (read > 0 && !overflow) {
+            if (read > content.length - length) {
+                overflow = true;
+            } else {
+                System.arraycopy(buffer, offset, content, length, read);
+                length += read;
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] buffer = new byte[(int) Math.min(SKIP_BUFFER_SIZE, n)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return the bytes read so far, or null if the file outgrew the expected size
+     */
+    public byte[] content() {
+        if (overflow) {
+            return null;
+        }
+        return length == content.length ? content : Arrays.copyOf(content, length);
+    }
+}
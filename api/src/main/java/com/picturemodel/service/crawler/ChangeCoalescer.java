@@ -0,0 +1,199 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: ChangeCoalescer.java
+ * Version: 0.1.0
+ * Turns: 40
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T16:10:00Z
+ * Exports: ChangeCoalescer
+ * Description: class ChangeCoalescer for debouncing watched file changes into batches. Methods: add - record a change; poll - take the pending batch once it is due; size - pending paths.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.infrastructure.filesystem.FileChange;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the changes reported by a drive watch and hands them out in batches.
+ * A file written in many small steps produces a burst of events, so a batch is
+ * only due once the drive has been quiet for {@code quietMs}, it has waited
+ * {@code maxDelayMs}, or it holds {@code maxBatchSize} paths.
+ *
+ * <p>Only the last state of each path is kept: a file created and then deleted
+ * is a deletion, one deleted and created again is a change. Directory-level
+ * work (a new directory, an overflow) becomes a subtree rescan that absorbs
+ * every pending change below it. When more than {@code maxPending} paths pile up
+ * (a batch is held back while a crawl of the drive runs) their parent
+ * directories are rescanned instead, which bounds memory.</p>
+ *
+ * <p>Thread-safe.</p>
+ */
+public class ChangeCoalescer {
+
+    private enum State {
+        CHANGED,
+        DELETED
+    }
+
+    private final long quietNanos;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final int maxPending;
+    private final Map<String, State> pending = new LinkedHashMap<>();
+    private final Set<String> rescans = new LinkedHashSet<>();
+    private long firstNanos;
+    private long lastNanos;
+
+    /**
+     * A batch of changes to apply.
+     *
+     * @param changed files created or modified
+     * @param deleted files and directories deleted
+     * @param rescans directories whose subtrees must be crawled again
+     */
+    public record Batch(List<String> changed, List<String> deleted, List<String> rescans) {
+        public int size() {
+            return changed.size() + deleted.size() + rescans.size();
+        }
+    }
+
+    public ChangeCoalescer(long quietMs, long maxDelayMs, int maxBatchSize, int maxPending) {
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, quietMs));
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(quietMs, maxDelayMs));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxPending = Math.max(this.maxBatchSize, maxPending);
+    }
+
+    /**
+     * Record a change.
+     *
+     * @param now {@link System#nanoTime()} of the change
+     */
+    public synchronized void add(FileChange change, long now) {
+        String path = change.path();
+        if (isEmpty()) {
+            firstNanos = now;
+        }
+        lastNanos = now;
+
+        if (change.kind() == FileChange.Kind.DELETED) {
+            // A rescan of a directory that is gone would fail at its root
+            rescans.remove(path);
+            removeBelow(rescans, path);
+        }
+        if (coveredByRescan(path)) {
+            return;
+        }
+        switch (change.kind()) {
+            case OVERFLOW -> addRescan(path);
+            case CREATED -> {
+                if (change.directory()) {
+                    addRescan(path);
+                } else {
+                    pending.put(path, State.CHANGED);
+                }
+            }
+            case MODIFIED -> pending.put(path, State.CHANGED);
+            case DELETED -> {
+                removeBelow(pending.keySet(), path);
+                pending.put(path, State.DELETED);
+            }
+        }
+        if (pending.size() > maxPending) {
+            collapseToParents();
+        }
+    }
+
+    /**
+     * Take the pending changes if they are due.
+     *
+     * @param now current {@link System#nanoTime()}
+     * @return the batch, or null if nothing is due
+     */
+    public synchronized Batch poll(long now) {
+        if (isEmpty()) {
+            return null;
+        }
+        boolean due = now - lastNanos >= quietNanos
+                || now - firstNanos >= maxDelayNanos
+                || pending.size() + rescans.size() >= maxBatchSize;
+        if (!due) {
+            return null;
+        }
+        List<String> changed = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (Map.Entry<String, State> entry : pending.entrySet()) {
+            (entry.getValue() == State.CHANGED ? changed : deleted).add(entry.getKey());
+        }
+        Batch batch = new Batch(changed, deleted, new ArrayList<>(rescans));
+        pending.clear();
+        rescans.clear();
+        return batch;
+    }
+
+    /**
+     * @return paths and subtrees waiting to be applied
+     */
+    public synchronized int size() {
+        return pending.size() + rescans.size();
+    }
+
+    private boolean isEmpty() {
+        return pending.isEmpty() && rescans.isEmpty();
+    }
+
+    private void addRescan(String directory) {
+        if (coveredByRescan(directory)) {
+            return;
+        }
+        removeBelow(rescans, directory);
+        removeBelow(pending.keySet(), directory);
+        pending.remove(directory);
+        rescans.add(directory);
+    }
+
+    private boolean coveredByRescan(String path) {
+        for (String directory : rescans) {
+            if (isAtOrBelow(path, directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void collapseToParents() {
+        List<String> parents = new ArrayList<>();
+        for (String path : pending.keySet()) {
+            int slash = path.lastIndexOf('/');
+            parents.add(slash >= 0 ? path.substring(0, slash) : "");
+        }
+        pending.clear();
+        for (String parent : parents) {
+            addRescan(parent);
+        }
+    }
+
+    private static void removeBelow(Set<String> paths, String directory) {
+        Iterator<String> iterator = paths.iterator();
+        while (iterator.hasNext()) {
+            String path = iterator.next();
+            if (!path.equals(directory) && isAtOrBelow(path, directory)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static boolean isAtOrBelow(String path, String directory) {
+        return directory.isEmpty() || path.equals(directory) || path.startsWith(directory + "/");
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CountingInputStream.java
+ * Version: 0.1.1
+ * Turns: 32,33
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T12:30:00Z
+ * Exports: CountingInputStream
+ * Description: class CountingInputStream for tallying bytes read from a drive. Methods: read - count bytes.
+ */
+
+package com.picturemodel.service.crawler;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds the number of bytes read from the wrapped stream to a shared counter, so a
+ * crawl can report how much data it pulled from the drive. Skipped ranges are not
+ * counted: local and SMB streams seek over them.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    private final LongAdder counter;
+
+    public CountingInputStream(InputStream in, LongAdder counter) {
+        super(in);
+        this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            counter.increment();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = in.read(buffer, offset, length);
+        if (read > 0) {
+            counter.add(read);
+        }
+        return read;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
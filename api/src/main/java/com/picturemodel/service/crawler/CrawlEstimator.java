@@ -0,0 +1,168 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CrawlEstimator.java
+ * Version: 0.1.1
+ * Turns: 37,49
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:40:00Z
+ * Exports: CrawlEstimator
+ * Description: class CrawlEstimator for estimating the image files and bytes below a crawl root from a sample of directory listings. Methods: estimate - run the pre-scan.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.infrastructure.filesystem.FileSystemProvider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cheap pre-scan that estimates how many image files, and how many bytes, a crawl
+ * will list without walking the whole tree.
+ *
+ * <p>The first half of the listing budget walks the tree breadth-first and counts
+ * the top levels exactly; if the walk finishes within it the estimate is exact.
+ * The rest of the budget is spent on random probes (Knuth's tree-size estimator):
+ * each probe starts at a random unlisted directory of the breadth-first frontier
+ * and descends through one random subdirectory per level, weighting the files of
+ * each level by the product of the branching factors above it. The mean probe
+ * result times the frontier size is an unbiased estimate of the files below the
+ * frontier.</p>
+ *
+ * <p>Entries are filtered with {@link CrawlPaths} so the estimate counts what a
+ * crawl counts. Unreadable directories below the root count as empty.</p>
+ */
+public class CrawlEstimator {
+
+    private static final int MAX_PROBE_DEPTH = 256;
+
+    private final FileSystemProvider provider;
+    private final int maxListings;
+    private final Random random;
+    private int listings;
+
+    public CrawlEstimator(FileSystemProvider provider, int maxListings, Random random) {
+        this.provider = provider;
+        this.maxListings = Math.max(1, maxListings);
+        this.random = random;
+    }
+
+    /**
+     * Result of a pre-scan.
+     *
+     * @param files estimated image files below the root
+     * @param bytes estimated size of those files
+     * @param directoriesListed directory listings the pre-scan made
+     * @param exact whether every directory was listed
+     * @param elapsedMillis time the pre-scan took
+     */
+    public record Estimate(long files, long bytes, int directoriesListed, boolean exact, long elapsedMillis) {
+    }
+
+    /**
+     * Estimate the image files below {@code rootPath}.
+     *
+     * @throws Exception if the root itself cannot be listed
+     */
+    public Estimate estimate(String rootPath) throws Exception {
+        long start = System.nanoTime();
+        listings = 0;
+
+        long files = 0;
+        long bytes = 0;
+        Deque<String> queue = new ArrayDeque<>();
+        if (!CrawlPaths.isIgnoredPath(rootPath)) {
+            queue.add(rootPath);
+        }
+        int exactBudget = Math.max(1, maxListings / 2);
+        boolean root = true;
+        while (!queue.isEmpty() && listings < exactBudget) {
+            Listing listing = list(queue.poll(), root);
+            root = false;
+            files += listing.files;
+            bytes += listing.bytes;
+            queue.addAll(listing.subdirectories);
+        }
+        if (queue.isEmpty()) {
+            return new Estimate(files, bytes, listings, true, elapsedMillis(start));
+        }
+
+        List<String> frontier = new ArrayList<>(queue);
+        double probeFiles = 0;
+        double probeBytes = 0;
+        int probes = 0;
+        while (probes == 0 || listings < maxListings) {
+            double[] probe = probe(frontier.get(random.nextInt(frontier.size())));
+            probeFiles += probe[0];
+            probeBytes += probe[1];
+            probes++;
+        }
+        files += Math.round(probeFiles / probes * frontier.size());
+        bytes += Math.round(probeBytes / probes * frontier.size());
+        return new Estimate(files, bytes, listings, false, elapsedMillis(start));
+    }
+
+    /**
+     * One random descent from {@code directory}.
+     *
+     * @return estimated files and bytes of the subtree
+     */
+    private double[] probe(String directory) throws Exception {
+        double weight = 1;
+        double files = 0;
+        double bytes = 0;
+        String current = directory;
+        for (int depth = 0; depth < MAX_PROBE_DEPTH; depth++) {
+            Listing listing = list(current, false);
+            files += weight * listing.files;
+            bytes += weight * listing.bytes;
+            if (listing.subdirectories.isEmpty()) {
+                break;
+            }
+            weight *= listing.subdirectories.size();
+            current = listing.subdirectories.get(random.nextInt(listing.subdirectories.size()));
+        }
+        return new double[] {files, bytes};
+    }
+
+    private Listing list(String relativePath, boolean root) throws Exception {
+        listings++;
+        long[] totals = new long[2];
+        List<String> subdirectories = new ArrayList<>();
+        try {
+            provider.streamDirectory(relativePath, entry -> {
+                String name = entry.getName();
+                if (name == null || name.isEmpty()) {
+                    return true;
+                }
+                if (Boolean.TRUE.equals(entry.getIsDirectory())) {
+                    String child = CrawlPaths.childPath(relativePath, name);
+                    if (!CrawlPaths.isIgnoredPath(child)) {
+                        subdirectories.add(child);
+                    }
+                } else if (CrawlPaths.isImageFile(entry)) {
+                    totals[0]++;
+                    totals[1] += entry.getSize() != null ? entry.getSize() : 0L;
+                }
+                return true;
+            });
+        } catch (Exception e) {
+            if (root) {
+                throw e;
+            }
+            return new Listing(0, 0, List.of());
+        }
+        return new Listing(totals[0], totals[1], subdirectories);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private record Listing(long files, long bytes, List<String> subdirectories) {
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CrawlFrontier.java
+ * Version: 0.1.0
+ * Turns: 36
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T14:10:00Z
+ * Exports: CrawlFrontier
+ * Description: class CrawlFrontier for tracking which directories of a crawl are pending or done so it can be checkpointed. Methods: start - register the crawl root; resume - rebuild from a checkpoint; discover - register subdirectories; retain - count an item in flight; release - finish an item or listing; drain - changes since the last checkpoint; restore - requeue changes of a failed checkpoint; doneCount - directories already done when resumed.
+ */
+
+package com.picturemodel.service.crawler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Directory-level progress of one crawl, checkpointed so an interrupted crawl can
+ * resume where it stopped.
+ *
+ * <p>A directory is pending from the moment it is discovered. It becomes done once
+ * it has been listed and every image submitted from it has been written to the
+ * database or skipped, so resuming never loses a file that was still in the
+ * pipeline or the batch writer. Each listing holds one reference on its directory
+ * and each submitted item another; the last {@link #release} completes it.</p>
+ *
+ * <p>{@link #drain} hands out directories discovered and completed since the last
+ * checkpoint. Completions are drained before discoveries, so a checkpoint never
+ * marks a directory done without also recording the subdirectories it found.</p>
+ */
+public class CrawlFrontier {
+
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Queue<String> discovered = new ConcurrentLinkedQueue<>();
+    private final Queue<String> completed = new ConcurrentLinkedQueue<>();
+    private final int doneCount;
+
+    private CrawlFrontier(int doneCount) {
+        this.doneCount = doneCount;
+    }
+
+    /**
+     * Directories discovered and completed since the previous checkpoint.
+     */
+    public record Checkpoint(List<String> discovered, List<String> completed) {
+        public boolean isEmpty() {
+            return discovered.isEmpty() && completed.isEmpty();
+        }
+    }
+
+    /**
+     * Frontier for a new crawl starting at {@code rootPath}.
+     */
+    public static CrawlFrontier start(String rootPath) {
+        CrawlFrontier frontier = new CrawlFrontier(0);
+        frontier.discover(List.of(rootPath));
+        return frontier;
+    }
+
+    /**
+     * Frontier rebuilt from a checkpoint. Directories already recorded are not
+     * reported again when a pending parent is re-listed.
+     *
+     * @param pending directories recorded but not done; crawled again
+     * @param done directories recorded as done; skipped
+     */
+    public static CrawlFrontier resume(Collection<String> pending, Collection<String> done) {
+        CrawlFrontier frontier = new CrawlFrontier(done.size());
+        frontier.known.addAll(pending);
+        frontier.known.addAll(done);
+        return frontier;
+    }
+
+    /**
+     * Register subdirectories found by a listing.
+     *
+     * @return the subdirectories that were not known yet and should be crawled
+     */
+    public List<String> discover(List<String> directories) {
+        List<String> added = new ArrayList<>(directories.size());
+        for (String directory : directories) {
+            if (known.add(directory)) {
+                discovered.add(directory);
+                added.add(directory);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Take the listing reference on a directory before it is crawled.
+     */
+    public void begin(String directory) {
+        inFlight.put(directory, new AtomicInteger(1));
+    }
+
+    /**
+     * Count an item submitted from a directory that is being listed.
+     */
+    public void retain(String directory) {
+        AtomicInteger references = inFlight.get(directory);
+        if (references != null) {
+            references.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drop a reference: the directory's listing finished, or one of its items was
+     * written or skipped.
+     */
+    public void release(String directory) {
+        AtomicInteger references = inFlight.get(directory);
+        if (references != null && references.decrementAndGet() == 0) {
+            inFlight.remove(directory);
+            completed.add(directory);
+        }
+    }
+
+    /**
+     * Take the changes to record in the next checkpoint.
+     */
+    public Checkpoint drain() {
+        List<String> done = drainQueue(completed);
+        List<String> found = drainQueue(discovered);
+        return new Checkpoint(found, done);
+    }
+
+    /**
+     * Put back the changes of a checkpoint that could not be written.
+     */
+    public void restore(Checkpoint checkpoint) {
+        discovered.addAll(checkpoint.discovered());
+        completed.addAll(checkpoint.completed());
+    }
+
+    /**
+     * @return directories that were already done when the crawl was resumed
+     */
+    public int doneCount() {
+        return doneCount;
+    }
+
+    private static List<String> drainQueue(Queue<String> queue) {
+        List<String> drained = new ArrayList<>();
+        String directory;
+        while ((directory = queue.poll()) != null) {
+            drained.add(directory);
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CrawlItem.java
+ * Version: 0.1.5
+ * Turns: 29,31,33,36,46,48
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:10:00Z
+ * Exports: CrawlItem
+ * Description: class CrawlItem for one image file moving through the crawl pipeline. Methods: isNew - no indexed row yet; needsHash - content hash required.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.domain.entity.Image;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import com.picturemodel.infrastructure.filesystem.FileInfo;
+import com.picturemodel.service.ExifExtractorService;
+import lombok.Data;
+
+/**
+ * Mutable work item carried from the listing stage through hashing, EXIF
+ * extraction, perceptual hashing and persistence. Each stage fills in the fields it owns.
+ */
+@Data
+public class CrawlItem {
+
+    /**
+     * Path relative to the drive root.
+     */
+    private final String relativePath;
+
+    /**
+     * Listing entry the item was discovered from.
+     */
+    private final FileInfo entry;
+
+    /**
+     * Directory the item was listed from, used to track checkpoint progress.
+     */
+    private String directory;
+
+    /**
+     * Indexed image for this path, or null when the file is new.
+     */
+    private Image existing;
+
+    /**
+     * Whether the indexed row must be rewritten: size, modified date or MIME type
+     * differ, or the row is marked deleted.
+     */
+    private boolean changed;
+
+    /**
+     * Whether the EXIF stage should read this file.
+     */
+    private boolean extractExif;
+
+    /**
+     * Content hash, computed by the hash stage or carried over when the file
+     * content is known to be unchanged.
+     */
+    private String fileHash;
+
+    /**
+     * Algorithm that produced {@link #fileHash}.
+     */
+    private HashAlgorithm hashAlgorithm;
+
+    /**
+     * MIME type detected from the file's first bytes by the hash stage, or null
+     * when the file was not read or content sniffing is off.
+     */
+    private String sniffedMimeType;
+
+    /**
+     * EXIF result computed by the EXIF stage.
+     */
+    private ExifExtractorService.ExifExtractionResult exif;
+
+    /**
+     * Whether the perceptual-hash stage should decode this file.
+     */
+    private boolean computePerceptualHash;
+
+    /**
+     * File bytes kept by the hash stage for the perceptual-hash stage to decode,
+     * or null when the file was not read in full or did not fit the capture budget.
+     * Cleared once decoded.
+     */
+    private byte[] content;
+
+    /**
+     * Perceptual hash computed by the perceptual-hash stage, or null when the
+     * file could not be decoded.
+     */
+    private Long perceptualHash;
+
+    public boolean isNew() {
+        return existing == null;
+    }
+
+    public boolean needsHash() {
+        return (existing == null || changed) && fileHash == null;
+    }
+}
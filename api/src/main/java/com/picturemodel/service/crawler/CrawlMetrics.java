@@ -0,0 +1,80 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CrawlMetrics.java
+ * Version: 0.1.0
+ * Turns: 47
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:40:00Z
+ * Exports: CrawlMetrics
+ * Description: class CrawlMetrics for the Micrometer meters of one crawl. Methods: timed - time a pipeline stage handler; fileProcessed - count a processed file; getFlushTimer - timer for database batch writes.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.domain.entity.RemoteFileDrive;
+import com.picturemodel.infrastructure.metrics.DriveMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters a crawl or change batch records, tagged with its drive: files processed
+ * ({@link DriveMetrics#CRAWLER_FILES}), time per item in each pipeline stage
+ * ({@link DriveMetrics#CRAWLER_STAGE}) and time per database batch
+ * ({@link DriveMetrics#CRAWLER_FLUSH}). Meters are shared by every crawl of the
+ * drive; this class only resolves them once so the hot path does not look them
+ * up in the registry.
+ */
+public class CrawlMetrics {
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Counter files;
+
+    @Getter
+    private final Timer flushTimer;
+
+    public CrawlMetrics(MeterRegistry registry, RemoteFileDrive drive) {
+        this.registry = registry;
+        this.tags = DriveMetrics.tags(drive);
+        this.files = Counter.builder(DriveMetrics.CRAWLER_FILES)
+                .description("Files processed by crawls")
+                .tags(tags)
+                .register(registry);
+        this.flushTimer = Timer.builder(DriveMetrics.CRAWLER_FLUSH)
+                .description("Time to write a batch of crawled images to the database")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * Wrap a stage handler so the time it spends on each item is recorded under the stage's name.
+     */
+    public <T> CrawlPipeline.StageHandler<T> timed(String stage, CrawlPipeline.StageHandler<T> handler) {
+        Timer timer = Timer.builder(DriveMetrics.CRAWLER_STAGE)
+                .description("Time a crawl pipeline stage spends per file")
+                .tags(tags)
+                .tag("stage", stage)
+                .register(registry);
+        return item -> {
+            long start = System.nanoTime();
+            try {
+                return handler.handle(item);
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * Count a file the crawl has finished with, changed or not.
+     */
+    public void fileProcessed() {
+        files.increment();
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CrawlPaths.java
+ * Version: 0.1.1
+ * Turns: 37,48
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:10:00Z
+ * Exports: CrawlPaths
+ * Description: class CrawlPaths for the path rules shared by crawls and pre-scans. Methods: normalizeRoot - crawl root relative to the drive; childPath - join a relative path and a name; isIgnoredPath - path below a skipped directory; isIgnoredName - system, hidden or temporary entry; isImageFile - listing entry to index.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.infrastructure.filesystem.FileInfo;
+import com.picturemodel.infrastructure.filesystem.ImageContentTypes;
+
+import java.util.Set;
+
+/**
+ * Which entries of a drive a crawl visits and indexes. Crawls and the pre-scan
+ * that estimates their size apply the same rules so the estimate counts the
+ * files the crawl will count.
+ */
+public final class CrawlPaths {
+
+    private static final Set<String> IGNORED_ROOT_NAMES = Set.of(
+            "$RECYCLE.BIN",
+            "SYSTEM VOLUME INFORMATION",
+            ".TRASHES",
+            ".SPOTLIGHT-V100",
+            "RECYCLER",
+            "$WINDOWS.~BT",
+            "$WINDOWS.~WS",
+            "RECOVERY",
+            "MSOCACHE",
+            "PERFLOGS",
+            "WINDOWSIMAGEBACKUP",
+            "CONFIG.MSI",
+            "FOUND.000",
+            "FOUND.001"
+    );
+
+    private CrawlPaths() {
+    }
+
+    /**
+     * Resolve a requested crawl root to a path relative to the drive root.
+     *
+     * @return relative path without a leading separator, empty for the drive root
+     */
+    public static String normalizeRoot(String rootPath, String driveRootPath) {
+        if (rootPath == null) {
+            return "";
+        }
+        String trimmed = rootPath.trim();
+        if (trimmed.isEmpty() || "/".equals(trimmed)) {
+            return "";
+        }
+        String driveRoot = driveRootPath != null ? driveRootPath.trim() : "";
+        if (!driveRoot.isEmpty()) {
+            String normalizedRoot = stripTrailingSeparators(trimmed);
+            String normalizedDriveRoot = stripTrailingSeparators(driveRoot);
+            if (normalizedRoot.equals(normalizedDriveRoot)) {
+                return "";
+            }
+            if (normalizedRoot.startsWith(normalizedDriveRoot + "/")
+                    || normalizedRoot.startsWith(normalizedDriveRoot + "\\")) {
+                trimmed = normalizedRoot.substring(normalizedDriveRoot.length());
+            }
+        }
+        if (trimmed.startsWith("/") || trimmed.startsWith("\\")) {
+            return trimmed.substring(1);
+        }
+        return trimmed;
+    }
+
+    public static String childPath(String relativePath, String entryName) {
+        return relativePath.isEmpty() ? entryName : relativePath + "/" + entryName;
+    }
+
+    /**
+     * Whether any segment of the path is an ignored name.
+     */
+    public static boolean isIgnoredPath(String path) {
+        if (path == null || path.isBlank()) {
+            return false;
+        }
+        String normalized = path.replace('\\', '/');
+        String[] parts = normalized.split("/");
+        for (String part : parts) {
+            if (isIgnoredName(part)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isIgnoredName(String name) {
+        if (name == null) {
+            return false;
+        }
+        String trimmed = name.trim();
+        String upper = trimmed.toUpperCase();
+
+        // Check against known system directories
+        if (IGNORED_ROOT_NAMES.contains(upper)) {
+            return true;
+        }
+
+        // Skip hidden files/directories (starting with .)
+        if (trimmed.startsWith(".")) {
+            return true;
+        }
+
+        // Skip temp files and Office lock files
+        if (trimmed.startsWith("~$") || trimmed.startsWith("~")) {
+            return true;
+        }
+
+        // Skip thumbs.db and desktop.ini
+        if (upper.equals("THUMBS.DB") || upper.equals("DESKTOP.INI")) {
+            return true;
+        }
+
+        return false;
+    }
+
+    public static boolean isImageFile(FileInfo entry) {
+        if (entry.getMimeType() != null) {
+            return entry.getMimeType().startsWith("image/");
+        }
+        return ImageContentTypes.isImageFileName(entry.getName());
+    }
+
+    private static String stripTrailingSeparators(String path) {
+        if (path == null || path.isEmpty()) {
+            return "";
+        }
+        int end = path.length();
+        while (end > 1) {
+            char c = path.charAt(end - 1);
+            if (c == '/' || c == '\\') {
+                end -= 1;
+            } else {
+                break;
+            }
+        }
+        return path.substring(0, end);
+    }
+}
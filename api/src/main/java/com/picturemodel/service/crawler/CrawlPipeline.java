@@ -0,0 +1,269 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CrawlPipeline.java
+ * Version: 0.1.0
+ * Turns: 29
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T10:10:00Z
+ * Exports: CrawlPipeline
+ * Description: class CrawlPipeline for staged crawl processing over bounded queues. Methods: addStage - register a stage; start - start workers; submit - hand an item to the first stage; abort - drop queued work; finish - drain and join workers; throwIfFailed - surface a stage failure; snapshot - per-stage stats.
+ */
+
+package com.picturemodel.service.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A chain of crawl stages connected by bounded queues. Each stage has its own
+ * worker threads; a full queue blocks the upstream producer, so a slow stage
+ * (network, CPU or database) throttles the stages feeding it instead of letting
+ * work pile up in memory.
+ *
+ * <p>A stage registered with zero threads runs inline on whichever thread hands
+ * it an item. This is used for drives whose provider cannot serve concurrent
+ * reads.</p>
+ *
+ * <p>Any exception escaping a stage handler is treated as fatal: the pipeline
+ * aborts, queued items are dropped and {@link #throwIfFailed()} rethrows it.
+ * Handlers that want to skip a single item should catch and return {@code null}.</p>
+ *
+ * @param <T> item type flowing through the stages
+ */
+@Slf4j
+public class CrawlPipeline<T> {
+
+    private static final long OFFER_TIMEOUT_MS = 200;
+    private static final Object END = new Object();
+
+    private final String name;
+    private final List<Stage<T>> stages = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean aborted;
+    private boolean started;
+
+    public CrawlPipeline(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Handler for a single stage.
+     */
+    @FunctionalInterface
+    public interface StageHandler<T> {
+
+        /**
+         * Process an item.
+         *
+         * @param item the item to process
+         * @return the item to pass to the next stage, or null to drop it
+         * @throws Exception to abort the whole pipeline
+         */
+        T handle(T item) throws Exception;
+    }
+
+    /**
+     * Append a stage.
+     *
+     * @param stageName name used for threads and stats
+     * @param threads worker threads, or 0 to run inline on the producer thread
+     * @param queueCapacity bounded queue size in front of the stage
+     * @param handler stage logic
+     * @return this pipeline
+     */
+    public CrawlPipeline<T> addStage(String stageName, int threads, int queueCapacity, StageHandler<T> handler) {
+        if (started) {
+            throw new IllegalStateException("Pipeline already started: " + name);
+        }
+        stages.add(new Stage<>(stageName, Math.max(0, threads), Math.max(1, queueCapacity), handler));
+        return this;
+    }
+
+    public void start() {
+        started = true;
+        for (int i = 0; i < stages.size(); i++) {
+            Stage<T> stage = stages.get(i);
+            stage.stats.start();
+            int nextIndex = i + 1;
+            for (int t = 0; t < stage.threads; t++) {
+                Thread worker = new Thread(() -> runWorker(stage, nextIndex), name + "-" + stage.name + "-" + t);
+                worker.setDaemon(true);
+                stage.workers.add(worker);
+                worker.start();
+            }
+        }
+    }
+
+    /**
+     * Hand an item to the first stage, blocking while its queue is full.
+     *
+     * @throws IllegalStateException if a stage has failed
+     */
+    public void submit(T item) throws InterruptedException {
+        forward(0, item);
+    }
+
+    /**
+     * Stop accepting work and drop anything still queued. Workers exit once
+     * {@link #finish()} is called.
+     */
+    public void abort() {
+        aborted = true;
+        for (Stage<T> stage : stages) {
+            stage.queue.clear();
+        }
+    }
+
+    /**
+     * Signal end of input and wait for each stage to drain, in order.
+     */
+    public void finish() throws InterruptedException {
+        for (Stage<T> stage : stages) {
+            for (int t = 0; t < stage.threads; t++) {
+                while (!stage.queue.offer(END, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (aborted) {
+                        stage.queue.clear();
+                    }
+                }
+            }
+            for (Thread worker : stage.workers) {
+                worker.join();
+            }
+            stage.stats.stop();
+        }
+    }
+
+    /**
+     * Rethrow the first fatal stage failure, if any.
+     */
+    public void throwIfFailed() throws Exception {
+        Throwable error = failure.get();
+        if (error == null) {
+            return;
+        }
+        if (error instanceof Exception exception) {
+            throw exception;
+        }
+        throw new IllegalStateException("Crawl pipeline " + name + " failed", error);
+    }
+
+    public List<StageStats.Snapshot> snapshot() {
+        List<StageStats.Snapshot> snapshots = new ArrayList<>(stages.size());
+        for (Stage<T> stage : stages) {
+            snapshots.add(stage.stats.snapshot());
+        }
+        return snapshots;
+    }
+
+    private void forward(int index, T item) throws InterruptedException {
+        T current = item;
+        for (int i = index; i < stages.size() && current != null; i++) {
+            if (failure.get() != null) {
+                throw new IllegalStateException("Crawl pipeline " + name + " failed", failure.get());
+            }
+            if (aborted) {
+                return;
+            }
+            Stage<T> stage = stages.get(i);
+            if (stage.threads > 0) {
+                enqueue(stage, current);
+                return;
+            }
+            current = process(stage, current);
+        }
+    }
+
+    private void enqueue(Stage<T> stage, T item) throws InterruptedException {
+        if (stage.queue.offer(item)) {
+            return;
+        }
+        long waitStart = System.nanoTime();
+        try {
+            while (!stage.queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                if (aborted) {
+                    return;
+                }
+            }
+        } finally {
+            stage.stats.recordProducerWait(System.nanoTime() - waitStart);
+        }
+    }
+
+    private T process(Stage<T> stage, T item) {
+        long start = System.nanoTime();
+        try {
+            return stage.handler.handle(item);
+        } catch (Exception e) {
+            fail(stage, e);
+            return null;
+        } finally {
+            stage.stats.recordItem(System.nanoTime() - start);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runWorker(Stage<T> stage, int nextIndex) {
+        try {
+            while (true) {
+                Object next = stage.queue.take();
+                if (next == END) {
+                    return;
+                }
+                if (aborted) {
+                    continue;
+                }
+                T result = process(stage, (T) next);
+                if (result != null) {
+                    forward(nextIndex, result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            fail(stage, e);
+            // Keep consuming so finish() can still deliver END markers.
+            drainUntilEnd(stage);
+        }
+    }
+
+    private void drainUntilEnd(Stage<T> stage) {
+        try {
+            while (stage.queue.take() != END) {
+                // discard
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fail(Stage<T> stage, Throwable error) {
+        if (failure.compareAndSet(null, error)) {
+            log.error("Crawl pipeline {} stage '{}' failed", name, stage.name, error);
+        }
+        abort();
+    }
+
+    private static final class Stage<T> {
+        private final String name;
+        private final int threads;
+        private final BlockingQueue<Object> queue;
+        private final StageHandler<T> handler;
+        private final StageStats stats;
+        private final List<Thread> workers = new ArrayList<>();
+
+        private Stage(String name, int threads, int queueCapacity, StageHandler<T> handler) {
+            this.name = name;
+            this.threads = threads;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.handler = handler;
+            this.stats = new StageStats(name, threads, threads > 0 ? queueCapacity : 0, queue::size);
+        }
+    }
+}
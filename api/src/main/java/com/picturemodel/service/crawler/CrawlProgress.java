@@ -0,0 +1,104 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CrawlProgress.java
+ * Version: 0.1.0
+ * Turns: 37
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T14:40:00Z
+ * Exports: CrawlProgress
+ * Description: class CrawlProgress for turning a running crawl's counters into rates and a remaining time. Methods: update - record counters and return the current rates and ETA.
+ */
+
+package com.picturemodel.service.crawler;
+
+/**
+ * Throughput and remaining time of a running crawl.
+ *
+ * <p>Rates are averaged over the whole run until one window has passed, then
+ * smoothed with an exponentially weighted moving average over roughly that
+ * window, so the ETA follows the drive's current speed (e.g. once the crawl
+ * leaves a folder of already indexed files) without jumping on every update.
+ * The remaining time is the estimated files not yet listed over the listing
+ * rate.</p>
+ */
+public class CrawlProgress {
+
+    private static final long MIN_SAMPLE_NANOS = 1_000_000_000L;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final long estimatedFiles;
+    private final long windowNanos;
+    private final long startNanos;
+    private final long startFiles;
+    private final long startBytes;
+
+    private long lastNanos;
+    private long lastFiles;
+    private long lastBytes;
+    private double filesPerSecond;
+    private double bytesPerSecond;
+    private Snapshot snapshot = new Snapshot(0, 0, null);
+
+    /**
+     * @param estimatedFiles estimated image files the crawl lists in total, 0 if unknown
+     * @param windowMillis smoothing window for the rates
+     * @param startFiles files already listed when this run started
+     * @param startBytes bytes already read when this run started
+     */
+    public CrawlProgress(long estimatedFiles, long windowMillis, long startFiles, long startBytes) {
+        this.estimatedFiles = estimatedFiles;
+        this.windowNanos = Math.max(MIN_SAMPLE_NANOS, windowMillis * 1_000_000L);
+        this.startNanos = System.nanoTime();
+        this.startFiles = startFiles;
+        this.startBytes = startBytes;
+        this.lastNanos = startNanos;
+        this.lastFiles = startFiles;
+        this.lastBytes = startBytes;
+    }
+
+    /**
+     * Current rates and remaining time.
+     *
+     * @param etaSeconds seconds until all estimated files are listed, or null if
+     *                   unknown or the estimate has already been passed
+     */
+    public record Snapshot(double filesPerSecond, double bytesPerSecond, Long etaSeconds) {
+    }
+
+    /**
+     * Record the crawl's counters. Calls less than a second apart return the
+     * previous snapshot.
+     *
+     * @param files image files listed so far, including earlier runs
+     * @param bytes bytes read so far, including earlier runs
+     */
+    public synchronized Snapshot update(long files, long bytes) {
+        long now = System.nanoTime();
+        long sinceLast = now - lastNanos;
+        if (sinceLast < MIN_SAMPLE_NANOS) {
+            return snapshot;
+        }
+
+        long elapsed = now - startNanos;
+        if (elapsed <= windowNanos) {
+            filesPerSecond = (files - startFiles) / (elapsed / NANOS_PER_SECOND);
+            bytesPerSecond = (bytes - startBytes) / (elapsed / NANOS_PER_SECOND);
+        } else {
+            double alpha = 1 - Math.exp(-(double) sinceLast / windowNanos);
+            filesPerSecond += alpha * ((files - lastFiles) / (sinceLast / NANOS_PER_SECOND) - filesPerSecond);
+            bytesPerSecond += alpha * ((bytes - lastBytes) / (sinceLast / NANOS_PER_SECOND) - bytesPerSecond);
+        }
+        lastNanos = now;
+        lastFiles = files;
+        lastBytes = bytes;
+
+        Long etaSeconds = null;
+        long remaining = estimatedFiles - files;
+        if (estimatedFiles > 0 && remaining > 0 && filesPerSecond > 0) {
+            etaSeconds = Math.round(remaining / filesPerSecond);
+        }
+        snapshot = new Snapshot(filesPerSecond, bytesPerSecond, etaSeconds);
+        return snapshot;
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: DirectoryManifest.java
+ * Version: 0.1.1
+ * Turns: 39,49
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:40:00Z
+ * Exports: DirectoryManifest
+ * Description: class DirectoryManifest for comparing directory listings with what the last crawl recorded and collecting the changes to persist. Methods: get - recorded row of a directory; recordedSubdirectories - recorded children of a row; record - stage a freshly listed directory; invalidate - drop a directory that did not index cleanly; removeMissing - drop subdirectories that disappeared; complete - release staged changes of finished directories; drain - changes to write; restore - requeue changes that could not be written; fingerprint - a listing entry's share of the listing hash; mtimeMillis - timestamp as epoch millis.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.domain.repository.DirectoryManifestRepository.ManifestRow;
+import com.picturemodel.infrastructure.filesystem.FileInfo;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The directory manifest of one crawl: the rows the previous crawls recorded,
+ * read-only, plus the rows this crawl stages as it lists directories.
+ *
+ * <p>A staged row only becomes ready to write once its directory is done in the
+ * {@link CrawlFrontier}, i.e. every image submitted from it has been written. A
+ * row therefore never claims a directory is indexed while its files are still in
+ * the pipeline, and a directory with a file that failed to index is dropped from
+ * the manifest instead, so the next crawl lists it again.</p>
+ *
+ * <p>Recorded subdirectories are derived from the rows themselves. When they do
+ * not add up to the parent's recorded subdirectory count (a child that failed to
+ * list, or was never recorded) the parent cannot be replayed from the manifest and
+ * must be listed.</p>
+ */
+public class DirectoryManifest {
+
+    private final Map<String, ManifestRow> recorded;
+    private final Map<String, List<String>> children;
+    private final Map<String, ManifestRow> staged = new ConcurrentHashMap<>();
+    private final Set<String> invalid = ConcurrentHashMap.newKeySet();
+    private final Queue<ManifestRow> readyWrites = new ConcurrentLinkedQueue<>();
+    private final Queue<String> readyInvalidations = new ConcurrentLinkedQueue<>();
+    private final Queue<String> removedSubtrees = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param previous rows recorded by earlier crawls; empty to only record
+     */
+    public DirectoryManifest(Collection<ManifestRow> previous) {
+        this.recorded = new HashMap<>(Math.max(16, previous.size() * 4 / 3 + 1));
+        this.children = new HashMap<>();
+        for (ManifestRow row : previous) {
+            recorded.put(row.dirPath(), row);
+        }
+        for (String path : recorded.keySet()) {
+            String parent = parent(path);
+            if (parent != null && recorded.containsKey(parent)) {
+                children.computeIfAbsent(parent, key -> new ArrayList<>()).add(path);
+            }
+        }
+    }
+
+    /**
+     * Changes ready to be written.
+     */
+    public record Changes(List<ManifestRow> writes, List<String> removedSubtrees, List<String> invalidated) {
+        public boolean isEmpty() {
+            return writes.isEmpty() && removedSubtrees.isEmpty() && invalidated.isEmpty();
+        }
+    }
+
+    /**
+     * @return the row the previous crawls recorded for a directory, or null
+     */
+    public ManifestRow get(String path) {
+        return recorded.get(path);
+    }
+
+    public int size() {
+        return recorded.size();
+    }
+
+    /**
+     * Subdirectories of a recorded directory, as far as the manifest knows them.
+     *
+     * @return their paths, or null if they do not match the row's subdirectory count
+     */
+    public List<String> recordedSubdirectories(ManifestRow row) {
+        List<String> paths = children.getOrDefault(row.dirPath(), List.of());
+        return paths.size() == row.subdirectoryCount() ? paths : null;
+    }
+
+    /**
+     * Stage the row of a directory that was just listed. It is written once the
+     * directory is completed.
+     */
+    public void record(ManifestRow row) {
+        staged.put(row.dirPath(), row);
+    }
+
+    /**
+     * Drop a directory's row because it could not be listed or one of its files
+     * could not be indexed.
+     */
+    public void invalidate(String path) {
+        invalid.add(path);
+    }
+
+    /**
+     * Drop the rows of recorded subdirectories of {@code path} that its new
+     * listing no longer contains, with everything below them.
+     */
+    public void removeMissing(String path, Collection<String> listedSubdirectories) {
+        List<String> previous = children.get(path);
+        if (previous == null) {
+            return;
+        }
+        Set<String> listed = new HashSet<>(listedSubdirectories);
+        for (String child : previous) {
+            if (!listed.contains(child)) {
+                removedSubtrees.add(child);
+            }
+        }
+    }
+
+    /**
+     * Make the staged rows of directories the frontier completed ready to write.
+     */
+    public void complete(Collection<String> completed) {
+        for (String path : completed) {
+            ManifestRow row = staged.remove(path);
+            if (invalid.remove(path)) {
+                readyInvalidations.add(path);
+            } else if (row != null) {
+                readyWrites.add(row);
+            }
+        }
+    }
+
+    /**
+     * Take the changes ready to be written.
+     */
+    public Changes drain() {
+        return new Changes(drainQueue(readyWrites), drainQueue(removedSubtrees), drainQueue(readyInvalidations));
+    }
+
+    /**
+     * Put back changes that could not be written.
+     */
+    public void restore(Changes changes) {
+        readyWrites.addAll(changes.writes());
+        removedSubtrees.addAll(changes.removedSubtrees());
+        readyInvalidations.addAll(changes.invalidated());
+    }
+
+    /**
+     * An image file's share of a listing's fingerprint. A listing's fingerprint is
+     * the sum of the shares of its image files and subdirectories, so it is
+     * order-independent and can be accumulated while the listing streams in. Any
+     * added, removed, renamed, resized or touched entry changes it.
+     */
+    public static long fingerprint(FileInfo imageFile) {
+        return PathHash.hash64("f:" + imageFile.getName() + ":" + imageFile.getSize() + ":"
+                + mtimeMillis(imageFile.getLastModified()));
+    }
+
+    /**
+     * A subdirectory's share of a listing's fingerprint.
+     */
+    public static long fingerprint(String subdirectory) {
+        return PathHash.hash64("d:" + subdirectory);
+    }
+
+    /**
+     * @return the timestamp as epoch milliseconds, or null
+     */
+    public static Long mtimeMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+    }
+
+    private static String parent(String path) {
+        if (path.isEmpty()) {
+            return null;
+        }
+        int slash = path.lastIndexOf('/');
+        return slash >= 0 ? path.substring(0, slash) : "";
+    }
+
+    private static <T> List<T> drainQueue(Queue<T> queue) {
+        List<T> drained = new ArrayList<>();
+        T item;
+        while ((item = queue.poll()) != null) {
+            drained.add(item);
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: DrivePathIndex.java
+ * Version: 0.1.1
+ * Turns: 31,35
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T13:30:00Z
+ * Exports: DrivePathIndex
+ * Description: class DrivePathIndex for compact in-memory lookups of indexed images by path. Methods: add - append a row while loading; find - slot for a path; matches - size/mtime check; getId - image id; getKey - path hash; getCheck - path check value; getHash - stored hash; isDeleted - deleted flag; hasExif - EXIF flag; size - entry count; estimatedBytes - approximate heap use.
+ */
+
+package com.picturemodel.service.crawler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Snapshot of a drive's indexed images keyed by relative path, loaded once at
+ * crawl start so existence and change checks do not hit the database.
+ *
+ * <p>Paths are not stored: each entry keeps a 64-bit path hash and a 32-bit check
+ * value (see {@link PathHash}) in parallel primitive arrays along with file size,
+ * modified time, image ID and the hash bytes, roughly 90 bytes per image.
+ * Lookups go through an open-addressing table of entry numbers.</p>
+ *
+ * <p>Not thread-safe while loading; read-only lookups from any thread afterwards.</p>
+ */
+public class DrivePathIndex {
+
+    private static final int MAX_HASH_BYTES = 32;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final byte DELETED = 1;
+    private static final byte HAS_EXIF = 2;
+
+    private long[] keys;
+    private int[] checks;
+    private long[] sizes;
+    private long[] modifiedMicros;
+    private long[] idHigh;
+    private long[] idLow;
+    private byte[] hashes;
+    private byte[] hashLengths;
+    private byte[] flags;
+    private int count;
+
+    /**
+     * Open-addressing table holding entry number + 1; 0 marks an empty slot.
+     */
+    private int[] table;
+    private int mask;
+
+    public DrivePathIndex(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        keys = new long[capacity];
+        checks = new int[capacity];
+        sizes = new long[capacity];
+        modifiedMicros = new long[capacity];
+        idHigh = new long[capacity];
+        idLow = new long[capacity];
+        hashes = new byte[capacity * MAX_HASH_BYTES];
+        hashLengths = new byte[capacity];
+        flags = new byte[capacity];
+        resizeTable(tableSizeFor(capacity));
+    }
+
+    /**
+     * Add an image while loading. A path already present is ignored.
+     */
+    public void add(UUID id, String path, long size, LocalDateTime modified, String hash, boolean deleted, boolean hasExif) {
+        long key = PathHash.hash64(path);
+        int check = PathHash.check32(path);
+        if (find(key, check) >= 0) {
+            return;
+        }
+        if (count == keys.length) {
+            grow();
+        }
+        int entry = count++;
+        keys[entry] = key;
+        checks[entry] = check;
+        sizes[entry] = size;
+        modifiedMicros[entry] = toMicros(modified);
+        idHigh[entry] = id.getMostSignificantBits();
+        idLow[entry] = id.getLeastSignificantBits();
+        hashLengths[entry] = (byte) decodeHex(hash, hashes, entry * MAX_HASH_BYTES);
+        flags[entry] = (byte) ((deleted ? DELETED : 0) | (hasExif ? HAS_EXIF : 0));
+
+        if (count * 4L > table.length * 3L) {
+            resizeTable(table.length * 2);
+        } else {
+            insert(entry);
+        }
+    }
+
+    /**
+     * @return the entry for a path, or -1 if it is not indexed
+     */
+    public int find(String path) {
+        return find(PathHash.hash64(path), PathHash.check32(path));
+    }
+
+    /**
+     * Whether the listing size and modified time agree with the indexed row.
+     * A missing listing value is treated as unchanged, as the crawler always has.
+     */
+    public boolean matches(int entry, Long size, LocalDateTime modified) {
+        if (size != null && size != sizes[entry]) {
+            return false;
+        }
+        return modified == null || toMicros(modified) == modifiedMicros[entry];
+    }
+
+    public UUID getId(int entry) {
+        return new UUID(idHigh[entry], idLow[entry]);
+    }
+
+    /**
+     * @return the stored hash as lowercase hex, or null if none was recorded
+     */
+    public String getHash(int entry) {
+        int length = hashLengths[entry];
+        if (length == 0) {
+            return null;
+        }
+        char[] hex = new char[length * 2];
+        int offset = entry * MAX_HASH_BYTES;
+        for (int i = 0; i < length; i++) {
+            int b = hashes[offset + i] & 0xff;
+            hex[i * 2] = Character.forDigit(b >>> 4, 16);
+            hex[i * 2 + 1] = Character.forDigit(b & 0xf, 16);
+        }
+        return new String(hex);
+    }
+
+    /**
+     * @return the {@link PathHash#hash64} key of the entry's path
+     */
+    public long getKey(int entry) {
+        return keys[entry];
+    }
+
+    /**
+     * @return the {@link PathHash#check32} value of the entry's path
+     */
+    public int getCheck(int entry) {
+        return checks[entry];
+    }
+
+    public boolean isDeleted(int entry) {
+        return (flags[entry] & DELETED) != 0;
+    }
+
+    public boolean hasExif(int entry) {
+        return (flags[entry] & HAS_EXIF) != 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Approximate heap held by the index arrays.
+     */
+    public long estimatedBytes() {
+        long perEntry = 8L + 4 + 8 + 8 + 8 + 8 + MAX_HASH_BYTES + 1 + 1;
+        return perEntry * keys.length + 4L * table.length;
+    }
+
+    private int find(long key, int check) {
+        int slot = (int) key & mask;
+        while (true) {
+            int stored = table[slot];
+            if (stored == 0) {
+                return -1;
+            }
+            int entry = stored - 1;
+            if (keys[entry] == key && checks[entry] == check) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insert(int entry) {
+        int slot = (int) keys[entry] & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    private void resizeTable(int size) {
+        table = new int[size];
+        mask = size - 1;
+        for (int entry = 0; entry < count; entry++) {
+            insert(entry);
+        }
+    }
+
+    private void grow() {
+        int capacity = keys.length + (keys.length >> 1);
+        keys = Arrays.copyOf(keys, capacity);
+        checks = Arrays.copyOf(checks, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        modifiedMicros = Arrays.copyOf(modifiedMicros, capacity);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        hashes = Arrays.copyOf(hashes, capacity * MAX_HASH_BYTES);
+        hashLengths = Arrays.copyOf(hashLengths, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    private static int tableSizeFor(int entries) {
+        int size = Integer.highestOneBit(Math.max(16, entries * 4 / 3 + 1));
+        return size < entries * 4 / 3 + 1 ? size << 1 : size;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    /**
+     * Decode a hex hash into {@code target}; returns 0 if it is missing, not hex or too long.
+     */
+    private static int decodeHex(String hex, byte[] target, int offset) {
+        if (hex == null || hex.isEmpty() || (hex.length() & 1) != 0 || hex.length() > MAX_HASH_BYTES * 2) {
+            return 0;
+        }
+        int length = hex.length() / 2;
+        for (int i = 0; i < length; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return 0;
+            }
+            target[offset + i] = (byte) ((high << 4) | low);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: HashingInputStream.java
+ * Version: 0.1.1
+ * Turns: 32,33
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T12:30:00Z
+ * Exports: HashingInputStream
+ * Description: class HashingInputStream for hashing a stream while another reader consumes it. Methods: drain - digest the unread remainder; digest - finish the hash.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.service.hashing.StreamingHash;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Feeds every byte that passes through it into a {@link StreamingHash}, so a file
+ * can be parsed (e.g. for EXIF) and hashed from a single read. Unlike
+ * {@link java.security.DigestInputStream}, skipped bytes are read and digested
+ * too, and mark/reset is not supported, so the digest always covers the file
+ * exactly once and in order.
+ */
+public class HashingInputStream extends FilterInputStream {
+
+    private static final int DRAIN_BUFFER_SIZE = 64 * 1024;
+
+    private final StreamingHash hash;
+
+    public HashingInputStream(InputStream in, StreamingHash hash) {
+        super(in);
+        this.hash = hash;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            hash.update((byte) b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = in.read(buffer, offset, length);
+        if (read > 0) {
+            hash.update(buffer, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] buffer = new byte[(int) Math.min(DRAIN_BUFFER_SIZE, n)];
+        long remaining = n;
+        while (remaining > 0) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        // Not supported: re-reading would digest bytes twice.
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * Read and digest whatever the consumer left unread.
+     */
+    public void drain() throws IOException {
+        byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+        while (read(buffer, 0, buffer.length) >= 0) {
+            // digested in read
+        }
+    }
+
+    /**
+     * Complete the hash. Call after {@link #drain()}.
+     */
+    public byte[] digest() {
+        return hash.finish();
+    }
+}
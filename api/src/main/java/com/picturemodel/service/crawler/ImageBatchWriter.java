@@ -0,0 +1,213 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: ImageBatchWriter.java
+ * Version: 0.1.3
+ * Turns: 30,36,44,47
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:40:00Z
+ * Exports: ImageBatchWriter
+ * Description: class ImageBatchWriter for buffering crawled images into bulk writes. Methods: add - buffer a write, with an optional commit callback, and flush when full; flush - write buffered rows; close - stop the timer and write what is left.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.domain.repository.ImageBulkRepository;
+import com.picturemodel.domain.repository.ImageBulkRepository.ImageWrite;
+import com.picturemodel.domain.repository.ImageBulkRepository.MetadataChurn;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Collects image writes for one crawl and hands them to {@link ImageBulkRepository}
+ * in batches. A batch is flushed when it reaches {@code batchSize} rows or when its
+ * oldest row has waited {@code flushIntervalMs}, so slow listings still make steady
+ * progress.
+ *
+ * <p>Safe for use from several persist threads; batches taken by different threads
+ * are written concurrently. A failed timed flush is rethrown by the next
+ * {@link #add} or by {@link #close}. A write may carry a callback that runs once
+ * its batch has been committed, which crawl checkpoints use to know a file is
+ * durable. The metadata rows each committed batch churned are reported to an
+ * optional listener, and the time each batch took to an optional timer.</p>
+ */
+@Slf4j
+public class ImageBatchWriter implements AutoCloseable {
+
+    private final ImageBulkRepository bulkRepository;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Consumer<MetadataChurn> churnListener;
+    private final Timer flushTimer;
+    private final ScheduledExecutorService timer;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private List<PendingWrite> buffer = new ArrayList<>();
+    private long oldestNanos;
+
+    /**
+     * @param name thread name prefix for the flush timer
+     * @param bulkRepository target repository
+     * @param batchSize rows per flush
+     * @param flushIntervalMs maximum age of a buffered row, or 0 to flush on size only
+     * @param churnListener receives the metadata rows written by each committed batch, or null
+     * @param flushTimer records the time to write each batch, or null
+     */
+    public ImageBatchWriter(
+            String name,
+            ImageBulkRepository bulkRepository,
+            int batchSize,
+            long flushIntervalMs,
+            Consumer<MetadataChurn> churnListener,
+            Timer flushTimer
+    ) {
+        this.bulkRepository = bulkRepository;
+        this.churnListener = churnListener;
+        this.flushTimer = flushTimer;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushIntervalMs));
+        if (flushIntervalMs > 0) {
+            this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name + "-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(10, flushIntervalMs / 2);
+            timer.scheduleWithFixedDelay(this::flushIfStale, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.timer = null;
+        }
+    }
+
+    private record PendingWrite(ImageWrite write, Runnable onWritten) {
+    }
+
+    /**
+     * Buffer a write, flushing on the calling thread if the batch is full.
+     */
+    public void add(ImageWrite write) {
+        add(write, null);
+    }
+
+    /**
+     * Buffer a write, flushing on the calling thread if the batch is full.
+     *
+     * @param onWritten run after the write's batch is committed, or null
+     */
+    public void add(ImageWrite write, Runnable onWritten) {
+        throwIfFailed();
+        List<PendingWrite> batch = null;
+        synchronized (this) {
+            if (buffer.isEmpty()) {
+                oldestNanos = System.nanoTime();
+            }
+            buffer.add(new PendingWrite(write, onWritten));
+            if (buffer.size() >= batchSize) {
+                batch = takeBuffer();
+            }
+        }
+        if (batch != null) {
+            write(batch);
+        }
+    }
+
+    /**
+     * Write everything currently buffered.
+     */
+    public void flush() {
+        List<PendingWrite> batch;
+        synchronized (this) {
+            batch = takeBuffer();
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * Stop the flush timer and write any remaining rows.
+     */
+    @Override
+    public void close() {
+        if (timer != null) {
+            timer.shutdown();
+            try {
+                timer.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        throwIfFailed();
+        flush();
+    }
+
+    /**
+     * Drop buffered rows without writing them.
+     */
+    public synchronized void discard() {
+        buffer = new ArrayList<>();
+    }
+
+    private void flushIfStale() {
+        List<PendingWrite> batch = null;
+        synchronized (this) {
+            if (!buffer.isEmpty() && System.nanoTime() - oldestNanos >= flushIntervalNanos) {
+                batch = takeBuffer();
+            }
+        }
+        if (batch == null) {
+            return;
+        }
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            log.error("Timed flush of {} crawled images failed", batch.size(), e);
+        }
+    }
+
+    private List<PendingWrite> takeBuffer() {
+        List<PendingWrite> batch = buffer;
+        buffer = new ArrayList<>(batchSize);
+        return batch;
+    }
+
+    private void write(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        List<ImageWrite> writes = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            writes.add(pending.write());
+        }
+        MetadataChurn churn = bulkRepository.writeBatch(writes).metadataChurn();
+        long elapsed = System.nanoTime() - start;
+        if (flushTimer != null) {
+            flushTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        log.debug("Wrote {} crawled images in {} ms ({} metadata rows inserted, {} updated, {} deleted)",
+                batch.size(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                churn.inserted(), churn.updated(), churn.deleted());
+        if (churnListener != null && !churn.isEmpty()) {
+            churnListener.accept(churn);
+        }
+        for (PendingWrite pending : batch) {
+            if (pending.onWritten() != null) {
+                pending.onWritten().run();
+            }
+        }
+    }
+
+    private void throwIfFailed() {
+        RuntimeException error = failure.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: PathHash.java
+ * Version: 0.1.0
+ * Turns: 31
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T11:20:00Z
+ * Exports: PathHash
+ * Description: class PathHash for hashing relative paths into compact keys. Methods: hash64 - 64-bit path key; check32 - independent 32-bit check value.
+ */
+
+package com.picturemodel.service.crawler;
+
+/**
+ * Path hashing for the crawler's in-memory structures. Paths are reduced to a
+ * 64-bit key plus an independent 32-bit check value, so a table can hold millions
+ * of paths without keeping the strings. A false match requires both values to
+ * collide, which is negligible even at tens of millions of paths.
+ */
+public final class PathHash {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private PathHash() {
+    }
+
+    /**
+     * FNV-1a over the UTF-16 code units, finished with the MurmurHash3 64-bit mixer
+     * so low bits are usable as table indexes.
+     */
+    public static long hash64(String path) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+            hash ^= c >>> 8;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Check value computed independently of {@link #hash64(String)}.
+     */
+    public static int check32(String path) {
+        return path.hashCode();
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: SeenPathWriter.java
+ * Version: 0.1.0
+ * Turns: 34
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T13:00:00Z
+ * Exports: SeenPathWriter
+ * Description: class SeenPathWriter for streaming the paths a full crawl lists into the staging table. Methods: add - buffer paths and write full batches; flush - write buffered paths.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.domain.repository.CrawlSeenPathRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Buffers the image paths a full crawl lists and writes them to
+ * {@link CrawlSeenPathRepository} in batches, so the crawler never holds the
+ * drive's path set in memory. Safe for use from several traversal threads.
+ */
+public class SeenPathWriter {
+
+    private final CrawlSeenPathRepository repository;
+    private final UUID jobId;
+    private final int batchSize;
+
+    private List<String> buffer;
+
+    public SeenPathWriter(CrawlSeenPathRepository repository, UUID jobId, int batchSize) {
+        this.repository = repository;
+        this.jobId = jobId;
+        this.batchSize = Math.max(1, batchSize);
+        this.buffer = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * Buffer paths, writing on the calling thread once a batch is full.
+     */
+    public void add(List<String> paths) {
+        List<String> batch = null;
+        synchronized (this) {
+            buffer.addAll(paths);
+            if (buffer.size() >= batchSize) {
+                batch = takeBuffer();
+            }
+        }
+        if (batch != null) {
+            repository.insertPaths(jobId, batch);
+        }
+    }
+
+    /**
+     * Write everything currently buffered.
+     */
+    public void flush() {
+        List<String> batch;
+        synchronized (this) {
+            batch = takeBuffer();
+        }
+        repository.insertPaths(jobId, batch);
+    }
+
+    private List<String> takeBuffer() {
+        List<String> batch = buffer;
+        buffer = new ArrayList<>(batchSize);
+        return batch;
+    }
+}
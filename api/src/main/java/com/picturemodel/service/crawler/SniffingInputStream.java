@@ -0,0 +1,81 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: SniffingInputStream.java
+ * Version: 0.1.0
+ * Turns: 48
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:10:00Z
+ * Exports: SniffingInputStream
+ * Description: class SniffingInputStream for keeping a file's first bytes while another reader consumes it. Methods: contentType - MIME type from the file name and the kept bytes.
+ */
+
+package com.picturemodel.service.crawler;
+
+import com.picturemodel.infrastructure.filesystem.ImageContentTypes;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Copies the first {@link ImageContentTypes#SNIFF_LENGTH} bytes that pass
+ * through it, so the hash stage can check a file's signature from the read it
+ * already does instead of opening the file again.
+ */
+public class SniffingInputStream extends FilterInputStream {
+
+    private final byte[] head = new byte[ImageContentTypes.SNIFF_LENGTH];
+    private int headLength;
+    // Set when bytes were skipped before the head was complete
+    private boolean gap;
+
+    public SniffingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0 && !gap && headLength < head.length) {
+            head[headLength++] = (byte) b;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = in.read(buffer, offset, length);
+        if (read > 0 && !gap && headLength < head.length) {
+            int copied = Math.min(read, head.length - headLength);
+            System.arraycopy(buffer, offset, head, headLength, copied);
+            headLength += copied;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (headLength < head.length) {
+            gap = true;
+        }
+        return in.skip(n);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * MIME type from the file name, confirmed or corrected by the bytes read so far.
+     *
+     * @return the resolved type, or the extension's type if the head was skipped or not recognised
+     */
+    public String contentType(CharSequence fileName) {
+        if (gap) {
+            return ImageContentTypes.forFileName(fileName);
+        }
+        return ImageContentTypes.resolve(fileName, head, headLength);
+    }
+}
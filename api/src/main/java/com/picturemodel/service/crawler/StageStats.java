@@ -0,0 +1,107 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: StageStats.java
+ * Version: 0.1.1
+ * Turns: 29,30
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T10:40:00Z
+ * Exports: StageStats
+ * Description: class StageStats for per-stage crawl throughput accounting. Methods: start - start clock; stop - stop clock; recordItem - record one handled item; recordItems - record a batch; recordProducerWait - record upstream backpressure; snapshot - point-in-time view.
+ */
+
+package com.picturemodel.service.crawler;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Thread-safe counters for one crawl stage. A stage whose producers spend a large
+ * share of their time waiting to enqueue is the current bottleneck.
+ */
+public class StageStats {
+
+    private final String stage;
+    private final int threads;
+    private final int queueCapacity;
+    private final IntSupplier queueDepth;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder producerWaitNanos = new LongAdder();
+    private volatile long startNanos;
+    private volatile long stopNanos;
+
+    public StageStats(String stage, int threads, int queueCapacity, IntSupplier queueDepth) {
+        this.stage = stage;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.queueDepth = queueDepth;
+    }
+
+    public void start() {
+        startNanos = System.nanoTime();
+        stopNanos = 0L;
+    }
+
+    public void stop() {
+        if (startNanos != 0L && stopNanos == 0L) {
+            stopNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Record one item handled by this stage and the time spent on it.
+     */
+    public void recordItem(long nanos) {
+        processed.increment();
+        busyNanos.add(nanos);
+    }
+
+    /**
+     * Record several items handled together, e.g. one batched lookup.
+     */
+    public void recordItems(int count, long nanos) {
+        processed.add(count);
+        busyNanos.add(nanos);
+    }
+
+    /**
+     * Record time an upstream producer spent blocked on this stage's full queue.
+     */
+    public void recordProducerWait(long nanos) {
+        producerWaitNanos.add(nanos);
+    }
+
+    public Snapshot snapshot() {
+        long end = stopNanos != 0L ? stopNanos : System.nanoTime();
+        long elapsedNanos = startNanos != 0L ? Math.max(1L, end - startNanos) : 1L;
+        double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+        long count = processed.sum();
+        double busyPercent = 100.0 * busyNanos.sum() / ((double) elapsedNanos * Math.max(1, threads));
+        return new Snapshot(
+                stage,
+                threads,
+                queueDepth != null ? queueDepth.getAsInt() : 0,
+                queueCapacity,
+                count,
+                count / elapsedSeconds,
+                Math.min(100.0, busyPercent),
+                producerWaitNanos.sum() / 1_000_000L
+        );
+    }
+
+    /**
+     * Point-in-time view of a stage. {@code threads} is 0 for stages that run inline
+     * on their producer's thread.
+     */
+    public record Snapshot(
+            String stage,
+            int threads,
+            int queueDepth,
+            int queueCapacity,
+            long processed,
+            double itemsPerSecond,
+            double busyPercent,
+            long producerWaitMillis
+    ) {}
+}
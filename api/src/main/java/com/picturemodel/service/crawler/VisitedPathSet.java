@@ -0,0 +1,135 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: VisitedPathSet.java
+ * Version: 0.1.0
+ * Turns: 35
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T13:30:00Z
+ * Exports: VisitedPathSet
+ * Description: class VisitedPathSet for recording the paths a full crawl lists in compact memory. Methods: addAll - record a chunk of paths; contains - path lookup; containsHash - lookup by precomputed hash; size - path count; estimatedBytes - approximate heap use.
+ */
+
+package com.picturemodel.service.crawler;
+
+import java.util.List;
+
+/**
+ * Set of relative paths stored as {@link PathHash} values only: a 64-bit key and a
+ * 32-bit check per path in two primitive open-addressing arrays, about 16-32 bytes
+ * per path depending on fill, against roughly 130 bytes for a {@code HashSet<String>}
+ * entry with a typical photo path.
+ *
+ * <p>Paths cannot be read back; membership tests for paths never added return a
+ * false positive only if both hash values collide. Writers add whole directory
+ * chunks under one lock; lookups are meant for after the crawl.</p>
+ */
+public class VisitedPathSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] checks;
+    private int mask;
+    private int count;
+    private boolean hasZeroKey;
+    private int zeroKeyCheck;
+
+    public VisitedPathSet(int expectedSize) {
+        int capacity = tableSizeFor(Math.max(16, expectedSize));
+        keys = new long[capacity];
+        checks = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Record a chunk of paths.
+     */
+    public synchronized void addAll(List<String> paths) {
+        for (String path : paths) {
+            add(PathHash.hash64(path), PathHash.check32(path));
+        }
+    }
+
+    public boolean contains(String path) {
+        return containsHash(PathHash.hash64(path), PathHash.check32(path));
+    }
+
+    /**
+     * Lookup by the {@link PathHash} values of a path.
+     */
+    public synchronized boolean containsHash(long key, int check) {
+        if (key == EMPTY) {
+            return hasZeroKey && zeroKeyCheck == check;
+        }
+        int slot = (int) key & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key && checks[slot] == check) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Approximate heap held by the table arrays.
+     */
+    public synchronized long estimatedBytes() {
+        return 12L * keys.length;
+    }
+
+    private void add(long key, int check) {
+        if (key == EMPTY) {
+            // 0 marks a free slot, so the one path hashing to it is kept aside.
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                zeroKeyCheck = check;
+                count++;
+            }
+            return;
+        }
+        int slot = (int) key & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key && checks[slot] == check) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        checks[slot] = check;
+        count++;
+        if (count * 4L > keys.length * 3L) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldChecks = checks;
+        keys = new long[capacity];
+        checks = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = (int) key & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                checks[slot] = oldChecks[i];
+            }
+        }
+    }
+
+    private static int tableSizeFor(int entries) {
+        long needed = entries * 4L / 3 + 1;
+        int size = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+        return size < needed ? size << 1 : size;
+    }
+}
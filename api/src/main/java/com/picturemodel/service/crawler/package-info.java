@@ -0,0 +1,38 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: package-info.java
+ * Version: 0.1.11
+ * Turns: 29,30,31,32,34,35,36,37,39,40,47,48
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T20:10:00Z
+ * Exports: package-info
+ * Description: Package-level documentation for com.picturemodel.service.crawler.
+ */
+
+/**
+ * Building blocks used by the crawler to move files from directory listing to persistence.
+ *
+ * <p>Key types:</p>
+ * <ul>
+ *   <li>ChangeCoalescer</li>
+ *   <li>CountingInputStream</li>
+ *   <li>CrawlEstimator</li>
+ *   <li>CrawlFrontier</li>
+ *   <li>CrawlItem</li>
+ *   <li>CrawlMetrics</li>
+ *   <li>CrawlPaths</li>
+ *   <li>CrawlPipeline</li>
+ *   <li>CrawlProgress</li>
+ *   <li>DirectoryManifest</li>
+ *   <li>DrivePathIndex</li>
+ *   <li>HashingInputStream</li>
+ *   <li>ImageBatchWriter</li>
+ *   <li>PathHash</li>
+ *   <li>SeenPathWriter</li>
+ *   <li>SniffingInputStream</li>
+ *   <li>StageStats</li>
+ *   <li>VisitedPathSet</li>
+ * </ul>
+ */
+package com.picturemodel.service.crawler;
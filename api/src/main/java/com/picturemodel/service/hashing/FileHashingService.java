@@ -0,0 +1,187 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: FileHashingService.java
+ * Version: 0.1.1
+ * Turns: 33,50
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T21:10:00Z
+ * Exports: FileHashingService
+ * Description: Service for computing file content hashes. Methods: newHash - streaming hash for a full-content algorithm; hash - hash a file stream with any algorithm; samples - whether a file is hashed from samples; sample - sampled hash from separately read ranges; toHex - lowercase hex encoding.
+ */
+
+package com.picturemodel.service.hashing;
+
+import com.picturemodel.config.CrawlerProperties;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Computes {@link HashAlgorithm} hashes over file streams using a large read
+ * buffer reused per thread, so hashing threads do not churn through garbage.
+ *
+ * <p>{@link HashAlgorithm#SAMPLED} reads only the first and last
+ * {@code sampleSize} bytes. Files too small to sample, or of unknown size, are
+ * hashed in full with the configured full algorithm instead, and the result
+ * reports the algorithm actually used. Callers that can read a byte range
+ * directly use {@link #sample(RangeSource, long)}, which never reads the middle
+ * of the file at all; both produce the same hash.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileHashingService {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final CrawlerProperties crawlerProperties;
+
+    private final ThreadLocal<byte[]> buffers = new ThreadLocal<>();
+
+    /**
+     * A computed hash and the algorithm that produced it.
+     */
+    public record HashResult(String hash, HashAlgorithm algorithm) {
+    }
+
+    /**
+     * Opens a byte range of the file being hashed.
+     */
+    @FunctionalInterface
+    public interface RangeSource {
+        InputStream open(long offset, long length) throws Exception;
+    }
+
+    /**
+     * Create a streaming hash for a full-content algorithm.
+     *
+     * @throws IllegalArgumentException for {@link HashAlgorithm#SAMPLED}, which cannot be streamed
+     */
+    public StreamingHash newHash(HashAlgorithm algorithm) {
+        return switch (algorithm) {
+            case SHA256 -> new Sha256Hash();
+            case XXH64 -> new Xxh64Hash();
+            case SAMPLED -> throw new IllegalArgumentException("Sampled hashes cannot be streamed");
+        };
+    }
+
+    /**
+     * Hash a file stream. The caller owns and closes the stream.
+     *
+     * @param inputStream file content from the start
+     * @param size file size in bytes, or null if unknown
+     * @param algorithm requested algorithm
+     */
+    public HashResult hash(InputStream inputStream, Long size, HashAlgorithm algorithm) throws IOException {
+        CrawlerProperties.Hashing settings = crawlerProperties.getHashing();
+        if (algorithm == HashAlgorithm.SAMPLED) {
+            long sampleSize = settings.getSampleSize();
+            if (size != null && size > sampleSize * 2) {
+                return new HashResult(toHex(sample(inputStream, size, (int) sampleSize)), HashAlgorithm.SAMPLED);
+            }
+            algorithm = settings.getFullAlgorithm();
+        }
+
+        StreamingHash hash = newHash(algorithm);
+        byte[] buffer = buffer();
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            hash.update(buffer, 0, read);
+        }
+        return new HashResult(toHex(hash.finish()), algorithm);
+    }
+
+    /**
+     * @return true if {@code algorithm} hashes a file of this size from its first and last samples
+     */
+    public boolean samples(HashAlgorithm algorithm, Long size) {
+        return algorithm == HashAlgorithm.SAMPLED && size != null
+                && size > 2L * crawlerProperties.getHashing().getSampleSize();
+    }
+
+    /**
+     * Sampled hash from the file's first and last samples, each opened as its own
+     * range; the first is closed before the second is opened. Only valid when
+     * {@link #samples} is true for the file.
+     *
+     * @param source opens ranges of the file
+     * @param size file size in bytes
+     */
+    public HashResult sample(RangeSource source, long size) throws Exception {
+        int sampleSize = crawlerProperties.getHashing().getSampleSize();
+        Xxh64Hash hash = new Xxh64Hash();
+        byte[] buffer = buffer();
+        try (InputStream head = source.open(0, sampleSize)) {
+            readInto(head, hash, buffer, sampleSize);
+        }
+        try (InputStream tail = source.open(size - sampleSize, sampleSize)) {
+            readInto(tail, hash, buffer, sampleSize);
+        }
+        hash.updateLong(size);
+        return new HashResult(toHex(hash.finish()), HashAlgorithm.SAMPLED);
+    }
+
+    /**
+     * Lowercase hex encoding of hash bytes.
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >>> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    private byte[] sample(InputStream inputStream, long size, int sampleSize) throws IOException {
+        Xxh64Hash hash = new Xxh64Hash();
+        byte[] buffer = buffer();
+        readInto(inputStream, hash, buffer, sampleSize);
+        skipFully(inputStream, size - 2L * sampleSize, buffer);
+        readInto(inputStream, hash, buffer, sampleSize);
+        hash.updateLong(size);
+        return hash.finish();
+    }
+
+    private void readInto(InputStream inputStream, StreamingHash hash, byte[] buffer, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int read = inputStream.read(buffer, 0, Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IOException("File shorter than its listed size");
+            }
+            hash.update(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private void skipFully(InputStream inputStream, long length, byte[] buffer) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            long skipped = inputStream.skip(remaining);
+            if (skipped <= 0) {
+                int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new IOException("File shorter than its listed size");
+                }
+                skipped = read;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private byte[] buffer() {
+        int size = Math.max(8192, crawlerProperties.getHashing().getBufferSize());
+        byte[] buffer = buffers.get();
+        if (buffer == null || buffer.length != size) {
+            buffer = new byte[size];
+            buffers.set(buffer);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: HammingBkTree.java
+ * Version: 0.1.0
+ * Turns: 46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: HammingBkTree
+ * Description: class HammingBkTree for Hamming-distance search over 64-bit hashes. Methods: add - index an image's hash; size - number of indexed images; search - images within a distance of a hash.
+ */
+
+package com.picturemodel.service.hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * BK-tree keyed by 64-bit perceptual hashes under Hamming distance. Each node's
+ * children are filed by their distance to it, so by the triangle inequality a
+ * search within {@code d} of a query at distance {@code k} from a node only
+ * descends into children filed under {@code k - d .. k + d}.
+ *
+ * <p>Nodes live in parallel primitive arrays (about 40 bytes per image) rather
+ * than objects, children as first-child/next-sibling links. Images with equal
+ * hashes share a node through a chain, so a library full of exact copies does
+ * not degenerate into a list. Not thread-safe for writes: build it on one thread,
+ * then publish it for concurrent searches.</p>
+ */
+public class HammingBkTree {
+
+    private static final int NONE = -1;
+
+    // Per node
+    private long[] hashes;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private byte[] distanceToParent;
+    private int[] firstEntry;
+    private int nodes;
+
+    // Per image
+    private long[] idHigh;
+    private long[] idLow;
+    private int[] nextEntry;
+    private int entries;
+
+    /**
+     * An indexed image within the search distance.
+     */
+    public record Match(UUID imageId, long hash, int distance) {
+    }
+
+    public HammingBkTree(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        hashes = new long[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        distanceToParent = new byte[capacity];
+        firstEntry = new int[capacity];
+        idHigh = new long[capacity];
+        idLow = new long[capacity];
+        nextEntry = new int[capacity];
+    }
+
+    /**
+     * Index an image's hash.
+     */
+    public void add(UUID imageId, long hash) {
+        int entry = newEntry(imageId);
+        if (nodes == 0) {
+            newNode(hash, entry);
+            return;
+        }
+        int node = 0;
+        while (true) {
+            int distance = PerceptualHashService.distance(hashes[node], hash);
+            if (distance == 0) {
+                nextEntry[entry] = firstEntry[node];
+                firstEntry[node] = entry;
+                return;
+            }
+            int child = childAt(node, distance);
+            if (child == NONE) {
+                child = newNode(hash, entry);
+                distanceToParent[child] = (byte) distance;
+                nextSibling[child] = firstChild[node];
+                firstChild[node] = child;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * @return number of indexed images
+     */
+    public int size() {
+        return entries;
+    }
+
+    /**
+     * Every indexed image whose hash is within {@code maxDistance} bits of {@code hash}, in no particular order.
+     */
+    public List<Match> search(long hash, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (nodes == 0) {
+            return matches;
+        }
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            int distance = PerceptualHashService.distance(hashes[node], hash);
+            if (distance <= maxDistance) {
+                for (int entry = firstEntry[node]; entry != NONE; entry = nextEntry[entry]) {
+                    matches.add(new Match(new UUID(idHigh[entry], idLow[entry]), hashes[node], distance));
+                }
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (Math.abs(distanceToParent[child] - distance) <= maxDistance) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private int childAt(int node, int distance) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (distanceToParent[child] == distance) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private int newNode(long hash, int entry) {
+        if (nodes == hashes.length) {
+            int capacity = nodes * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            distanceToParent = Arrays.copyOf(distanceToParent, capacity);
+            firstEntry = Arrays.copyOf(firstEntry, capacity);
+        }
+        int node = nodes++;
+        hashes[node] = hash;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        firstEntry[node] = entry;
+        return node;
+    }
+
+    private int newEntry(UUID imageId) {
+        if (entries == idHigh.length) {
+            int capacity = entries * 2;
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            nextEntry = Arrays.copyOf(nextEntry, capacity);
+        }
+        int entry = entries++;
+        idHigh[entry] = imageId.getMostSignificantBits();
+        idLow[entry] = imageId.getLeastSignificantBits();
+        nextEntry[entry] = NONE;
+        return entry;
+    }
+}
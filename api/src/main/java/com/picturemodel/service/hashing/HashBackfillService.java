@@ -0,0 +1,287 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: HashBackfillService.java
+ * Version: 0.1.1
+ * Turns: 33,46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: HashBackfillService
+ * Description: class HashBackfillService for replacing sampled fingerprints with full-content hashes and computing missing perceptual hashes in the background. Methods: backfillSampledHashes - scheduled sampled-hash pass; backfillPerceptualHashes - scheduled perceptual-hash pass; shutdown - stop the backfill pool.
+ */
+
+package com.picturemodel.service.hashing;
+
+import com.picturemodel.config.CrawlerProperties;
+import com.picturemodel.domain.entity.Image;
+import com.picturemodel.domain.entity.RemoteFileDrive;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import com.picturemodel.domain.repository.ImageBulkRepository;
+import com.picturemodel.domain.repository.ImageBulkRepository.PerceptualHashUpdate;
+import com.picturemodel.domain.repository.ImageBulkRepository.SampledHashReplacement;
+import com.picturemodel.domain.repository.ImageRepository;
+import com.picturemodel.domain.repository.RemoteFileDriveRepository;
+import com.picturemodel.infrastructure.filesystem.FileSystemProvider;
+import com.picturemodel.service.ConnectionManager;
+import com.picturemodel.service.CrawlerJobRunner;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Upgrades {@link HashAlgorithm#SAMPLED} fingerprints written by fast crawls to
+ * full-content hashes, a batch per connected drive on each pass.
+ *
+ * <p>Work runs on its own small pool so it never competes with a crawl's hash
+ * stage, and drives with a crawl in progress are skipped until it finishes.
+ * Drives whose type allows only one traversal thread (SFTP, FTP) are hashed
+ * sequentially. Each replacement is conditional on the stored sampled hash, so a
+ * file re-crawled meanwhile keeps its newer value. Per-drive positions are kept in
+ * memory; failed files are retried on the next sweep of the drive.</p>
+ *
+ * <p>Images indexed before perceptual hashing existed, or by crawls with it
+ * disabled, get their perceptual hash the same way. Each drive is swept once per
+ * process: files that cannot be decoded keep no hash and are not read again
+ * until the next restart, while new and changed files are covered by the crawl's
+ * own perceptual-hash stage. A crawl that left files to the backfill (bytes it
+ * did not read in full or could not hold) has the drive swept again after it.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HashBackfillService {
+
+    private static final UUID START = new UUID(0L, 0L);
+
+    private final ImageRepository imageRepository;
+    private final ImageBulkRepository imageBulkRepository;
+    private final RemoteFileDriveRepository driveRepository;
+    private final ConnectionManager connectionManager;
+    private final CrawlerJobRunner crawlerJobRunner;
+    private final FileHashingService fileHashingService;
+    private final PerceptualHashService perceptualHashService;
+    private final CrawlerProperties crawlerProperties;
+
+    private final Map<UUID, UUID> positions = new ConcurrentHashMap<>();
+    private final Map<UUID, UUID> perceptualPositions = new ConcurrentHashMap<>();
+    private final Set<UUID> perceptualSwept = ConcurrentHashMap.newKeySet();
+    private volatile ExecutorService executor;
+
+    /**
+     * Backfill one batch of sampled hashes for each connected drive.
+     */
+    @Scheduled(
+            initialDelayString = "${picture-model.crawler.hashing.backfill-interval-ms:60000}",
+            fixedDelayString = "${picture-model.crawler.hashing.backfill-interval-ms:60000}")
+    public void backfillSampledHashes() {
+        CrawlerProperties.Hashing settings = crawlerProperties.getHashing();
+        if (!settings.isBackfillEnabled()) {
+            return;
+        }
+        if (!settings.getFullAlgorithm().isFullContent()) {
+            log.warn("Hash backfill disabled: full algorithm {} does not hash full content", settings.getFullAlgorithm());
+            return;
+        }
+
+        for (UUID driveId : connectionManager.getConnectedDriveIds()) {
+            if (crawlerJobRunner.isCrawling(driveId)) {
+                continue;
+            }
+            try {
+                backfillDrive(driveId, settings);
+            } catch (Exception e) {
+                log.warn("Hash backfill failed for drive {}: {}", driveId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compute missing perceptual hashes for one batch of images on each connected drive.
+     */
+    @Scheduled(
+            initialDelayString = "${picture-model.crawler.perceptual-hash.backfill-interval-ms:60000}",
+            fixedDelayString = "${picture-model.crawler.perceptual-hash.backfill-interval-ms:60000}")
+    public void backfillPerceptualHashes() {
+        CrawlerProperties.PerceptualHash settings = crawlerProperties.getPerceptualHash();
+        if (!settings.isBackfillEnabled()) {
+            return;
+        }
+
+        for (UUID driveId : connectionManager.getConnectedDriveIds()) {
+            if (crawlerJobRunner.isCrawling(driveId)) {
+                continue;
+            }
+            if (crawlerJobRunner.takeDeferredPerceptualHashes(driveId)) {
+                // A crawl left images to the backfill: sweep the drive again from the start
+                perceptualSwept.remove(driveId);
+                perceptualPositions.remove(driveId);
+            }
+            if (perceptualSwept.contains(driveId)) {
+                continue;
+            }
+            try {
+                backfillPerceptualDrive(driveId, settings);
+            } catch (Exception e) {
+                log.warn("Perceptual hash backfill failed for drive {}: {}", driveId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void backfillDrive(UUID driveId, CrawlerProperties.Hashing settings) throws Exception {
+        UUID after = positions.getOrDefault(driveId, START);
+        List<Image> images = imageRepository.findByDrive_IdAndHashAlgorithmAndDeletedFalseAndIdGreaterThanOrderByIdAsc(
+                driveId, HashAlgorithm.SAMPLED, after, PageRequest.of(0, Math.max(1, settings.getBackfillBatchSize())));
+        if (images.isEmpty()) {
+            positions.remove(driveId);
+            return;
+        }
+        positions.put(driveId, images.get(images.size() - 1).getId());
+
+        RemoteFileDrive drive = driveRepository.findById(driveId).orElse(null);
+        if (drive == null) {
+            return;
+        }
+        FileSystemProvider provider = connectionManager.getProvider(driveId);
+        HashAlgorithm algorithm = settings.getFullAlgorithm();
+        AtomicInteger failures = new AtomicInteger();
+
+        List<Callable<SampledHashReplacement>> tasks = new ArrayList<>(images.size());
+        for (Image image : images) {
+            tasks.add(() -> rehash(provider, image, algorithm, failures));
+        }
+
+        List<SampledHashReplacement> replacements = run(drive, tasks, failures);
+
+        int updated = imageBulkRepository.replaceSampledHashes(replacements);
+        log.info("Hash backfill for drive {}: {} of {} sampled hashes replaced with {} ({} failed)",
+                driveId, updated, images.size(), algorithm, failures.get());
+    }
+
+    private void backfillPerceptualDrive(UUID driveId, CrawlerProperties.PerceptualHash settings) throws Exception {
+        UUID after = perceptualPositions.getOrDefault(driveId, START);
+        List<Image> images = imageRepository.findByDrive_IdAndPerceptualHashIsNullAndDeletedFalseAndIdGreaterThanOrderByIdAsc(
+                driveId, after, PageRequest.of(0, Math.max(1, settings.getBackfillBatchSize())));
+        if (images.isEmpty()) {
+            perceptualPositions.remove(driveId);
+            perceptualSwept.add(driveId);
+            return;
+        }
+        perceptualPositions.put(driveId, images.get(images.size() - 1).getId());
+
+        RemoteFileDrive drive = driveRepository.findById(driveId).orElse(null);
+        if (drive == null) {
+            return;
+        }
+        FileSystemProvider provider = connectionManager.getProvider(driveId);
+        AtomicInteger failures = new AtomicInteger();
+
+        List<Callable<PerceptualHashUpdate>> tasks = new ArrayList<>(images.size());
+        for (Image image : images) {
+            if (image.getFileSize() <= settings.getMaxFileSize()
+                    && perceptualHashService.canDecode(image.getMimeType())) {
+                tasks.add(() -> perceptualHash(provider, image, failures));
+            }
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        int updated = imageBulkRepository.replacePerceptualHashes(run(drive, tasks, failures));
+        log.info("Perceptual hash backfill for drive {}: {} of {} images hashed ({} failed)",
+                driveId, updated, tasks.size(), failures.get());
+    }
+
+    /**
+     * Run backfill tasks on the pool, or in order on this thread when the drive
+     * type allows only one reader, and drop the files that could not be read.
+     */
+    private <T> List<T> run(RemoteFileDrive drive, List<Callable<T>> tasks, AtomicInteger failures) throws Exception {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (crawlerProperties.resolveParallelism(drive.getType(), null) > 1) {
+            for (Future<T> future : executor(crawlerProperties.getHashing()).invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    failures.incrementAndGet();
+                }
+            }
+        } else {
+            for (Callable<T> task : tasks) {
+                results.add(task.call());
+            }
+        }
+        results.removeIf(Objects::isNull);
+        return results;
+    }
+
+    private PerceptualHashUpdate perceptualHash(FileSystemProvider provider, Image image, AtomicInteger failures) {
+        try (InputStream inputStream = provider.readFile(image.getFilePath())) {
+            Long hash = perceptualHashService.hash(inputStream);
+            return hash != null ? new PerceptualHashUpdate(image.getId(), image.getFileHash(), hash) : null;
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.debug("Perceptual hash backfill could not decode {}: {}", image.getFilePath(), e.getMessage());
+            return null;
+        }
+    }
+
+    private SampledHashReplacement rehash(
+            FileSystemProvider provider,
+            Image image,
+            HashAlgorithm algorithm,
+            AtomicInteger failures
+    ) {
+        try (InputStream inputStream = provider.readFile(image.getFilePath())) {
+            FileHashingService.HashResult result = fileHashingService.hash(inputStream, image.getFileSize(), algorithm);
+            return new SampledHashReplacement(image.getId(), image.getFileHash(), result.hash(), result.algorithm());
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.debug("Hash backfill could not read {}: {}", image.getFilePath(), e.getMessage());
+            return null;
+        }
+    }
+
+    private ExecutorService executor(CrawlerProperties.Hashing settings) {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (this) {
+                current = executor;
+                if (current == null) {
+                    AtomicInteger threadNumber = new AtomicInteger();
+                    current = Executors.newFixedThreadPool(Math.max(1, settings.getBackfillThreads()), runnable -> {
+                        Thread thread = new Thread(runnable, "hash-backfill-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+}
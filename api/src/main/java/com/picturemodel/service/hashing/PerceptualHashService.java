@@ -0,0 +1,130 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: PerceptualHashService.java
+ * Version: 0.1.0
+ * Turns: 46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: PerceptualHashService
+ * Description: Service for computing 64-bit perceptual hashes of images. Methods: canDecode - whether a MIME type can be decoded; hash - dHash of an image stream; distance - Hamming distance between two hashes.
+ */
+
+package com.picturemodel.service.hashing;
+
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes a difference hash (dHash) that stays the same, or within a few bits,
+ * when an image is resized, recompressed or re-exported.
+ *
+ * <p>The image is decoded with source subsampling so the shorter side is about
+ * {@value #DECODE_SIZE} pixels, which keeps decoding cheap for camera-sized
+ * files. Its luminance is then averaged over a 9x8 grid and each of the 64 bits
+ * records whether a cell is brighter than its right-hand neighbour. Similar
+ * images have hashes a small Hamming distance apart.</p>
+ *
+ * <p>Formats come from the installed {@link ImageIO} readers (JPEG, PNG, GIF,
+ * BMP, TIFF and WBMP in a plain JDK); files of other types get no hash.</p>
+ */
+@Service
+public class PerceptualHashService {
+
+    private static final int DECODE_SIZE = 64;
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+
+    private final Map<String, Boolean> decodable = new ConcurrentHashMap<>();
+
+    /**
+     * @return true if an installed image reader handles the MIME type
+     */
+    public boolean canDecode(String mimeType) {
+        if (mimeType == null) {
+            return false;
+        }
+        return decodable.computeIfAbsent(mimeType, type -> ImageIO.getImageReadersByMIMEType(type).hasNext());
+    }
+
+    /**
+     * Decode an image stream at reduced resolution and compute its dHash.
+     *
+     * @return the hash, or null if no reader recognises the stream or the image is smaller than the grid
+     * @throws IOException if reading or decoding fails
+     */
+    public Long hash(InputStream inputStream) throws IOException {
+        try (ImageInputStream imageStream = new MemoryCacheImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, Math.min(width, height) / DECODE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return differenceHash(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * @return the number of bits in which the two hashes differ
+     */
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    private static Long differenceHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width < GRID_WIDTH || height < GRID_HEIGHT) {
+            return null;
+        }
+
+        long[] sums = new long[GRID_WIDTH * GRID_HEIGHT];
+        int[] counts = new int[GRID_WIDTH * GRID_HEIGHT];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = y * GRID_HEIGHT / height * GRID_WIDTH;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int luma = (299 * ((rgb >> 16) & 0xFF) + 587 * ((rgb >> 8) & 0xFF) + 114 * (rgb & 0xFF)) / 1000;
+                int cell = cellRow + x * GRID_WIDTH / width;
+                sums[cell] += luma;
+                counts[cell]++;
+            }
+        }
+
+        long hash = 0L;
+        for (int y = 0; y < GRID_HEIGHT; y++) {
+            for (int x = 0; x < GRID_WIDTH - 1; x++) {
+                int cell = y * GRID_WIDTH + x;
+                // Compare averages without dividing: a/ca > b/cb  <=>  a*cb > b*ca
+                hash <<= 1;
+                if (sums[cell] * counts[cell + 1] > sums[cell + 1] * counts[cell]) {
+                    hash |= 1L;
+                }
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: Sha256Hash.java
+ * Version: 0.1.0
+ * Turns: 33
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T12:30:00Z
+ * Exports: Sha256Hash
+ * Description: class Sha256Hash for SHA-256 content hashes. Methods: update - feed bytes; finish - complete the digest.
+ */
+
+package com.picturemodel.service.hashing;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 through the JDK {@link MessageDigest}.
+ */
+public class Sha256Hash implements StreamingHash {
+
+    private final MessageDigest digest;
+
+    public Sha256Hash() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public void update(byte[] buffer, int offset, int length) {
+        digest.update(buffer, offset, length);
+    }
+
+    @Override
+    public void update(byte b) {
+        digest.update(b);
+    }
+
+    @Override
+    public byte[] finish() {
+        return digest.digest();
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: StreamingHash.java
+ * Version: 0.1.0
+ * Turns: 33
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T12:30:00Z
+ * Exports: StreamingHash
+ * Description: interface StreamingHash for incremental hash computation. Methods: update - feed bytes; finish - complete the hash.
+ */
+
+package com.picturemodel.service.hashing;
+
+/**
+ * Incremental hash over a byte stream, implemented by each {@link com.picturemodel.domain.enums.HashAlgorithm}.
+ * Instances are single-use and not thread-safe.
+ */
+public interface StreamingHash {
+
+    void update(byte[] buffer, int offset, int length);
+
+    default void update(byte b) {
+        update(new byte[]{b}, 0, 1);
+    }
+
+    /**
+     * @return the hash bytes; the instance must not be used afterwards
+     */
+    byte[] finish();
+}
@@ -0,0 +1,155 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: Xxh64Hash.java
+ * Version: 0.1.0
+ * Turns: 33
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T12:30:00Z
+ * Exports: Xxh64Hash
+ * Description: class Xxh64Hash for fast non-cryptographic content hashes. Methods: update - feed bytes; updateLong - feed a little-endian long; finish - complete the hash.
+ */
+
+package com.picturemodel.service.hashing;
+
+/**
+ * Streaming XXH64 (seed 0), several times faster than SHA-256 and good enough to
+ * tell files apart when nobody is trying to forge a collision. The output is the
+ * 64-bit value in big-endian byte order, matching the canonical hex form.
+ */
+public class Xxh64Hash implements StreamingHash {
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private long v1 = PRIME1 + PRIME2;
+    private long v2 = PRIME2;
+    private long v3 = 0;
+    private long v4 = -PRIME1;
+    private long totalLength;
+    private final byte[] pending = new byte[32];
+    private int pendingLength;
+
+    @Override
+    public void update(byte[] buffer, int offset, int length) {
+        totalLength += length;
+        int position = offset;
+        int end = offset + length;
+
+        if (pendingLength > 0) {
+            int fill = Math.min(32 - pendingLength, length);
+            System.arraycopy(buffer, position, pending, pendingLength, fill);
+            pendingLength += fill;
+            position += fill;
+            if (pendingLength < 32) {
+                return;
+            }
+            consumeStripe(pending, 0);
+            pendingLength = 0;
+        }
+
+        while (end - position >= 32) {
+            consumeStripe(buffer, position);
+            position += 32;
+        }
+
+        if (position < end) {
+            System.arraycopy(buffer, position, pending, 0, end - position);
+            pendingLength = end - position;
+        }
+    }
+
+    /**
+     * Feed a long in little-endian byte order.
+     */
+    public void updateLong(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (value >>> (8 * i));
+        }
+        update(bytes, 0, 8);
+    }
+
+    @Override
+    public byte[] finish() {
+        long hash;
+        if (totalLength >= 32) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME5;
+        }
+        hash += totalLength;
+
+        int position = 0;
+        while (pendingLength - position >= 8) {
+            hash ^= round(0, readLong(pending, position));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            position += 8;
+        }
+        if (pendingLength - position >= 4) {
+            hash ^= (readInt(pending, position) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            position += 4;
+        }
+        while (position < pendingLength) {
+            hash ^= (pending[position] & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+            position++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+
+        byte[] out = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            out[i] = (byte) (hash >>> (56 - 8 * i));
+        }
+        return out;
+    }
+
+    private void consumeStripe(byte[] buffer, int offset) {
+        v1 = round(v1, readLong(buffer, offset));
+        v2 = round(v2, readLong(buffer, offset + 8));
+        v3 = round(v3, readLong(buffer, offset + 16));
+        v4 = round(v4, readLong(buffer, offset + 24));
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME1;
+    }
+
+    private static long mergeRound(long accumulator, long value) {
+        accumulator ^= round(0, value);
+        return accumulator * PRIME1 + PRIME4;
+    }
+
+    private static long readLong(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFFL)
+                | (buffer[offset + 1] & 0xFFL) << 8
+                | (buffer[offset + 2] & 0xFFL) << 16
+                | (buffer[offset + 3] & 0xFFL) << 24
+                | (buffer[offset + 4] & 0xFFL) << 32
+                | (buffer[offset + 5] & 0xFFL) << 40
+                | (buffer[offset + 6] & 0xFFL) << 48
+                | (buffer[offset + 7] & 0xFFL) << 56;
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF)
+                | (buffer[offset + 1] & 0xFF) << 8
+                | (buffer[offset + 2] & 0xFF) << 16
+                | (buffer[offset + 3] & 0xFF) << 24;
+    }
+}
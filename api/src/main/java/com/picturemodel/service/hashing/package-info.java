@@ -0,0 +1,29 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: package-info.java
+ * Version: 0.1.1
+ * Turns: 33,46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: package-info
+ * Description: Package-level documentation for com.picturemodel.service.hashing.
+ */
+
+/**
+ * Content hashing for crawled files: streaming hash implementations, the hashing
+ * service, perceptual hashes with their Hamming-distance index, and the
+ * background backfill of sampled and perceptual hashes.
+ *
+ * <p>Key types:</p>
+ * <ul>
+ *   <li>FileHashingService</li>
+ *   <li>HammingBkTree</li>
+ *   <li>HashBackfillService</li>
+ *   <li>PerceptualHashService</li>
+ *   <li>Sha256Hash</li>
+ *   <li>StreamingHash</li>
+ *   <li>Xxh64Hash</li>
+ * </ul>
+ */
+package com.picturemodel.service.hashing;
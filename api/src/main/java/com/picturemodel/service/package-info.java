@@ -2,10 +2,10 @@
  * App: Picture Model
  * Package: com.picturemodel.service
  * File: package-info.java
- * Version: 0.1.0
- * Turns: 10
+ * Version: 0.1.7
+ * Turns: 10,37,38,40,43,45,46,54
  * Author: Codex
- * Date: 2026-02-02T22:36:43Z
+ * Date: 2026-10-16T23:10:00Z
  * Exports: package-info
  * Description: Package-level documentation for com.picturemodel.service.
  */
@@ -16,10 +16,20 @@
  * <p>Key types:</p>
  * <ul>
  *   <li>ConnectionManager</li>
+ *   <li>CrawlCheckpointService</li>
+ *   <li>CrawlClusterService</li>
+ *   <li>CrawlClusterTraversalService</li>
+ *   <li>CrawlContext</li>
+ *   <li>CrawlEstimationService</li>
  *   <li>CrawlerJobRunner</li>
  *   <li>CrawlerService</li>
+ *   <li>CrawlScheduler</li>
+ *   <li>DriveChangeService</li>
  *   <li>DriveService</li>
+ *   <li>DriveWatchService</li>
+ *   <li>DuplicateService</li>
  *   <li>ExifExtractorService</li>
+ *   <li>SimilarImageService</li>
  * </ul>
  */
 package com.picturemodel.service;
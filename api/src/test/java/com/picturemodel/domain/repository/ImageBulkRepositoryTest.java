@@ -0,0 +1,253 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.domain.repository
+ * File: ImageBulkRepositoryTest.java
+ * Version: 0.1.0
+ * Turns: 54
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T23:10:00Z
+ * Exports: ImageBulkRepositoryTest
+ * Description: Tests for ImageBulkRepository.writeBatch inserts, updates and EXIF diffs on an in-memory H2 database.
+ */
+
+package com.picturemodel.domain.repository;
+
+import com.picturemodel.domain.entity.Image;
+import com.picturemodel.domain.entity.RemoteFileDrive;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import com.picturemodel.domain.repository.ImageBulkRepository.ImageWrite;
+import com.picturemodel.domain.repository.ImageBulkRepository.MetadataChurn;
+import com.picturemodel.domain.repository.ImageBulkRepository.WriteResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageBulkRepositoryTest {
+
+    private static final LocalDateTime MODIFIED = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    // The columns ImageBulkRepository reads and writes
+    private static final String CREATE_IMAGES =
+            "CREATE TABLE images ("
+                    + "id UUID PRIMARY KEY, "
+                    + "drive_id UUID NOT NULL, "
+                    + "file_name VARCHAR(500) NOT NULL, "
+                    + "file_path VARCHAR(2000) NOT NULL, "
+                    + "file_size BIGINT NOT NULL, "
+                    + "file_hash VARCHAR(64) NOT NULL, "
+                    + "hash_algorithm VARCHAR(20) NOT NULL, "
+                    + "perceptual_hash BIGINT, "
+                    + "mime_type VARCHAR(100) NOT NULL, "
+                    + "width INTEGER, "
+                    + "height INTEGER, "
+                    + "deleted BOOLEAN NOT NULL, "
+                    + "captured_at TIMESTAMP, "
+                    + "created_date TIMESTAMP NOT NULL, "
+                    + "modified_date TIMESTAMP NOT NULL, "
+                    + "indexed_date TIMESTAMP NOT NULL, "
+                    + "UNIQUE (drive_id, file_path))";
+
+    private static final String CREATE_IMAGE_METADATA =
+            "CREATE TABLE image_metadata ("
+                    + "id UUID PRIMARY KEY, "
+                    + "image_id UUID NOT NULL REFERENCES images (id), "
+                    + "metadata_key VARCHAR(255) NOT NULL, "
+                    + "value_entry VARCHAR(4000) NOT NULL, "
+                    + "source VARCHAR(20) NOT NULL, "
+                    + "last_modified TIMESTAMP NOT NULL)";
+
+    private final RemoteFileDrive drive = RemoteFileDrive.builder().id(UUID.randomUUID()).name("photos").build();
+
+    @Test
+    void insertsNewImagesAndTheirExif() {
+        JdbcTemplate jdbc = database();
+        ImageBulkRepository repository = repository(jdbc);
+        Image withExif = image("2024/a.jpg", "hash-a");
+        Image withoutExif = image("2024/b.jpg", "hash-b");
+
+        WriteResult result = repository.writeBatch(List.of(
+                new ImageWrite(withExif, true, exif("Make", "Canon", " Model ", "EOS R5", "Lens", " ")),
+                new ImageWrite(withoutExif, true, null)));
+
+        assertNotNull(withExif.getId());
+        assertNotNull(withExif.getIndexedDate());
+        assertEquals(Map.of("2024/a.jpg", withExif.getId(), "2024/b.jpg", withoutExif.getId()), result.ids());
+        assertEquals(2, count(jdbc, "SELECT COUNT(*) FROM images"));
+        assertEquals("hash-b", jdbc.queryForObject("SELECT file_hash FROM images WHERE id = ?", String.class,
+                withoutExif.getId()));
+        // Keys are normalized and blank values dropped
+        assertEquals(Map.of("make", "Canon", "model", "EOS R5"), storedExif(jdbc, withExif.getId()));
+        assertEquals(new MetadataChurn(2, 0, 0), result.metadataChurn());
+        // Both full-content hashes are queued for the duplicate summary
+        assertEquals(2, count(jdbc, "SELECT COUNT(DISTINCT file_hash) FROM image_duplicate_dirty"));
+    }
+
+    @Test
+    void updatesExistingImagesById() {
+        JdbcTemplate jdbc = database();
+        ImageBulkRepository repository = repository(jdbc);
+        Image original = image("2024/a.jpg", "hash-a");
+        repository.writeBatch(List.of(new ImageWrite(original, true, null)));
+
+        Image changed = image("2024/a.jpg", "hash-a2");
+        changed.setId(original.getId());
+        changed.setFileSize(2048L);
+        changed.setWidth(4000);
+        changed.setDeleted(true);
+        WriteResult result = repository.writeBatch(List.of(new ImageWrite(changed, false, null)));
+
+        assertEquals(Map.of("2024/a.jpg", original.getId()), result.ids());
+        assertEquals(MetadataChurn.NONE, result.metadataChurn());
+        assertEquals(1, count(jdbc, "SELECT COUNT(*) FROM images"));
+        Map<String, Object> row = jdbc.queryForMap(
+                "SELECT file_hash, file_size, width, deleted FROM images WHERE id = ?", original.getId());
+        assertEquals("hash-a2", row.get("FILE_HASH"));
+        assertEquals(2048L, ((Number) row.get("FILE_SIZE")).longValue());
+        assertEquals(4000, ((Number) row.get("WIDTH")).intValue());
+        assertEquals(Boolean.TRUE, row.get("DELETED"));
+    }
+
+    @Test
+    void writesOnlyTheExifKeysThatChanged() {
+        JdbcTemplate jdbc = database();
+        ImageBulkRepository repository = repository(jdbc);
+        Image image = image("2024/a.jpg", "hash-a");
+        repository.writeBatch(List.of(new ImageWrite(image, true, exif("make", "Canon", "model", "EOS", "iso", "100"))));
+        Map<String, UUID> rowIds = exifRowIds(jdbc, image.getId());
+
+        WriteResult changed = repository.writeBatch(List.of(
+                new ImageWrite(image, false, exif("make", "Canon", "model", "EOS R5", "lens", "RF 50mm"))));
+
+        assertEquals(new MetadataChurn(1, 1, 1), changed.metadataChurn());
+        assertEquals(Map.of("make", "Canon", "model", "EOS R5", "lens", "RF 50mm"), storedExif(jdbc, image.getId()));
+        // Unchanged and updated keys keep their rows
+        assertEquals(rowIds.get("make"), exifRowIds(jdbc, image.getId()).get("make"));
+        assertEquals(rowIds.get("model"), exifRowIds(jdbc, image.getId()).get("model"));
+
+        WriteResult unchanged = repository.writeBatch(List.of(
+                new ImageWrite(image, false, exif("make", "Canon", "model", "EOS R5", "lens", "RF 50mm"))));
+        assertTrue(unchanged.metadataChurn().isEmpty());
+
+        WriteResult untouched = repository.writeBatch(List.of(new ImageWrite(image, false, null)));
+        assertTrue(untouched.metadataChurn().isEmpty());
+        assertEquals(3, storedExif(jdbc, image.getId()).size());
+    }
+
+    @Test
+    void dropsDuplicateExifRowsOfOneKey() {
+        JdbcTemplate jdbc = database();
+        ImageBulkRepository repository = repository(jdbc);
+        Image image = image("2024/a.jpg", "hash-a");
+        repository.writeBatch(List.of(new ImageWrite(image, true, exif("make", "Canon"))));
+        // Left behind by an older write path that deleted and re-inserted keys
+        jdbc.update("INSERT INTO image_metadata (id, image_id, metadata_key, value_entry, source, last_modified) "
+                + "VALUES (?, ?, 'make', 'Canon', 'EXIF', ?)", UUID.randomUUID(), image.getId(), MODIFIED);
+
+        WriteResult result = repository.writeBatch(List.of(new ImageWrite(image, false, exif("make", "Canon"))));
+
+        assertEquals(new MetadataChurn(0, 0, 1), result.metadataChurn());
+        assertEquals(1, count(jdbc, "SELECT COUNT(*) FROM image_metadata"));
+    }
+
+    @Test
+    void batchesInsertsAndUpdatesAcrossStatementChunks() {
+        JdbcTemplate jdbc = database();
+        ImageBulkRepository repository = repository(jdbc);
+        // More rows than one JDBC batch holds, inserts and updates mixed
+        List<Image> existing = new ArrayList<>();
+        List<ImageWrite> first = new ArrayList<>();
+        for (int i = 0; i < 700; i++) {
+            Image image = image("old/" + i + ".jpg", "old-" + i);
+            existing.add(image);
+            first.add(new ImageWrite(image, true, null));
+        }
+        repository.writeBatch(first);
+
+        List<ImageWrite> mixed = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            mixed.add(new ImageWrite(image("new/" + i + ".jpg", "new-" + i), true, exif("make", "Camera " + i)));
+        }
+        for (Image image : existing) {
+            image.setFileHash(image.getFileHash() + "-changed");
+            mixed.add(new ImageWrite(image, false, null));
+        }
+        WriteResult result = repository.writeBatch(mixed);
+
+        assertEquals(1_900, result.ids().size());
+        assertEquals(1_900, count(jdbc, "SELECT COUNT(*) FROM images"));
+        assertEquals(700, count(jdbc, "SELECT COUNT(*) FROM images WHERE file_hash LIKE '%-changed'"));
+        assertEquals(1_200, count(jdbc, "SELECT COUNT(*) FROM image_metadata"));
+        assertEquals(new MetadataChurn(1_200, 0, 0), result.metadataChurn());
+        assertFalse(result.ids().containsValue(null));
+    }
+
+    private static JdbcTemplate database() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(CREATE_IMAGES);
+        jdbc.execute(CREATE_IMAGE_METADATA);
+        return jdbc;
+    }
+
+    private static ImageBulkRepository repository(JdbcTemplate jdbc) {
+        return new ImageBulkRepository(jdbc, new DuplicateRepository(jdbc));
+    }
+
+    private Image image(String path, String hash) {
+        return Image.builder()
+                .drive(drive)
+                .fileName(path.substring(path.lastIndexOf('/') + 1))
+                .filePath(path)
+                .fileSize(1024L)
+                .fileHash(hash)
+                .hashAlgorithm(HashAlgorithm.SHA256)
+                .mimeType("image/jpeg")
+                .createdDate(MODIFIED)
+                .modifiedDate(MODIFIED)
+                .build();
+    }
+
+    private static Map<String, String> exif(String... keyValues) {
+        Map<String, String> exif = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            exif.put(keyValues[i], keyValues[i + 1]);
+        }
+        return exif;
+    }
+
+    private static Map<String, String> storedExif(JdbcTemplate jdbc, UUID imageId) {
+        Map<String, String> exif = new HashMap<>();
+        jdbc.query("SELECT metadata_key, value_entry FROM image_metadata WHERE image_id = ? AND source = 'EXIF'",
+                rs -> {
+                    exif.put(rs.getString("metadata_key"), rs.getString("value_entry"));
+                }, imageId);
+        return exif;
+    }
+
+    private static Map<String, UUID> exifRowIds(JdbcTemplate jdbc, UUID imageId) {
+        Map<String, UUID> ids = new HashMap<>();
+        jdbc.query("SELECT id, metadata_key FROM image_metadata WHERE image_id = ?",
+                rs -> {
+                    ids.put(rs.getString("metadata_key"), rs.getObject("id", UUID.class));
+                }, imageId);
+        return ids;
+    }
+
+    private static long count(JdbcTemplate jdbc, String sql) {
+        return jdbc.queryForObject(sql, Long.class);
+    }
+}
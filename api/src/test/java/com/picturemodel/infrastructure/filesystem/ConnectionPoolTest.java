@@ -0,0 +1,191 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.infrastructure.filesystem
+ * File: ConnectionPoolTest.java
+ * Version: 0.1.0
+ * Turns: 51
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T21:40:00Z
+ * Exports: ConnectionPoolTest
+ * Description: Tests for ConnectionPool borrow timeouts, invalidation, idle validation and reaping.
+ */
+
+package com.picturemodel.infrastructure.filesystem;
+
+import com.picturemodel.config.ConnectionPoolProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    @Test
+    void borrowTimesOutWhileEveryConnectionIsInUse() throws Exception {
+        FakeConnector connector = new FakeConnector();
+        ConnectionPool<FakeConnection> pool = new ConnectionPool<>("test", settings(1, 60_000, 60_000), connector);
+        try {
+            FakeConnection first = pool.borrow();
+
+            assertThrows(IOException.class, pool::borrow);
+
+            pool.release(first);
+            assertSame(first, pool.borrow());
+            assertEquals(1, connector.opened.size());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void streamThatFailsToCloseInvalidatesItsConnection() throws Exception {
+        FakeConnector connector = new FakeConnector();
+        ConnectionPool<FakeConnection> pool = new ConnectionPool<>("test", settings(1, 60_000, 60_000), connector);
+        try {
+            FakeConnection connection = pool.borrow();
+            InputStream stream = pool.releaseOnClose(new ByteArrayInputStream(new byte[4]) {
+                @Override
+                public void close() throws IOException {
+                    throw new IOException("transfer aborted");
+                }
+            }, connection);
+
+            assertThrows(IOException.class, stream::close);
+
+            assertTrue(connection.closed);
+            FakeConnection next = pool.borrow();
+            assertNotSame(connection, next);
+            assertEquals(2, connector.opened.size());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void connectionIdlePastValidateAfterIdleIsCheckedBeforeReuse() throws Exception {
+        FakeConnector connector = new FakeConnector();
+        ConnectionPool<FakeConnection> pool = new ConnectionPool<>("test", settings(2, 20, 60_000), connector);
+        try {
+            FakeConnection healthy = pool.borrow();
+            pool.release(healthy);
+            Thread.sleep(40);
+
+            assertSame(healthy, pool.borrow());
+            assertEquals(1, healthy.healthChecks);
+
+            healthy.healthy = false;
+            pool.release(healthy);
+            Thread.sleep(40);
+
+            FakeConnection next = pool.borrow();
+            assertNotSame(healthy, next);
+            assertTrue(healthy.closed);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void connectionReusedSoonAfterReleaseIsNotChecked() throws Exception {
+        FakeConnector connector = new FakeConnector();
+        ConnectionPool<FakeConnection> pool = new ConnectionPool<>("test", settings(1, 60_000, 60_000), connector);
+        try {
+            FakeConnection connection = pool.borrow();
+            pool.release(connection);
+
+            assertSame(connection, pool.borrow());
+            assertEquals(0, connection.healthChecks);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void idleConnectionsAreReapedWithoutAnotherBorrow() throws Exception {
+        FakeConnector connector = new FakeConnector();
+        ConnectionPool<FakeConnection> pool = new ConnectionPool<>("test", settings(2, 60_000, 100), connector);
+        try {
+            FakeConnection connection = pool.borrow();
+            pool.release(connection);
+
+            // The reaper runs at most once a second
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (!connection.closed && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertTrue(connection.closed);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void closeClosesIdleConnectionsAndRefusesBorrows() throws Exception {
+        FakeConnector connector = new FakeConnector();
+        ConnectionPool<FakeConnection> pool = new ConnectionPool<>("test", settings(2, 60_000, 60_000), connector);
+        FakeConnection idle = pool.borrow();
+        FakeConnection borrowed = pool.borrow();
+        pool.release(idle);
+
+        pool.close();
+
+        assertTrue(idle.closed);
+        assertFalse(borrowed.closed);
+        pool.release(borrowed);
+        assertTrue(borrowed.closed);
+        assertThrows(IllegalStateException.class, pool::borrow);
+    }
+
+    private static ConnectionPoolProperties settings(int maxSize, long validateAfterIdleMs, long idleTimeoutMs) {
+        ConnectionPoolProperties settings = new ConnectionPoolProperties();
+        settings.setMaxSize(maxSize);
+        settings.setBorrowTimeoutMs(50);
+        settings.setValidateAfterIdleMs(validateAfterIdleMs);
+        settings.setIdleTimeoutMs(idleTimeoutMs);
+        return settings;
+    }
+
+    private static final class FakeConnection {
+        private volatile boolean closed;
+        private volatile boolean healthy = true;
+        private int healthChecks;
+    }
+
+    private static final class FakeConnector implements ConnectionPool.Connector<FakeConnection> {
+        private final List<FakeConnection> opened = new ArrayList<>();
+
+        @Override
+        public FakeConnection open() {
+            FakeConnection connection = new FakeConnection();
+            opened.add(connection);
+            return connection;
+        }
+
+        @Override
+        public boolean isOpen(FakeConnection connection) {
+            return !connection.closed;
+        }
+
+        @Override
+        public boolean isHealthy(FakeConnection connection) {
+            connection.healthChecks++;
+            return connection.healthy;
+        }
+
+        @Override
+        public void close(FakeConnection connection) {
+            connection.closed = true;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service
+ * File: CrawlSchedulerTest.java
+ * Version: 0.1.0
+ * Turns: 38
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T15:10:00Z
+ * Exports: CrawlSchedulerTest
+ * Description: Tests for CrawlScheduler.merge folding crawl requests into queued jobs.
+ */
+
+package com.picturemodel.service;
+
+import com.picturemodel.domain.entity.CrawlJob;
+import com.picturemodel.domain.enums.HashAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrawlSchedulerTest {
+
+    @Test
+    void startedIncrementalJobDoesNotAbsorbFullCrawl() {
+        CrawlJob job = started(job("photos", true, false));
+
+        assertFalse(CrawlScheduler.merge(job, job("photos/2024", false, false)));
+        assertEquals(0, job.getMergedRequests());
+    }
+
+    @Test
+    void startedJobWithoutExifDoesNotAbsorbExifCrawl() {
+        CrawlJob job = started(job("photos", true, false));
+
+        assertFalse(CrawlScheduler.merge(job, job("photos", true, true)));
+    }
+
+    @Test
+    void startedJobAbsorbsCoveredRequestAndKeepsItsOptions() {
+        CrawlJob job = started(job("photos", false, true));
+        CrawlJob candidate = job("photos/2024", true, false);
+        candidate.setParallelism(8);
+        candidate.setPriority(5);
+
+        assertTrue(CrawlScheduler.merge(job, candidate));
+        assertEquals("photos", job.getRootPath());
+        assertFalse(job.getIsIncremental());
+        assertEquals(1, job.getParallelism());
+        assertEquals(5, job.getPriority());
+        assertEquals(1, job.getMergedRequests());
+    }
+
+    @Test
+    void startedJobDoesNotAbsorbOtherHashAlgorithm() {
+        CrawlJob job = started(job("", false, true));
+        CrawlJob candidate = job("photos", true, false);
+        candidate.setHashAlgorithm(HashAlgorithm.XXH64);
+
+        assertFalse(CrawlScheduler.merge(job, candidate));
+    }
+
+    @Test
+    void queuedJobTakesWiderRootStrongerOptionsAndHigherParallelism() {
+        CrawlJob job = job("photos/2024", true, false);
+        job.setParallelism(2);
+        CrawlJob candidate = job("photos", false, true);
+        candidate.setParallelism(6);
+
+        assertTrue(CrawlScheduler.merge(job, candidate));
+        assertEquals("photos", job.getRootPath());
+        assertFalse(job.getIsIncremental());
+        assertTrue(job.getExtractExif());
+        assertEquals(6, job.getParallelism());
+    }
+
+    @Test
+    void queuedJobRefusesOtherHashAlgorithm() {
+        CrawlJob job = job("photos", false, false);
+        CrawlJob candidate = job("photos", false, false);
+        candidate.setHashAlgorithm(HashAlgorithm.SAMPLED);
+
+        assertFalse(CrawlScheduler.merge(job, candidate));
+        assertEquals(HashAlgorithm.SHA256, job.getHashAlgorithm());
+    }
+
+    @Test
+    void queuedJobRefusesOtherReadMode() {
+        CrawlJob job = job("photos", false, false);
+        CrawlJob candidate = job("photos", false, false);
+        candidate.setSinglePassRead(false);
+
+        assertFalse(CrawlScheduler.merge(job, candidate));
+        assertTrue(job.getSinglePassRead());
+    }
+
+    @Test
+    void unrelatedRootsAreNotMerged() {
+        assertFalse(CrawlScheduler.merge(job("photos", false, false), job("videos", false, false)));
+    }
+
+    private static CrawlJob job(String rootPath, boolean incremental, boolean extractExif) {
+        CrawlJob job = new CrawlJob();
+        job.setRootPath(rootPath);
+        job.setIsIncremental(incremental);
+        job.setExtractExif(extractExif);
+        return job;
+    }
+
+    private static CrawlJob started(CrawlJob job) {
+        job.setLastCheckpoint(LocalDateTime.now());
+        return job;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: CapturingInputStreamTest.java
+ * Version: 0.1.0
+ * Turns: 46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: CapturingInputStreamTest
+ * Description: Tests for CapturingInputStream keeping the bytes another reader consumes.
+ */
+
+package com.picturemodel.service.crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CapturingInputStreamTest {
+
+    @Test
+    void keepsEveryByteReadIncludingSkippedOnes() throws IOException {
+        byte[] file = bytes(200_000);
+        CapturingInputStream stream = new CapturingInputStream(new ByteArrayInputStream(file), file.length);
+
+        assertEquals(file[0] & 0xFF, stream.read());
+        assertEquals(100, stream.skip(100));
+        byte[] buffer = new byte[8192];
+        while (stream.read(buffer, 0, buffer.length) >= 0) {
+            // consume
+        }
+
+        assertArrayEquals(file, stream.content());
+    }
+
+    @Test
+    void trimsCopyOfFileShorterThanListed() throws IOException {
+        byte[] file = bytes(10);
+        CapturingInputStream stream = new CapturingInputStream(new ByteArrayInputStream(file), 16);
+
+        stream.readAllBytes();
+
+        assertArrayEquals(file, stream.content());
+    }
+
+    @Test
+    void dropsCopyOfFileLongerThanListed() throws IOException {
+        CapturingInputStream stream = new CapturingInputStream(new ByteArrayInputStream(bytes(20)), 16);
+
+        stream.readAllBytes();
+
+        assertNull(stream.content());
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+}
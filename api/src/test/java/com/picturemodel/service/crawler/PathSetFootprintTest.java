@@ -0,0 +1,74 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.crawler
+ * File: PathSetFootprintTest.java
+ * Version: 0.1.0
+ * Turns: 35
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T13:30:00Z
+ * Exports: PathSetFootprintTest
+ * Description: Tests for the per-path memory footprint of VisitedPathSet and DrivePathIndex.
+ */
+
+package com.picturemodel.service.crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Holds the two crawl path structures to the per-entry sizes their docs state,
+ * at one million synthetic paths. {@code e2e/PathSetFootprintBenchmark.java}
+ * measures the retained heap against a {@code HashSet<String>}.
+ */
+class PathSetFootprintTest {
+
+    private static final int PATHS = 1_000_000;
+
+    @Test
+    void visitedPathSetHoldsAtMost32BytesPerPath() {
+        VisitedPathSet set = new VisitedPathSet(16);
+        List<String> chunk = new ArrayList<>(1000);
+        for (int i = 0; i < PATHS; i++) {
+            chunk.add(path(i));
+            if (chunk.size() == 1000) {
+                set.addAll(chunk);
+                chunk.clear();
+            }
+        }
+
+        assertEquals(PATHS, set.size());
+        double perPath = (double) set.estimatedBytes() / PATHS;
+        assertTrue(perPath >= 16 && perPath <= 32, "bytes per path: " + perPath);
+        assertTrue(set.contains(path(PATHS - 1)));
+    }
+
+    @Test
+    void presizedDrivePathIndexHoldsAbout90BytesPerImage() {
+        DrivePathIndex index = new DrivePathIndex(PATHS);
+        LocalDateTime modified = LocalDateTime.of(2024, 1, 1, 0, 0);
+        String hash = "ab".repeat(32);
+        for (int i = 0; i < PATHS; i++) {
+            index.add(new UUID(i, i), path(i), i, modified, hash, false, false);
+        }
+
+        assertEquals(PATHS, index.size());
+        double perImage = (double) index.estimatedBytes() / PATHS;
+        assertTrue(perImage <= 100, "bytes per image: " + perImage);
+        assertEquals(hash, index.getHash(index.find(path(PATHS - 1))));
+    }
+
+    /**
+     * Synthetic relative path of a photo, about 50 characters, unique per index.
+     */
+    private static String path(int i) {
+        return String.format("Photos/%04d/%02d/Vacation %05d/IMG_%08d.JPG",
+                2000 + i % 25, 1 + i % 12, i / 1000, i);
+    }
+}
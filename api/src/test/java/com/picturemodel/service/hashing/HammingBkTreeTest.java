@@ -0,0 +1,131 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: HammingBkTreeTest.java
+ * Version: 0.1.0
+ * Turns: 54
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T23:10:00Z
+ * Exports: HammingBkTreeTest
+ * Description: Tests for HammingBkTree search results against a brute-force Hamming scan.
+ */
+
+package com.picturemodel.service.hashing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HammingBkTreeTest {
+
+    private static final int[] DISTANCES = {0, 1, 3, 6, 10, 20, 64};
+
+    @Test
+    void emptyTreeFindsNothing() {
+        HammingBkTree tree = new HammingBkTree(0);
+
+        assertEquals(0, tree.size());
+        assertTrue(tree.search(0L, 64).isEmpty());
+    }
+
+    @Test
+    void matchesBruteForceOverRandomHashes() {
+        Random random = new Random(42);
+        List<Indexed> images = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            images.add(new Indexed(new UUID(i, -i), random.nextLong()));
+        }
+
+        assertSearchesMatchBruteForce(images, random);
+    }
+
+    @Test
+    void matchesBruteForceOverNearDuplicatesAndExactCopies() {
+        Random random = new Random(7);
+        List<Indexed> images = new ArrayList<>();
+        int id = 0;
+        // Clusters of re-encoded copies a few bits apart, plus exact copies sharing a node
+        for (int cluster = 0; cluster < 100; cluster++) {
+            long original = random.nextLong();
+            images.add(new Indexed(new UUID(cluster, id++), original));
+            images.add(new Indexed(new UUID(cluster, id++), original));
+            for (int copy = 0; copy < 20; copy++) {
+                images.add(new Indexed(new UUID(cluster, id++), flipBits(original, random.nextInt(8), random)));
+            }
+        }
+
+        assertSearchesMatchBruteForce(images, random);
+    }
+
+    @Test
+    void reportsEachMatchWithItsHashAndDistance() {
+        HammingBkTree tree = new HammingBkTree(1);
+        UUID exact = UUID.randomUUID();
+        UUID near = UUID.randomUUID();
+        UUID far = UUID.randomUUID();
+        tree.add(exact, 0b1010L);
+        tree.add(near, 0b1011L);
+        tree.add(far, -1L);
+
+        List<HammingBkTree.Match> matches = tree.search(0b1010L, 1);
+
+        assertEquals(Set.of(new HammingBkTree.Match(exact, 0b1010L, 0), new HammingBkTree.Match(near, 0b1011L, 1)),
+                new HashSet<>(matches));
+        assertEquals(2, matches.size());
+        assertEquals(3, tree.size());
+    }
+
+    private static void assertSearchesMatchBruteForce(List<Indexed> images, Random random) {
+        // Pre-sized too small, so the node and entry arrays grow while adding
+        HammingBkTree tree = new HammingBkTree(16);
+        for (Indexed image : images) {
+            tree.add(image.id(), image.hash());
+        }
+        assertEquals(images.size(), tree.size());
+
+        List<Long> queries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            queries.add(images.get(random.nextInt(images.size())).hash());
+            queries.add(flipBits(images.get(random.nextInt(images.size())).hash(), 1 + random.nextInt(5), random));
+            queries.add(random.nextLong());
+        }
+        for (long query : queries) {
+            for (int maxDistance : DISTANCES) {
+                List<HammingBkTree.Match> found = tree.search(query, maxDistance);
+                Set<HammingBkTree.Match> expected = bruteForce(images, query, maxDistance);
+                assertEquals(expected.size(), found.size(), "matches within " + maxDistance);
+                assertEquals(expected, new HashSet<>(found));
+            }
+        }
+    }
+
+    private static Set<HammingBkTree.Match> bruteForce(List<Indexed> images, long query, int maxDistance) {
+        Set<HammingBkTree.Match> matches = new HashSet<>();
+        for (Indexed image : images) {
+            int distance = Long.bitCount(image.hash() ^ query);
+            if (distance <= maxDistance) {
+                matches.add(new HammingBkTree.Match(image.id(), image.hash(), distance));
+            }
+        }
+        return matches;
+    }
+
+    private static long flipBits(long hash, int bits, Random random) {
+        long flipped = hash;
+        for (int i = 0; i < bits; i++) {
+            flipped ^= 1L << random.nextInt(64);
+        }
+        return flipped;
+    }
+
+    private record Indexed(UUID id, long hash) {
+    }
+}
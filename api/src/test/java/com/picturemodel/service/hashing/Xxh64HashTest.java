@@ -0,0 +1,124 @@
+/**
+ * App: Picture Model
+ * Package: com.picturemodel.service.hashing
+ * File: Xxh64HashTest.java
+ * Version: 0.1.0
+ * Turns: 54
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T23:10:00Z
+ * Exports: Xxh64HashTest
+ * Description: Tests for Xxh64Hash against the published seed-0 XXH64 vectors, whole and in pieces.
+ */
+
+package com.picturemodel.service.hashing;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Xxh64HashTest {
+
+    // The xxhsum sanity-check buffer: byte i is the top byte of PRIME32 * PRIME64^i
+    private static final byte[] SANITY_BUFFER = sanityBuffer(256);
+
+    @Test
+    void hashesEmptyInput() {
+        assertEquals(0xEF46DB3751D8E999L, hash(new byte[0]));
+    }
+
+    @Test
+    void hashesInputShorterThanFourBytes() {
+        assertEquals(0xD24EC4F1A98C6E5BL, hash(ascii("a")));
+        assertEquals(0x44BC2CF5AD770999L, hash(ascii("abc")));
+        assertEquals(0xE934A84ADB052768L, hash(sanity(1)));
+    }
+
+    @Test
+    void hashesInputOfFourToThirtyOneBytes() {
+        assertEquals(0x9136A0DCA57457EEL, hash(sanity(4)));
+        assertEquals(0x8282DCC4994E35C8L, hash(sanity(14)));
+    }
+
+    @Test
+    void hashesExactlyOneStripe() {
+        // Not among the published vectors; from the XXH64 specification's algorithm,
+        // implemented separately, which reproduces every published value above
+        assertEquals(0x18B216492BB44B70L, hash(sanity(32)));
+    }
+
+    @Test
+    void hashesInputLongerThanOneStripe() {
+        assertEquals(0xFBCEA83C8A378BF1L, hash(ascii("Nobody inspects the spammish repetition")));
+        assertEquals(0xB641AE8CB691C174L, hash(sanity(222)));
+    }
+
+    @Test
+    void sameHashWhenInputIsSplitAcrossUpdates() {
+        byte[] input = sanity(222);
+        for (int split = 0; split <= input.length; split++) {
+            Xxh64Hash xxh = new Xxh64Hash();
+            xxh.update(input, 0, split);
+            xxh.update(input, split, input.length - split);
+            assertEquals(0xB641AE8CB691C174L, toLong(xxh.finish()), "split at " + split);
+        }
+        for (int chunk : new int[]{1, 3, 7, 8, 31, 32, 33, 100}) {
+            Xxh64Hash xxh = new Xxh64Hash();
+            for (int offset = 0; offset < input.length; offset += chunk) {
+                xxh.update(input, offset, Math.min(chunk, input.length - offset));
+            }
+            assertEquals(0xB641AE8CB691C174L, toLong(xxh.finish()), "chunks of " + chunk);
+        }
+    }
+
+    @Test
+    void updateLongFeedsLittleEndianBytes() {
+        byte[] input = sanity(32);
+        Xxh64Hash xxh = new Xxh64Hash();
+        for (int offset = 0; offset < input.length; offset += 8) {
+            long value = 0;
+            for (int i = 7; i >= 0; i--) {
+                value = value << 8 | (input[offset + i] & 0xFFL);
+            }
+            xxh.updateLong(value);
+        }
+
+        assertEquals(0x18B216492BB44B70L, toLong(xxh.finish()));
+    }
+
+    private static long hash(byte[] input) {
+        Xxh64Hash xxh = new Xxh64Hash();
+        xxh.update(input, 0, input.length);
+        return toLong(xxh.finish());
+    }
+
+    private static long toLong(byte[] digest) {
+        assertEquals(8, digest.length);
+        long value = 0;
+        for (byte b : digest) {
+            value = value << 8 | (b & 0xFFL);
+        }
+        return value;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] sanity(int length) {
+        byte[] input = new byte[length];
+        System.arraycopy(SANITY_BUFFER, 0, input, 0, length);
+        return input;
+    }
+
+    private static byte[] sanityBuffer(int size) {
+        byte[] buffer = new byte[size];
+        long generator = 2654435761L;
+        for (int i = 0; i < size; i++) {
+            buffer[i] = (byte) (generator >>> 56);
+            generator *= 0x9E3779B185EBCA8DL;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 02_crawl_job_parallelism.sql
+ * Version: 0.1.0
+ * Turns: 28
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T09:05:00Z
+ * Exports: crawl_jobs.parallelism
+ * Description: Adds the per-job directory traversal parallelism to crawl jobs.
+ */
+
+BEGIN;
+
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS parallelism INTEGER NOT NULL DEFAULT 1;
+
+COMMIT;
@@ -0,0 +1,17 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 03_crawl_job_bytes_read.sql
+ * Version: 0.1.0
+ * Turns: 32
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T11:50:00Z
+ * Exports: crawl_jobs.bytes_read
+ * Description: Adds the number of file bytes read from the drive during a crawl.
+ */
+
+BEGIN;
+
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS bytes_read BIGINT NOT NULL DEFAULT 0;
+
+COMMIT;
@@ -0,0 +1,21 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 04_hash_algorithm.sql
+ * Version: 0.1.0
+ * Turns: 33
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T12:30:00Z
+ * Exports: images.hash_algorithm, crawl_jobs.hash_algorithm, idx_image_hash_algorithm
+ * Description: Records which algorithm produced each image hash and which one a crawl job uses.
+ */
+
+BEGIN;
+
+ALTER TABLE images ADD COLUMN IF NOT EXISTS hash_algorithm VARCHAR(20) NOT NULL DEFAULT 'SHA256';
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS hash_algorithm VARCHAR(20) NOT NULL DEFAULT 'SHA256';
+
+-- Sampled hashes are picked up by the background backfill.
+CREATE INDEX IF NOT EXISTS idx_image_hash_algorithm ON images (hash_algorithm) WHERE hash_algorithm = 'SAMPLED';
+
+COMMIT;
@@ -0,0 +1,23 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 05_crawl_seen_paths.sql
+ * Version: 0.1.0
+ * Turns: 34
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T13:00:00Z
+ * Exports: crawl_seen_paths
+ * Description: Adds the staging table full crawls stream listed paths into for set-based deletion detection.
+ */
+
+BEGIN;
+
+-- Transient per-job rows, dropped when the crawl finishes, so WAL logging is skipped.
+CREATE UNLOGGED TABLE IF NOT EXISTS crawl_seen_paths (
+    job_id UUID NOT NULL,
+    file_path VARCHAR(2000) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_crawl_seen_paths_job_path ON crawl_seen_paths (job_id, file_path);
+
+COMMIT;
@@ -0,0 +1,28 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 06_crawl_checkpoints.sql
+ * Version: 0.1.0
+ * Turns: 36
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T14:10:00Z
+ * Exports: crawl_frontier, crawl_jobs.extract_exif, crawl_jobs.single_pass_read, crawl_jobs.resume_count, crawl_jobs.last_checkpoint
+ * Description: Adds crawl checkpoints: the directory frontier of each crawl and the job options needed to resume it.
+ */
+
+BEGIN;
+
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS extract_exif BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS single_pass_read BOOLEAN NOT NULL DEFAULT TRUE;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS resume_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS last_checkpoint TIMESTAMP;
+
+-- One row per discovered directory; done once all of its images are written.
+CREATE TABLE IF NOT EXISTS crawl_frontier (
+    job_id UUID NOT NULL REFERENCES crawl_jobs(id) ON DELETE CASCADE,
+    dir_path VARCHAR(2000) NOT NULL,
+    done BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (job_id, dir_path)
+);
+
+COMMIT;
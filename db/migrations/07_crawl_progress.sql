@@ -0,0 +1,26 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 07_crawl_progress.sql
+ * Version: 0.1.0
+ * Turns: 37
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T14:40:00Z
+ * Exports: crawl_jobs.files_scanned, crawl_jobs.estimated_total_files, crawl_jobs.estimated_total_bytes, crawl_jobs.estimate_source, crawl_jobs.files_per_second, crawl_jobs.bytes_per_second, crawl_jobs.estimated_end_time
+ * Description: Adds the estimated crawl size, throughput rates and ETA behind crawl job progress.
+ */
+
+BEGIN;
+
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS files_scanned INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS estimated_total_files BIGINT;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS estimated_total_bytes BIGINT;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS estimate_source VARCHAR(20);
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS files_per_second DOUBLE PRECISION;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS bytes_per_second DOUBLE PRECISION;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS estimated_end_time TIMESTAMP;
+
+-- Previous-crawl lookup for estimates: latest job of a drive root by status.
+CREATE INDEX IF NOT EXISTS idx_crawl_drive_status_end ON crawl_jobs (drive_id, status, end_time DESC);
+
+COMMIT;
@@ -0,0 +1,31 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 08_crawl_scheduler.sql
+ * Version: 0.1.0
+ * Turns: 38
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T15:10:00Z
+ * Exports: crawl_jobs.priority, crawl_jobs.triggered_by, crawl_jobs.queued_at, crawl_jobs.merged_requests, remote_file_drives.crawl_cron, remote_file_drives.crawl_interval_minutes, remote_file_drives.scheduled_crawl_incremental, remote_file_drives.next_scheduled_crawl
+ * Description: Adds the crawl queue's priority and bookkeeping columns and per-drive auto-crawl schedules.
+ */
+
+BEGIN;
+
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS priority INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS triggered_by VARCHAR(20) NOT NULL DEFAULT 'MANUAL';
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS queued_at TIMESTAMP;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS merged_requests INTEGER NOT NULL DEFAULT 0;
+
+-- Jobs queued before this migration keep their place in line.
+UPDATE crawl_jobs SET queued_at = start_time WHERE queued_at IS NULL AND status = 'PENDING';
+
+-- Dispatcher scan: pending jobs in queue order.
+CREATE INDEX IF NOT EXISTS idx_crawl_status_queued ON crawl_jobs (status, queued_at);
+
+ALTER TABLE remote_file_drives ADD COLUMN IF NOT EXISTS crawl_cron VARCHAR(100);
+ALTER TABLE remote_file_drives ADD COLUMN IF NOT EXISTS crawl_interval_minutes INTEGER;
+ALTER TABLE remote_file_drives ADD COLUMN IF NOT EXISTS scheduled_crawl_incremental BOOLEAN NOT NULL DEFAULT TRUE;
+ALTER TABLE remote_file_drives ADD COLUMN IF NOT EXISTS next_scheduled_crawl TIMESTAMP;
+
+COMMIT;
@@ -0,0 +1,31 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 09_directory_manifest.sql
+ * Version: 0.1.0
+ * Turns: 39
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T15:40:00Z
+ * Exports: crawl_directory_manifest, crawl_jobs.directories_listed, crawl_jobs.directories_skipped
+ * Description: Adds the per-directory manifest incremental crawls use to skip unchanged directories, and the job counters for it.
+ */
+
+BEGIN;
+
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS directories_listed INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS directories_skipped INTEGER NOT NULL DEFAULT 0;
+
+-- One row per cleanly indexed directory: its mtime (NULL where directory mtimes
+-- are not trusted, e.g. FTP) and a fingerprint of its listing.
+CREATE TABLE IF NOT EXISTS crawl_directory_manifest (
+    drive_id UUID NOT NULL REFERENCES remote_file_drives(id) ON DELETE CASCADE,
+    dir_path VARCHAR(2000) NOT NULL,
+    mtime_millis BIGINT,
+    fingerprint BIGINT NOT NULL,
+    image_count INTEGER NOT NULL,
+    subdirectory_count INTEGER NOT NULL,
+    verified_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (drive_id, dir_path)
+);
+
+COMMIT;
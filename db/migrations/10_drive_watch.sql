@@ -0,0 +1,17 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 10_drive_watch.sql
+ * Version: 0.1.0
+ * Turns: 40
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T16:10:00Z
+ * Exports: remote_file_drives.watch_changes
+ * Description: Adds the per-drive switch for indexing changes from a drive watch between crawls.
+ */
+
+BEGIN;
+
+ALTER TABLE remote_file_drives ADD COLUMN IF NOT EXISTS watch_changes BOOLEAN NOT NULL DEFAULT FALSE;
+
+COMMIT;
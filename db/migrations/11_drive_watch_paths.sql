@@ -0,0 +1,17 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 11_drive_watch_paths.sql
+ * Version: 0.1.0
+ * Turns: 41
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T16:40:00Z
+ * Exports: remote_file_drives.watch_paths
+ * Description: Adds the directories a drive watch covers, one per line; NULL watches the whole drive.
+ */
+
+BEGIN;
+
+ALTER TABLE remote_file_drives ADD COLUMN IF NOT EXISTS watch_paths VARCHAR(2000);
+
+COMMIT;
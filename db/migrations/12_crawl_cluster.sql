@@ -0,0 +1,47 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 12_crawl_cluster.sql
+ * Version: 0.1.0
+ * Turns: 43
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T17:40:00Z
+ * Exports: crawl_work_items, crawl_job_nodes
+ * Description: Adds the shared directory queue and per-node counters that let several API nodes work on one crawl.
+ */
+
+BEGIN;
+
+-- One row per discovered directory of a cluster crawl. Nodes claim PENDING rows,
+-- or CLAIMED rows whose lease expired, with FOR UPDATE SKIP LOCKED.
+CREATE TABLE IF NOT EXISTS crawl_work_items (
+    job_id UUID NOT NULL REFERENCES crawl_jobs(id) ON DELETE CASCADE,
+    dir_path VARCHAR(2000) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    lease_owner VARCHAR(200),
+    lease_expires_at TIMESTAMP,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (job_id, dir_path)
+);
+
+CREATE INDEX IF NOT EXISTS idx_crawl_work_items_claim ON crawl_work_items (job_id, status, lease_expires_at);
+
+-- One row per node working on a cluster crawl: its share of the job counters,
+-- its heartbeat, and the cancel flag every node polls.
+CREATE TABLE IF NOT EXISTS crawl_job_nodes (
+    job_id UUID NOT NULL REFERENCES crawl_jobs(id) ON DELETE CASCADE,
+    node_id VARCHAR(200) NOT NULL,
+    coordinator BOOLEAN NOT NULL DEFAULT FALSE,
+    files_scanned INTEGER NOT NULL DEFAULT 0,
+    files_processed INTEGER NOT NULL DEFAULT 0,
+    files_added INTEGER NOT NULL DEFAULT 0,
+    files_updated INTEGER NOT NULL DEFAULT 0,
+    directories_listed INTEGER NOT NULL DEFAULT 0,
+    directories_skipped INTEGER NOT NULL DEFAULT 0,
+    bytes_read BIGINT NOT NULL DEFAULT 0,
+    heartbeat_at TIMESTAMP NOT NULL,
+    cancel_requested BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (job_id, node_id)
+);
+
+COMMIT;
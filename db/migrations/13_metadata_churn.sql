@@ -0,0 +1,23 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 13_metadata_churn.sql
+ * Version: 0.1.0
+ * Turns: 44
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T18:10:00Z
+ * Exports: crawl_jobs.metadata_rows_inserted, crawl_jobs.metadata_rows_updated, crawl_jobs.metadata_rows_deleted, crawl_job_nodes.metadata_rows_inserted, crawl_job_nodes.metadata_rows_updated, crawl_job_nodes.metadata_rows_deleted
+ * Description: Adds the counts of EXIF metadata rows each crawl inserted, updated and deleted.
+ */
+
+BEGIN;
+
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS metadata_rows_inserted BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS metadata_rows_updated BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE crawl_jobs ADD COLUMN IF NOT EXISTS metadata_rows_deleted BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE crawl_job_nodes ADD COLUMN IF NOT EXISTS metadata_rows_inserted BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE crawl_job_nodes ADD COLUMN IF NOT EXISTS metadata_rows_updated BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE crawl_job_nodes ADD COLUMN IF NOT EXISTS metadata_rows_deleted BIGINT NOT NULL DEFAULT 0;
+
+COMMIT;
@@ -0,0 +1,51 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 14_image_duplicates.sql
+ * Version: 0.1.0
+ * Turns: 45
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T18:40:00Z
+ * Exports: image_duplicate_groups, image_duplicate_dirty, image_duplicate_state, idx_images_live_hash
+ * Description: Adds the duplicate-group summary over image content hashes and the queue that keeps it current.
+ */
+
+BEGIN;
+
+-- One row per full-content hash shared by two or more live images.
+CREATE TABLE IF NOT EXISTS image_duplicate_groups (
+    hash_algorithm VARCHAR(20) NOT NULL,
+    file_hash VARCHAR(64) NOT NULL,
+    file_size BIGINT NOT NULL,
+    image_count INTEGER NOT NULL,
+    drive_count INTEGER NOT NULL,
+    reclaimable_bytes BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (hash_algorithm, file_hash)
+);
+
+CREATE INDEX IF NOT EXISTS idx_image_duplicate_groups_reclaimable
+    ON image_duplicate_groups (reclaimable_bytes DESC, file_hash);
+
+-- Hashes whose group must be recounted, queued by the writes that changed them
+-- and claimed in batches with FOR UPDATE SKIP LOCKED.
+CREATE TABLE IF NOT EXISTS image_duplicate_dirty (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hash_algorithm VARCHAR(20) NOT NULL,
+    file_hash VARCHAR(64) NOT NULL
+);
+
+-- Single row: when the summary was last rebuilt from scratch (NULL: never).
+CREATE TABLE IF NOT EXISTS image_duplicate_state (
+    id INTEGER PRIMARY KEY,
+    rebuilt_at TIMESTAMP
+);
+
+INSERT INTO image_duplicate_state (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
+
+-- Live hashes with the columns the group aggregate reads, so both rebuilds and
+-- per-hash recounts are index-only scans.
+CREATE INDEX IF NOT EXISTS idx_images_live_hash
+    ON images (file_hash) INCLUDE (hash_algorithm, file_size, drive_id) WHERE deleted = FALSE;
+
+COMMIT;
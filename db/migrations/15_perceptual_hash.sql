@@ -0,0 +1,17 @@
+/*
+ * App: Picture Model
+ * Package: db
+ * File: 15_perceptual_hash.sql
+ * Version: 0.1.0
+ * Turns: 46
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: images.perceptual_hash
+ * Description: Adds the 64-bit perceptual hash behind similar-image search.
+ */
+
+BEGIN;
+
+ALTER TABLE images ADD COLUMN IF NOT EXISTS perceptual_hash BIGINT;
+
+COMMIT;
@@ -0,0 +1,115 @@
+/**
+ * App: Picture Model
+ * Package: e2e
+ * File: PathSetFootprintBenchmark.java
+ * Version: 0.1.0
+ * Turns: 35
+ * Author: Bobwares (bobwares@outlook.com)
+ * Date: 2026-10-16T13:30:00Z
+ * Exports: PathSetFootprintBenchmark
+ * Description: class PathSetFootprintBenchmark for measuring the retained heap of crawl path structures. Methods: main - print heap per structure for each path count; path - synthetic relative path.
+ */
+
+import com.picturemodel.service.crawler.DrivePathIndex;
+import com.picturemodel.service.crawler.VisitedPathSet;
+
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Retained heap of a {@code HashSet<String>}, a {@link VisitedPathSet} and a
+ * {@link DrivePathIndex} holding the same synthetic photo paths (about 50
+ * characters). Not a test; {@code make bench-path-sets} runs it as a
+ * single-file program against the compiled API classes, or directly with
+ * enough heap for the largest count:
+ *
+ * <pre>
+ * java -Xmx4g -cp api/target/classes e2e/PathSetFootprintBenchmark.java 1000000 10000000
+ * </pre>
+ *
+ * <p>Each structure is measured as the used heap after a full GC while it is
+ * reachable minus the same after it is dropped, so the figures include every
+ * object it retains and do not drift with what earlier runs left behind.</p>
+ */
+public final class PathSetFootprintBenchmark {
+
+    private PathSetFootprintBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] counts = args.length == 0 ? new int[] {1_000_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            counts[i] = Integer.parseInt(args[i]);
+        }
+        System.out.printf("JDK %s, max heap %d MB%n", Runtime.version(), Runtime.getRuntime().maxMemory() >> 20);
+        for (int count : counts) {
+            report("HashSet<String>", count, PathSetFootprintBenchmark::hashSet);
+            report("VisitedPathSet", count, PathSetFootprintBenchmark::visitedPathSet);
+            report("DrivePathIndex", count, PathSetFootprintBenchmark::drivePathIndex);
+        }
+    }
+
+    /**
+     * Synthetic relative path of a photo, about 50 characters, unique per index.
+     */
+    private static String path(int i) {
+        return String.format("Photos/%04d/%02d/Vacation %05d/IMG_%08d.JPG",
+                2000 + i % 25, 1 + i % 12, i / 1000, i);
+    }
+
+    private static Set<String> hashSet(int count) {
+        Set<String> set = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            set.add(path(i));
+        }
+        return set;
+    }
+
+    private static VisitedPathSet visitedPathSet(int count) {
+        VisitedPathSet set = new VisitedPathSet(16);
+        List<String> chunk = new ArrayList<>(1000);
+        for (int i = 0; i < count; i++) {
+            chunk.add(path(i));
+            if (chunk.size() == 1000) {
+                set.addAll(chunk);
+                chunk.clear();
+            }
+        }
+        set.addAll(chunk);
+        return set;
+    }
+
+    private static DrivePathIndex drivePathIndex(int count) {
+        DrivePathIndex index = new DrivePathIndex(count);
+        LocalDateTime modified = LocalDateTime.of(2024, 1, 1, 0, 0);
+        String hash = "ab".repeat(32);
+        for (int i = 0; i < count; i++) {
+            index.add(new UUID(i, i), path(i), i, modified, hash, false, false);
+        }
+        return index;
+    }
+
+    private static void report(String name, int count, IntFunction<Object> build) {
+        Object structure = build.apply(count);
+        long with = usedAfterGc();
+        Reference.reachabilityFence(structure);
+        structure = null;
+        long retained = with - usedAfterGc();
+        System.out.printf("%-16s %,12d paths %,8d MB %6.1f bytes/path%n",
+                name, count, retained >> 20, (double) retained / count);
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,99 @@
+#!/usr/bin/env bash
+# App: Picture Model
+# Package: e2e
+# File: smb-listing-benchmark.sh
+# Version: 0.1.0
+# Turns: 52
+# Author: Bobwares (bobwares@outlook.com)
+# Date: 2026-10-16T22:10:00Z
+# Exports: None
+# Description: Benchmark of SMB directory listing against the local Samba container.
+# smb-listing-benchmark.sh - seeds the Samba share, registers it as an SMB drive and
+# times full directory tree listings through the API.
+#
+# Prerequisites: the API running on API_BASE, `make samba-up`, curl and jq.
+set -euo pipefail
+
+API_BASE="${API_BASE:-http://localhost:8080}"
+SHARE_DIR="${SHARE_DIR:-data/samba-bench}"
+SMB_HOST="${SMB_HOST:-localhost}"
+SAMBA_PORT="${SAMBA_PORT:-1445}"
+DIRS="${DIRS:-20}"
+FILES_PER_DIR="${FILES_PER_DIR:-1000}"
+ITERATIONS="${ITERATIONS:-5}"
+KEEP_DRIVE="${KEEP_DRIVE:-false}"
+
+if ! command -v jq >/dev/null 2>&1; then
+  echo "jq is required."
+  exit 1
+fi
+
+# Seed the share once: DIRS directories of FILES_PER_DIR small JPEG files
+expected=$((DIRS * FILES_PER_DIR))
+mkdir -p "${SHARE_DIR}"
+existing=$(find "${SHARE_DIR}" -type f -name '*.jpg' | wc -l | tr -d ' ')
+if [[ "${existing}" -ne "${expected}" ]]; then
+  echo "Seeding ${expected} files in ${SHARE_DIR}..."
+  rm -rf "${SHARE_DIR:?}"/*
+  for ((d = 0; d < DIRS; d++)); do
+    dir=$(printf '%s/dir_%03d' "${SHARE_DIR}" "${d}")
+    mkdir -p "${dir}"
+    for ((f = 0; f < FILES_PER_DIR; f++)); do
+      printf '\xff\xd8\xff\xe0' > "$(printf '%s/img_%05d.jpg' "${dir}" "${f}")"
+    done
+  done
+fi
+
+payload=$(jq -n \
+  --arg url "smb://${SMB_HOST}:${SAMBA_PORT}/photos/" \
+  '{
+    name: "SMB listing benchmark",
+    type: "SMB",
+    connectionUrl: $url,
+    credentials: "{\"username\":\"bench\",\"password\":\"bench\"}",
+    rootPath: "/",
+    autoConnect: false,
+    autoCrawl: false
+  }')
+
+drive_id=$(curl -sS -X POST "${API_BASE}/api/drives" \
+  -H "Content-Type: application/json" \
+  -d "${payload}" | jq -r '.id')
+if [[ -z "${drive_id}" || "${drive_id}" == "null" ]]; then
+  echo "Failed to create the benchmark drive."
+  exit 1
+fi
+
+cleanup() {
+  if [[ "${KEEP_DRIVE}" != "true" ]]; then
+    curl -sS -X POST "${API_BASE}/api/drives/${drive_id}/disconnect" >/dev/null || true
+    curl -sS -X DELETE "${API_BASE}/api/drives/${drive_id}" >/dev/null || true
+  fi
+}
+trap cleanup EXIT
+
+curl -sS -f -X POST "${API_BASE}/api/drives/${drive_id}/connect" >/dev/null
+
+tree_url="${API_BASE}/api/drives/${drive_id}/tree?path=/"
+listed=$(curl -sS -f "${tree_url}" | jq '.totalImageCount')
+echo "Drive ${drive_id}: ${listed} images in ${DIRS} directories (warm-up listing)"
+
+timings=()
+for ((i = 1; i <= ITERATIONS; i++)); do
+  seconds=$(curl -sS -f -o /dev/null -w '%{time_total}' "${tree_url}")
+  ms=$(awk -v s="${seconds}" 'BEGIN { printf "%d", s * 1000 }')
+  timings+=("${ms}")
+  echo "  run ${i}: ${ms} ms"
+done
+
+sorted=($(printf '%s\n' "${timings[@]}" | sort -n))
+median=${sorted[$(((ITERATIONS - 1) / 2))]}
+entries=$((expected + DIRS))
+echo "min ${sorted[0]} ms, median ${median} ms, max ${sorted[$((ITERATIONS - 1))]} ms"
+awk -v n="${entries}" -v ms="${median}" \
+  'BEGIN { if (ms > 0) printf "%.0f entries/s at the median\n", n * 1000 / ms }'
+
+# Server-side provider timings, when the Prometheus endpoint is exposed
+curl -sS "${API_BASE}/actuator/prometheus" 2>/dev/null \
+  | grep -E "^picture_model_provider_calls_seconds_(count|sum).*operation=\"getDirectoryTree\"" \
+  | grep "drive=\"${drive_id}\"" || true
@@ -2,11 +2,11 @@
  * App: Picture Model
  * Package: ui/types
  * File: index.ts
- * Version: 0.1.2
- * Turns: 5,11
+ * Version: 0.1.14
+ * Turns: 5,11,32,33,36,37,38,39,40,41,43,44,45,46
  * Author: Bobwares (bobwares@outlook.com)
- * Date: 2026-02-01T17:00:16Z
- * Exports: DriveType, ConnectionStatus, CrawlStatus, MetadataSource, RemoteFileDrive, CreateDriveRequest, Image, ImageMetadata, Tag, CrawlJob, StartCrawlRequest, SearchRequest, DirectoryTreeNode, SystemStatus
+ * Date: 2026-10-16T19:10:00Z
+ * Exports: DriveType, ConnectionStatus, CrawlStatus, MetadataSource, RemoteFileDrive, CreateDriveRequest, DriveWatchStatus, Image, SimilarImage, SimilarImagesResponse, ImageMetadata, DuplicateGroup, DuplicateGroupDetail, DuplicateStatus, Tag, CrawlJob, CrawlJobNode, StartCrawlRequest, CrawlEstimate, CrawlEstimateSource, CrawlTrigger, SearchRequest, DirectoryTreeNode, SystemStatus
  * Description: Core frontend types aligned with backend DTOs and schemas.
  * index - exports shared type definitions for the UI.
  */
@@ -21,6 +21,10 @@ export type CrawlStatus = 'PENDING' | 'IN_PROGRESS' | 'PAUSED' | 'COMPLETED' | '
 
 export type MetadataSource = 'EXIF' | 'USER_ENTERED' | 'AUTO_GENERATED';
 
+export type HashAlgorithm = 'SHA256' | 'XXH64' | 'SAMPLED';
+export type CrawlEstimateSource = 'PREVIOUS_CRAWL' | 'PRE_SCAN' | 'PRE_SCAN_EXACT';
+export type CrawlTrigger = 'MANUAL' | 'SCHEDULED' | 'WATCH';
+
 export interface RemoteFileDrive {
   id: string;
   name: string;
@@ -30,6 +34,12 @@ export interface RemoteFileDrive {
   status: ConnectionStatus;
   autoConnect: boolean;
   autoCrawl: boolean;
+  crawlCron?: string;
+  crawlIntervalMinutes?: number;
+  scheduledCrawlIncremental: boolean;
+  nextScheduledCrawl?: string;
+  watchChanges: boolean;
+  watchPaths?: string;
   lastConnected?: string;
   lastCrawled?: string;
   imageCount: number;
@@ -45,6 +55,24 @@ export interface CreateDriveRequest {
   credentials?: string;
   autoConnect?: boolean;
   autoCrawl?: boolean;
+  crawlCron?: string;
+  crawlIntervalMinutes?: number;
+  scheduledCrawlIncremental?: boolean;
+  watchChanges?: boolean;
+  watchPaths?: string;
+}
+
+export interface DriveWatchStatus {
+  watching: boolean;
+  paths: string[];
+  since?: string;
+  pending: number;
+  events: number;
+  filesIndexed: number;
+  filesDeleted: number;
+  rescansQueued: number;
+  lastBatch?: string;
+  lastError?: string;
 }
 
 export interface Image {
@@ -56,6 +84,8 @@ export interface Image {
   fullPath: string;
   fileSize: number;
   fileHash: string;
+  hashAlgorithm: HashAlgorithm;
+  perceptualHash?: string; // 64-bit dHash as a decimal string
   mimeType: string;
   width?: number;
   height?: number;
@@ -69,6 +99,44 @@ export interface Image {
   tags?: Tag[];
 }
 
+export interface SimilarImage {
+  image: Image;
+  distance: number;
+}
+
+export interface SimilarImagesResponse {
+  imageId: string;
+  maxDistance: number;
+  content: SimilarImage[];
+  totalMatches: number;
+  indexedImages: number;
+  indexBuiltAt?: string;
+  tookMs: number;
+}
+
+export interface DuplicateGroup {
+  hashAlgorithm: HashAlgorithm;
+  fileHash: string;
+  fileSize: number;
+  imageCount: number;
+  driveCount: number;
+  reclaimableBytes: number;
+}
+
+export interface DuplicateGroupDetail {
+  group: DuplicateGroup;
+  images: Image[];
+}
+
+export interface DuplicateStatus {
+  groups: number;
+  duplicateImages: number;
+  reclaimableBytes: number;
+  pendingChanges: number;
+  rebuiltAt?: string;
+  rebuildRequested: boolean;
+}
+
 export interface ImageMetadata {
   id: string;
   key: string;
@@ -97,18 +165,83 @@ export interface CrawlJob {
   filesAdded: number;
   filesUpdated: number;
   filesDeleted: number;
+  filesScanned: number;
+  estimatedTotalFiles?: number;
+  estimatedTotalBytes?: number;
+  estimateSource?: CrawlEstimateSource;
+  filesPerSecond?: number;
+  bytesPerSecond?: number;
+  estimatedEndTime?: string;
+  etaSeconds?: number;
+  priority: number;
+  triggeredBy: CrawlTrigger;
+  queuedAt?: string;
+  mergedRequests: number;
+  directoriesListed: number;
+  directoriesSkipped: number;
+  metadataRowsInserted: number;
+  metadataRowsUpdated: number;
+  metadataRowsDeleted: number;
   currentPath?: string;
   progressPercentage?: number;
   isIncremental: boolean;
+  parallelism: number;
+  bytesRead: number;
+  hashAlgorithm: HashAlgorithm;
+  extractExif: boolean;
+  singlePassRead: boolean;
+  resumeCount: number;
+  lastCheckpoint?: string;
   errors?: string;
 }
 
+export interface CrawlJobNode {
+  nodeId: string;
+  coordinator: boolean;
+  counters: {
+    filesScanned: number;
+    filesProcessed: number;
+    filesAdded: number;
+    filesUpdated: number;
+    directoriesListed: number;
+    directoriesSkipped: number;
+    bytesRead: number;
+    metadataRowsInserted: number;
+    metadataRowsUpdated: number;
+    metadataRowsDeleted: number;
+  };
+  heartbeatAt: string;
+}
+
 export interface StartCrawlRequest {
   driveId: string;
   rootPath?: string;
   isIncremental?: boolean;
   extractExif?: boolean;
   generateThumbnails?: boolean;
+  parallelism?: number;
+  singlePassRead?: boolean;
+  hashAlgorithm?: HashAlgorithm;
+  priority?: number;
+  dryRun?: boolean;
+}
+
+export interface CrawlEstimate {
+  driveId: string;
+  rootPath: string;
+  estimatedTotalFiles?: number;
+  estimatedTotalBytes?: number;
+  estimateSource?: CrawlEstimateSource;
+  preScanFiles: number;
+  preScanBytes: number;
+  preScanDirectories: number;
+  preScanExact: boolean;
+  preScanMillis: number;
+  previousJobId?: string;
+  previousFiles?: number;
+  filesPerSecond?: number;
+  bytesPerSecond?: number;
+  estimatedDurationSeconds?: number;
 }
 
 export interface SearchRequest {